@@ -486,6 +486,7 @@ public class SiddhiAppRuntime {
                 }
             }
         }
+        inputManager.flush();
 
         for (Table table : tableMap.values()) {
             try {
@@ -605,6 +606,8 @@ public class SiddhiAppRuntime {
         try {
             // first, pause all the event sources
             sourceMap.values().forEach(list -> list.forEach(Source::pause));
+            // send the events held by micro batching input handlers, as they are not part of the snapshot
+            inputManager.flush();
             // take snapshots of execution units
             if (siddhiAppContext.getSiddhiContext().getPersistenceStore() != null) {
                 return PersistenceHelper.persist(siddhiAppContext.getSnapshotService().fullSnapshot(),
@@ -623,6 +626,8 @@ public class SiddhiAppRuntime {
         try {
             // first, pause all the event sources
             sourceMap.values().forEach(list -> list.forEach(Source::pause));
+            // send the events held by micro batching input handlers, as they are not part of the snapshot
+            inputManager.flush();
             // take snapshots of execution units
             return siddhiAppContext.getSnapshotService().fullSnapshot();
         } finally {
@@ -669,6 +674,16 @@ public class SiddhiAppRuntime {
         return revision;
     }
 
+    /**
+     * Check whether states restored with {@code @app:restore(lazy='true')} are yet to be restored on their first
+     * access.
+     *
+     * @return true if a deferred restore is pending
+     */
+    public boolean isRestorePending() {
+        return siddhiAppContext.getSnapshotService().hasPendingRestores();
+    }
+
     public void clearAllRevisions() throws CannotClearSiddhiAppStateException {
         try {
             // first, pause all the event sources
@@ -49,9 +49,16 @@ import io.siddhi.query.api.definition.AggregationDefinition;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.definition.StreamDefinition;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
+import io.siddhi.query.api.execution.query.selection.OutputAttribute;
 import io.siddhi.query.api.expression.AttributeFunction;
 import io.siddhi.query.api.expression.Expression;
+import io.siddhi.query.api.expression.Variable;
+import io.siddhi.query.api.expression.condition.And;
 import io.siddhi.query.api.expression.condition.Compare;
+import io.siddhi.query.api.expression.condition.IsNull;
+import io.siddhi.query.api.expression.condition.Not;
+import io.siddhi.query.api.expression.condition.Or;
+import io.siddhi.query.api.expression.constant.Constant;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -69,8 +76,7 @@ import static io.siddhi.query.api.expression.Expression.Time.normalizeDuration;
 public class AggregationRuntime implements MemoryCalculable {
     private final AggregationDefinition aggregationDefinition;
     private final Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMap;
-    private final Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMapForPartitions;
-    private final List<ExpressionExecutor> baseExecutorsForFind;
+    private final InMemoryRollUp inMemoryRollUp;
     private ExpressionExecutor shouldUpdateTimestamp;
     private final Map<TimePeriod.Duration, Table> aggregationTables;
     private final MetaStreamEvent tableMetaStreamEvent;
@@ -118,13 +124,16 @@ public class AggregationRuntime implements MemoryCalculable {
         this.groupByKeyGeneratorList = groupByKeyGeneratorList;
         this.incrementalDataPurging = incrementalDataPurging;
         this.shardId = shardId;
-        this.incrementalExecutorMapForPartitions = incrementalExecutorMapForPartitions;
         this.shouldUpdateTimestamp = shouldUpdateTimestamp;
         this.aggregateProcessExpressionExecutorsListForFind = aggregateProcessExpressionExecutorsListForFind;
         this.aggregateMetaSteamEvent = new MetaStreamEvent();
         //Without timestamp executor
-        this.baseExecutorsForFind = aggregateProcessExpressionExecutorsListForFind.get(0).subList(1,
+        List<ExpressionExecutor> baseExecutorsForFind = aggregateProcessExpressionExecutorsListForFind.get(0).subList(1,
                 aggregateProcessExpressionExecutorsListForFind.get(0).size());
+        this.inMemoryRollUp = new InMemoryRollUp(incrementalExecutorMapForPartitions != null ?
+                incrementalExecutorMapForPartitions : incrementalExecutorMap, incrementalDurations,
+                baseExecutorsForFind, tableMetaStreamEvent, shouldUpdateTimestamp,
+                groupByKeyGeneratorList.get(0) != null);
         aggregationDefinition.getAttributeList().forEach(aggregateMetaSteamEvent::addOutputData);
     }
 
@@ -216,12 +225,12 @@ public class AggregationRuntime implements MemoryCalculable {
                     lastExecutorsRefreshedTime = System.currentTimeMillis();
                 }
             }
+            incrementalExecutorMap.get(incrementalDurations.get(0)).awaitRollUp();
             return ((IncrementalAggregateCompileCondition) compiledCondition).find(matchingEvent,
                     aggregationDefinition, incrementalExecutorMap, aggregationTables, incrementalDurations,
-                    baseExecutorsForFind, outputExpressionExecutors, siddhiQueryContext,
+                    inMemoryRollUp, outputExpressionExecutors, siddhiQueryContext,
                     aggregateProcessExpressionExecutorsListForFind,
-                    groupByKeyGeneratorList, shouldUpdateTimestamp,
-                    incrementalExecutorMapForPartitions);
+                    groupByKeyGeneratorList, shouldUpdateTimestamp);
         } finally {
             SnapshotService.getSkipStateStorageThreadLocal().set(null);
             if (latencyTrackerFind != null &&
@@ -255,6 +264,11 @@ public class AggregationRuntime implements MemoryCalculable {
                 additionalAttributes);
         MatchingMetaInfoHolder alteredMatchingMetaInfoHolder = null;
 
+        // Conjuncts of the on condition only filtering on group by attributes, rewritten to the table columns, such
+        // that they can be applied while retrieving the aggregates of the tables and the in-memory data
+        Expression groupByFilterExpression = createGroupByFilterExpression(expression, matchingMetaInfoHolder,
+                newMetaStreamEventWithStartEnd.getLastInputDefinition(), tableDefinition);
+
         // Alter meta info holder to contain stream event and aggregate both when it's a store query
         if (matchingMetaInfoHolder.getMetaStateEvent().getMetaStreamEvents().length == 1) {
             matchingMetaInfoHolder = alterMetaInfoHolderForStoreQuery(newMetaStreamEventWithStartEnd,
@@ -311,6 +325,9 @@ public class AggregationRuntime implements MemoryCalculable {
                 timeFilterExpression);
         Expression compareWithEndTime = Compare.compare(timeFilterExpression, Compare.Operator.LESS_THAN, end);
         withinExpression = Expression.and(compareWithStartTime, compareWithEndTime);
+        if (groupByFilterExpression != null) {
+            withinExpression = Expression.and(withinExpression, groupByFilterExpression);
+        }
 
         // Create start and end time expression
         Expression startEndTimeExpression;
@@ -361,6 +378,164 @@ public class AggregationRuntime implements MemoryCalculable {
                 processingOnExternalTime);
     }
 
+    private Expression createGroupByFilterExpression(Expression expression,
+                                                     MatchingMetaInfoHolder matchingMetaInfoHolder,
+                                                     AbstractDefinition streamDefinitionWithStartEnd,
+                                                     AbstractDefinition tableDefinition) {
+        if (expression == null || aggregationDefinition.getSelector() == null) {
+            return null;
+        }
+        // Aggregation attributes selecting group by attributes, mapped to their table columns
+        Map<String, String> groupByColumns = new HashMap<>();
+        List<Variable> groupByVariableList = aggregationDefinition.getSelector().getGroupByList();
+        for (OutputAttribute outputAttribute : aggregationDefinition.getSelector().getSelectionList()) {
+            if (outputAttribute.getExpression() instanceof Variable &&
+                    groupByVariableList.contains(outputAttribute.getExpression())) {
+                groupByColumns.put(outputAttribute.getRename(),
+                        ((Variable) outputAttribute.getExpression()).getAttributeName());
+            }
+        }
+        if (groupByColumns.isEmpty()) {
+            return null;
+        }
+        String aggregationReferenceId = null;
+        for (MetaStreamEvent metaStreamEvent : matchingMetaInfoHolder.getMetaStateEvent().getMetaStreamEvents()) {
+            if (metaStreamEvent.getLastInputDefinition() == aggregationDefinition) {
+                aggregationReferenceId = metaStreamEvent.getInputReferenceId();
+            }
+        }
+        GroupByFilterRewriter rewriter = new GroupByFilterRewriter(groupByColumns, aggregationReferenceId,
+                streamDefinitionWithStartEnd, tableDefinition);
+        List<Expression> conjuncts = new ArrayList<>();
+        collectConjuncts(expression, conjuncts);
+        Expression groupByFilterExpression = null;
+        for (Expression conjunct : conjuncts) {
+            Expression rewrittenConjunct = rewriter.rewrite(conjunct);
+            if (rewrittenConjunct != null && rewriter.isGroupByFiltered()) {
+                groupByFilterExpression = groupByFilterExpression == null ? rewrittenConjunct :
+                        Expression.and(groupByFilterExpression, rewrittenConjunct);
+            }
+        }
+        return groupByFilterExpression;
+    }
+
+    private static void collectConjuncts(Expression expression, List<Expression> conjuncts) {
+        if (expression instanceof And) {
+            collectConjuncts(((And) expression).getLeftExpression(), conjuncts);
+            collectConjuncts(((And) expression).getRightExpression(), conjuncts);
+        } else {
+            conjuncts.add(expression);
+        }
+    }
+
+    /**
+     * Rewrites a condition on the aggregation to a condition on its tables, when the condition only refers to
+     * group by attributes of the aggregation, attributes of the matching stream and constants.
+     */
+    private class GroupByFilterRewriter {
+        private final Map<String, String> groupByColumns;
+        private final String aggregationReferenceId;
+        private final AbstractDefinition streamDefinitionWithStartEnd;
+        private final AbstractDefinition tableDefinition;
+        private boolean groupByFiltered;
+
+        GroupByFilterRewriter(Map<String, String> groupByColumns, String aggregationReferenceId,
+                              AbstractDefinition streamDefinitionWithStartEnd, AbstractDefinition tableDefinition) {
+            this.groupByColumns = groupByColumns;
+            this.aggregationReferenceId = aggregationReferenceId;
+            this.streamDefinitionWithStartEnd = streamDefinitionWithStartEnd;
+            this.tableDefinition = tableDefinition;
+        }
+
+        boolean isGroupByFiltered() {
+            return groupByFiltered;
+        }
+
+        /**
+         * @param expression condition on the aggregation
+         * @return condition on the tables, or null if the condition cannot be applied on the tables
+         */
+        Expression rewrite(Expression expression) {
+            groupByFiltered = false;
+            return rewriteExpression(expression);
+        }
+
+        private Expression rewriteExpression(Expression expression) {
+            if (expression instanceof Constant) {
+                return expression;
+            } else if (expression instanceof Variable) {
+                return rewriteVariable((Variable) expression);
+            } else if (expression instanceof Compare) {
+                Compare compare = (Compare) expression;
+                Expression left = rewriteExpression(compare.getLeftExpression());
+                Expression right = rewriteExpression(compare.getRightExpression());
+                return left == null || right == null ? null : Expression.compare(left, compare.getOperator(), right);
+            } else if (expression instanceof And) {
+                Expression left = rewriteExpression(((And) expression).getLeftExpression());
+                Expression right = rewriteExpression(((And) expression).getRightExpression());
+                return left == null || right == null ? null : Expression.and(left, right);
+            } else if (expression instanceof Or) {
+                Expression left = rewriteExpression(((Or) expression).getLeftExpression());
+                Expression right = rewriteExpression(((Or) expression).getRightExpression());
+                return left == null || right == null ? null : Expression.or(left, right);
+            } else if (expression instanceof Not) {
+                Expression rewritten = rewriteExpression(((Not) expression).getExpression());
+                return rewritten == null ? null : Expression.not(rewritten);
+            } else if (expression instanceof IsNull && ((IsNull) expression).getExpression() != null) {
+                Expression rewritten = rewriteExpression(((IsNull) expression).getExpression());
+                return rewritten == null ? null : Expression.isNull(rewritten);
+            }
+            return null;
+        }
+
+        private Expression rewriteVariable(Variable variable) {
+            if (variable.getStreamIndex() != null || variable.getFunctionId() != null || variable.isInnerStream()) {
+                return null;
+            }
+            String attributeName = variable.getAttributeName();
+            boolean isAggregationAttribute;
+            if (variable.getStreamId() != null) {
+                isAggregationAttribute = variable.getStreamId().equals(aggregationReferenceId) ||
+                        variable.getStreamId().equals(aggregationDefinition.getId());
+            } else {
+                isAggregationAttribute = hasAttribute(aggregationDefinition, attributeName);
+            }
+            if (isAggregationAttribute) {
+                String column = groupByColumns.get(attributeName);
+                if (column == null) {
+                    // Filtering on aggregated values cannot be done before they are aggregated
+                    return null;
+                }
+                groupByFiltered = true;
+                if (hasAttribute(streamDefinitionWithStartEnd, column)) {
+                    return Expression.variable(column).ofStream(tableDefinition.getId());
+                }
+                return Expression.variable(column);
+            }
+            if (!hasAttribute(streamDefinitionWithStartEnd, attributeName)) {
+                return null;
+            }
+            if (!hasAttribute(tableDefinition, attributeName)) {
+                return Expression.variable(attributeName);
+            }
+            if (variable.getStreamId() != null && !variable.getStreamId().equals(
+                    streamDefinitionWithStartEnd.getId())) {
+                // Stream reference id of the matching stream
+                return Expression.variable(attributeName).ofStream(variable.getStreamId());
+            }
+            return null;
+        }
+
+        private boolean hasAttribute(AbstractDefinition definition, String attributeName) {
+            for (Attribute attribute : definition.getAttributeList()) {
+                if (attribute.getName().equals(attributeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     public void startPurging() {
         incrementalDataPurging.executeIncrementalDataPurging();
     }
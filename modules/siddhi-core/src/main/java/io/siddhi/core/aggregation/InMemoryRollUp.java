@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.aggregation;
+
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.stream.MetaStreamEvent;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.query.api.aggregation.TimePeriod;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Materialized roll-up of the in-memory data of the {@link IncrementalExecutor}s, per duration the aggregation is
+ * retrieved for.
+ * <p>
+ * The roll-up of a duration is versioned by the versions of the executors it is built from, and is reused by the
+ * retrievals as long as none of them changed. The roll-up of the executors other than the root executor is kept
+ * separately, as these only change when the executor of a smaller duration emits, hence when the root executor
+ * processes new events only its own in-memory data is aggregated on top of it.
+ */
+public class InMemoryRollUp {
+
+    private final Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMap;
+    private final List<TimePeriod.Duration> incrementalDurations;
+    private final List<ExpressionExecutor> baseExecutorsForFind;
+    private final MetaStreamEvent metaStreamEvent;
+    private final ExpressionExecutor shouldUpdateTimestamp;
+    private final boolean groupBy;
+    private final StreamEventFactory streamEventFactory;
+    private final Map<TimePeriod.Duration, RollUp> rollUps = new HashMap<>();
+
+    public InMemoryRollUp(Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMap,
+                          List<TimePeriod.Duration> incrementalDurations,
+                          List<ExpressionExecutor> baseExecutorsForFind, MetaStreamEvent metaStreamEvent,
+                          ExpressionExecutor shouldUpdateTimestamp, boolean groupBy) {
+        this.incrementalExecutorMap = incrementalExecutorMap;
+        this.incrementalDurations = incrementalDurations;
+        this.baseExecutorsForFind = baseExecutorsForFind;
+        this.metaStreamEvent = metaStreamEvent;
+        this.shouldUpdateTimestamp = shouldUpdateTimestamp;
+        this.groupBy = groupBy;
+        this.streamEventFactory = new StreamEventFactory(metaStreamEvent);
+    }
+
+    /**
+     * Get the in-memory data of all the executors up to the given duration, aggregated to that duration.
+     *
+     * @param durationToAggregate  duration the aggregation is retrieved for
+     * @param oldestEventTimestamp timestamp of the oldest in-memory event
+     * @return aggregated events, which can be consumed by the caller
+     */
+    public synchronized ComplexEventChunk<StreamEvent> aggregateInMemoryData(TimePeriod.Duration durationToAggregate,
+                                                                             long oldestEventTimestamp) {
+        int durationIndex = incrementalDurations.indexOf(durationToAggregate);
+        long[] versions = getVersions(durationIndex);
+        RollUp rollUp = rollUps.get(durationToAggregate);
+        if (rollUp == null || !rollUp.isValid(versions, oldestEventTimestamp, 0)) {
+            Map<String, StreamEvent> upperEvents;
+            if (rollUp != null && rollUp.isValid(versions, oldestEventTimestamp, 1)) {
+                upperEvents = rollUp.upperEvents;
+            } else if (durationIndex == 0) {
+                upperEvents = Collections.emptyMap();
+            } else {
+                IncrementalDataAggregator incrementalDataAggregator = createAggregator(durationToAggregate,
+                        oldestEventTimestamp);
+                for (int k = durationIndex; k >= 1; k--) {
+                    incrementalDataAggregator.aggregateInMemoryData(
+                            incrementalExecutorMap.get(incrementalDurations.get(k)));
+                }
+                upperEvents = incrementalDataAggregator.getAggregatedEvents();
+            }
+            IncrementalDataAggregator incrementalDataAggregator = createAggregator(durationToAggregate,
+                    oldestEventTimestamp);
+            incrementalDataAggregator.aggregateEvents(upperEvents);
+            incrementalDataAggregator.aggregateInMemoryData(incrementalExecutorMap.get(incrementalDurations.get(0)));
+            rollUp = new RollUp(versions, oldestEventTimestamp, upperEvents,
+                    incrementalDataAggregator.getAggregatedEvents());
+            // Events might have been processed while aggregating, where the roll-up cannot be reused as it might
+            // only have seen a part of their changes
+            if (rollUp.isValid(getVersions(durationIndex), oldestEventTimestamp, 0)) {
+                rollUps.put(durationToAggregate, rollUp);
+            } else {
+                rollUps.remove(durationToAggregate);
+            }
+        }
+        ComplexEventChunk<StreamEvent> streamEventChunk = new ComplexEventChunk<>(true);
+        for (StreamEvent aggregatedEvent : rollUp.events.values()) {
+            StreamEvent streamEvent = streamEventFactory.newInstance();
+            streamEvent.setTimestamp(aggregatedEvent.getTimestamp());
+            streamEvent.setOutputData(aggregatedEvent.getOutputData());
+            streamEventChunk.add(streamEvent);
+        }
+        return streamEventChunk;
+    }
+
+    private long[] getVersions(int durationIndex) {
+        long[] versions = new long[durationIndex + 1];
+        for (int k = 0; k <= durationIndex; k++) {
+            versions[k] = incrementalExecutorMap.get(incrementalDurations.get(k)).getVersion();
+        }
+        return versions;
+    }
+
+    private IncrementalDataAggregator createAggregator(TimePeriod.Duration durationToAggregate,
+                                                      long oldestEventTimestamp) {
+        return new IncrementalDataAggregator(incrementalDurations, durationToAggregate, oldestEventTimestamp,
+                baseExecutorsForFind, metaStreamEvent, shouldUpdateTimestamp, groupBy);
+    }
+
+    /**
+     * Roll-up of a duration, where the output data of its events are shared with the retrievals and never changed.
+     */
+    private static class RollUp {
+        private final long[] versions;
+        private final long oldestEventTimestamp;
+        private final Map<String, StreamEvent> upperEvents;
+        private final Map<String, StreamEvent> events;
+
+        RollUp(long[] versions, long oldestEventTimestamp, Map<String, StreamEvent> upperEvents,
+               Map<String, StreamEvent> events) {
+            this.versions = versions;
+            this.oldestEventTimestamp = oldestEventTimestamp;
+            this.upperEvents = upperEvents;
+            this.events = events;
+        }
+
+        /**
+         * @param versions             current versions of the executors
+         * @param oldestEventTimestamp current timestamp of the oldest in-memory event
+         * @param fromIndex            index of the smallest duration whose executor has to be unchanged
+         * @return whether the roll-up reflects the executors from the given index onwards
+         */
+        boolean isValid(long[] versions, long oldestEventTimestamp, int fromIndex) {
+            if (this.oldestEventTimestamp != oldestEventTimestamp) {
+                return false;
+            }
+            for (int k = fromIndex; k < versions.length; k++) {
+                if (this.versions[k] != versions[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import io.siddhi.query.api.aggregation.TimePeriod;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,6 +56,7 @@ public class IncrementalDataAggregator {
     private final long oldestEventTimestamp;
     private ExpressionExecutor shouldUpdateTimestamp;
     private final StreamEventFactory streamEventFactory;
+    private final Set<String> groupByKeys = new HashSet<>();
 
     public IncrementalDataAggregator(List<TimePeriod.Duration> incrementalDurations,
                                      TimePeriod.Duration durationToAggregate, long oldestEventTimestamp,
@@ -79,48 +81,81 @@ public class IncrementalDataAggregator {
     public ComplexEventChunk<StreamEvent> aggregateInMemoryData(
             Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMap) {
         int startIndex = incrementalDurations.indexOf(durationToAggregate);
-        Set<String> groupByKeys = new HashSet<>();
         for (int k = startIndex; k >= 0; k--) {
-            TimePeriod.Duration duration = incrementalDurations.get(k);
-            IncrementalExecutor incrementalExecutor = incrementalExecutorMap.get(duration);
-
-            BaseIncrementalValueStore aBaseIncrementalValueStore = incrementalExecutor.getBaseIncrementalValueStore();
-            Map<String, StreamEvent> groupedByEvents = aBaseIncrementalValueStore.getGroupedByEvents();
-            for (Map.Entry<String, StreamEvent> eventEntry : groupedByEvents.entrySet()) {
-                long startTimeOfAggregates = IncrementalTimeConverterUtil.getStartTimeOfAggregates(
-                        eventEntry.getValue().getTimestamp(), durationToAggregate);
-                String groupByKey = eventEntry.getKey() + "-" + startTimeOfAggregates;
-                synchronized (this) {
-                    groupByKeys.add(groupByKey);
-                    SiddhiAppContext.startGroupByFlow(groupByKey);
-                    ValueState state = (ValueState) valueStateHolder.getState();
-                    try {
-                        boolean shouldUpdate = true;
-                        if (shouldUpdateTimestamp != null) {
-                            shouldUpdate = (boolean) shouldUpdate(
-                                    shouldUpdateTimestamp.execute(eventEntry.getValue()), state);
-                        } else {
-                            state.lastTimestamp = oldestEventTimestamp;
-                        }
-                        // keeping timestamp value location as null
-                        for (int i = 0; i < baseExecutorsForFind.size(); i++) {
-                            if (shouldUpdate) {
-                                ExpressionExecutor expressionExecutor = baseExecutorsForFind.get(i);
-                                state.setValue(expressionExecutor.execute(eventEntry.getValue()), i + 1);
-                            } else {
-                                ExpressionExecutor expressionExecutor = baseExecutorsForFind.get(i);
-                                if (!(expressionExecutor instanceof VariableExpressionExecutor)) {
-                                    state.setValue(expressionExecutor.execute(eventEntry.getValue()), i + 1);
-                                }
-                            }
+            aggregateInMemoryData(incrementalExecutorMap.get(incrementalDurations.get(k)));
+        }
+        ComplexEventChunk<StreamEvent> streamEventChunk = new ComplexEventChunk<>(true);
+        for (StreamEvent streamEvent : getAggregatedEvents().values()) {
+            streamEventChunk.add(streamEvent);
+        }
+        return streamEventChunk;
+    }
+
+    /**
+     * Aggregate the in-memory data of an incremental executor. Executors have to be aggregated from the largest
+     * duration to the smallest, such that the values of the latest events are retained.
+     *
+     * @param incrementalExecutor executor of a duration not larger than the duration to aggregate
+     */
+    public void aggregateInMemoryData(IncrementalExecutor incrementalExecutor) {
+        BaseIncrementalValueStore aBaseIncrementalValueStore = incrementalExecutor.getBaseIncrementalValueStore();
+        Map<String, StreamEvent> groupedByEvents = aBaseIncrementalValueStore.getGroupedByEvents();
+        for (Map.Entry<String, StreamEvent> eventEntry : groupedByEvents.entrySet()) {
+            long startTimeOfAggregates = IncrementalTimeConverterUtil.getStartTimeOfAggregates(
+                    eventEntry.getValue().getTimestamp(), durationToAggregate);
+            aggregate(eventEntry.getKey() + "-" + startTimeOfAggregates, eventEntry.getValue());
+        }
+    }
+
+    /**
+     * Aggregate events previously returned by {@link #getAggregatedEvents()} of an aggregator of the same duration.
+     *
+     * @param aggregatedEvents events mapped by their group by keys
+     */
+    public void aggregateEvents(Map<String, StreamEvent> aggregatedEvents) {
+        for (Map.Entry<String, StreamEvent> eventEntry : aggregatedEvents.entrySet()) {
+            aggregate(eventEntry.getKey(), eventEntry.getValue());
+        }
+    }
+
+    private void aggregate(String groupByKey, StreamEvent streamEvent) {
+        synchronized (this) {
+            groupByKeys.add(groupByKey);
+            SiddhiAppContext.startGroupByFlow(groupByKey);
+            ValueState state = (ValueState) valueStateHolder.getState();
+            try {
+                state.aggregated = true;
+                boolean shouldUpdate = true;
+                if (shouldUpdateTimestamp != null) {
+                    shouldUpdate = (boolean) shouldUpdate(shouldUpdateTimestamp.execute(streamEvent), state);
+                } else {
+                    state.lastTimestamp = oldestEventTimestamp;
+                }
+                // keeping timestamp value location as null
+                for (int i = 0; i < baseExecutorsForFind.size(); i++) {
+                    if (shouldUpdate) {
+                        ExpressionExecutor expressionExecutor = baseExecutorsForFind.get(i);
+                        state.setValue(expressionExecutor.execute(streamEvent), i + 1);
+                    } else {
+                        ExpressionExecutor expressionExecutor = baseExecutorsForFind.get(i);
+                        if (!(expressionExecutor instanceof VariableExpressionExecutor)) {
+                            state.setValue(expressionExecutor.execute(streamEvent), i + 1);
                         }
-                    } finally {
-                        valueStateHolder.returnState(state);
-                        SiddhiAppContext.stopGroupByFlow();
                     }
                 }
+            } finally {
+                valueStateHolder.returnState(state);
+                SiddhiAppContext.stopGroupByFlow();
             }
         }
+    }
+
+    /**
+     * Get the aggregated events and clean the states of the base executors used for aggregation.
+     *
+     * @return aggregated events mapped by their group by keys, which are suffixed by their aggregation start times
+     */
+    public Map<String, StreamEvent> getAggregatedEvents() {
         //clean all executors
         for (String groupByKey : groupByKeys) {
             SiddhiAppContext.startGroupByFlow(groupByKey);
@@ -132,30 +167,28 @@ public class IncrementalDataAggregator {
                 SiddhiAppContext.stopGroupByFlow();
             }
         }
-        return getProcessedEventChunk();
-    }
-
-
-    private ComplexEventChunk<StreamEvent> getProcessedEventChunk() {
-        ComplexEventChunk<StreamEvent> streamEventChunk = new ComplexEventChunk<>(true);
+        groupByKeys.clear();
+        Map<String, StreamEvent> aggregatedEvents = new LinkedHashMap<>();
         Map<String, State> valueStoreMap = this.valueStateHolder.getAllGroupByStates();
         try {
-            for (State aState : valueStoreMap.values()) {
-                ValueState state = (ValueState) aState;
+            for (Map.Entry<String, State> stateEntry : valueStoreMap.entrySet()) {
+                ValueState state = (ValueState) stateEntry.getValue();
+                if (!state.aggregated) {
+                    continue;
+                }
                 StreamEvent streamEvent = streamEventFactory.newInstance();
                 long timestamp = state.lastTimestamp;
                 streamEvent.setTimestamp(timestamp);
                 state.setValue(timestamp, 0);
                 streamEvent.setOutputData(state.values);
-                streamEventChunk.add(streamEvent);
+                aggregatedEvents.put(stateEntry.getKey(), streamEvent);
             }
         } finally {
             this.valueStateHolder.returnGroupByStates(valueStoreMap);
         }
-        return streamEventChunk;
+        return aggregatedEvents;
     }
 
-
     private Object shouldUpdate(Object data, ValueState state) {
         long timestamp = (long) data;
         if (timestamp >= state.lastTimestamp) {
@@ -168,6 +201,7 @@ public class IncrementalDataAggregator {
     class ValueState extends State {
         private Object[] values;
         public long lastTimestamp;
+        private boolean aggregated;
 
         public ValueState() {
             this.lastTimestamp = 0;
@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Incremental executor class which is responsible for performing incremental aggregation.
@@ -62,6 +63,10 @@ public class IncrementalExecutor implements Executor {
     private boolean isRoot;
     private boolean isProcessingExecutor;
     private ExecutorService executorService;
+    private RollUpPipeline rollUpPipeline;
+    private RollUpPipeline.Stage rollUpStage;
+    // Changed whenever the in-memory aggregates change, such that rolled up views of them can be reused
+    private final AtomicLong version = new AtomicLong();
 
     private BaseIncrementalValueStore baseIncrementalValueStore = null;
 
@@ -131,7 +136,11 @@ public class IncrementalExecutor implements Executor {
             timerEvent.setTimestamp(executorState.startTimeOfAggregates);
             ComplexEventChunk<StreamEvent> timerStreamEventChunk = new ComplexEventChunk<>(true);
             timerStreamEventChunk.add(timerEvent);
-            next.execute(timerStreamEventChunk);
+            if (rollUpStage != null) {
+                rollUpStage.submit(() -> next.execute(timerStreamEventChunk));
+            } else {
+                next.execute(timerStreamEventChunk);
+            }
         }
     }
 
@@ -165,16 +174,20 @@ public class IncrementalExecutor implements Executor {
 
     private void processAggregates(StreamEvent streamEvent, ExecutorState executorState) {
         synchronized (this) {
-            if (groupByKeyGenerator != null) {
-                try {
-                    String groupedByKey = groupByKeyGenerator.constructEventKey(streamEvent);
-                    SiddhiAppContext.startGroupByFlow(groupedByKey);
+            try {
+                if (groupByKeyGenerator != null) {
+                    try {
+                        String groupedByKey = groupByKeyGenerator.constructEventKey(streamEvent);
+                        SiddhiAppContext.startGroupByFlow(groupedByKey);
+                        baseIncrementalValueStore.process(streamEvent);
+                    } finally {
+                        SiddhiAppContext.stopGroupByFlow();
+                    }
+                } else {
                     baseIncrementalValueStore.process(streamEvent);
-                } finally {
-                    SiddhiAppContext.stopGroupByFlow();
                 }
-            } else {
-                baseIncrementalValueStore.process(streamEvent);
+            } finally {
+                version.incrementAndGet();
             }
         }
     }
@@ -199,7 +212,9 @@ public class IncrementalExecutor implements Executor {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Event dispatched by " + this.duration + " incremental executor: " + eventChunk.toString());
             }
-            if (isProcessingExecutor) {
+            if (isProcessingExecutor && rollUpStage != null) {
+                rollUpStage.submit(() -> table.addEvents(tableEventChunk, streamEventMap.size()));
+            } else if (isProcessingExecutor) {
                 executorService.execute(() -> {
                             try {
                                 table.addEvents(tableEventChunk, streamEventMap.size());
@@ -213,7 +228,11 @@ public class IncrementalExecutor implements Executor {
                     );
             }
             if (getNextExecutor() != null) {
-                next.execute(eventChunk);
+                if (rollUpStage != null) {
+                    rollUpStage.submit(() -> next.execute(eventChunk));
+                } else {
+                    next.execute(eventChunk);
+                }
             }
         }
         cleanBaseIncrementalValueStore(startTimeOfNewAggregates, aBaseIncrementalValueStore);
@@ -225,12 +244,41 @@ public class IncrementalExecutor implements Executor {
         for (ExpressionExecutor expressionExecutor : baseIncrementalValueStore.getExpressionExecutors()) {
             expressionExecutor.execute(resetEvent);
         }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Hand over the emission of aggregates to the next executor and the table writes to a stage of the given
+     * pipeline, instead of performing them on the event thread.
+     *
+     * @param rollUpPipeline roll-up pipeline of the aggregation
+     */
+    public void setRollUpPipeline(RollUpPipeline rollUpPipeline) {
+        this.rollUpPipeline = rollUpPipeline;
+        this.rollUpStage = rollUpPipeline.createStage(duration.toString());
+    }
+
+    /**
+     * Wait till the aggregates handed over to the roll-up pipeline, if any, have reached the executors and tables
+     * of all the durations.
+     */
+    public void awaitRollUp() {
+        if (rollUpPipeline != null) {
+            rollUpPipeline.awaitIdle();
+        }
     }
 
     BaseIncrementalValueStore getBaseIncrementalValueStore() {
         return baseIncrementalValueStore;
     }
 
+    /**
+     * @return version of the in-memory aggregates, which changes whenever they are updated, cleared or restored
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     public long getAggregationStartTimestamp() {
         ExecutorState state = stateHolder.getState();
         try {
@@ -283,6 +331,8 @@ public class IncrementalExecutor implements Executor {
 
         @Override
         public Map<String, Object> snapshot() {
+            // Aggregates in flight between the durations are not part of any state
+            awaitRollUp();
             Map<String, Object> state = new HashMap<>();
             state.put("NextEmitTime", nextEmitTime);
             state.put("StartTimeOfAggregates", startTimeOfAggregates);
@@ -295,6 +345,7 @@ public class IncrementalExecutor implements Executor {
             nextEmitTime = (long) state.get("NextEmitTime");
             startTimeOfAggregates = (long) state.get("StartTimeOfAggregates");
             timerStarted = (boolean) state.get("TimerStarted");
+            version.incrementAndGet();
         }
 
         public void setCanDestroy(boolean canDestroy) {
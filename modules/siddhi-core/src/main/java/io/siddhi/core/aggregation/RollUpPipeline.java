@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.aggregation;
+
+import io.siddhi.core.util.extension.holder.ExternalReferencedHolder;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pipelines the roll-up of an incremental aggregation across its durations. Each {@link IncrementalExecutor} hands
+ * over the aggregates it emits at the end of a bucket, and the corresponding table writes, to its own {@link Stage},
+ * where a dedicated worker processes them in the order they were handed over. Hence the ordering per duration is
+ * preserved, while the event thread is only held back when the bounded queue of a stage is full.
+ * Until the Siddhi app is started and after it is stopped, the roll-up work is done on the calling thread.
+ */
+public class RollUpPipeline implements ExternalReferencedHolder {
+
+    private static final Logger LOG = Logger.getLogger(RollUpPipeline.class);
+
+    private final String aggregatorName;
+    private final String siddhiAppName;
+    private final int bufferSize;
+    private final ExecutorService executorService;
+    private final List<Stage> stages = new ArrayList<>();
+
+    public RollUpPipeline(String aggregatorName, String siddhiAppName, int bufferSize,
+                          ExecutorService executorService) {
+        this.aggregatorName = aggregatorName;
+        this.siddhiAppName = siddhiAppName;
+        this.bufferSize = bufferSize;
+        this.executorService = executorService;
+    }
+
+    /**
+     * Create the stage of a duration. Stages must be created from the root duration onwards.
+     *
+     * @param name name of the duration, used for logging
+     * @return the stage
+     */
+    public Stage createStage(String name) {
+        Stage stage = new Stage(name);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Wait till all the roll-up work handed over to the pipeline so far is done. Stages are awaited from the root
+     * duration onwards, as the work of a stage hands over work to the stage of the next duration.
+     */
+    public void awaitIdle() {
+        for (Stage stage : stages) {
+            stage.awaitIdle();
+        }
+    }
+
+    @Override
+    public void start() {
+        for (Stage stage : stages) {
+            stage.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        for (Stage stage : stages) {
+            stage.stop();
+        }
+    }
+
+    /**
+     * Bounded queue of the roll-up work of a duration, and its worker. The queue, the running state, the thread
+     * executing the work and the count of pending work are guarded by the same lock. The work is done by one thread
+     * at a time in the order it was handed over, by the worker while the stage is running and by the handing over
+     * and stopping threads otherwise.
+     */
+    public class Stage implements Runnable {
+
+        private final String name;
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private final Object lock = new Object();
+        private int pendingTasks = 0;
+        private boolean running = false;
+        private Thread executingThread;
+
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        private void start() {
+            synchronized (lock) {
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            try {
+                executorService.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    running = false;
+                }
+                LOG.warn("Roll-up of aggregation '" + aggregatorName + "' of siddhi app '" + siddhiAppName +
+                        "' for duration '" + name + "' is done on the event thread, as the worker could not be " +
+                        "started.", e);
+                drain();
+            }
+        }
+
+        /**
+         * Stop the worker and complete the work handed over so far on the calling thread.
+         */
+        private void stop() {
+            synchronized (lock) {
+                running = false;
+                lock.notifyAll();
+            }
+            drain();
+        }
+
+        /**
+         * Hand over roll-up work to the worker of the stage, blocking while the queue is full. The work is done on
+         * the calling thread when the worker is not running.
+         *
+         * @param task roll-up work
+         */
+        public void submit(Runnable task) {
+            synchronized (lock) {
+                while (running && queue.size() >= bufferSize && Thread.currentThread() != executingThread) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                pendingTasks++;
+                queue.add(task);
+                lock.notifyAll();
+                if (running) {
+                    return;
+                }
+            }
+            drain();
+        }
+
+        /**
+         * Do the queued work on the calling thread, after the work being done by other threads.
+         */
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (lock) {
+                    if (Thread.currentThread() == executingThread) {
+                        // The work is handed over while doing the work of this stage, which will do it next
+                        return;
+                    }
+                    while (executingThread != null) {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (running) {
+                        // The stage is restarted, and its worker does the queued work
+                        return;
+                    }
+                    task = queue.poll();
+                    if (task == null) {
+                        return;
+                    }
+                    executingThread = Thread.currentThread();
+                }
+                execute(task);
+            }
+        }
+
+        private void awaitIdle() {
+            synchronized (lock) {
+                if (Thread.currentThread() == executingThread) {
+                    return;
+                }
+                while (pendingTasks > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Runnable task;
+                    synchronized (lock) {
+                        while (running && (queue.isEmpty() || executingThread != null)) {
+                            lock.wait();
+                        }
+                        if (!running) {
+                            // The remaining work is done by stop()
+                            return;
+                        }
+                        task = queue.poll();
+                        executingThread = Thread.currentThread();
+                        // Wake the threads waiting for space in the queue
+                        lock.notifyAll();
+                    }
+                    execute(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                synchronized (lock) {
+                    running = false;
+                    lock.notifyAll();
+                }
+                drain();
+            }
+        }
+
+        private void execute(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOG.error("Exception occurred at siddhi app '" + siddhiAppName + "' when rolling up the " +
+                        "aggregates of aggregation '" + aggregatorName + "' for duration '" + name + "'. This " +
+                        "should be investigated as this can cause accuracy loss.", t);
+            } finally {
+                synchronized (lock) {
+                    pendingTasks--;
+                    executingThread = null;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -19,7 +19,9 @@
 package io.siddhi.core.config;
 
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.dsl.ProducerType;
 import io.siddhi.core.function.Script;
+import io.siddhi.core.stream.StreamJunction;
 import io.siddhi.core.util.IdGenerator;
 import io.siddhi.core.util.Scheduler;
 import io.siddhi.core.util.SiddhiConstants;
@@ -31,6 +33,7 @@ import io.siddhi.core.util.snapshot.state.SingleStateHolder;
 import io.siddhi.core.util.snapshot.state.SingleSyncStateHolder;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.snapshot.state.StateHolder;
+import io.siddhi.core.util.statistics.EventTraceTracker;
 import io.siddhi.core.util.statistics.StatisticsManager;
 import io.siddhi.core.util.statistics.metrics.Level;
 import io.siddhi.core.util.timestamp.TimestampGenerator;
@@ -55,8 +58,16 @@ public class SiddhiAppContext {
     private String name;
     private boolean playback;
     private boolean enforceOrder;
+    private int eventPoolSize = 0;
+    private boolean eventPoolLeakDetection;
+    private boolean parallelRestore = true;
+    private boolean lazyRestore = false;
+    private boolean shareWindows = false;
+    private StreamJunction.WaitStrategyType asyncWaitStrategy;
+    private ProducerType asyncProducerType;
     private Level rootMetricsLevel;
     private StatisticsManager statisticsManager = null;
+    private EventTraceTracker eventTraceTracker = null;
 
     private ExecutorService executorService;
     private ScheduledExecutorService scheduledExecutorService;
@@ -136,6 +147,88 @@ public class SiddhiAppContext {
         this.playback = playback;
     }
 
+    /**
+     * Get the maximum number of reusable events pooled per thread for each stateless query.
+     *
+     * @return pool size, or 0 if event pooling is disabled
+     */
+    public int getEventPoolSize() {
+        return eventPoolSize;
+    }
+
+    public void setEventPoolSize(int eventPoolSize) {
+        this.eventPoolSize = eventPoolSize;
+    }
+
+    public boolean isEventPoolLeakDetection() {
+        return eventPoolLeakDetection;
+    }
+
+    public void setEventPoolLeakDetection(boolean eventPoolLeakDetection) {
+        this.eventPoolLeakDetection = eventPoolLeakDetection;
+    }
+
+    /**
+     * Whether the states of different elements are restored concurrently.
+     *
+     * @return true if states are restored in parallel
+     */
+    public boolean isParallelRestore() {
+        return parallelRestore;
+    }
+
+    public void setParallelRestore(boolean parallelRestore) {
+        this.parallelRestore = parallelRestore;
+    }
+
+    /**
+     * Whether states kept in event holders, such as the ones of tables and windows, are restored on their first
+     * access instead of during the restore call.
+     *
+     * @return true if such states are restored lazily
+     */
+    public boolean isLazyRestore() {
+        return lazyRestore;
+    }
+
+    public void setLazyRestore(boolean lazyRestore) {
+        this.lazyRestore = lazyRestore;
+    }
+
+    /**
+     * Get the wait strategy used by async stream junctions that do not define their own.
+     *
+     * @return wait strategy, or null to use the default blocking wait strategy
+     */
+    public StreamJunction.WaitStrategyType getAsyncWaitStrategy() {
+        return asyncWaitStrategy;
+    }
+
+    public void setAsyncWaitStrategy(StreamJunction.WaitStrategyType asyncWaitStrategy) {
+        this.asyncWaitStrategy = asyncWaitStrategy;
+    }
+
+    /**
+     * Get the producer type used by async stream junctions that do not define their own.
+     *
+     * @return producer type, or null to use the default multi producer type
+     */
+    public ProducerType getAsyncProducerType() {
+        return asyncProducerType;
+    }
+
+    public void setAsyncProducerType(ProducerType asyncProducerType) {
+        this.asyncProducerType = asyncProducerType;
+    }
+
+    public boolean isShareWindows() {
+        return shareWindows;
+    }
+
+    public void setShareWindows(boolean shareWindows) {
+        this.shareWindows = shareWindows;
+    }
+
     public boolean isEnforceOrder() {
         return enforceOrder;
     }
@@ -160,6 +253,14 @@ public class SiddhiAppContext {
         this.statisticsManager = statisticsManager;
     }
 
+    public EventTraceTracker getEventTraceTracker() {
+        return eventTraceTracker;
+    }
+
+    public void setEventTraceTracker(EventTraceTracker eventTraceTracker) {
+        this.eventTraceTracker = eventTraceTracker;
+    }
+
     public ScheduledExecutorService getScheduledExecutorService() {
         return scheduledExecutorService;
     }
@@ -18,6 +18,7 @@
 
 package io.siddhi.core.config;
 
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
 import io.siddhi.core.util.IdGenerator;
 import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.snapshot.SnapshotService;
@@ -29,6 +30,7 @@ import io.siddhi.core.util.snapshot.state.SingleSyncStateHolder;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.snapshot.state.StateHolder;
 import io.siddhi.core.util.statistics.LatencyTracker;
+import io.siddhi.core.window.SharedWindowRuntime;
 import io.siddhi.query.api.SiddhiApp;
 import io.siddhi.query.api.execution.query.output.stream.OutputStream;
 
@@ -47,6 +49,8 @@ public class SiddhiQueryContext {
     private LatencyTracker latencyTracker;
     private Map<String, StateHolder> stateHolderMap;
     private IdGenerator idGenerator;
+    private AggregatorSlicer aggregatorSlicer;
+    private SharedWindowRuntime sharedWindowRuntime;
 
     public SiddhiQueryContext(SiddhiAppContext siddhiAppContext, String queryName) {
         this(siddhiAppContext, queryName, SiddhiConstants.PARTITION_ID_DEFAULT);
@@ -103,6 +107,22 @@ public class SiddhiQueryContext {
         partitioned = partitionable;
     }
 
+    public AggregatorSlicer getAggregatorSlicer() {
+        return aggregatorSlicer;
+    }
+
+    public void setAggregatorSlicer(AggregatorSlicer aggregatorSlicer) {
+        this.aggregatorSlicer = aggregatorSlicer;
+    }
+
+    public SharedWindowRuntime getSharedWindowRuntime() {
+        return sharedWindowRuntime;
+    }
+
+    public void setSharedWindowRuntime(SharedWindowRuntime sharedWindowRuntime) {
+        this.sharedWindowRuntime = sharedWindowRuntime;
+    }
+
     public String generateNewId() {
         return idGenerator.createNewId();
     }
@@ -18,6 +18,7 @@
 package io.siddhi.core.event;
 
 import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.util.statistics.EventTrace;
 
 import java.util.Arrays;
 
@@ -29,6 +30,7 @@ public class Event {
     protected long timestamp = -1;
     protected Object[] data;
     protected boolean isExpired = false;
+    protected EventTrace trace;
 
     public Event(long timestamp, Object[] data) {
         this.timestamp = timestamp;
@@ -67,6 +69,17 @@ public class Event {
         return isExpired;
     }
 
+    /**
+     * @return trace of the event if it is sampled for tracing, or null otherwise
+     */
+    public EventTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(EventTrace trace) {
+        this.trace = trace;
+    }
+
     @Override
     public String toString() {
         return "Event{" +
@@ -84,6 +97,7 @@ public class Event {
         timestamp = event.timestamp;
         System.arraycopy(event.data, 0, data, 0, data.length);
         isExpired = event.isExpired;
+        trace = event.trace;
         return this;
     }
 
@@ -91,6 +105,7 @@ public class Event {
         timestamp = complexEvent.getTimestamp();
         System.arraycopy(complexEvent.getOutputData(), 0, data, 0, data.length);
         isExpired = complexEvent.getType() == StreamEvent.Type.EXPIRED;
+        trace = complexEvent instanceof StreamEvent ? ((StreamEvent) complexEvent).getTrace() : null;
         return this;
     }
 
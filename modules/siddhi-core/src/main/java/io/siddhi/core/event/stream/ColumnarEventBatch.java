@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.event.stream;
+
+import io.siddhi.core.event.Event;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.List;
+
+/**
+ * Column oriented view of a batch of {@link Event}s. Attributes are unboxed lazily into one primitive array per
+ * attribute, INT and LONG attributes as long[], FLOAT and DOUBLE attributes as double[] and BOOL attributes as
+ * boolean[], together with a validity bitmap marking the rows where the attribute is not null. Other attribute
+ * types are kept as Object[].
+ */
+public class ColumnarEventBatch {
+
+    private final Event[] events;
+    private final int size;
+    private final List<Attribute> attributeList;
+    private final Object[] columns;
+    private final long[][] validities;
+
+    public ColumnarEventBatch(Event[] events, List<Attribute> attributeList) {
+        this.events = events;
+        this.size = events.length;
+        this.attributeList = attributeList;
+        this.columns = new Object[attributeList.size()];
+        this.validities = new long[attributeList.size()][];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Event getEvent(int row) {
+        return events[row];
+    }
+
+    public Attribute.Type getType(int position) {
+        return attributeList.get(position).getType();
+    }
+
+    /**
+     * Get the values of an INT or LONG attribute.
+     *
+     * @param position position of the attribute in the stream definition
+     * @return values, where null values are represented as 0
+     */
+    public long[] getLongColumn(int position) {
+        long[] column = (long[]) columns[position];
+        if (column == null) {
+            column = new long[size];
+            long[] validity = new long[(size + 63) >>> 6];
+            for (int i = 0; i < size; i++) {
+                Object value = events[i].getData(position);
+                if (value != null) {
+                    column[i] = ((Number) value).longValue();
+                    validity[i >>> 6] |= 1L << i;
+                }
+            }
+            columns[position] = column;
+            validities[position] = validity;
+        }
+        return column;
+    }
+
+    /**
+     * Get the values of a FLOAT or DOUBLE attribute.
+     *
+     * @param position position of the attribute in the stream definition
+     * @return values, where null values are represented as 0
+     */
+    public double[] getDoubleColumn(int position) {
+        double[] column = (double[]) columns[position];
+        if (column == null) {
+            column = new double[size];
+            long[] validity = new long[(size + 63) >>> 6];
+            for (int i = 0; i < size; i++) {
+                Object value = events[i].getData(position);
+                if (value != null) {
+                    column[i] = ((Number) value).doubleValue();
+                    validity[i >>> 6] |= 1L << i;
+                }
+            }
+            columns[position] = column;
+            validities[position] = validity;
+        }
+        return column;
+    }
+
+    /**
+     * Get the values of a BOOL attribute.
+     *
+     * @param position position of the attribute in the stream definition
+     * @return values, where null values are represented as false
+     */
+    public boolean[] getBoolColumn(int position) {
+        boolean[] column = (boolean[]) columns[position];
+        if (column == null) {
+            column = new boolean[size];
+            long[] validity = new long[(size + 63) >>> 6];
+            for (int i = 0; i < size; i++) {
+                Object value = events[i].getData(position);
+                if (value != null) {
+                    column[i] = (Boolean) value;
+                    validity[i >>> 6] |= 1L << i;
+                }
+            }
+            columns[position] = column;
+            validities[position] = validity;
+        }
+        return column;
+    }
+
+    /**
+     * Get the values of an attribute of any other type.
+     *
+     * @param position position of the attribute in the stream definition
+     * @return values
+     */
+    public Object[] getObjectColumn(int position) {
+        Object[] column = (Object[]) columns[position];
+        if (column == null) {
+            column = new Object[size];
+            long[] validity = new long[(size + 63) >>> 6];
+            for (int i = 0; i < size; i++) {
+                Object value = events[i].getData(position);
+                if (value != null) {
+                    column[i] = value;
+                    validity[i >>> 6] |= 1L << i;
+                }
+            }
+            columns[position] = column;
+            validities[position] = validity;
+        }
+        return column;
+    }
+
+    /**
+     * Get the validity bitmap of an attribute, which is available once its column is loaded.
+     *
+     * @param position position of the attribute in the stream definition
+     * @return bitmap where the bit of a row is set when the attribute is not null
+     */
+    public long[] getValidity(int position) {
+        return validities[position];
+    }
+
+    /**
+     * Clear the results of the rows where the attribute is null, as comparisons with null are false.
+     *
+     * @param position position of the attribute in the stream definition
+     * @param result   per row results
+     */
+    public void applyValidity(int position, boolean[] result) {
+        long[] validity = validities[position];
+        for (int i = 0; i < size; i++) {
+            result[i] &= (validity[i >>> 6] & (1L << i)) != 0;
+        }
+    }
+}
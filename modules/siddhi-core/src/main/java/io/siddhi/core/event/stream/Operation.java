@@ -46,6 +46,8 @@ public class Operation implements Serializable {
         CLEAR,
         OVERWRITE,
         DELETE_BY_OPERATOR,
-        DELETE_BY_INDEX
+        DELETE_BY_INDEX,
+        DELETE_BY_KEY,
+        UPDATE_BY_KEY
     }
 }
@@ -18,6 +18,7 @@
 package io.siddhi.core.event.stream;
 
 import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.util.statistics.EventTrace;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -43,6 +44,7 @@ public class StreamEvent implements ComplexEvent {
     private Object[] beforeWindowData;          //Attributes before window execution
     private Object[] onAfterWindowData;         //Attributes on and after window execution
     private StreamEvent next;
+    private transient EventTrace trace;
 
     public StreamEvent(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize) {
         if (beforeWindowDataSize > 0) {
@@ -108,6 +110,17 @@ public class StreamEvent implements ComplexEvent {
         this.type = type;
     }
 
+    /**
+     * @return trace of the event if it is sampled for tracing, or null otherwise
+     */
+    public EventTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(EventTrace trace) {
+        this.trace = trace;
+    }
+
     public StreamEvent getNext() {
         return next;
     }
@@ -116,6 +129,25 @@ public class StreamEvent implements ComplexEvent {
         this.next = (StreamEvent) next;
     }
 
+    /**
+     * Clear the event such that it can be reused.
+     */
+    public void reset() {
+        if (beforeWindowData != null) {
+            Arrays.fill(beforeWindowData, null);
+        }
+        if (onAfterWindowData != null) {
+            Arrays.fill(onAfterWindowData, null);
+        }
+        if (outputData != null) {
+            Arrays.fill(outputData, null);
+        }
+        timestamp = -1;
+        type = Type.CURRENT;
+        next = null;
+        trace = null;
+    }
+
     /**
      * @param position int array of 4 elements
      *                 position[0] and position[1] are discarded
@@ -60,6 +60,7 @@ public class StreamEventCloner {
         }
         newEvent.setType(streamEvent.getType());
         newEvent.setTimestamp(streamEvent.getTimestamp());
+        newEvent.setTrace(streamEvent.getTrace());
         return newEvent;
     }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.event.stream;
+
+import io.siddhi.core.util.extension.holder.ExternalReferencedHolder;
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of reusable {@link StreamEvent}s created by a {@link StreamEventFactory}. Each thread has its own free list,
+ * and the events borrowed by a thread are tracked on a stack such that all the events borrowed after a mark can be
+ * returned at once, when the event chunk they belong to is fully consumed.
+ * <p>
+ * When leak detection is enabled, double returns are reported, and the events that are still borrowed when the
+ * Siddhi app is shutdown are reported as leaked.
+ * <p>
+ * The free lists of all threads are cleared when the Siddhi app is shutdown, as the thread locals of long living
+ * threads, such as the threads of sources, are not removed with the app. Events are no longer pooled afterwards.
+ */
+public class StreamEventPool implements ExternalReferencedHolder {
+
+    private static final Logger log = Logger.getLogger(StreamEventPool.class);
+
+    private final StreamEventFactory streamEventFactory;
+    private final int maxPoolSize;
+    private final boolean leakDetection;
+    private final String name;
+    private final ThreadLocal<PoolState> poolState;
+    private final Map<Thread, PoolState> poolStates = Collections.synchronizedMap(new WeakHashMap<>());
+    private final AtomicLong outstandingEvents = new AtomicLong();
+    private volatile boolean stopped = false;
+
+    public StreamEventPool(StreamEventFactory streamEventFactory, int maxPoolSize, boolean leakDetection,
+                           String name) {
+        this.streamEventFactory = streamEventFactory;
+        this.maxPoolSize = maxPoolSize;
+        this.leakDetection = leakDetection;
+        this.name = name;
+        this.poolState = ThreadLocal.withInitial(() -> {
+            PoolState state = new PoolState();
+            poolStates.put(Thread.currentThread(), state);
+            return state;
+        });
+    }
+
+    /**
+     * Get the position of the borrowed events stack of the current thread, to be used with {@link #returnTo(int)}.
+     *
+     * @return current mark
+     */
+    public int mark() {
+        if (stopped) {
+            return 0;
+        }
+        PoolState state = poolState.get();
+        synchronized (state) {
+            return state.borrowedSize;
+        }
+    }
+
+    /**
+     * Borrow an event, reusing a returned event when available.
+     *
+     * @return an empty StreamEvent
+     */
+    public StreamEvent borrow() {
+        if (stopped) {
+            return streamEventFactory.newInstance();
+        }
+        PoolState state = poolState.get();
+        // the lock is only contended when the app is stopped, it keeps the free list intact while being cleared
+        synchronized (state) {
+            if (stopped) {
+                return streamEventFactory.newInstance();
+            }
+            StreamEvent streamEvent;
+            if (state.freeSize > 0) {
+                streamEvent = state.free[--state.freeSize];
+                state.free[state.freeSize] = null;
+            } else {
+                streamEvent = streamEventFactory.newInstance();
+            }
+            if (state.borrowedSize == state.borrowed.length) {
+                StreamEvent[] borrowed = new StreamEvent[state.borrowed.length * 2];
+                System.arraycopy(state.borrowed, 0, borrowed, 0, state.borrowedSize);
+                state.borrowed = borrowed;
+            }
+            state.borrowed[state.borrowedSize++] = streamEvent;
+            if (leakDetection) {
+                outstandingEvents.incrementAndGet();
+            }
+            return streamEvent;
+        }
+    }
+
+    /**
+     * Return all the events borrowed by the current thread after the given mark.
+     *
+     * @param mark mark obtained before borrowing the events
+     */
+    public void returnTo(int mark) {
+        if (stopped) {
+            return;
+        }
+        PoolState state = poolState.get();
+        synchronized (state) {
+            for (int i = state.borrowedSize - 1; i >= mark; i--) {
+                StreamEvent streamEvent = state.borrowed[i];
+                state.borrowed[i] = null;
+                if (leakDetection) {
+                    outstandingEvents.decrementAndGet();
+                    if (isFree(state, streamEvent)) {
+                        log.error("StreamEvent returned twice to the event pool of '" + name + "': " +
+                                streamEvent);
+                        continue;
+                    }
+                }
+                if (state.freeSize < maxPoolSize) {
+                    streamEvent.reset();
+                    if (state.freeSize == state.free.length) {
+                        StreamEvent[] free = new StreamEvent[Math.min(state.free.length * 2, maxPoolSize)];
+                        System.arraycopy(state.free, 0, free, 0, state.freeSize);
+                        state.free = free;
+                    }
+                    state.free[state.freeSize++] = streamEvent;
+                }
+            }
+            state.borrowedSize = Math.min(state.borrowedSize, mark);
+        }
+    }
+
+    /**
+     * Get the number of events borrowed and not yet returned by all threads, which is only tracked when leak
+     * detection is enabled.
+     *
+     * @return number of outstanding events
+     */
+    public long getOutstandingEvents() {
+        return outstandingEvents.get();
+    }
+
+    private boolean isFree(PoolState state, StreamEvent streamEvent) {
+        for (int i = 0; i < state.freeSize; i++) {
+            if (state.free[i] == streamEvent) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        //Do nothing
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        if (leakDetection && outstandingEvents.get() > 0) {
+            log.warn(outstandingEvents.get() + " StreamEvent(s) borrowed from the event pool of '" + name +
+                    "' were not returned before shutdown");
+        }
+        synchronized (poolStates) {
+            for (PoolState state : poolStates.values()) {
+                synchronized (state) {
+                    state.clear();
+                }
+            }
+            poolStates.clear();
+        }
+        poolState.remove();
+    }
+
+    private static class PoolState {
+        private StreamEvent[] free = new StreamEvent[16];
+        private int freeSize = 0;
+        private StreamEvent[] borrowed = new StreamEvent[16];
+        private int borrowedSize = 0;
+
+        private void clear() {
+            free = new StreamEvent[16];
+            freeSize = 0;
+            borrowed = new StreamEvent[16];
+            borrowedSize = 0;
+        }
+    }
+}
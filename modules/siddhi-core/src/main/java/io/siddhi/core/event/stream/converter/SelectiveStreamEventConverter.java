@@ -64,11 +64,13 @@ public class SelectiveStreamEventConverter implements StreamEventConverter, Seri
         convertData(event.getTimestamp(), event.getData(), event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent
                         .Type.CURRENT,
                 newEvent);
+        newEvent.setTrace(event.getTrace());
     }
 
     public void convertComplexEvent(ComplexEvent complexEvent, StreamEvent newEvent) {
         convertData(complexEvent.getTimestamp(), complexEvent.getOutputData(), complexEvent.getType(),
                 newEvent);
+        newEvent.setTrace(complexEvent instanceof StreamEvent ? ((StreamEvent) complexEvent).getTrace() : null);
     }
 
     @Override
@@ -47,11 +47,13 @@ public class SimpleStreamEventConverter implements StreamEventConverter, Seriali
         convertData(event.getTimestamp(), event.getData(), event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent
                         .Type.CURRENT,
                 newEvent);
+        newEvent.setTrace(event.getTrace());
     }
 
     public void convertComplexEvent(ComplexEvent complexEvent, StreamEvent newEvent) {
         convertData(complexEvent.getTimestamp(), complexEvent.getOutputData(), complexEvent.getType(),
                 newEvent);
+        newEvent.setTrace(complexEvent instanceof StreamEvent ? ((StreamEvent) complexEvent).getTrace() : null);
     }
 
     @Override
@@ -39,11 +39,13 @@ public class ZeroStreamEventConverter implements StreamEventConverter, Serializa
     public void convertEvent(Event event, StreamEvent newEvent) {
         convertData(event.getTimestamp(), event.getData(), event.isExpired() ? StreamEvent.Type.EXPIRED :
                 StreamEvent.Type.CURRENT, newEvent);
+        newEvent.setTrace(event.getTrace());
     }
 
     public void convertComplexEvent(ComplexEvent complexEvent, StreamEvent newEvent) {
         convertData(complexEvent.getTimestamp(), complexEvent.getOutputData(), complexEvent.getType(),
                 newEvent);
+        newEvent.setTrace(complexEvent instanceof StreamEvent ? ((StreamEvent) complexEvent).getTrace() : null);
     }
 
     @Override
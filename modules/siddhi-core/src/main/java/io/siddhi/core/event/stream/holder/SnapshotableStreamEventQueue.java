@@ -23,6 +23,8 @@ import io.siddhi.core.event.stream.StreamEvent;
 import io.siddhi.core.util.snapshot.SnapshotRequest;
 import io.siddhi.core.util.snapshot.state.Snapshot;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
+import io.siddhi.core.util.statistics.MemoryEstimable;
+import io.siddhi.core.util.statistics.memory.EventMemoryEstimator;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -30,11 +32,20 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * The class to hold stream events in a queue and by managing its snapshots
+ * The class to hold stream events in a queue and by managing its snapshots. The memory retained by the events is
+ * estimated as they are added, updated and removed, and is published through an atomic such that it can be read by
+ * the memory usage metrics outside of the lock of the queue.
+ * <p>
+ * As long as events are only added at the tail and removed from the head, as most windows do, the changes are only
+ * counted. At snapshot time they are logged as the number of events removed from the head, which were held at the
+ * start of the snapshot interval, and a copy of the events added since then that are still held. Hence events that
+ * are added and expired within the same interval are not logged at all. Any other change falls back to logging
+ * every operation for the rest of the interval.
  */
-public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Serializable {
+public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Serializable, MemoryEstimable {
     private static final long serialVersionUID = 3185987841726255019L;
     protected StreamEvent first;
     protected StreamEvent previousToLastReturned;
@@ -47,6 +58,13 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
     private boolean forceFullSnapshot = true;
     private boolean isOperationLogEnabled = true;
     private int eventIndex = -1;
+    private final AtomicLong estimatedMemoryUsage = new AtomicLong();
+    private long updatingEventEstimate = -1;
+    private int size;
+    private boolean headTailChangeLog = true;
+    private int intervalStartSize;
+    private int headRemovalCount;
+    private int tailAdditionCount;
 
     public SnapshotableStreamEventQueue(StreamEventClonerHolder eventClonerHolder) {
         this(eventClonerHolder, Integer.MAX_VALUE);
@@ -59,15 +77,14 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
     }
 
     public void add(StreamEvent events) {
-        if (!isFullSnapshot()) {
-            if (isOperationLogEnabled) {
-                operationChangeLog.add(new Operation(Operator.ADD, copyEvents(events)));
-            }
-            operationChangeLogSize++;
-        } else {
-            operationChangeLog.clear();
-            operationChangeLogSize = 0;
-            forceFullSnapshot = true;
+        int count = 0;
+        long estimate = 0;
+        for (StreamEvent event = events; event != null; event = event.getNext()) {
+            estimate += EventMemoryEstimator.estimate(event);
+            count++;
+        }
+        if (logChange(count, 0)) {
+            operationChangeLog.add(new Operation(Operator.ADD, copyEvents(events)));
         }
 
         if (first == null) {
@@ -76,6 +93,8 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
             last.setNext(events);
         }
         last = getLastEvent(events);
+        estimatedMemoryUsage.addAndGet(estimate);
+        size += count;
     }
 
     /**
@@ -96,6 +115,7 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
         if (lastReturned == null) {
             throw new IllegalStateException();
         }
+        boolean logged = logChange(0, previousToLastReturned == null ? 1 : 0);
         if (previousToLastReturned != null) {
             previousToLastReturned.setNext(lastReturned.getNext());
         } else {
@@ -104,17 +124,12 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
                 last = null;
             }
         }
+        release(lastReturned);
         lastReturned.setNext(null);
         lastReturned = null;
-        if (!isFullSnapshot()) {
-            if (isOperationLogEnabled) {
-                operationChangeLog.add(new Operation(Operator.DELETE_BY_INDEX, eventIndex));
-            }
-            operationChangeLogSize++;
-        } else {
-            operationChangeLog.clear();
-            operationChangeLogSize = 0;
-            forceFullSnapshot = true;
+        size--;
+        if (logged) {
+            operationChangeLog.add(new Operation(Operator.DELETE_BY_INDEX, eventIndex));
         }
         eventIndex--;
     }
@@ -172,12 +187,15 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
         this.operationChangeLog.clear();
         operationChangeLogSize = 0;
         forceFullSnapshot = true;
+        size = 0;
 
         previousToLastReturned = null;
         lastReturned = null;
         first = null;
         last = null;
         eventIndex = -1;
+        updatingEventEstimate = -1;
+        estimatedMemoryUsage.set(0);
     }
 
     public void reset() {
@@ -186,6 +204,26 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
         eventIndex = -1;
     }
 
+    private void release(StreamEvent removedEvent) {
+        estimatedMemoryUsage.addAndGet(-EventMemoryEstimator.estimate(removedEvent));
+    }
+
+    /**
+     * Notifies that the attributes of the last event returned by the iterator are about to be updated in place,
+     * followed by a call to {@link #overwrite(StreamEvent)} with the same event once updated, such that the estimate
+     * of the event before the update is released.
+     *
+     * @param streamEvent the held event that will be updated
+     */
+    public void beforeUpdate(StreamEvent streamEvent) {
+        updatingEventEstimate = EventMemoryEstimator.estimate(streamEvent);
+    }
+
+    @Override
+    public long getEstimatedMemoryUsage() {
+        return estimatedMemoryUsage.get();
+    }
+
     public StreamEvent getFirst() {
         return first;
     }
@@ -197,19 +235,14 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
     public StreamEvent poll() {
         reset();
         if (first != null) {
+            boolean logged = logChange(0, 1);
             StreamEvent firstEvent = first;
             first = first.getNext();
             firstEvent.setNext(null);
-
-            if (!isFullSnapshot()) {
-                if (isOperationLogEnabled) {
-                    operationChangeLog.add(new Operation(Operator.REMOVE));
-                }
-                operationChangeLogSize++;
-            } else {
-                operationChangeLog.clear();
-                operationChangeLogSize = 0;
-                forceFullSnapshot = true;
+            release(firstEvent);
+            size--;
+            if (logged) {
+                operationChangeLog.add(new Operation(Operator.REMOVE));
             }
             return firstEvent;
         } else {
@@ -272,14 +305,72 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
     public Snapshot getSnapshot() {
         if (isFullSnapshot()) {
             forceFullSnapshot = false;
+            operationChangeLog.clear();
+            operationChangeLogSize = 0;
+            startChangeLogInterval();
             return new Snapshot(this.getFirst(), false);
         } else {
+            if (headTailChangeLog) {
+                logHeadTailChanges();
+            }
             Snapshot snapshot = new Snapshot(operationChangeLog, true);
             operationChangeLog = new ArrayList<>();
+            startChangeLogInterval();
             return snapshot;
         }
     }
 
+    /**
+     * Does the change log book keeping of a change that is about to be made.
+     *
+     * @param tailAdditions number of events added at the tail by the change
+     * @param headRemovals  number of events removed from the head by the change
+     * @return whether the change has to be logged as an operation
+     */
+    private boolean logChange(int tailAdditions, int headRemovals) {
+        if (isFullSnapshot()) {
+            operationChangeLog.clear();
+            operationChangeLogSize = 0;
+            forceFullSnapshot = true;
+            return false;
+        }
+        if (isOperationLogEnabled && headTailChangeLog) {
+            if (tailAdditions > 0 || headRemovals > 0) {
+                tailAdditionCount += tailAdditions;
+                headRemovalCount += headRemovals;
+                return false;
+            }
+            logHeadTailChanges();
+        }
+        operationChangeLogSize++;
+        return isOperationLogEnabled;
+    }
+
+    private void logHeadTailChanges() {
+        headTailChangeLog = false;
+        int removedCount = Math.min(headRemovalCount, intervalStartSize);
+        if (removedCount > 0) {
+            operationChangeLog.add(new Operation(Operator.REMOVE, removedCount));
+            operationChangeLogSize++;
+        }
+        int addedCount = tailAdditionCount - (headRemovalCount - removedCount);
+        if (addedCount > 0) {
+            StreamEvent firstAddedEvent = first;
+            for (int i = size - addedCount; i > 0; i--) {
+                firstAddedEvent = firstAddedEvent.getNext();
+            }
+            operationChangeLog.add(new Operation(Operator.ADD, copyEvents(firstAddedEvent)));
+            operationChangeLogSize += addedCount;
+        }
+    }
+
+    private void startChangeLogInterval() {
+        headTailChangeLog = true;
+        intervalStartSize = size;
+        headRemovalCount = 0;
+        tailAdditionCount = 0;
+    }
+
     private boolean isFullSnapshot() {
         return operationChangeLogSize > 100 || operationChangeLogSize > operationChangeLogThreshold
                 || forceFullSnapshot || SnapshotRequest.isRequestForFullSnapshot();
@@ -304,7 +395,10 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
                             add((StreamEvent) op.parameters);
                             break;
                         case REMOVE:
-                            poll();
+                            int removeCount = op.parameters != null ? (int) op.parameters : 1;
+                            for (int i = 0; i < removeCount; i++) {
+                                poll();
+                            }
                             break;
                         case CLEAR:
                             clear();
@@ -339,6 +433,7 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
             }
         }
         this.isOperationLogEnabled = true;
+        startChangeLogInterval();
     }
 
     private StreamEvent copyEvents(StreamEvent events) {
@@ -357,19 +452,15 @@ public class SnapshotableStreamEventQueue implements Iterator<StreamEvent>, Seri
     }
 
     public void overwrite(StreamEvent streamEvent) {
-        if (!isFullSnapshot()) {
-            if (isOperationLogEnabled) {
-                operationChangeLog.add(new Operation(Operator.OVERWRITE,
-                        new Object[]{eventIndex,
-                                eventClonerHolder.getStreamEventCloner().copyStreamEvent(streamEvent)}));
-            }
-            operationChangeLogSize++;
-        } else {
-            operationChangeLog.clear();
-            operationChangeLogSize = 0;
-            forceFullSnapshot = true;
+        if (logChange(0, 0)) {
+            operationChangeLog.add(new Operation(Operator.OVERWRITE,
+                    new Object[]{eventIndex, eventClonerHolder.getStreamEventCloner().copyStreamEvent(streamEvent)}));
         }
 
+        long previousEstimate = streamEvent == lastReturned && updatingEventEstimate >= 0 ?
+                updatingEventEstimate : EventMemoryEstimator.estimate(lastReturned);
+        updatingEventEstimate = -1;
+        estimatedMemoryUsage.addAndGet(EventMemoryEstimator.estimate(streamEvent) - previousEstimate);
         if (previousToLastReturned != null) {
             previousToLastReturned.setNext(streamEvent);
         } else {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.executor.function;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.HyperLogLog;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.exception.SiddhiAppValidationException;
+
+/**
+ * Executor class for cardinalityOfHyperLogLog function. Function execution logic is implemented in execute here.
+ */
+@Extension(
+        name = "cardinalityOfHyperLogLog",
+        namespace = "",
+        description = "Returns the estimated number of distinct values summarized in a HyperLogLog sketch.",
+        parameters = {
+                @Parameter(name = "sketch",
+                        description = "The HyperLogLog sketch object, as created by the 'unionHyperLogLog' " +
+                                "attribute aggregator in Siddhi.",
+                        type = {DataType.OBJECT})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The estimated number of distinct values.",
+                type = {DataType.LONG}),
+        examples = @Example(
+                syntax = "from pageViewStream#window.timeBatch(10 sec) \n" +
+                        "select unionHyperLogLog(userId) as userSketch \n" +
+                        "insert into userSketchStream; \n\n" +
+                        "" +
+                        "from userSketchStream \n" +
+                        "select cardinalityOfHyperLogLog(userSketch) as userCount \n" +
+                        "insert into userCountStream;",
+                description = "The userCountStream stream will output the estimated number of distinct users " +
+                        "viewing pages during a batch window of 10 seconds."
+        )
+)
+public class CardinalityOfHyperLogLogFunctionExecutor extends FunctionExecutor {
+
+    @Override
+    protected StateFactory init(ExpressionExecutor[] attributeExpressionExecutors, ConfigReader configReader,
+                                SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new SiddhiAppValidationException("cardinalityOfHyperLogLog() function has to have exactly 1 " +
+                    "parameter, currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.OBJECT) {
+            throw new OperationNotSupportedException("Parameter given for cardinalityOfHyperLogLog() function has " +
+                    "to be of type object, but found: " + attributeExpressionExecutors[0].getReturnType());
+        }
+        return null;
+    }
+
+    @Override
+    protected Object execute(Object[] data, State state) {
+        return null; //Since the cardinalityOfHyperLogLog function takes in only 1 parameter, this method does not
+        // get called. Hence, not implemented.
+    }
+
+    @Override
+    protected Object execute(Object data, State state) {
+        if (data == null) {
+            return 0L;
+        }
+        if (!(data instanceof HyperLogLog)) {
+            throw new SiddhiAppRuntimeException("Input to cardinalityOfHyperLogLog() function should be an " +
+                    "instance of " + HyperLogLog.class.getCanonicalName() + ", but found " +
+                    data.getClass().getCanonicalName());
+        }
+        return ((HyperLogLog) data).cardinality();
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.LONG;
+    }
+
+}
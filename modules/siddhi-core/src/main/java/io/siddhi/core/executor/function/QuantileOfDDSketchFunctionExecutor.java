@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.executor.function;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.DDSketch;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.exception.SiddhiAppValidationException;
+
+/**
+ * Executor class for quantileOfDDSketch function. Function execution logic is implemented in execute here.
+ */
+@Extension(
+        name = "quantileOfDDSketch",
+        namespace = "",
+        description = "Returns the estimated value at the given quantile of the values summarized in a DDSketch.",
+        parameters = {
+                @Parameter(name = "sketch",
+                        description = "The DDSketch object, as created by the 'unionDDSketch' attribute aggregator " +
+                                "in Siddhi.",
+                        type = {DataType.OBJECT}),
+                @Parameter(name = "quantile",
+                        description = "The quantile to be estimated, in the range of 0 to 1.",
+                        type = {DataType.DOUBLE})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The estimated value at the quantile, or null if the sketch is empty.",
+                type = {DataType.DOUBLE}),
+        examples = @Example(
+                syntax = "from requestStream#window.timeBatch(10 sec) \n" +
+                        "select unionDDSketch(latency) as latencySketch \n" +
+                        "insert into latencySketchStream; \n\n" +
+                        "" +
+                        "from latencySketchStream \n" +
+                        "select quantileOfDDSketch(latencySketch, 0.5) as medianLatency \n" +
+                        "insert into medianLatencyStream;",
+                description = "The medianLatencyStream stream will output the estimated median latency of the " +
+                        "requests received during a batch window of 10 seconds."
+        )
+)
+public class QuantileOfDDSketchFunctionExecutor extends FunctionExecutor {
+
+    private double quantile;
+
+    @Override
+    protected StateFactory init(ExpressionExecutor[] attributeExpressionExecutors, ConfigReader configReader,
+                                SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 2) {
+            throw new SiddhiAppValidationException("quantileOfDDSketch() function has to have exactly 2 " +
+                    "parameters, currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.OBJECT) {
+            throw new OperationNotSupportedException("First parameter given for quantileOfDDSketch() function has " +
+                    "to be of type object, but found: " + attributeExpressionExecutors[0].getReturnType());
+        }
+        if (!(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) ||
+                attributeExpressionExecutors[1].getReturnType() != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Second parameter 'quantile' of quantileOfDDSketch() function " +
+                    "has to be a constant of type double");
+        }
+        quantile = (Double) ((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue();
+        if (quantile < 0 || quantile > 1) {
+            throw new OperationNotSupportedException("Second parameter 'quantile' of quantileOfDDSketch() function " +
+                    "should be in the range of [0, 1], but found " + quantile);
+        }
+        return null;
+    }
+
+    @Override
+    protected Object execute(Object[] data, State state) {
+        if (data[0] == null) {
+            return null;
+        }
+        if (!(data[0] instanceof DDSketch)) {
+            throw new SiddhiAppRuntimeException("Input to quantileOfDDSketch() function should be an instance of " +
+                    DDSketch.class.getCanonicalName() + ", but found " + data[0].getClass().getCanonicalName());
+        }
+        DDSketch ddSketch = (DDSketch) data[0];
+        if (ddSketch.isEmpty()) {
+            return null;
+        }
+        return ddSketch.getValueAtQuantile(quantile);
+    }
+
+    @Override
+    protected Object execute(Object data, State state) {
+        return null; //Since the quantileOfDDSketch function takes in 2 parameters, this method does not get called.
+        // Hence, not implemented.
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+
+}
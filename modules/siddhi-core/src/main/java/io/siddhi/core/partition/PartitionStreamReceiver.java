@@ -30,6 +30,7 @@ import io.siddhi.core.partition.executor.PartitionExecutor;
 import io.siddhi.core.query.QueryRuntime;
 import io.siddhi.core.query.input.stream.StreamRuntime;
 import io.siddhi.core.stream.StreamJunction;
+import io.siddhi.core.util.statistics.EventTrace;
 import io.siddhi.query.api.definition.StreamDefinition;
 
 import java.util.HashMap;
@@ -51,6 +52,7 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
     private PartitionRuntime partitionRuntime;
     private List<PartitionExecutor> partitionExecutors;
     private Map<String, StreamJunction> streamJunctionMap = new HashMap<>();
+    private String traceStage;
 
 
     public PartitionStreamReceiver(SiddhiAppContext siddhiAppContext, MetaStreamEvent metaStreamEvent,
@@ -64,6 +66,9 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
         this.siddhiAppContext = siddhiAppContext;
         this.streamId = streamDefinition.getId();
         this.streamEventFactory = new StreamEventFactory(metaStreamEvent);
+        if (siddhiAppContext.getEventTraceTracker() != null) {
+            this.traceStage = "partition(" + streamId + ")";
+        }
 
     }
 
@@ -260,6 +265,9 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
 
     private void send(String key, ComplexEvent event) {
         if (key != null) {
+            if (traceStage != null) {
+                EventTrace.mark(event, traceStage);
+            }
             SiddhiAppContext.startPartitionFlow(key);
             try {
                 partitionRuntime.initPartition();
@@ -271,6 +279,9 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
     }
 
     private void send(ComplexEvent event) {
+        if (traceStage != null) {
+            EventTrace.mark(event, traceStage);
+        }
         for (String key : partitionRuntime.getPartitionKeys()) {
             SiddhiAppContext.startPartitionFlow(key);
             try {
@@ -26,9 +26,12 @@ import io.siddhi.core.query.input.stream.state.StateStreamRuntime;
 import io.siddhi.core.query.output.callback.OutputCallback;
 import io.siddhi.core.query.output.callback.QueryCallback;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
+import io.siddhi.core.query.processor.Processor;
+import io.siddhi.core.query.processor.stream.window.WindowProcessor;
 import io.siddhi.core.query.selector.QuerySelector;
 import io.siddhi.core.util.extension.holder.ExternalReferencedHolder;
 import io.siddhi.core.util.statistics.MemoryCalculable;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.StreamDefinition;
 import io.siddhi.query.api.execution.query.Query;
 import io.siddhi.query.api.execution.query.input.stream.JoinInputStream;
@@ -40,7 +43,7 @@ import java.util.List;
 /**
  * Query Runtime represent holder object for a single Siddhi query and holds all runtime objects related to that query.
  */
-public class QueryRuntime implements MemoryCalculable, ExternalReferencedHolder {
+public class QueryRuntime implements MemoryCalculable, MemoryEstimable, ExternalReferencedHolder {
 
     private StreamRuntime streamRuntime;
     private OutputRateLimiter outputRateLimiter;
@@ -167,6 +170,34 @@ public class QueryRuntime implements MemoryCalculable, ExternalReferencedHolder
         initPartition();
     }
 
+    /**
+     * Estimate the memory retained by the windows of the query. Pattern and sequence states are not tracked, and
+     * the comparatively small selector state is left to be covered by the periodic calibration of the estimate.
+     *
+     * @return estimated bytes, or -1 if the retained memory cannot be estimated
+     */
+    @Override
+    public long getEstimatedMemoryUsage() {
+        if (streamRuntime instanceof StateStreamRuntime) {
+            return -1;
+        }
+        long estimate = 0;
+        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null && processor != selector) {
+                if (processor instanceof WindowProcessor) {
+                    long windowEstimate = ((WindowProcessor) processor).getEstimatedMemoryUsage();
+                    if (windowEstimate < 0) {
+                        return -1;
+                    }
+                    estimate += windowEstimate;
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+        return estimate;
+    }
+
     @Override
     public void stop() {
     }
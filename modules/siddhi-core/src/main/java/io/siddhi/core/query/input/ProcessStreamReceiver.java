@@ -22,15 +22,19 @@ import io.siddhi.core.debugger.SiddhiDebugger;
 import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.Event;
+import io.siddhi.core.event.stream.ColumnarEventBatch;
 import io.siddhi.core.event.stream.MetaStreamEvent;
 import io.siddhi.core.event.stream.StreamEvent;
 import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.StreamEventPool;
 import io.siddhi.core.event.stream.converter.StreamEventConverter;
 import io.siddhi.core.event.stream.converter.StreamEventConverterFactory;
 import io.siddhi.core.query.input.stream.state.PreStateProcessor;
 import io.siddhi.core.query.processor.Processor;
+import io.siddhi.core.query.processor.filter.ColumnarCondition;
 import io.siddhi.core.stream.StreamJunction;
 import io.siddhi.core.util.lock.LockWrapper;
+import io.siddhi.core.util.statistics.EventTrace;
 import io.siddhi.core.util.statistics.LatencyTracker;
 import io.siddhi.core.util.statistics.metrics.Level;
 
@@ -54,11 +58,18 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
     private MetaStreamEvent metaStreamEvent;
     private StreamEventFactory streamEventFactory;
     private SiddhiDebugger siddhiDebugger;
+    private StreamEventPool streamEventPool;
+    private ColumnarCondition columnarCondition;
+    private int columnarFilterCount;
+    private String traceStage;
 
     public ProcessStreamReceiver(String streamId,
                                  SiddhiQueryContext siddhiQueryContext) {
         this.streamId = streamId;
         this.siddhiQueryContext = siddhiQueryContext;
+        if (siddhiQueryContext.getSiddhiAppContext().getEventTraceTracker() != null) {
+            this.traceStage = "receiver(" + siddhiQueryContext.getName() + ")";
+        }
     }
 
     @Override
@@ -70,7 +81,14 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         this.siddhiDebugger = siddhiDebugger;
     }
 
-    private void process(ComplexEventChunk<StreamEvent> streamEventChunk) {
+    private void process(ComplexEventChunk<StreamEvent> streamEventChunk, int poolMark) {
+        process(streamEventChunk, false, poolMark);
+    }
+
+    private void process(ComplexEventChunk<StreamEvent> streamEventChunk, boolean filtered, int poolMark) {
+        if (traceStage != null) {
+            EventTrace.mark(streamEventChunk.getFirst(), traceStage);
+        }
         if (lockWrapper != null) {
             lockWrapper.lock();
         }
@@ -80,60 +98,74 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
                     latencyTracker != null) {
                 try {
                     latencyTracker.markIn();
-                    processAndClear(streamEventChunk);
+                    processAndClear(streamEventChunk, filtered);
                 } finally {
                     latencyTracker.markOut();
                 }
             } else {
-                processAndClear(streamEventChunk);
+                processAndClear(streamEventChunk, filtered);
             }
         } finally {
             if (lockWrapper != null) {
                 lockWrapper.unlock();
             }
+            if (streamEventPool != null) {
+                streamEventPool.returnTo(poolMark);
+            }
         }
     }
 
     @Override
     public void receive(ComplexEvent complexEvents) {
+        receive(complexEvents, this.batchProcessingAllowed);
+    }
+
+    public void receive(ComplexEvent complexEvents, boolean batch) {
+        int poolMark = markPool();
         if (siddhiDebugger != null) {
             siddhiDebugger.checkBreakPoint(siddhiQueryContext.getName(),
                     SiddhiDebugger.QueryTerminal.IN, complexEvents);
         }
-        StreamEvent firstEvent = streamEventFactory.newInstance();
+        StreamEvent firstEvent = newEvent();
         streamEventConverter.convertComplexEvent(complexEvents, firstEvent);
         StreamEvent currentEvent = firstEvent;
         complexEvents = complexEvents.getNext();
         while (complexEvents != null) {
-            StreamEvent nextEvent = streamEventFactory.newInstance();
+            StreamEvent nextEvent = newEvent();
             streamEventConverter.convertComplexEvent(complexEvents, nextEvent);
             currentEvent.setNext(nextEvent);
             currentEvent = nextEvent;
             complexEvents = complexEvents.getNext();
         }
-        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed));
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, batch), poolMark);
     }
 
     @Override
     public void receive(Event event) {
         if (event != null) {
-            StreamEvent newEvent = streamEventFactory.newInstance();
+            int poolMark = markPool();
+            StreamEvent newEvent = newEvent();
             streamEventConverter.convertEvent(event, newEvent);
             if (siddhiDebugger != null) {
                 siddhiDebugger.checkBreakPoint(siddhiQueryContext.getName(),
                         SiddhiDebugger.QueryTerminal.IN, newEvent);
             }
-            process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, this.batchProcessingAllowed));
+            process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, this.batchProcessingAllowed), poolMark);
         }
     }
 
     @Override
     public void receive(Event[] events) {
-        StreamEvent firstEvent = streamEventFactory.newInstance();
+        if (columnarCondition != null && siddhiDebugger == null && events.length > 1) {
+            receiveColumnar(events);
+            return;
+        }
+        int poolMark = markPool();
+        StreamEvent firstEvent = newEvent();
         streamEventConverter.convertEvent(events[0], firstEvent);
         StreamEvent currentEvent = firstEvent;
         for (int i = 1, eventsLength = events.length; i < eventsLength; i++) {
-            StreamEvent nextEvent = streamEventFactory.newInstance();
+            StreamEvent nextEvent = newEvent();
             streamEventConverter.convertEvent(events[i], nextEvent);
             currentEvent.setNext(nextEvent);
             currentEvent = nextEvent;
@@ -141,15 +173,20 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         if (siddhiDebugger != null) {
             siddhiDebugger.checkBreakPoint(siddhiQueryContext.getName(), SiddhiDebugger.QueryTerminal.IN, firstEvent);
         }
-        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed));
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed), poolMark);
     }
 
     @Override
     public void receive(List<Event> events) {
+        if (columnarCondition != null && siddhiDebugger == null && events.size() > 1) {
+            receiveColumnar(events.toArray(new Event[events.size()]));
+            return;
+        }
+        int poolMark = markPool();
         StreamEvent firstEvent = null;
         StreamEvent currentEvent = null;
         for (Event event : events) {
-            StreamEvent nextEvent = streamEventFactory.newInstance();
+            StreamEvent nextEvent = newEvent();
             streamEventConverter.convertEvent(event, nextEvent);
             if (firstEvent == null) {
                 firstEvent = nextEvent;
@@ -162,19 +199,79 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         if (siddhiDebugger != null) {
             siddhiDebugger.checkBreakPoint(siddhiQueryContext.getName(), SiddhiDebugger.QueryTerminal.IN, firstEvent);
         }
-        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed));
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed), poolMark);
     }
 
     @Override
     public void receive(long timestamp, Object[] data) {
-        StreamEvent newEvent = streamEventFactory.newInstance();
+        int poolMark = markPool();
+        StreamEvent newEvent = newEvent();
         streamEventConverter.convertData(timestamp, data, newEvent);
         // Send to debugger
         if (siddhiDebugger != null) {
             siddhiDebugger.checkBreakPoint(siddhiQueryContext.getName(),
                     SiddhiDebugger.QueryTerminal.IN, newEvent);
         }
-        process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, this.batchProcessingAllowed));
+        process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, this.batchProcessingAllowed), poolMark);
+    }
+
+    /**
+     * Evaluate the leading filters of the query over the whole batch in columnar form, and convert only the
+     * events passing the filters, which are then sent to the processor following the filters.
+     *
+     * @param events the events received
+     */
+    private void receiveColumnar(Event[] events) {
+        int poolMark = markPool();
+        ColumnarEventBatch batch = new ColumnarEventBatch(events,
+                metaStreamEvent.getLastInputDefinition().getAttributeList());
+        boolean[] result = new boolean[events.length];
+        columnarCondition.evaluate(batch, result);
+        StreamEvent firstEvent = null;
+        StreamEvent currentEvent = null;
+        for (int i = 0; i < events.length; i++) {
+            if (result[i]) {
+                StreamEvent nextEvent = newEvent();
+                streamEventConverter.convertEvent(events[i], nextEvent);
+                if (firstEvent == null) {
+                    firstEvent = nextEvent;
+                } else {
+                    currentEvent.setNext(nextEvent);
+                }
+                currentEvent = nextEvent;
+            }
+        }
+        if (firstEvent != null) {
+            process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, this.batchProcessingAllowed), true,
+                    poolMark);
+        }
+    }
+
+    private void processAndClear(ComplexEventChunk<StreamEvent> streamEventChunk, boolean filtered) {
+        if (filtered) {
+            Processor processor = next;
+            for (int i = 0; i < columnarFilterCount; i++) {
+                processor = processor.getNextProcessor();
+            }
+            processor.process(streamEventChunk);
+            streamEventChunk.clear();
+        } else {
+            processAndClear(streamEventChunk);
+        }
+    }
+
+    private StreamEvent newEvent() {
+        if (streamEventPool != null) {
+            return streamEventPool.borrow();
+        }
+        return streamEventFactory.newInstance();
+    }
+
+    private int markPool() {
+        if (streamEventPool != null) {
+            return streamEventPool.mark();
+        }
+        return 0;
     }
 
     protected void processAndClear(ComplexEventChunk<StreamEvent> streamEventChunk) {
@@ -182,6 +279,17 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         streamEventChunk.clear();
     }
 
+    /**
+     * Enable columnar evaluation of the leading filters of the query for batches of events.
+     *
+     * @param columnarCondition   the combined condition of the leading filters
+     * @param columnarFilterCount number of leading filter processors evaluated by the condition
+     */
+    public void setColumnarFilter(ColumnarCondition columnarCondition, int columnarFilterCount) {
+        this.columnarCondition = columnarCondition;
+        this.columnarFilterCount = columnarFilterCount;
+    }
+
     public void setMetaStreamEvent(MetaStreamEvent metaStreamEvent) {
         this.metaStreamEvent = metaStreamEvent;
     }
@@ -203,6 +311,20 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
         this.streamEventFactory = streamEventFactory;
     }
 
+    /**
+     * Reuse the events of the query once they are fully processed, only applicable when the processors of the
+     * query do not retain the events.
+     *
+     * @param streamEventPool pool to borrow the events from
+     */
+    public void setStreamEventPool(StreamEventPool streamEventPool) {
+        this.streamEventPool = streamEventPool;
+    }
+
+    public StreamEventFactory getStreamEventFactory() {
+        return streamEventFactory;
+    }
+
     public void setLockWrapper(LockWrapper lockWrapper) {
         this.lockWrapper = lockWrapper;
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.input;
+
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.window.SharedWindowRuntime;
+
+/**
+ * {@link ProcessStreamReceiver} of a query whose window is shared with other queries. It is not subscribed to the
+ * stream junction, instead it receives the output of the {@link SharedWindowRuntime} and converts it to the event
+ * layout of the query.
+ */
+public class SharedWindowStreamReceiver extends ProcessStreamReceiver {
+
+    private final SharedWindowRuntime sharedWindowRuntime;
+
+    public SharedWindowStreamReceiver(String streamId, SharedWindowRuntime sharedWindowRuntime,
+                                      SiddhiQueryContext siddhiQueryContext) {
+        super(streamId, siddhiQueryContext);
+        this.sharedWindowRuntime = sharedWindowRuntime;
+    }
+
+    public SharedWindowRuntime getSharedWindowRuntime() {
+        return sharedWindowRuntime;
+    }
+
+    @Override
+    public boolean toStream() {
+        return false;
+    }
+}
@@ -24,9 +24,11 @@ import io.siddhi.core.event.state.StateEventFactory;
 import io.siddhi.core.event.stream.StreamEvent;
 import io.siddhi.core.query.processor.Processor;
 import io.siddhi.core.query.processor.stream.window.FindableProcessor;
+import io.siddhi.core.query.processor.stream.window.TableWindowProcessor;
 import io.siddhi.core.query.selector.QuerySelector;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -42,6 +44,7 @@ public class JoinProcessor implements Processor {
     private StateEventFactory stateEventFactory;
     private CompiledCondition compiledCondition;
     private FindableProcessor findableProcessor;
+    private TableWindowProcessor tableWindowProcessor;
     private Processor nextProcessor;
     private QuerySelector selector;
 
@@ -65,6 +68,11 @@ public class JoinProcessor implements Processor {
             StateEvent joinStateEvent = new StateEvent(2, 0);
             StreamEvent nextEvent = (StreamEvent) complexEventChunk.getFirst();
             complexEventChunk.clear();
+            StreamEvent[] foundStreamEvents = null;
+            int foundIndex = 0;
+            if (tableWindowProcessor != null && nextEvent != null && nextEvent.getNext() != null) {
+                foundStreamEvents = findAll(nextEvent);
+            }
             while (nextEvent != null) {
                 StreamEvent streamEvent = nextEvent;
                 nextEvent = streamEvent.getNext();
@@ -83,9 +91,14 @@ public class JoinProcessor implements Processor {
                                 outputStateEvent, outputStateEvent, true));
                     }
                 } else {
-                    joinStateEvent.setEvent(matchingStreamIndex, streamEvent);
-                    StreamEvent foundStreamEvent = findableProcessor.find(joinStateEvent, compiledCondition);
-                    joinStateEvent.setEvent(matchingStreamIndex, null);
+                    StreamEvent foundStreamEvent;
+                    if (foundStreamEvents != null) {
+                        foundStreamEvent = foundStreamEvents[foundIndex++];
+                    } else {
+                        joinStateEvent.setEvent(matchingStreamIndex, streamEvent);
+                        foundStreamEvent = findableProcessor.find(joinStateEvent, compiledCondition);
+                        joinStateEvent.setEvent(matchingStreamIndex, null);
+                    }
                     if (foundStreamEvent == null) {
                         if (outerJoinProcessor && !leftJoinProcessor) {
                             StateEvent outputStateEvent = joinEventBuilder(null, streamEvent, eventType);
@@ -125,6 +138,29 @@ public class JoinProcessor implements Processor {
         }
     }
 
+    /**
+     * Find the matching table events of all the events of a chunk with a single batched lookup, such that tables
+     * backed by external stores need not be queried once per event.
+     *
+     * @param firstEvent first event of the chunk
+     * @return the matching events, in the order of the events that are not TIMER or RESET events
+     */
+    private StreamEvent[] findAll(StreamEvent firstEvent) {
+        List<StateEvent> matchingEvents = new ArrayList<>();
+        for (StreamEvent streamEvent = firstEvent; streamEvent != null; streamEvent = streamEvent.getNext()) {
+            ComplexEvent.Type eventType = streamEvent.getType();
+            if (eventType != ComplexEvent.Type.TIMER && eventType != ComplexEvent.Type.RESET) {
+                StateEvent matchingEvent = new StateEvent(2, 0);
+                matchingEvent.setEvent(matchingStreamIndex, streamEvent);
+                matchingEvents.add(matchingEvent);
+            }
+        }
+        if (matchingEvents.size() <= 1) {
+            return null;
+        }
+        return tableWindowProcessor.findAll(matchingEvents, compiledCondition);
+    }
+
     /**
      * Get next processor element in the processor chain. Processed event should be sent to next processor
      *
@@ -164,6 +200,9 @@ public class JoinProcessor implements Processor {
 
     public void setFindableProcessor(FindableProcessor findableProcessor) {
         this.findableProcessor = findableProcessor;
+        if (findableProcessor instanceof TableWindowProcessor) {
+            this.tableWindowProcessor = (TableWindowProcessor) findableProcessor;
+        }
     }
 
     public CompiledCondition getCompiledCondition() {
@@ -23,7 +23,10 @@ import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.query.api.annotation.Element;
 import io.siddhi.query.api.execution.query.Query;
+import io.siddhi.query.api.util.AnnotationHelper;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
@@ -40,9 +43,12 @@ public abstract class QueryCallback {
 
     private SiddhiAppContext siddhiAppContext;
     private Query query;
+    private String traceStage;
 
     public void setQuery(Query query) {
         this.query = query;
+        Element nameElement = AnnotationHelper.getAnnotationElement("info", "name", query.getAnnotations());
+        this.traceStage = "query-callback(" + (nameElement != null ? nameElement.getValue() : "query") + ")";
     }
 
     public void setContext(SiddhiAppContext siddhiAppContext) {
@@ -79,6 +85,9 @@ public abstract class QueryCallback {
         }
 
         send(timestamp, currentEvents, expiredEvents);
+        if (siddhiAppContext != null && siddhiAppContext.getEventTraceTracker() != null) {
+            EventTrace.complete(complexEventChunk.getFirst(), traceStage);
+        }
     }
 
     private void send(long timestamp, Event[] currentEvents, Event[] expiredEvents) {
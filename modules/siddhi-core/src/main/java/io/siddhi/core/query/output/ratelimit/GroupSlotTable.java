@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.output.ratelimit;
+
+import java.util.Arrays;
+
+/**
+ * Table of per group slots used by the group by {@link OutputRateLimiter}s. Group by keys are assigned dense slot
+ * numbers in their insertion order through an open addressing hash index, and each slot holds a long value and a
+ * fixed number of object values in flat arrays. Clearing the table retains its arrays, hence a table reused across
+ * output flushes does not allocate once it has grown to the number of groups.
+ */
+public class GroupSlotTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int width;
+    private String[] keys;
+    private long[] longValues;
+    private Object[] objectValues;
+    private int[] index;
+    private int size;
+
+    /**
+     * @param width number of object values held by each slot
+     */
+    public GroupSlotTable(int width) {
+        this.width = width;
+        this.keys = new String[INITIAL_CAPACITY];
+        this.longValues = new long[INITIAL_CAPACITY];
+        this.objectValues = new Object[INITIAL_CAPACITY * width];
+        this.index = new int[INITIAL_CAPACITY * 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key group by key
+     * @return slot of the key, or -1 if the key has no slot
+     */
+    public int getSlot(String key) {
+        int mask = index.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int slot = index[i] - 1;
+            if (slot == -1) {
+                return -1;
+            } else if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * @param key group by key
+     * @return slot of the key, where a new slot with zero and null values is assigned if the key has no slot
+     */
+    public int addSlot(String key) {
+        int mask = index.length - 1;
+        int i = hash(key) & mask;
+        for (; ; i = (i + 1) & mask) {
+            int slot = index[i] - 1;
+            if (slot == -1) {
+                break;
+            } else if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        if (size == keys.length) {
+            grow();
+            return addSlot(key);
+        }
+        int slot = size++;
+        keys[slot] = key;
+        index[i] = slot + 1;
+        return slot;
+    }
+
+    public String getKey(int slot) {
+        return keys[slot];
+    }
+
+    public long getLong(int slot) {
+        return longValues[slot];
+    }
+
+    public void setLong(int slot, long value) {
+        longValues[slot] = value;
+    }
+
+    public Object getObject(int slot, int position) {
+        return objectValues[slot * width + position];
+    }
+
+    public void setObject(int slot, int position, Object value) {
+        objectValues[slot * width + position] = value;
+    }
+
+    /**
+     * Remove all the slots while retaining the allocated arrays.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(longValues, 0, size, 0);
+        Arrays.fill(objectValues, 0, size * width, null);
+        Arrays.fill(index, 0);
+        size = 0;
+    }
+
+    /**
+     * Remove the slots having a zero long value, where the remaining slots are renumbered keeping their order.
+     */
+    public void removeZeroSlots() {
+        int retained = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (longValues[slot] != 0) {
+                if (retained != slot) {
+                    keys[retained] = keys[slot];
+                    longValues[retained] = longValues[slot];
+                    System.arraycopy(objectValues, slot * width, objectValues, retained * width, width);
+                }
+                retained++;
+            }
+        }
+        Arrays.fill(keys, retained, size, null);
+        Arrays.fill(longValues, retained, size, 0);
+        Arrays.fill(objectValues, retained * width, size * width, null);
+        size = retained;
+        rebuildIndex();
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        longValues = Arrays.copyOf(longValues, capacity);
+        objectValues = Arrays.copyOf(objectValues, capacity * width);
+        index = new int[capacity * 2];
+        rebuildIndex();
+    }
+
+    private void rebuildIndex() {
+        Arrays.fill(index, 0);
+        int mask = index.length - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int i = hash(keys[slot]) & mask;
+            while (index[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            index[i] = slot + 1;
+        }
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
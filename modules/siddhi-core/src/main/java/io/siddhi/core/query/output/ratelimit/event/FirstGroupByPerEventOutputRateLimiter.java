@@ -21,6 +21,7 @@ package io.siddhi.core.query.output.ratelimit.event;
 import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.GroupedComplexEvent;
+import io.siddhi.core.query.output.ratelimit.GroupSlotTable;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
@@ -48,7 +49,7 @@ public class FirstGroupByPerEventOutputRateLimiter
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
         complexEventChunk.reset();
-        ComplexEventChunk<ComplexEvent> outputEventChunk = new ComplexEventChunk<>(complexEventChunk.isBatch());
+        ComplexEventChunk<ComplexEvent> outputEventChunk = null;
         RateLimiterState state = stateHolder.getState();
         try {
             synchronized (state) {
@@ -56,21 +57,29 @@ public class FirstGroupByPerEventOutputRateLimiter
                     ComplexEvent event = complexEventChunk.next();
                     complexEventChunk.remove();
                     GroupedComplexEvent groupedComplexEvent = ((GroupedComplexEvent) event);
-                    Integer count = state.groupByOutputTime.get(groupedComplexEvent.getGroupKey());
-                    if (count == null) {
-                        state.groupByOutputTime.put(groupedComplexEvent.getGroupKey(), 1);
+                    // A zero count marks a group whose output period has ended
+                    int slot = state.groupByOutputTime.addSlot(groupedComplexEvent.getGroupKey());
+                    long count = state.groupByOutputTime.getLong(slot);
+                    if (count == 0) {
+                        state.groupByOutputTime.setLong(slot, 1);
+                        state.activeGroupCount++;
+                        if (outputEventChunk == null) {
+                            outputEventChunk = new ComplexEventChunk<>(complexEventChunk.isBatch());
+                        }
                         outputEventChunk.add(groupedComplexEvent);
-                    } else if (count.equals(value - 1)) {
-                        state.groupByOutputTime.remove(groupedComplexEvent.getGroupKey());
+                    } else if (count == value - 1) {
+                        state.groupByOutputTime.setLong(slot, 0);
+                        state.activeGroupCount--;
                     } else {
-                        state.groupByOutputTime.put(groupedComplexEvent.getGroupKey(), count + 1);
+                        state.groupByOutputTime.setLong(slot, count + 1);
                     }
                 }
+                state.removeEndedGroups();
             }
         } finally {
             stateHolder.returnState(state);
         }
-        if (outputEventChunk.getFirst() != null) {
+        if (outputEventChunk != null) {
             sendToCallBacks(outputEventChunk);
         }
     }
@@ -81,23 +90,46 @@ public class FirstGroupByPerEventOutputRateLimiter
     }
 
     class RateLimiterState extends State {
-        private Map<String, Integer> groupByOutputTime = new HashMap();
+        private GroupSlotTable groupByOutputTime = new GroupSlotTable(0);
+        private int activeGroupCount;
+
+        /**
+         * Release the slots of the groups whose output period has ended, once they are the majority of the slots.
+         */
+        private void removeEndedGroups() {
+            if (activeGroupCount == 0) {
+                groupByOutputTime.clear();
+            } else if (groupByOutputTime.size() > 1024 && activeGroupCount < groupByOutputTime.size() / 2) {
+                groupByOutputTime.removeZeroSlots();
+            }
+        }
 
         @Override
         public boolean canDestroy() {
-            return groupByOutputTime.isEmpty();
+            return activeGroupCount == 0;
         }
 
         @Override
         public Map<String, Object> snapshot() {
+            Map<String, Integer> groupByCounts = new HashMap<>();
+            for (int slot = 0; slot < groupByOutputTime.size(); slot++) {
+                if (groupByOutputTime.getLong(slot) != 0) {
+                    groupByCounts.put(groupByOutputTime.getKey(slot), (int) groupByOutputTime.getLong(slot));
+                }
+            }
             Map<String, Object> state = new HashMap<>();
-            state.put("GroupByOutputTime", groupByOutputTime);
+            state.put("GroupByOutputTime", groupByCounts);
             return state;
         }
 
         @Override
         public void restore(Map<String, Object> state) {
-            groupByOutputTime = (Map<String, Integer>) state.get("GroupByOutputTime");
+            groupByOutputTime.clear();
+            Map<String, Integer> groupByCounts = (Map<String, Integer>) state.get("GroupByOutputTime");
+            for (Map.Entry<String, Integer> entry : groupByCounts.entrySet()) {
+                groupByOutputTime.setLong(groupByOutputTime.addSlot(entry.getKey()), entry.getValue());
+            }
+            activeGroupCount = groupByCounts.size();
         }
     }
 
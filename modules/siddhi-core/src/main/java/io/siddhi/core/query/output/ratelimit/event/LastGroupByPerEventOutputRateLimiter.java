@@ -22,6 +22,7 @@ package io.siddhi.core.query.output.ratelimit.event;
 import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.GroupedComplexEvent;
+import io.siddhi.core.query.output.ratelimit.GroupSlotTable;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
@@ -29,6 +30,7 @@ import io.siddhi.core.util.snapshot.state.StateFactory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -51,7 +53,7 @@ public class LastGroupByPerEventOutputRateLimiter extends
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
         complexEventChunk.reset();
-        ArrayList<ComplexEventChunk<ComplexEvent>> outputEventChunks = new ArrayList<ComplexEventChunk<ComplexEvent>>();
+        List<ComplexEventChunk<ComplexEvent>> outputEventChunks = null;
         RateLimiterState state = stateHolder.getState();
         try {
             synchronized (state) {
@@ -60,18 +62,22 @@ public class LastGroupByPerEventOutputRateLimiter extends
                     if (event.getType() == ComplexEvent.Type.CURRENT || event.getType() == ComplexEvent.Type.EXPIRED) {
                         complexEventChunk.remove();
                         GroupedComplexEvent groupedComplexEvent = ((GroupedComplexEvent) event);
-                        state.allGroupByKeyEvents.put(groupedComplexEvent.getGroupKey(),
+                        state.allGroupByKeyEvents.setObject(
+                                state.allGroupByKeyEvents.addSlot(groupedComplexEvent.getGroupKey()), 0,
                                 groupedComplexEvent.getComplexEvent());
                         if (++state.counter == value) {
                             state.counter = 0;
-                            if (state.allGroupByKeyEvents.size() != 0) {
+                            if (!state.allGroupByKeyEvents.isEmpty()) {
                                 ComplexEventChunk<ComplexEvent> outputEventChunk = new ComplexEventChunk<ComplexEvent>
                                         (complexEventChunk.isBatch());
 
-                                for (ComplexEvent complexEvent : state.allGroupByKeyEvents.values()) {
-                                    outputEventChunk.add(complexEvent);
+                                for (int slot = 0; slot < state.allGroupByKeyEvents.size(); slot++) {
+                                    outputEventChunk.add((ComplexEvent) state.allGroupByKeyEvents.getObject(slot, 0));
                                 }
                                 state.allGroupByKeyEvents.clear();
+                                if (outputEventChunks == null) {
+                                    outputEventChunks = new ArrayList<>(1);
+                                }
                                 outputEventChunks.add(outputEventChunk);
                             }
                         }
@@ -81,8 +87,10 @@ public class LastGroupByPerEventOutputRateLimiter extends
         } finally {
             stateHolder.returnState(state);
         }
-        for (ComplexEventChunk eventChunk : outputEventChunks) {
-            sendToCallBacks(eventChunk);
+        if (outputEventChunks != null) {
+            for (ComplexEventChunk eventChunk : outputEventChunks) {
+                sendToCallBacks(eventChunk);
+            }
         }
     }
 
@@ -94,7 +102,7 @@ public class LastGroupByPerEventOutputRateLimiter extends
     class RateLimiterState extends State {
 
         private volatile int counter = 0;
-        private Map<String, ComplexEvent> allGroupByKeyEvents = new LinkedHashMap<String, ComplexEvent>();
+        private GroupSlotTable allGroupByKeyEvents = new GroupSlotTable(1);
 
         @Override
         public boolean canDestroy() {
@@ -105,14 +113,23 @@ public class LastGroupByPerEventOutputRateLimiter extends
         public Map<String, Object> snapshot() {
             Map<String, Object> state = new HashMap<>();
             state.put("Counter", counter);
-            state.put("AllGroupByKeyEvents", allGroupByKeyEvents);
+            Map<String, ComplexEvent> groupByKeyEvents = new LinkedHashMap<>();
+            for (int slot = 0; slot < allGroupByKeyEvents.size(); slot++) {
+                groupByKeyEvents.put(allGroupByKeyEvents.getKey(slot),
+                        (ComplexEvent) allGroupByKeyEvents.getObject(slot, 0));
+            }
+            state.put("AllGroupByKeyEvents", groupByKeyEvents);
             return state;
         }
 
         @Override
         public void restore(Map<String, Object> state) {
             counter = (int) state.get("Counter");
-            allGroupByKeyEvents = (Map<String, ComplexEvent>) state.get("AllGroupByKeyEvents");
+            allGroupByKeyEvents.clear();
+            Map<String, ComplexEvent> groupByKeyEvents = (Map<String, ComplexEvent>) state.get("AllGroupByKeyEvents");
+            for (Map.Entry<String, ComplexEvent> entry : groupByKeyEvents.entrySet()) {
+                allGroupByKeyEvents.setObject(allGroupByKeyEvents.addSlot(entry.getKey()), 0, entry.getValue());
+            }
         }
     }
 }
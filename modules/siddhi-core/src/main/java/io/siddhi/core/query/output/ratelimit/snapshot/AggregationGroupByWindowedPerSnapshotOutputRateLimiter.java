@@ -23,24 +23,27 @@ import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.GroupedComplexEvent;
 import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.query.output.ratelimit.GroupSlotTable;
 import io.siddhi.core.util.parser.SchedulerParser;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Implementation of {@link PerSnapshotOutputRateLimiter} for queries with GroupBy, Aggregators and Windows.
+ * The latest aggregate values of the groups are kept in a {@link GroupSlotTable}, holding the values of each group
+ * in a flat array instead of a map per group.
  */
 public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
         AggregationWindowedPerSnapshotOutputRateLimiter {
 
+    private final int[] aggregateAttributePositions;
+
     protected AggregationGroupByWindowedPerSnapshotOutputRateLimiter(Long value,
                                                                      List<Integer> aggregateAttributePositionList,
                                                                      WrappedSnapshotOutputRateLimiter
@@ -49,6 +52,10 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
                                                                      SiddhiQueryContext siddhiQueryContext) {
         super(value, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter,
                 groupBy, siddhiQueryContext);
+        this.aggregateAttributePositions = new int[aggregateAttributePositionList.size()];
+        for (int i = 0; i < aggregateAttributePositions.length; i++) {
+            aggregateAttributePositions[i] = aggregateAttributePositionList.get(i);
+        }
     }
 
     @Override
@@ -62,36 +69,30 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
         complexEventChunk.reset();
-        List<ComplexEventChunk<ComplexEvent>> outputEventChunks = new ArrayList<ComplexEventChunk<ComplexEvent>>();
+        List<ComplexEventChunk<ComplexEvent>> outputEventChunks = null;
         AggregationGroupByRateLimiterState state = (AggregationGroupByRateLimiterState) stateHolder.getState();
         try {
             synchronized (state) {
                 complexEventChunk.reset();
                 String currentGroupByKey = null;
-                Map<Integer, Object> currentAggregateAttributeValueMap = null;
+                int currentSlot = -1;
                 while (complexEventChunk.hasNext()) {
                     ComplexEvent event = complexEventChunk.next();
                     if (event.getType() == ComplexEvent.Type.TIMER) {
-                        tryFlushEvents(outputEventChunks, event, state);
+                        outputEventChunks = tryFlushEvents(outputEventChunks, event, state);
                     } else {
                         complexEventChunk.remove();
-                        tryFlushEvents(outputEventChunks, event, state);
+                        outputEventChunks = tryFlushEvents(outputEventChunks, event, state);
                         GroupedComplexEvent groupedComplexEvent = ((GroupedComplexEvent) event);
                         if (currentGroupByKey == null || !currentGroupByKey.equals(groupedComplexEvent.getGroupKey())) {
                             currentGroupByKey = groupedComplexEvent.getGroupKey();
-                            currentAggregateAttributeValueMap =
-                                    state.groupByAggregateAttributeValueMap.get(currentGroupByKey);
-                            if (currentAggregateAttributeValueMap == null) {
-                                currentAggregateAttributeValueMap = new HashMap<Integer, Object>
-                                        (aggregateAttributePositionList.size());
-                                state.groupByAggregateAttributeValueMap.put(currentGroupByKey,
-                                        currentAggregateAttributeValueMap);
-                            }
+                            currentSlot = state.groupByAggregateAttributeValues.addSlot(currentGroupByKey);
                         }
                         if (groupedComplexEvent.getType() == ComplexEvent.Type.CURRENT) {
                             state.eventList.add(groupedComplexEvent);
-                            for (Integer position : aggregateAttributePositionList) {
-                                currentAggregateAttributeValueMap.put(position, event.getOutputData()[position]);
+                            for (int i = 0; i < aggregateAttributePositions.length; i++) {
+                                state.groupByAggregateAttributeValues.setObject(currentSlot, i,
+                                        event.getOutputData()[aggregateAttributePositions[i]]);
                             }
                         } else if (groupedComplexEvent.getType() == ComplexEvent.Type.EXPIRED) {
                             for (Iterator<GroupedComplexEvent> iterator = state.eventList.iterator();
@@ -100,16 +101,17 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
                                 if (comparator.compare(currentEvent.getComplexEvent(), groupedComplexEvent
                                         .getComplexEvent()) == 0) {
                                     iterator.remove();
-                                    for (Integer position : aggregateAttributePositionList) {
-                                        currentAggregateAttributeValueMap.put(position,
-                                                groupedComplexEvent.getOutputData()[position]);
+                                    for (int i = 0; i < aggregateAttributePositions.length; i++) {
+                                        state.groupByAggregateAttributeValues.setObject(currentSlot, i,
+                                                groupedComplexEvent.getOutputData()[aggregateAttributePositions[i]]);
                                     }
                                     break;
                                 }
                             }
                         } else if (groupedComplexEvent.getType() == ComplexEvent.Type.RESET) {
                             state.eventList.clear();
-                            state.groupByAggregateAttributeValueMap.clear();
+                            state.groupByAggregateAttributeValues.clear();
+                            currentGroupByKey = null;
                         }
                     }
                 }
@@ -117,33 +119,41 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
         } finally {
             stateHolder.returnState(state);
         }
-        for (ComplexEventChunk eventChunk : outputEventChunks) {
-            sendToCallBacks(eventChunk);
+        if (outputEventChunks != null) {
+            for (ComplexEventChunk eventChunk : outputEventChunks) {
+                sendToCallBacks(eventChunk);
+            }
         }
     }
 
-    private void tryFlushEvents(List<ComplexEventChunk<ComplexEvent>> outputEventChunks, ComplexEvent event,
-                                AggregationGroupByRateLimiterState state) {
+    private List<ComplexEventChunk<ComplexEvent>> tryFlushEvents(
+            List<ComplexEventChunk<ComplexEvent>> outputEventChunks, ComplexEvent event,
+            AggregationGroupByRateLimiterState state) {
         if (event.getTimestamp() >= state.scheduledTime) {
+            if (outputEventChunks == null) {
+                outputEventChunks = new ArrayList<>(1);
+            }
             constructOutputChunk(outputEventChunks, state);
             state.scheduledTime = state.scheduledTime + value;
             scheduler.notifyAt(state.scheduledTime);
         }
+        return outputEventChunks;
     }
 
     private void constructOutputChunk(List<ComplexEventChunk<ComplexEvent>> outputEventChunks,
                                       AggregationGroupByRateLimiterState state) {
         ComplexEventChunk<ComplexEvent> outputEventChunk = new ComplexEventChunk<ComplexEvent>(false);
-        Set<String> outputGroupingKeys = new HashSet<>();
+        // The long value of a slot holds the last flush the group is emitted at, so that each group is emitted once
+        long flushId = ++state.flushCount;
+        GroupSlotTable groupByAggregateAttributeValues = state.groupByAggregateAttributeValues;
         for (GroupedComplexEvent originalComplexEvent : state.eventList) {
-            String currentGroupByKey = originalComplexEvent.getGroupKey();
-            if (!outputGroupingKeys.contains(currentGroupByKey)) {
-                outputGroupingKeys.add(currentGroupByKey);
-                Map<Integer, Object> currentAggregateAttributeValueMap = state.groupByAggregateAttributeValueMap.get
-                        (currentGroupByKey);
+            int slot = groupByAggregateAttributeValues.getSlot(originalComplexEvent.getGroupKey());
+            if (groupByAggregateAttributeValues.getLong(slot) != flushId) {
+                groupByAggregateAttributeValues.setLong(slot, flushId);
                 ComplexEvent eventCopy = cloneComplexEvent(originalComplexEvent.getComplexEvent());
-                for (Integer position : aggregateAttributePositionList) {
-                    eventCopy.getOutputData()[position] = currentAggregateAttributeValueMap.get(position);
+                for (int i = 0; i < aggregateAttributePositions.length; i++) {
+                    eventCopy.getOutputData()[aggregateAttributePositions[i]] =
+                            groupByAggregateAttributeValues.getObject(slot, i);
                 }
                 outputEventChunk.add(eventCopy);
             }
@@ -154,20 +164,31 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
     class AggregationGroupByRateLimiterState extends AggregationRateLimiterState {
 
         private List<GroupedComplexEvent> eventList;
-        private Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap;
+        private GroupSlotTable groupByAggregateAttributeValues;
+        private long flushCount;
 
         public AggregationGroupByRateLimiterState() {
-            groupByAggregateAttributeValueMap = new HashMap<>();
+            groupByAggregateAttributeValues = new GroupSlotTable(aggregateAttributePositions.length);
             eventList = new LinkedList<>();
         }
 
         @Override
         public boolean canDestroy() {
-            return groupByAggregateAttributeValueMap.isEmpty() && eventList.isEmpty() && scheduledTime == 0;
+            return groupByAggregateAttributeValues.isEmpty() && eventList.isEmpty() && scheduledTime == 0;
         }
 
         @Override
         public Map<String, Object> snapshot() {
+            Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap = new HashMap<>();
+            for (int slot = 0; slot < groupByAggregateAttributeValues.size(); slot++) {
+                Map<Integer, Object> aggregateAttributeValueMap = new HashMap<>(aggregateAttributePositions.length);
+                for (int i = 0; i < aggregateAttributePositions.length; i++) {
+                    aggregateAttributeValueMap.put(aggregateAttributePositions[i],
+                            groupByAggregateAttributeValues.getObject(slot, i));
+                }
+                groupByAggregateAttributeValueMap.put(groupByAggregateAttributeValues.getKey(slot),
+                        aggregateAttributeValueMap);
+            }
             Map<String, Object> state = new HashMap<>();
             state.put("EventList", eventList);
             state.put("GroupByAggregateAttributeValueMap", groupByAggregateAttributeValueMap);
@@ -178,8 +199,16 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends
         @Override
         public void restore(Map<String, Object> state) {
             eventList = (List<GroupedComplexEvent>) state.get("EventList");
-            groupByAggregateAttributeValueMap = (Map<String, Map<Integer, Object>>) state.get
-                    ("GroupByAggregateAttributeValueMap");
+            Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap =
+                    (Map<String, Map<Integer, Object>>) state.get("GroupByAggregateAttributeValueMap");
+            groupByAggregateAttributeValues.clear();
+            for (Map.Entry<String, Map<Integer, Object>> entry : groupByAggregateAttributeValueMap.entrySet()) {
+                int slot = groupByAggregateAttributeValues.addSlot(entry.getKey());
+                for (int i = 0; i < aggregateAttributePositions.length; i++) {
+                    groupByAggregateAttributeValues.setObject(slot, i,
+                            entry.getValue().get(aggregateAttributePositions[i]));
+                }
+            }
             scheduledTime = (Long) state.get("ScheduledTime");
         }
     }
@@ -21,6 +21,7 @@ package io.siddhi.core.query.output.ratelimit.time;
 import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.GroupedComplexEvent;
+import io.siddhi.core.query.output.ratelimit.GroupSlotTable;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.util.Schedulable;
 import io.siddhi.core.util.snapshot.state.State;
@@ -52,7 +53,7 @@ public class FirstGroupByPerTimeOutputRateLimiter
 
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
-        ComplexEventChunk<ComplexEvent> outputEventChunk = new ComplexEventChunk<>(complexEventChunk.isBatch());
+        ComplexEventChunk<ComplexEvent> outputEventChunk = null;
         complexEventChunk.reset();
         RateLimiterState state = stateHolder.getState();
         try {
@@ -63,9 +64,15 @@ public class FirstGroupByPerTimeOutputRateLimiter
                     ComplexEvent event = complexEventChunk.next();
                     complexEventChunk.remove();
                     GroupedComplexEvent groupedComplexEvent = ((GroupedComplexEvent) event);
-                    Long outputTime = state.groupByOutputTime.get(groupedComplexEvent.getGroupKey());
-                    if (outputTime == null || outputTime + value <= currentTime) {
-                        state.groupByOutputTime.put(groupedComplexEvent.getGroupKey(), currentTime);
+                    int slot = state.groupByOutputTime.getSlot(groupedComplexEvent.getGroupKey());
+                    if (slot == -1 || state.groupByOutputTime.getLong(slot) + value <= currentTime) {
+                        if (slot == -1) {
+                            slot = state.groupByOutputTime.addSlot(groupedComplexEvent.getGroupKey());
+                        }
+                        state.groupByOutputTime.setLong(slot, currentTime);
+                        if (outputEventChunk == null) {
+                            outputEventChunk = new ComplexEventChunk<>(complexEventChunk.isBatch());
+                        }
                         outputEventChunk.add(groupedComplexEvent);
                     }
                 }
@@ -73,7 +80,7 @@ public class FirstGroupByPerTimeOutputRateLimiter
         } finally {
             stateHolder.returnState(state);
         }
-        if (outputEventChunk.getFirst() != null) {
+        if (outputEventChunk != null) {
             sendToCallBacks(outputEventChunk);
         }
     }
@@ -85,7 +92,7 @@ public class FirstGroupByPerTimeOutputRateLimiter
 
     class RateLimiterState extends State {
 
-        private Map<String, Long> groupByOutputTime = new HashMap();
+        private GroupSlotTable groupByOutputTime = new GroupSlotTable(0);
 
         @Override
         public boolean canDestroy() {
@@ -95,13 +102,21 @@ public class FirstGroupByPerTimeOutputRateLimiter
         @Override
         public Map<String, Object> snapshot() {
             Map<String, Object> state = new HashMap<>();
-            state.put("GroupByOutputTime", groupByOutputTime);
+            Map<String, Long> groupByTimes = new HashMap<>();
+            for (int slot = 0; slot < groupByOutputTime.size(); slot++) {
+                groupByTimes.put(groupByOutputTime.getKey(slot), groupByOutputTime.getLong(slot));
+            }
+            state.put("GroupByOutputTime", groupByTimes);
             return state;
         }
 
         @Override
         public void restore(Map<String, Object> state) {
-            groupByOutputTime = (Map<String, Long>) state.get("GroupByOutputTime");
+            groupByOutputTime.clear();
+            Map<String, Long> groupByTimes = (Map<String, Long>) state.get("GroupByOutputTime");
+            for (Map.Entry<String, Long> entry : groupByTimes.entrySet()) {
+                groupByOutputTime.setLong(groupByOutputTime.addSlot(entry.getKey()), entry.getValue());
+            }
         }
     }
 }
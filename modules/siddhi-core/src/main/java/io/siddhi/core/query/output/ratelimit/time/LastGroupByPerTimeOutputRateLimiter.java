@@ -23,6 +23,7 @@ import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.GroupedComplexEvent;
 import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.query.output.ratelimit.GroupSlotTable;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.util.Schedulable;
 import io.siddhi.core.util.Scheduler;
@@ -34,6 +35,7 @@ import org.apache.log4j.Logger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -62,7 +64,7 @@ public class LastGroupByPerTimeOutputRateLimiter
 
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
-        ArrayList<ComplexEventChunk<ComplexEvent>> outputEventChunks = new ArrayList<>();
+        List<ComplexEventChunk<ComplexEvent>> outputEventChunks = null;
         complexEventChunk.reset();
         RateLimiterState state = stateHolder.getState();
         try {
@@ -71,11 +73,14 @@ public class LastGroupByPerTimeOutputRateLimiter
                     ComplexEvent event = complexEventChunk.next();
                     if (event.getType() == ComplexEvent.Type.TIMER) {
                         if (event.getTimestamp() >= state.scheduledTime) {
-                            if (state.allGroupByKeyEvents.size() != 0) {
+                            if (!state.allGroupByKeyEvents.isEmpty()) {
                                 ComplexEventChunk<ComplexEvent> outputEventChunk = new ComplexEventChunk<ComplexEvent>
                                         (complexEventChunk.isBatch());
-                                for (ComplexEvent complexEvent : state.allGroupByKeyEvents.values()) {
-                                    outputEventChunk.add(complexEvent);
+                                for (int slot = 0; slot < state.allGroupByKeyEvents.size(); slot++) {
+                                    outputEventChunk.add((ComplexEvent) state.allGroupByKeyEvents.getObject(slot, 0));
+                                }
+                                if (outputEventChunks == null) {
+                                    outputEventChunks = new ArrayList<>(1);
                                 }
                                 outputEventChunks.add(outputEventChunk);
                                 state.allGroupByKeyEvents.clear();
@@ -87,7 +92,8 @@ public class LastGroupByPerTimeOutputRateLimiter
                             .EXPIRED) {
                         complexEventChunk.remove();
                         GroupedComplexEvent groupedComplexEvent = ((GroupedComplexEvent) event);
-                        state.allGroupByKeyEvents.put(groupedComplexEvent.getGroupKey(),
+                        state.allGroupByKeyEvents.setObject(
+                                state.allGroupByKeyEvents.addSlot(groupedComplexEvent.getGroupKey()), 0,
                                 groupedComplexEvent.getComplexEvent());
                     }
                 }
@@ -95,10 +101,11 @@ public class LastGroupByPerTimeOutputRateLimiter
         } finally {
             stateHolder.returnState(state);
         }
-        for (ComplexEventChunk eventChunk : outputEventChunks) {
-            sendToCallBacks(eventChunk);
+        if (outputEventChunks != null) {
+            for (ComplexEventChunk eventChunk : outputEventChunks) {
+                sendToCallBacks(eventChunk);
+            }
         }
-
     }
 
     @Override
@@ -118,24 +125,33 @@ public class LastGroupByPerTimeOutputRateLimiter
     class RateLimiterState extends State {
 
         public long scheduledTime;
-        private Map<String, ComplexEvent> allGroupByKeyEvents = new LinkedHashMap<String, ComplexEvent>();
+        private GroupSlotTable allGroupByKeyEvents = new GroupSlotTable(1);
 
         @Override
         public boolean canDestroy() {
-            return allGroupByKeyEvents.size() == 0 && scheduledTime == 0;
+            return allGroupByKeyEvents.isEmpty() && scheduledTime == 0;
         }
 
         @Override
         public Map<String, Object> snapshot() {
+            Map<String, ComplexEvent> groupByKeyEvents = new LinkedHashMap<>();
+            for (int slot = 0; slot < allGroupByKeyEvents.size(); slot++) {
+                groupByKeyEvents.put(allGroupByKeyEvents.getKey(slot),
+                        (ComplexEvent) allGroupByKeyEvents.getObject(slot, 0));
+            }
             Map<String, Object> state = new HashMap<>();
-            state.put("AllGroupByKeyEvents", allGroupByKeyEvents);
+            state.put("AllGroupByKeyEvents", groupByKeyEvents);
             state.put("ScheduledTime", scheduledTime);
             return state;
         }
 
         @Override
         public void restore(Map<String, Object> state) {
-            allGroupByKeyEvents = (Map<String, ComplexEvent>) state.get("AllGroupByKeyEvents");
+            allGroupByKeyEvents.clear();
+            Map<String, ComplexEvent> groupByKeyEvents = (Map<String, ComplexEvent>) state.get("AllGroupByKeyEvents");
+            for (Map.Entry<String, ComplexEvent> entry : groupByKeyEvents.entrySet()) {
+                allGroupByKeyEvents.setObject(allGroupByKeyEvents.addSlot(entry.getKey()), 0, entry.getValue());
+            }
             scheduledTime = (Long) state.get("ScheduledTime");
         }
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.processor.filter;
+
+import io.siddhi.core.event.stream.ColumnarEventBatch;
+
+/**
+ * {@link ColumnarCondition} of a BOOL attribute used as the condition.
+ */
+public class BoolColumnarCondition implements ColumnarCondition {
+
+    private final int position;
+
+    public BoolColumnarCondition(int position) {
+        this.position = position;
+    }
+
+    @Override
+    public void evaluate(ColumnarEventBatch batch, boolean[] result) {
+        boolean[] column = batch.getBoolColumn(position);
+        System.arraycopy(column, 0, result, 0, result.length);
+        batch.applyValidity(position, result);
+    }
+}
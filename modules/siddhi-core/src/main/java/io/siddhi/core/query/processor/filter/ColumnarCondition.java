@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.processor.filter;
+
+import io.siddhi.core.event.stream.ColumnarEventBatch;
+
+/**
+ * Filter condition evaluated over a whole {@link ColumnarEventBatch} at once, such that the condition is checked
+ * in tight loops over primitive arrays instead of per event. Rows where the condition evaluates to null are
+ * considered false, as done by {@link FilterProcessor}.
+ */
+public interface ColumnarCondition {
+
+    /**
+     * Evaluate the condition for all the rows of the batch.
+     *
+     * @param batch  the event batch
+     * @param result array of the batch size, to which the result of each row is written
+     */
+    void evaluate(ColumnarEventBatch batch, boolean[] result);
+}
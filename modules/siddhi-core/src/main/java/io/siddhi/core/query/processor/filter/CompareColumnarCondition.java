@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.processor.filter;
+
+import io.siddhi.core.event.stream.ColumnarEventBatch;
+import io.siddhi.query.api.expression.condition.Compare;
+
+/**
+ * {@link ColumnarCondition} comparing an attribute with a constant. INT and LONG attributes are compared as long
+ * values, FLOAT and DOUBLE attributes, and INT and LONG attributes compared with a DOUBLE constant, are compared as
+ * double values, and other attributes are only compared for equality.
+ */
+public class CompareColumnarCondition implements ColumnarCondition {
+
+    private final int position;
+    private final Compare.Operator operator;
+    private final ColumnType columnType;
+    private final long longValue;
+    private final double doubleValue;
+    private final Object objectValue;
+
+    private CompareColumnarCondition(int position, Compare.Operator operator, ColumnType columnType,
+                                     long longValue, double doubleValue, Object objectValue) {
+        this.position = position;
+        this.operator = operator;
+        this.columnType = columnType;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+        this.objectValue = objectValue;
+    }
+
+    public static CompareColumnarCondition compareLong(int position, Compare.Operator operator, long value) {
+        return new CompareColumnarCondition(position, operator, ColumnType.LONG, value, 0, null);
+    }
+
+    public static CompareColumnarCondition compareLongAsDouble(int position, Compare.Operator operator,
+                                                               double value) {
+        return new CompareColumnarCondition(position, operator, ColumnType.LONG_AS_DOUBLE, 0, value, null);
+    }
+
+    public static CompareColumnarCondition compareDouble(int position, Compare.Operator operator, double value) {
+        return new CompareColumnarCondition(position, operator, ColumnType.DOUBLE, 0, value, null);
+    }
+
+    public static CompareColumnarCondition compareBool(int position, Compare.Operator operator, boolean value) {
+        return new CompareColumnarCondition(position, operator, ColumnType.BOOL, 0, 0, value);
+    }
+
+    public static CompareColumnarCondition compareObject(int position, Compare.Operator operator, Object value) {
+        return new CompareColumnarCondition(position, operator, ColumnType.OBJECT, 0, 0, value);
+    }
+
+    @Override
+    public void evaluate(ColumnarEventBatch batch, boolean[] result) {
+        switch (columnType) {
+            case LONG:
+                evaluate(batch.getLongColumn(position), longValue, result);
+                break;
+            case LONG_AS_DOUBLE:
+                evaluate(batch.getLongColumn(position), doubleValue, result);
+                break;
+            case DOUBLE:
+                evaluate(batch.getDoubleColumn(position), doubleValue, result);
+                break;
+            case BOOL:
+                boolean[] boolColumn = batch.getBoolColumn(position);
+                boolean boolValue = (Boolean) objectValue;
+                boolean equal = operator == Compare.Operator.EQUAL;
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = (boolColumn[i] == boolValue) == equal;
+                }
+                break;
+            case OBJECT:
+                Object[] objectColumn = batch.getObjectColumn(position);
+                equal = operator == Compare.Operator.EQUAL;
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = objectValue.equals(objectColumn[i]) == equal;
+                }
+                break;
+        }
+        batch.applyValidity(position, result);
+    }
+
+    private void evaluate(long[] column, long value, boolean[] result) {
+        int size = result.length;
+        switch (operator) {
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] < value;
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] > value;
+                }
+                break;
+            case LESS_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] <= value;
+                }
+                break;
+            case GREATER_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] >= value;
+                }
+                break;
+            case EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] == value;
+                }
+                break;
+            case NOT_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] != value;
+                }
+                break;
+        }
+    }
+
+    private void evaluate(long[] column, double value, boolean[] result) {
+        int size = result.length;
+        switch (operator) {
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] < value;
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] > value;
+                }
+                break;
+            case LESS_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] <= value;
+                }
+                break;
+            case GREATER_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] >= value;
+                }
+                break;
+            case EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] == value;
+                }
+                break;
+            case NOT_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] != value;
+                }
+                break;
+        }
+    }
+
+    private void evaluate(double[] column, double value, boolean[] result) {
+        int size = result.length;
+        switch (operator) {
+            case LESS_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] < value;
+                }
+                break;
+            case GREATER_THAN:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] > value;
+                }
+                break;
+            case LESS_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] <= value;
+                }
+                break;
+            case GREATER_THAN_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] >= value;
+                }
+                break;
+            case EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] == value;
+                }
+                break;
+            case NOT_EQUAL:
+                for (int i = 0; i < size; i++) {
+                    result[i] = column[i] != value;
+                }
+                break;
+        }
+    }
+
+    private enum ColumnType {
+        LONG,
+        LONG_AS_DOUBLE,
+        DOUBLE,
+        BOOL,
+        OBJECT
+    }
+}
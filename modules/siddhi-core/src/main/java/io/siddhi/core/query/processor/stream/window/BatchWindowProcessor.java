@@ -42,6 +42,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
 
@@ -208,7 +209,7 @@ public class BatchWindowProcessor extends BatchingFindableWindowProcessor<BatchW
                 variableExpressionExecutors, tableMap, siddhiQueryContext);
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         private SnapshotableStreamEventQueue expiredEventQueue;
         private StreamEvent resetEvent = null;
 
@@ -238,6 +239,11 @@ public class BatchWindowProcessor extends BatchingFindableWindowProcessor<BatchW
             resetEvent = (StreamEvent) state.get("ResetEvent");
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return expiredEventQueue == null ? 0 : expiredEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
             return expiredEventQueue.getFirst() == null && resetEvent == null;
@@ -36,6 +36,7 @@ import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import org.apache.log4j.Logger;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.Job;
@@ -241,7 +242,7 @@ public class CronWindowProcessor extends BatchingWindowProcessor<CronWindowProce
 
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         private SnapshotableStreamEventQueue currentEventQueue;
         private SnapshotableStreamEventQueue expiredEventQueue;
 
@@ -263,6 +264,11 @@ public class CronWindowProcessor extends BatchingWindowProcessor<CronWindowProce
             expiredEventQueue.restore((SnapshotStateList) state.get("ExpiredEventQueue"));
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return currentEventQueue.getEstimatedMemoryUsage() + expiredEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
             return expiredEventQueue.getFirst() == null && currentEventQueue.getFirst() == null;
@@ -199,6 +199,11 @@ public class DelayWindowProcessor extends TimeWindowProcessor {
             lastTimestamp = (long) state.get("LastTimestamp");
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return super.getEstimatedMemoryUsage() + delayedEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
             return delayedEventQueue.getFirst() == null;
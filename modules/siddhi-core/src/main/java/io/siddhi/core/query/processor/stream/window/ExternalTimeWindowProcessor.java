@@ -23,6 +23,7 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.state.StateEvent;
 import io.siddhi.core.event.stream.StreamEvent;
@@ -32,6 +33,7 @@ import io.siddhi.core.executor.ConstantExpressionExecutor;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.processor.Processor;
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
 import io.siddhi.core.table.Table;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 import io.siddhi.core.util.collection.operator.MatchingMetaInfoHolder;
@@ -41,6 +43,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
@@ -84,10 +87,13 @@ import java.util.Map;
         )
 )
 public class ExternalTimeWindowProcessor
-        extends SlidingFindableWindowProcessor<ExternalTimeWindowProcessor.WindowState> {
+        extends SlidingFindableWindowProcessor<ExternalTimeWindowProcessor.WindowState>
+        implements SliceableWindowProcessor {
     private static final Logger log = Logger.getLogger(ExternalTimeWindowProcessor.class);
     private long timeToKeep;
     private VariableExpressionExecutor timeStampVariableExpressionExecutor;
+    private boolean sliced = false;
+    private AggregatorSlicer aggregatorSlicer;
 
     @Override
     protected StateFactory<WindowState> init(ExpressionExecutor[] attributeExpressionExecutors,
@@ -120,6 +126,29 @@ public class ExternalTimeWindowProcessor
     @Override
     protected void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
                            StreamEventCloner streamEventCloner, WindowState state) {
+        if (sliced) {
+            long currentTime = Long.MIN_VALUE;
+            while (streamEventChunk.hasNext()) {
+                StreamEvent streamEvent = streamEventChunk.next();
+                if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
+                    long eventTime = (Long) timeStampVariableExpressionExecutor.execute(streamEvent);
+                    currentTime = Math.max(currentTime, eventTime);
+                } else {
+                    streamEventChunk.remove();
+                }
+            }
+            nextProcessor.process(streamEventChunk);
+            if (currentTime != Long.MIN_VALUE) {
+                long sliceSize = aggregatorSlicer.getSliceSize();
+                long sliceStart = currentTime - Math.floorMod(currentTime, sliceSize);
+                if (state.lastSliceStart < sliceStart) {
+                    // time of the window has moved into a new slice, hence slices of idle groups may have expired
+                    state.lastSliceStart = sliceStart;
+                    aggregatorSlicer.expireSlices(currentTime);
+                }
+            }
+            return;
+        }
         synchronized (state) {
             while (streamEventChunk.hasNext()) {
 
@@ -155,6 +184,27 @@ public class ExternalTimeWindowProcessor
         nextProcessor.process(streamEventChunk);
     }
 
+    @Override
+    public long getWindowLength() {
+        return timeToKeep;
+    }
+
+    @Override
+    public long getSliceTimestamp(ComplexEvent event) {
+        return (Long) timeStampVariableExpressionExecutor.execute(event);
+    }
+
+    @Override
+    public long getSliceCurrentTime(ComplexEvent event) {
+        return (Long) timeStampVariableExpressionExecutor.execute(event);
+    }
+
+    @Override
+    public void enableSlicing(AggregatorSlicer aggregatorSlicer) {
+        this.sliced = true;
+        this.aggregatorSlicer = aggregatorSlicer;
+    }
+
     @Override
     public void start() {
         //Do nothing
@@ -180,9 +230,15 @@ public class ExternalTimeWindowProcessor
         return ((Operator) compiledCondition).find(matchingEvent, state.expiredEventQueue, streamEventCloner);
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         private SnapshotableStreamEventQueue expiredEventQueue =
                 new SnapshotableStreamEventQueue(streamEventClonerHolder);
+        private long lastSliceStart = Long.MIN_VALUE;
+
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return expiredEventQueue.getEstimatedMemoryUsage();
+        }
 
         @Override
         public boolean canDestroy() {
@@ -193,6 +249,7 @@ public class ExternalTimeWindowProcessor
         public Map<String, Object> snapshot() {
             Map<String, Object> state = new HashMap<>();
             state.put("ExpiredEventQueue", expiredEventQueue.getSnapshot());
+            state.put("LastSliceStart", lastSliceStart);
             return state;
         }
 
@@ -200,6 +257,8 @@ public class ExternalTimeWindowProcessor
         public void restore(Map<String, Object> state) {
             expiredEventQueue.clear();
             expiredEventQueue.restore((SnapshotStateList) state.get("ExpiredEventQueue"));
+            Long lastSliceStart = (Long) state.get("LastSliceStart");
+            this.lastSliceStart = lastSliceStart != null ? lastSliceStart : Long.MIN_VALUE;
         }
     }
 }
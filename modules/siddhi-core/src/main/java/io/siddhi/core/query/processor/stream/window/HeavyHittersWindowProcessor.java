@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.processor.stream.window;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.state.StateEvent;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.event.stream.StreamEventCloner;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.executor.VariableExpressionExecutor;
+import io.siddhi.core.query.processor.Processor;
+import io.siddhi.core.table.Table;
+import io.siddhi.core.util.collection.operator.CompiledCondition;
+import io.siddhi.core.util.collection.operator.MatchingMetaInfoHolder;
+import io.siddhi.core.util.collection.operator.Operator;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.parser.OperatorParser;
+import io.siddhi.core.util.sketch.CountMinSketch;
+import io.siddhi.core.util.sketch.HyperLogLog;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
+import io.siddhi.core.util.statistics.memory.EventMemoryEstimator;
+import io.siddhi.query.api.exception.SiddhiAppValidationException;
+import io.siddhi.query.api.expression.Expression;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link WindowProcessor} which retains the latest events of the most frequent values of the
+ * given attribute(s) using a fixed amount of memory. Frequencies of all the values are estimated by a
+ * {@link CountMinSketch}, while the given number of most frequent values are kept in a min-heap ordered by their
+ * estimated frequencies. A value that is not retained replaces the least frequent retained value once its estimate
+ * exceeds the estimate of that value, as in the Space-Saving algorithm, expiring the latest event of the replaced
+ * value. Each event is processed in O(depth + log(event.count)) time.
+ */
+@Extension(
+        name = "heavyHitters",
+        namespace = "",
+        description = "This window returns the latest events with the most frequently occurred values for " +
+                "a given attribute(s), using a fixed amount of memory regardless of the number of distinct values. " +
+                "Frequencies are estimated by a Count-Min sketch, and the most frequent values are kept in a " +
+                "min-heap. When a value becomes more frequent than the least frequent value in the window, the " +
+                "latest event of the latter is expired.",
+        parameters = {
+                @Parameter(name = "event.count",
+                        description = "The number of most frequent events to be emitted to the stream.",
+                        type = {DataType.INT}),
+                @Parameter(name = "error",
+                        description = "The relative error of the estimated frequencies with respect to the total " +
+                                "number of events. The memory used by the sketch is inversely proportional to it.",
+                        type = {DataType.DOUBLE},
+                        optional = true,
+                        defaultValue = "0.001"),
+                @Parameter(name = "attribute",
+                        description = "The attributes to group the events. If no attributes are given, " +
+                                "the concatenation of all the attributes of the event is considered.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "The concatenation of all the attributes of the event is considered.")
+        },
+        examples = {
+                @Example(
+                        syntax = "@info(name = 'query1')\n" +
+                                "from requests#window.heavyHitters(10, url)\n" +
+                                "select url, ip\n" +
+                                "insert all events into TopRequests;",
+                        description = "This will return the latest events of the 10 most requested urls."
+                ),
+                @Example(
+                        syntax = "@info(name = 'query1')\n" +
+                                "from purchase[price >= 30]#window.heavyHitters(2, 0.0001, cardNo)\n" +
+                                "select cardNo, price\n" +
+                                "insert all events into PotentialFraud;",
+                        description = "This will return the latest events of the 2 most frequently appeared " +
+                                "card numbers, estimating the frequencies with a relative error of 0.0001."
+                )
+        }
+)
+public class HeavyHittersWindowProcessor
+        extends SlidingFindableWindowProcessor<HeavyHittersWindowProcessor.WindowState> {
+    private static final double DEFAULT_ERROR = 0.001;
+    private VariableExpressionExecutor[] variableExpressionExecutors;
+    private int mostFrequentCount;
+    private double error = DEFAULT_ERROR;
+
+    @Override
+    protected StateFactory<WindowState> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                             ConfigReader configReader,
+                                             SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length == 0 ||
+                !(attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor)) {
+            throw new SiddhiAppValidationException("HeavyHitters window's 1st parameter event.count should be a " +
+                    "constant int");
+        }
+        mostFrequentCount = Integer.parseInt(String.valueOf(((ConstantExpressionExecutor)
+                attributeExpressionExecutors[0]).getValue()));
+        if (mostFrequentCount <= 0) {
+            throw new SiddhiAppValidationException("HeavyHitters window's 1st parameter event.count should be " +
+                    "positive, but found " + mostFrequentCount);
+        }
+        int attributeStart = 1;
+        if (attributeExpressionExecutors.length > 1 &&
+                attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) {
+            error = Double.parseDouble(String.valueOf(((ConstantExpressionExecutor)
+                    attributeExpressionExecutors[1]).getValue()));
+            if (error <= 0 || error >= 1) {
+                throw new SiddhiAppValidationException("HeavyHitters window's 2nd parameter error should be in " +
+                        "the range of (0, 1), but found " + error);
+            }
+            attributeStart = 2;
+        }
+        variableExpressionExecutors = new VariableExpressionExecutor[attributeExpressionExecutors.length -
+                attributeStart];
+        for (int i = attributeStart; i < attributeExpressionExecutors.length; i++) {
+            if (!(attributeExpressionExecutors[i] instanceof VariableExpressionExecutor)) {
+                throw new SiddhiAppValidationException("HeavyHitters window's attribute parameters should be " +
+                        "attributes of the stream, but found a " + attributeExpressionExecutors[i].getClass());
+            }
+            variableExpressionExecutors[i - attributeStart] =
+                    (VariableExpressionExecutor) attributeExpressionExecutors[i];
+        }
+        return () -> new WindowState();
+    }
+
+    @Override
+    protected void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
+                           StreamEventCloner streamEventCloner, WindowState state) {
+
+        synchronized (state) {
+            StreamEvent streamEvent = streamEventChunk.getFirst();
+            streamEventChunk.clear();
+            long currentTime = siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator().currentTime();
+            while (streamEvent != null) {
+                StreamEvent next = streamEvent.getNext();
+                streamEvent.setNext(null);
+
+                String key = generateKey(streamEvent);
+                long estimate = state.sketch.add(HyperLogLog.hash(key));
+                Counter counter = state.counters.get(key);
+                if (counter != null) {
+                    counter.event = expiredCopy(streamEvent, streamEventCloner);
+                    state.increase(counter, estimate);
+                    streamEventChunk.add(streamEvent);
+                } else if (state.size < mostFrequentCount) {
+                    counter = new Counter(key, estimate, expiredCopy(streamEvent, streamEventCloner));
+                    state.counters.put(key, counter);
+                    state.push(counter);
+                    streamEventChunk.add(streamEvent);
+                } else if (estimate > state.heap[0].count) {
+                    // the least frequent value is replaced, reusing its counter
+                    counter = state.heap[0];
+                    state.counters.remove(counter.key);
+                    StreamEvent expiredEvent = counter.event;
+                    expiredEvent.setTimestamp(currentTime);
+                    streamEventChunk.add(expiredEvent);
+
+                    counter.key = key;
+                    counter.event = expiredCopy(streamEvent, streamEventCloner);
+                    state.counters.put(key, counter);
+                    state.increase(counter, estimate);
+                    streamEventChunk.add(streamEvent);
+                }
+                // otherwise the value is not frequent enough and the event is dropped
+                streamEvent = next;
+            }
+        }
+        nextProcessor.process(streamEventChunk);
+    }
+
+    private StreamEvent expiredCopy(StreamEvent streamEvent, StreamEventCloner streamEventCloner) {
+        StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
+        clonedEvent.setType(StreamEvent.Type.EXPIRED);
+        return clonedEvent;
+    }
+
+    @Override
+    public void start() {
+        //Do nothing
+    }
+
+    @Override
+    public void stop() {
+        //Do nothing
+    }
+
+    private String generateKey(StreamEvent event) {
+        StringBuilder stringBuilder = new StringBuilder();
+        if (variableExpressionExecutors.length == 0) {
+            for (Object data : event.getOutputData()) {
+                stringBuilder.append(data);
+            }
+        } else {
+            for (VariableExpressionExecutor executor : variableExpressionExecutors) {
+                stringBuilder.append(event.getAttribute(executor.getPosition()));
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public CompiledCondition compileCondition(Expression condition, MatchingMetaInfoHolder matchingMetaInfoHolder,
+                                              List<VariableExpressionExecutor> variableExpressionExecutors,
+                                              Map<String, Table> tableMap, WindowState state,
+                                              SiddhiQueryContext siddhiQueryContext) {
+        return OperatorParser.constructOperator(state.getEvents(), condition, matchingMetaInfoHolder,
+                variableExpressionExecutors, tableMap, siddhiQueryContext);
+    }
+
+    @Override
+    public StreamEvent find(StateEvent matchingEvent, CompiledCondition compiledCondition,
+                            StreamEventCloner streamEventCloner, WindowState state) {
+        return ((Operator) compiledCondition).find(matchingEvent, state.getEvents(), streamEventCloner);
+    }
+
+    /**
+     * Estimated frequency and latest event of a retained value.
+     */
+    private static class Counter implements Serializable {
+        private static final long serialVersionUID = 4513328460563468702L;
+        private String key;
+        private long count;
+        private StreamEvent event;
+        private transient int index;
+
+        private Counter(String key, long count, StreamEvent event) {
+            this.key = key;
+            this.count = count;
+            this.event = event;
+        }
+    }
+
+    class WindowState extends State implements MemoryEstimable {
+        private CountMinSketch sketch = CountMinSketch.forError(error, CountMinSketch.DEFAULT_DEPTH);
+        private Counter[] heap = new Counter[mostFrequentCount];
+        private int size = 0;
+        private HashMap<String, Counter> counters = new HashMap<>();
+
+        private void push(Counter counter) {
+            counter.index = size;
+            heap[size++] = counter;
+            siftUp(counter.index);
+        }
+
+        /**
+         * Set the count of a retained value, which never decreases as the estimates of the sketch do not.
+         */
+        private void increase(Counter counter, long count) {
+            counter.count = count;
+            siftDown(counter.index);
+        }
+
+        private void siftUp(int index) {
+            Counter counter = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent].count <= counter.count) {
+                    break;
+                }
+                place(heap[parent], index);
+                index = parent;
+            }
+            place(counter, index);
+        }
+
+        private void siftDown(int index) {
+            Counter counter = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && heap[right].count < heap[child].count) {
+                    child = right;
+                }
+                if (counter.count <= heap[child].count) {
+                    break;
+                }
+                place(heap[child], index);
+                index = child;
+            }
+            place(counter, index);
+        }
+
+        private void place(Counter counter, int index) {
+            heap[index] = counter;
+            counter.index = index;
+        }
+
+        private List<StreamEvent> getEvents() {
+            List<StreamEvent> events = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                events.add(heap[i].event);
+            }
+            return events;
+        }
+
+        @Override
+        public long getEstimatedMemoryUsage() {
+            long estimate = sketch.getCountersSize();
+            for (int i = 0; i < size; i++) {
+                estimate += EventMemoryEstimator.estimate(heap[i].event) +
+                        EventMemoryEstimator.estimateValue(heap[i].key) + EventMemoryEstimator.getMapEntrySize();
+            }
+            return estimate;
+        }
+
+        @Override
+        public boolean canDestroy() {
+            return size == 0;
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("Sketch", sketch);
+            state.put("Counters", new ArrayList<>(Arrays.asList(heap).subList(0, size)));
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            sketch = (CountMinSketch) state.get("Sketch");
+            List<Counter> restoredCounters = (List<Counter>) state.get("Counters");
+            Arrays.fill(heap, null);
+            size = 0;
+            counters.clear();
+            // counters are snapshot in heap order, hence placing them back keeps the heap ordered
+            for (Counter counter : restoredCounters) {
+                place(counter, size++);
+                counters.put(counter.key, counter);
+            }
+        }
+    }
+}
@@ -42,6 +42,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
 
@@ -295,7 +296,7 @@ public class LengthBatchWindowProcessor extends
         return ((Operator) compiledCondition).find(matchingEvent, state.expiredEventQueue, streamEventCloner);
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
 
         private int count = 0;
         private SnapshotableStreamEventQueue currentEventQueue = null;
@@ -312,6 +313,12 @@ public class LengthBatchWindowProcessor extends
             }
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return (currentEventQueue == null ? 0 : currentEventQueue.getEstimatedMemoryUsage()) +
+                    (expiredEventQueue == null ? 0 : expiredEventQueue.getEstimatedMemoryUsage());
+        }
+
         @Override
         public boolean canDestroy() {
             return (currentEventQueue == null || currentEventQueue.getFirst() == null) &&
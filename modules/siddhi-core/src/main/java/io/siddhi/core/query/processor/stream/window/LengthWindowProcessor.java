@@ -41,6 +41,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
 
@@ -164,12 +165,17 @@ public class LengthWindowProcessor extends SlidingFindableWindowProcessor<Length
     }
 
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
 
         private int count = 0;
         private SnapshotableStreamEventQueue expiredEventQueue =
                 new SnapshotableStreamEventQueue(streamEventClonerHolder, length);
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return expiredEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
             return count == 0 && expiredEventQueue.getFirst() == null;
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.processor.stream.window;
+
+import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
+
+/**
+ * Interface for sliding time based {@link WindowProcessor}s which can hand over event expiry to sliced (pane based)
+ * aggregation. When slicing is enabled the window stops retaining and expiring events, and the decomposable
+ * aggregators of the query pre-aggregate events into fixed size slices and expire whole slices instead.
+ */
+public interface SliceableWindowProcessor {
+
+    /**
+     * Get the length of the sliding window.
+     *
+     * @return window length in milliseconds
+     */
+    long getWindowLength();
+
+    /**
+     * Get the time used to assign the given event into a slice.
+     *
+     * @param event the event that arrived at the window
+     * @return event time in milliseconds
+     */
+    long getSliceTimestamp(ComplexEvent event);
+
+    /**
+     * Get the current time of the window when the given event is processed, slices older than current time minus
+     * the window length are expired.
+     *
+     * @param event the event that arrived at the window
+     * @return current time in milliseconds
+     */
+    long getSliceCurrentTime(ComplexEvent event);
+
+    /**
+     * Stop retaining events in the window, as expiry is handled by the sliced aggregators. As the aggregators only
+     * expire the slices of a group when the group receives an event, the window should call
+     * {@link AggregatorSlicer#expireSlices(long)} as its time passes the end of each slice, so that the states of
+     * idle groups are released.
+     *
+     * @param aggregatorSlicer slicer of the query
+     */
+    void enableSlicing(AggregatorSlicer aggregatorSlicer);
+}
@@ -68,6 +68,17 @@ public class TableWindowProcessor extends BatchingWindowProcessor implements Fin
         return table.find(matchingEvent, compiledCondition);
     }
 
+    /**
+     * Find the matching events of a batch of events, see {@link Table#findAll(List, CompiledCondition)}.
+     *
+     * @param matchingEvents    the events to be matched with the table
+     * @param compiledCondition the compiled condition
+     * @return the first matching event of each of the given events, in the order of the given events
+     */
+    public StreamEvent[] findAll(List<StateEvent> matchingEvents, CompiledCondition compiledCondition) {
+        return table.findAll(matchingEvents, compiledCondition);
+    }
+
     @Override
     public CompiledCondition compileCondition(Expression condition, MatchingMetaInfoHolder matchingMetaInfoHolder,
                                               List<VariableExpressionExecutor> variableExpressionExecutors,
@@ -44,6 +44,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
@@ -359,7 +360,7 @@ public class TimeBatchWindowProcessor extends BatchingFindableWindowProcessor<Ti
         return ((Operator) compiledCondition).find(matchingEvent, state.expiredEventQueue, streamEventCloner);
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         private SnapshotableStreamEventQueue currentEventQueue;
         private SnapshotableStreamEventQueue expiredEventQueue;
         private StreamEvent resetEvent = null;
@@ -393,6 +394,12 @@ public class TimeBatchWindowProcessor extends BatchingFindableWindowProcessor<Ti
             resetEvent = (StreamEvent) state.get("ResetEvent");
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return (currentEventQueue == null ? 0 : currentEventQueue.getEstimatedMemoryUsage()) +
+                    (expiredEventQueue == null ? 0 : expiredEventQueue.getEstimatedMemoryUsage());
+        }
+
         @Override
         public boolean canDestroy() {
             return (currentEventQueue == null || currentEventQueue.getFirst() == null)
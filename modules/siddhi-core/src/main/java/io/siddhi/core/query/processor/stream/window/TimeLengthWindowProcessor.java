@@ -44,6 +44,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
@@ -211,7 +212,7 @@ public class TimeLengthWindowProcessor extends SlidingFindableWindowProcessor<Ti
         }
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         private SnapshotableStreamEventQueue expiredEventQueue;
         private int count = 0;
 
@@ -232,6 +233,11 @@ public class TimeLengthWindowProcessor extends SlidingFindableWindowProcessor<Ti
             count = (Integer) state.get("ExpiredEventQueue");
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return expiredEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
             return expiredEventQueue.getFirst() == null && count == 0;
@@ -22,6 +22,7 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.event.ComplexEventChunk;
 import io.siddhi.core.event.state.StateEvent;
 import io.siddhi.core.event.stream.StreamEvent;
@@ -33,6 +34,7 @@ import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.processor.Processor;
 import io.siddhi.core.query.processor.SchedulingProcessor;
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
 import io.siddhi.core.table.Table;
 import io.siddhi.core.util.Scheduler;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
@@ -43,6 +45,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import io.siddhi.query.api.expression.Expression;
@@ -80,11 +83,13 @@ import java.util.Map;
         }
 )
 public class TimeWindowProcessor extends SlidingFindableWindowProcessor<TimeWindowProcessor.WindowState>
-        implements SchedulingProcessor {
+        implements SchedulingProcessor, SliceableWindowProcessor {
 
     private long timeInMilliSeconds;
     private Scheduler scheduler;
     private SiddhiQueryContext siddhiQueryContext;
+    private boolean sliced = false;
+    private AggregatorSlicer aggregatorSlicer;
 
     @Override
     public Scheduler getScheduler() {
@@ -128,6 +133,31 @@ public class TimeWindowProcessor extends SlidingFindableWindowProcessor<TimeWind
     @Override
     protected void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
                            StreamEventCloner streamEventCloner, WindowState state) {
+        if (sliced) {
+            long sliceSize = aggregatorSlicer.getSliceSize();
+            boolean expireSlices = false;
+            while (streamEventChunk.hasNext()) {
+                StreamEvent streamEvent = streamEventChunk.next();
+                if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
+                    long sliceStart = streamEvent.getTimestamp() - Math.floorMod(streamEvent.getTimestamp(), sliceSize);
+                    if (state.lastTimestamp < sliceStart) {
+                        scheduler.notifyAt(sliceStart + sliceSize - 1 + timeInMilliSeconds);
+                        state.lastTimestamp = sliceStart;
+                    }
+                } else {
+                    if (streamEvent.getType() == StreamEvent.Type.TIMER) {
+                        expireSlices = true;
+                    }
+                    streamEventChunk.remove();
+                }
+            }
+            nextProcessor.process(streamEventChunk);
+            if (expireSlices) {
+                aggregatorSlicer.expireSlices(
+                        siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator().currentTime());
+            }
+            return;
+        }
         synchronized (state) {
             SnapshotableStreamEventQueue expiredEventQueue = state.expiredEventQueue;
             while (streamEventChunk.hasNext()) {
@@ -179,6 +209,27 @@ public class TimeWindowProcessor extends SlidingFindableWindowProcessor<TimeWind
         return ((Operator) compiledCondition).find(matchingEvent, state.expiredEventQueue, streamEventCloner);
     }
 
+    @Override
+    public long getWindowLength() {
+        return timeInMilliSeconds;
+    }
+
+    @Override
+    public long getSliceTimestamp(ComplexEvent event) {
+        return event.getTimestamp();
+    }
+
+    @Override
+    public long getSliceCurrentTime(ComplexEvent event) {
+        return siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator().currentTime();
+    }
+
+    @Override
+    public void enableSlicing(AggregatorSlicer aggregatorSlicer) {
+        this.sliced = true;
+        this.aggregatorSlicer = aggregatorSlicer;
+    }
+
     @Override
     public void start() {
         //Do nothing
@@ -189,7 +240,7 @@ public class TimeWindowProcessor extends SlidingFindableWindowProcessor<TimeWind
         //Do nothing
     }
 
-    class WindowState extends State {
+    class WindowState extends State implements MemoryEstimable {
         protected SnapshotableStreamEventQueue expiredEventQueue;
         protected volatile long lastTimestamp = Long.MIN_VALUE;
 
@@ -211,8 +262,18 @@ public class TimeWindowProcessor extends SlidingFindableWindowProcessor<TimeWind
             lastTimestamp = (long) state.get("LastTimestamp");
         }
 
+        @Override
+        public long getEstimatedMemoryUsage() {
+            return expiredEventQueue.getEstimatedMemoryUsage();
+        }
+
         @Override
         public boolean canDestroy() {
+            if (sliced && lastTimestamp != Long.MIN_VALUE) {
+                // retain the start of the latest slice till its expiry, to schedule only one timer per slice
+                return lastTimestamp + aggregatorSlicer.getSliceSize() - 1 + timeInMilliSeconds <=
+                        siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator().currentTime();
+            }
             return expiredEventQueue.getFirst() == null;
         }
     }
@@ -19,10 +19,12 @@ package io.siddhi.core.query.processor.stream.window;
 
 import io.siddhi.core.query.processor.stream.AbstractStreamProcessor;
 import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.Attribute;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Abstract parent implementation of Processor to represent Windows. Common window behaviors will be handled
@@ -30,11 +32,39 @@ import java.util.List;
  *
  * @param <S> current state of the processor
  */
-public abstract class WindowProcessor<S extends State> extends AbstractStreamProcessor<S> {
+public abstract class WindowProcessor<S extends State> extends AbstractStreamProcessor<S>
+        implements MemoryEstimable {
 
 
     @Override
     public List<Attribute> getReturnAttributes() {
         return new ArrayList<>(0);
     }
+
+    /**
+     * Sum of the memory estimates of the window states across all partitions and groups.
+     *
+     * @return estimated bytes, or -1 if any of the states does not track its memory usage
+     */
+    @Override
+    public long getEstimatedMemoryUsage() {
+        if (stateHolder == null) {
+            return -1;
+        }
+        long estimate = 0;
+        Map<String, Map<String, S>> allStates = stateHolder.getAllStates();
+        try {
+            for (Map<String, S> groupByStates : allStates.values()) {
+                for (S state : groupByStates.values()) {
+                    if (!(state instanceof MemoryEstimable)) {
+                        return -1;
+                    }
+                    estimate += ((MemoryEstimable) state).getEstimatedMemoryUsage();
+                }
+            }
+        } finally {
+            stateHolder.returnAllStates(allStates);
+        }
+        return estimate;
+    }
 }
@@ -30,6 +30,7 @@ import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.query.processor.Processor;
 import io.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
 import io.siddhi.core.util.SiddhiConstants;
+import io.siddhi.core.util.statistics.EventTrace;
 import io.siddhi.query.api.execution.query.selection.Selector;
 import org.apache.log4j.Logger;
 
@@ -62,6 +63,7 @@ public class QuerySelector implements Processor {
     private boolean batchingEnabled = true;
     private long limit = SiddhiConstants.UNKNOWN_STATE;
     private long offset = SiddhiConstants.UNKNOWN_STATE;
+    private String traceStage;
 
     public QuerySelector(String id, Selector selector, boolean currentOn, boolean expiredOn, SiddhiQueryContext
             siddhiQueryContext) {
@@ -70,6 +72,9 @@ public class QuerySelector implements Processor {
         this.expiredOn = expiredOn;
         this.selector = selector;
         this.siddhiQueryContext = siddhiQueryContext;
+        if (siddhiQueryContext.getSiddhiAppContext().getEventTraceTracker() != null) {
+            this.traceStage = "selector(" + siddhiQueryContext.getName() + ")";
+        }
     }
 
     @Override
@@ -77,6 +82,9 @@ public class QuerySelector implements Processor {
         if (log.isTraceEnabled()) {
             log.trace("event is processed by selector " + id + this);
         }
+        if (traceStage != null) {
+            EventTrace.mark(complexEventChunk.getFirst(), traceStage);
+        }
         ComplexEventChunk outputComplexEventChunk = null;
         if (complexEventChunk.isBatch() && batchingEnabled) {
             if (isGroupBy) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.processor.stream.window.SliceableWindowProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the {@link AttributeAggregatorExecutor}s of a query annotated with {@code @slicing(size='...')} and
+ * switches them, together with the query's sliding time window, to sliced (pane based) evaluation.
+ */
+public class AggregatorSlicer {
+
+    private final long sliceSize;
+    private final List<AttributeAggregatorExecutor> attributeAggregatorExecutors = new ArrayList<>();
+
+    public AggregatorSlicer(long sliceSize) {
+        this.sliceSize = sliceSize;
+    }
+
+    public long getSliceSize() {
+        return sliceSize;
+    }
+
+    public void addAttributeAggregatorExecutor(AttributeAggregatorExecutor attributeAggregatorExecutor) {
+        attributeAggregatorExecutors.add(attributeAggregatorExecutor);
+    }
+
+    public List<AttributeAggregatorExecutor> getAttributeAggregatorExecutors() {
+        return attributeAggregatorExecutors;
+    }
+
+    /**
+     * Enable sliced evaluation on the window and all the aggregators of the query.
+     *
+     * @param sliceableWindowProcessor the sliding time window of the query
+     * @param siddhiQueryContext       Siddhi query runtime context
+     */
+    public void slice(SliceableWindowProcessor sliceableWindowProcessor, SiddhiQueryContext siddhiQueryContext) {
+        if (attributeAggregatorExecutors.isEmpty()) {
+            throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated " +
+                    "with @slicing, but it does not contain any aggregations");
+        }
+        if (sliceSize <= 0 || sliceSize > sliceableWindowProcessor.getWindowLength()) {
+            throw new SiddhiAppCreationException("Slice size of query '" + siddhiQueryContext.getName() +
+                    "' should be greater than zero and not greater than the window length " +
+                    sliceableWindowProcessor.getWindowLength() + ", but found " + sliceSize);
+        }
+        for (AttributeAggregatorExecutor attributeAggregatorExecutor : attributeAggregatorExecutors) {
+            if (!(attributeAggregatorExecutor instanceof SliceableAttributeAggregator)) {
+                throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated " +
+                        "with @slicing, but aggregator " + attributeAggregatorExecutor.getClass().getName() +
+                        " is not decomposable, only sum, count and avg aggregations can be sliced");
+            }
+        }
+        sliceableWindowProcessor.enableSlicing(this);
+        for (AttributeAggregatorExecutor attributeAggregatorExecutor : attributeAggregatorExecutors) {
+            attributeAggregatorExecutor.enableSlicing(sliceableWindowProcessor, sliceSize, siddhiQueryContext);
+        }
+    }
+
+    /**
+     * Expire the slices of all the groups of the query against the given time.
+     *
+     * @param currentTime current time of the window
+     */
+    public void expireSlices(long currentTime) {
+        for (AttributeAggregatorExecutor attributeAggregatorExecutor : attributeAggregatorExecutors) {
+            attributeAggregatorExecutor.expireSlices(currentTime);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.HyperLogLog;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AttributeAggregatorExecutor} to estimate the distinct count of an event attribute using a
+ * {@link HyperLogLog} sketch of fixed size.
+ */
+@Extension(
+        name = "approxDistinctCount",
+        namespace = "",
+        description = "This returns an estimate of the count of distinct occurrences for a given arg. Unlike " +
+                "distinctCount, the memory used is fixed regardless of the number of distinct values, as the " +
+                "values are summarized in a HyperLogLog sketch of 2^precision one byte registers. \n" +
+                "When events expire, as in sliding windows, the values have to be removed from the sketch " +
+                "again. The sketch then also counts the values per register and rank, which takes about 60 to " +
+                "100 bytes per register, growing with the logarithm of the number of values per register. " +
+                "For example, a sketch of the default precision takes about 4 KB per group on batch windows and " +
+                "incremental aggregations, but up to about 400 KB per group on sliding windows.",
+        parameters = {
+                @Parameter(name = "arg",
+                        description = "The value for which the number of distinct occurrences needs to be " +
+                                "estimated.",
+                        type = {DataType.INT, DataType.LONG, DataType.DOUBLE, DataType.FLOAT, DataType.STRING,
+                                DataType.BOOL}),
+                @Parameter(name = "precision",
+                        description = "The number of bits used to address the registers of the sketch, in the " +
+                                "range of 4 to 18. The sketch uses 2^precision registers and has a relative " +
+                                "standard error of 1.04/sqrt(2^precision).",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "12")
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the estimated count of distinct occurrences for a given arg.",
+                type = {DataType.LONG}),
+        examples = @Example(
+                syntax = "from fooStream#window.time(1 hour)\n" +
+                        "select approxDistinctCount(userID, 14) as userCount\n" +
+                        "insert into barStream;",
+                description = "approxDistinctCount(userID, 14) estimates the number of distinct users seen during " +
+                        "the last hour with a relative standard error of about 0.8%, using 16 KB of registers " +
+                        "and the counters needed to remove the users of expired events."
+        )
+)
+public class ApproxDistinctCountAttributeAggregatorExecutor
+        extends AttributeAggregatorExecutor<ApproxDistinctCountAttributeAggregatorExecutor.AggregatorState> {
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param processingMode               query processing mode
+     * @param outputExpectsExpiredEvents   is expired events sent as output
+     * @param configReader                 this hold the {@link ApproxDistinctCountAttributeAggregatorExecutor}
+     *                                     configuration reader.
+     * @param siddhiQueryContext           Siddhi query runtime context
+     */
+    @Override
+    protected StateFactory<AggregatorState> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                                 ProcessingMode processingMode,
+                                                 boolean outputExpectsExpiredEvents, ConfigReader configReader,
+                                                 SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1 && attributeExpressionExecutors.length != 2) {
+            throw new OperationNotSupportedException("approxDistinctCount aggregator has to have 1 or 2 " +
+                    "parameters, currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.OBJECT) {
+            throw new OperationNotSupportedException("First parameter passed to approxDistinctCount aggregator " +
+                    "should be of type int, long, float, double, string or bool but found: " +
+                    attributeExpressionExecutors[0].getReturnType());
+        }
+        int precision = HyperLogLog.DEFAULT_PRECISION;
+        if (attributeExpressionExecutors.length == 2) {
+            if (!(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) ||
+                    attributeExpressionExecutors[1].getReturnType() != Attribute.Type.INT) {
+                throw new OperationNotSupportedException("Second parameter 'precision' of approxDistinctCount " +
+                        "aggregator should be a constant of type int");
+            }
+            precision = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue();
+            if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+                throw new OperationNotSupportedException("Second parameter 'precision' of approxDistinctCount " +
+                        "aggregator should be in the range of [" + HyperLogLog.MIN_PRECISION + ", " +
+                        HyperLogLog.MAX_PRECISION + "], but found " + precision);
+            }
+        }
+        // Values are removed from the sketch only when the events expire from a sliding window
+        boolean removable = processingMode == ProcessingMode.SLIDE || outputExpectsExpiredEvents;
+        int finalPrecision = precision;
+        return () -> new AggregatorState(finalPrecision, removable);
+    }
+
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.LONG;
+    }
+
+    @Override
+    public Object processAdd(Object data, AggregatorState state) {
+        // Estimating walks all the registers, hence it is done only when a register changes
+        if (state.hyperLogLog.offer(data)) {
+            state.cardinality = state.hyperLogLog.cardinality();
+        }
+        return state.cardinality;
+    }
+
+    @Override
+    public Object processAdd(Object[] data, AggregatorState state) {
+        return processAdd(data[0], state);
+    }
+
+    @Override
+    public Object processRemove(Object data, AggregatorState state) {
+        if (state.hyperLogLog.remove(data)) {
+            state.cardinality = state.hyperLogLog.cardinality();
+        }
+        return state.cardinality;
+    }
+
+    @Override
+    public Object processRemove(Object[] data, AggregatorState state) {
+        return processRemove(data[0], state);
+    }
+
+    @Override
+    public Object reset(AggregatorState state) {
+        state.hyperLogLog.clear();
+        state.cardinality = 0L;
+        return 0L;
+    }
+
+    class AggregatorState extends State {
+
+        private HyperLogLog hyperLogLog;
+        private long cardinality;
+
+        public AggregatorState(int precision, boolean removable) {
+            hyperLogLog = new HyperLogLog(precision, removable);
+        }
+
+        @Override
+        public boolean canDestroy() {
+            return hyperLogLog.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("HyperLogLog", hyperLogLog);
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            hyperLogLog = (HyperLogLog) state.get("HyperLogLog");
+            cardinality = hyperLogLog.cardinality();
+        }
+    }
+}
@@ -22,10 +22,14 @@ import io.siddhi.core.event.ComplexEvent;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.processor.stream.window.SliceableWindowProcessor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.snapshot.state.StateHolder;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Map;
 
 /**
  * Abstract parent class for attribute aggregators. Attribute aggregators are used to perform aggregate operations
@@ -38,6 +42,9 @@ public abstract class AttributeAggregatorExecutor<S extends State> implements Ex
     protected ExpressionExecutor[] attributeExpressionExecutors;
     private int attributeSize;
     private StateHolder<S> stateHolder;
+    private boolean groupBy;
+    private SliceableWindowProcessor sliceableWindowProcessor;
+    private StateHolder<SlicedAggregatorState> slicedStateHolder;
 
     public void initAggregator(ExpressionExecutor[] attributeExpressionExecutors, ProcessingMode processingMode,
                                boolean outputExpectsExpiredEvents,
@@ -45,16 +52,45 @@ public abstract class AttributeAggregatorExecutor<S extends State> implements Ex
         try {
             this.attributeExpressionExecutors = attributeExpressionExecutors;
             this.attributeSize = attributeExpressionExecutors.length;
+            this.groupBy = groupBy;
             StateFactory<S> stateFactory = init(attributeExpressionExecutors, processingMode,
                     outputExpectsExpiredEvents, configReader, siddhiQueryContext);
             stateHolder = siddhiQueryContext.generateStateHolder(this.getClass().getName(),
                     groupBy, stateFactory, true);
+            if (siddhiQueryContext.getAggregatorSlicer() != null) {
+                siddhiQueryContext.getAggregatorSlicer().addAttributeAggregatorExecutor(this);
+            }
         } catch (Throwable t) {
             throw new SiddhiAppCreationException(t);
         }
     }
 
+    /**
+     * Evaluate the aggregator in sliced mode, where events are pre-aggregated into time slices and whole slices are
+     * expired based on the given window, instead of processing each expired event.
+     *
+     * @param sliceableWindowProcessor window that defines the slice timestamps and the window length
+     * @param sliceSize                size of a slice in milliseconds
+     * @param siddhiQueryContext       Siddhi query runtime context
+     */
+    public void enableSlicing(SliceableWindowProcessor sliceableWindowProcessor, long sliceSize,
+                              SiddhiQueryContext siddhiQueryContext) {
+        if (!(this instanceof SliceableAttributeAggregator)) {
+            throw new SiddhiAppCreationException("Aggregator " + this.getClass().getName() +
+                    " cannot be evaluated in sliced mode as its aggregation is not decomposable");
+        }
+        boolean floatingPoint = attributeSize == 1 &&
+                (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.DOUBLE ||
+                        attributeExpressionExecutors[0].getReturnType() == Attribute.Type.FLOAT);
+        this.sliceableWindowProcessor = sliceableWindowProcessor;
+        this.slicedStateHolder = siddhiQueryContext.generateStateHolder(this.getClass().getName() + "-sliced",
+                groupBy, () -> new SlicedAggregatorState(sliceSize, floatingPoint), true);
+    }
+
     public Object execute(ComplexEvent event) {
+        if (slicedStateHolder != null) {
+            return processSliced(event);
+        }
         if (attributeSize > 1) {
             return processAttributeArray(event);
         } else if (attributeSize == 1) {
@@ -140,6 +176,54 @@ public abstract class AttributeAggregatorExecutor<S extends State> implements Ex
         }
     }
 
+    private Object processSliced(ComplexEvent event) {
+        switch (event.getType()) {
+            case CURRENT:
+                Object data = null;
+                if (attributeSize == 1) {
+                    data = attributeExpressionExecutors[0].execute(event);
+                }
+                SlicedAggregatorState state = slicedStateHolder.getState();
+                try {
+                    state.expire(sliceableWindowProcessor.getSliceCurrentTime(event) -
+                            sliceableWindowProcessor.getWindowLength());
+                    state.add(sliceableWindowProcessor.getSliceTimestamp(event), data);
+                    return ((SliceableAttributeAggregator) this).processSliced(state);
+                } finally {
+                    slicedStateHolder.returnState(state);
+                }
+            case RESET:
+                SlicedAggregatorState resetState = slicedStateHolder.cleanGroupByStates();
+                if (resetState != null) {
+                    resetState.reset();
+                    return ((SliceableAttributeAggregator) this).processSliced(resetState);
+                }
+                return null;
+        }
+        return null;
+    }
+
+    /**
+     * Expire the slices of all the groups against the given time, and release the states of the groups left without
+     * any slices. Slices are otherwise only expired when their group receives an event, hence idle groups would be
+     * retained forever.
+     *
+     * @param currentTime current time of the window
+     */
+    public void expireSlices(long currentTime) {
+        if (slicedStateHolder == null) {
+            return;
+        }
+        Map<String, SlicedAggregatorState> states = slicedStateHolder.getAllGroupByStates();
+        try {
+            for (SlicedAggregatorState state : states.values()) {
+                state.expire(currentTime - sliceableWindowProcessor.getWindowLength());
+            }
+        } finally {
+            slicedStateHolder.returnGroupByStates(states);
+        }
+    }
+
     private Object processReset() {
         S state = stateHolder.cleanGroupByStates();
         if (state != null) {
@@ -57,7 +57,8 @@ import java.util.Map;
         )
 )
 public class AvgAttributeAggregatorExecutor
-        extends AttributeAggregatorExecutor<AvgAttributeAggregatorExecutor.AvgAttributeState> {
+        extends AttributeAggregatorExecutor<AvgAttributeAggregatorExecutor.AvgAttributeState>
+        implements SliceableAttributeAggregator {
 
     private Attribute.Type returnType;
 
@@ -135,6 +136,17 @@ public class AvgAttributeAggregatorExecutor
         return state.reset();
     }
 
+    @Override
+    public Object processSliced(SlicedAggregatorState state) {
+        if (state.getValueCount() == 0) {
+            return null;
+        } else if (state.isFloatingPoint()) {
+            return state.getDoubleSum() / state.getValueCount();
+        } else {
+            return (double) state.getLongSum() / state.getValueCount();
+        }
+    }
+
     class AvgAttributeAggregatorStateDouble extends AvgAttributeState {
 
         private double value = 0.0;
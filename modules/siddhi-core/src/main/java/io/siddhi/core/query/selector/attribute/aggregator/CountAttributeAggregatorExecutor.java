@@ -51,7 +51,8 @@ import java.util.Map;
         )
 )
 public class CountAttributeAggregatorExecutor
-        extends AttributeAggregatorExecutor<CountAttributeAggregatorExecutor.AggregatorState> {
+        extends AttributeAggregatorExecutor<CountAttributeAggregatorExecutor.AggregatorState>
+        implements SliceableAttributeAggregator {
 
     private static Attribute.Type type = Attribute.Type.LONG;
 
@@ -108,6 +109,11 @@ public class CountAttributeAggregatorExecutor
         return state.count;
     }
 
+    @Override
+    public Object processSliced(SlicedAggregatorState state) {
+        return state.getCount();
+    }
+
 
     class AggregatorState extends State {
         private long count = 0L;
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.DDSketch;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AttributeAggregatorExecutor} to estimate a percentile of an event attribute using a {@link DDSketch} of
+ * bounded size.
+ */
+@Extension(
+        name = "percentile",
+        namespace = "",
+        description = "Returns an estimate of the given percentile of the values of arg. The values are summarized " +
+                "in a DDSketch, whose estimates are within the given relative accuracy of the exact percentile, " +
+                "and whose memory grows with the logarithm of the range of the values rather than their number.",
+        parameters = {
+                @Parameter(name = "arg",
+                        description = "The value whose percentile needs to be estimated.",
+                        type = {DataType.INT, DataType.LONG, DataType.DOUBLE, DataType.FLOAT}),
+                @Parameter(name = "percentile",
+                        description = "The percentile to be estimated, as a fraction in the range of 0 to 1.",
+                        type = {DataType.DOUBLE}),
+                @Parameter(name = "relative.accuracy",
+                        description = "The relative accuracy of the estimate, in the range of 0 to 1 exclusive.",
+                        type = {DataType.DOUBLE},
+                        optional = true,
+                        defaultValue = "0.01")
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the estimated percentile of the values as a double.",
+                type = {DataType.DOUBLE}),
+        examples = @Example(
+                syntax = "from requestStream#window.time(1 min)\n" +
+                        "select percentile(latency, 0.99) as p99Latency\n" +
+                        "insert into latencyStream;",
+                description = "percentile(latency, 0.99) estimates the 99th percentile latency of the requests " +
+                        "received during the last minute, within 1% of the exact value."
+        )
+)
+public class PercentileAttributeAggregatorExecutor
+        extends AttributeAggregatorExecutor<PercentileAttributeAggregatorExecutor.AggregatorState> {
+
+    private double percentile;
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param processingMode               query processing mode
+     * @param outputExpectsExpiredEvents   is expired events sent as output
+     * @param configReader                 this hold the {@link PercentileAttributeAggregatorExecutor}
+     *                                     configuration reader.
+     * @param siddhiQueryContext           Siddhi query runtime context
+     */
+    @Override
+    protected StateFactory<AggregatorState> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                                 ProcessingMode processingMode,
+                                                 boolean outputExpectsExpiredEvents, ConfigReader configReader,
+                                                 SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 2 && attributeExpressionExecutors.length != 3) {
+            throw new OperationNotSupportedException("percentile aggregator has to have 2 or 3 parameters, " +
+                    "currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        switch (attributeExpressionExecutors[0].getReturnType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                break;
+            default:
+                throw new OperationNotSupportedException("First parameter passed to percentile aggregator should " +
+                        "be of type int, long, float or double but found: " +
+                        attributeExpressionExecutors[0].getReturnType());
+        }
+        percentile = getConstantDouble(attributeExpressionExecutors[1], "percentile");
+        if (percentile < 0 || percentile > 1) {
+            throw new OperationNotSupportedException("Second parameter 'percentile' of percentile aggregator " +
+                    "should be in the range of [0, 1], but found " + percentile);
+        }
+        double relativeAccuracy = DDSketch.DEFAULT_RELATIVE_ACCURACY;
+        if (attributeExpressionExecutors.length == 3) {
+            relativeAccuracy = getConstantDouble(attributeExpressionExecutors[2], "relative.accuracy");
+            if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+                throw new OperationNotSupportedException("Third parameter 'relative.accuracy' of percentile " +
+                        "aggregator should be in the range of (0, 1), but found " + relativeAccuracy);
+            }
+        }
+        double finalRelativeAccuracy = relativeAccuracy;
+        return () -> new AggregatorState(finalRelativeAccuracy);
+    }
+
+    private static double getConstantDouble(ExpressionExecutor expressionExecutor, String name) {
+        if (!(expressionExecutor instanceof ConstantExpressionExecutor) ||
+                expressionExecutor.getReturnType() != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Parameter '" + name + "' of percentile aggregator should " +
+                    "be a constant of type double");
+        }
+        return (Double) ((ConstantExpressionExecutor) expressionExecutor).getValue();
+    }
+
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+
+    @Override
+    public Object processAdd(Object data, AggregatorState state) {
+        //Percentile has at least two input parameters, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object processAdd(Object[] data, AggregatorState state) {
+        if (data[0] != null) {
+            state.ddSketch.add(((Number) data[0]).doubleValue());
+        }
+        return getPercentile(state);
+    }
+
+    @Override
+    public Object processRemove(Object data, AggregatorState state) {
+        //Percentile has at least two input parameters, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object processRemove(Object[] data, AggregatorState state) {
+        if (data[0] != null) {
+            state.ddSketch.remove(((Number) data[0]).doubleValue());
+        }
+        return getPercentile(state);
+    }
+
+    @Override
+    public Object reset(AggregatorState state) {
+        state.ddSketch.clear();
+        return null;
+    }
+
+    private Object getPercentile(AggregatorState state) {
+        if (state.ddSketch.isEmpty()) {
+            return null;
+        }
+        return state.ddSketch.getValueAtQuantile(percentile);
+    }
+
+    class AggregatorState extends State {
+
+        private DDSketch ddSketch;
+
+        public AggregatorState(double relativeAccuracy) {
+            ddSketch = new DDSketch(relativeAccuracy, DDSketch.DEFAULT_MAX_BIN_COUNT);
+        }
+
+        @Override
+        public boolean canDestroy() {
+            return ddSketch.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("DDSketch", ddSketch);
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            ddSketch = (DDSketch) state.get("DDSketch");
+        }
+    }
+}
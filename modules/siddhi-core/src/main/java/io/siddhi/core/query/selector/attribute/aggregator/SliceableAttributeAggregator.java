@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+/**
+ * Interface for {@link AttributeAggregatorExecutor}s whose aggregate can be decomposed into per slice partial
+ * counts and sums, such that a whole slice of events can be removed at once. Such aggregators can be evaluated in
+ * sliced mode over sliding time windows, see {@link SlicedAggregatorState}.
+ */
+public interface SliceableAttributeAggregator {
+
+    /**
+     * Compute the aggregated value from the running totals of the slices.
+     *
+     * @param state sliced state of the current group
+     * @return aggregated value
+     */
+    Object processSliced(SlicedAggregatorState state);
+}
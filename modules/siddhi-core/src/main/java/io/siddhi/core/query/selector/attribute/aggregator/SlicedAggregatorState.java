@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.core.util.snapshot.state.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * State of a {@link SliceableAttributeAggregator} evaluated in sliced mode. Events are pre-aggregated into fixed
+ * size time slices kept in a ring, and expiry removes whole slices from the running totals. Memory is proportional
+ * to the number of slices in the window rather than the number of events.
+ */
+public class SlicedAggregatorState extends State {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final long sliceSize;
+    private final boolean floatingPoint;
+
+    private long[] sliceStarts = new long[INITIAL_CAPACITY];
+    private long[] sliceCounts = new long[INITIAL_CAPACITY];
+    private long[] sliceValueCounts = new long[INITIAL_CAPACITY];
+    private long[] sliceLongSums = new long[INITIAL_CAPACITY];
+    private double[] sliceDoubleSums = new double[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    private long count = 0L;
+    private long valueCount = 0L;
+    private long longSum = 0L;
+    private double doubleSum = 0.0;
+
+    public SlicedAggregatorState(long sliceSize, boolean floatingPoint) {
+        this.sliceSize = sliceSize;
+        this.floatingPoint = floatingPoint;
+    }
+
+    /**
+     * Add an event into the slice its timestamp belongs to. Events older than the latest slice are added to the
+     * latest slice, hence they are retained at most one slice longer than the window.
+     *
+     * @param timestamp event time
+     * @param value     value to be aggregated, or null if only the event count is tracked
+     */
+    public void add(long timestamp, Object value) {
+        long sliceStart = timestamp - Math.floorMod(timestamp, sliceSize);
+        int last;
+        if (size == 0 || sliceStarts[index(size - 1)] < sliceStart) {
+            if (size == sliceStarts.length) {
+                grow();
+            }
+            last = index(size);
+            size++;
+            sliceStarts[last] = sliceStart;
+            sliceCounts[last] = 0L;
+            sliceValueCounts[last] = 0L;
+            sliceLongSums[last] = 0L;
+            sliceDoubleSums[last] = 0.0;
+        } else {
+            last = index(size - 1);
+        }
+        sliceCounts[last]++;
+        count++;
+        if (value != null) {
+            sliceValueCounts[last]++;
+            valueCount++;
+            if (floatingPoint) {
+                double doubleValue = ((Number) value).doubleValue();
+                sliceDoubleSums[last] += doubleValue;
+                doubleSum += doubleValue;
+            } else {
+                long longValue = ((Number) value).longValue();
+                sliceLongSums[last] += longValue;
+                longSum += longValue;
+            }
+        }
+    }
+
+    /**
+     * Remove all slices whose events are all older than or equal to the given expiry time.
+     *
+     * @param expiryTime events having timestamps less than or equal to this are considered expired
+     */
+    public void expire(long expiryTime) {
+        while (size > 0 && sliceStarts[head] + sliceSize - 1 <= expiryTime) {
+            count -= sliceCounts[head];
+            valueCount -= sliceValueCounts[head];
+            longSum -= sliceLongSums[head];
+            doubleSum -= sliceDoubleSums[head];
+            head = index(1);
+            size--;
+        }
+        if (size == 0) {
+            doubleSum = 0.0;
+        }
+    }
+
+    public void reset() {
+        head = 0;
+        size = 0;
+        count = 0L;
+        valueCount = 0L;
+        longSum = 0L;
+        doubleSum = 0.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    public long getLongSum() {
+        return longSum;
+    }
+
+    public double getDoubleSum() {
+        return doubleSum;
+    }
+
+    public int getSliceCount() {
+        return size;
+    }
+
+    private int index(int offset) {
+        return (head + offset) % sliceStarts.length;
+    }
+
+    private void grow() {
+        int capacity = sliceStarts.length * 2;
+        long[] newSliceStarts = new long[capacity];
+        long[] newSliceCounts = new long[capacity];
+        long[] newSliceValueCounts = new long[capacity];
+        long[] newSliceLongSums = new long[capacity];
+        double[] newSliceDoubleSums = new double[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = index(i);
+            newSliceStarts[i] = sliceStarts[index];
+            newSliceCounts[i] = sliceCounts[index];
+            newSliceValueCounts[i] = sliceValueCounts[index];
+            newSliceLongSums[i] = sliceLongSums[index];
+            newSliceDoubleSums[i] = sliceDoubleSums[index];
+        }
+        sliceStarts = newSliceStarts;
+        sliceCounts = newSliceCounts;
+        sliceValueCounts = newSliceValueCounts;
+        sliceLongSums = newSliceLongSums;
+        sliceDoubleSums = newSliceDoubleSums;
+        head = 0;
+    }
+
+    @Override
+    public boolean canDestroy() {
+        return size == 0;
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        long[] starts = new long[size];
+        long[] counts = new long[size];
+        long[] valueCounts = new long[size];
+        long[] longSums = new long[size];
+        double[] doubleSums = new double[size];
+        for (int i = 0; i < size; i++) {
+            int index = index(i);
+            starts[i] = sliceStarts[index];
+            counts[i] = sliceCounts[index];
+            valueCounts[i] = sliceValueCounts[index];
+            longSums[i] = sliceLongSums[index];
+            doubleSums[i] = sliceDoubleSums[index];
+        }
+        Map<String, Object> state = new HashMap<>();
+        state.put("SliceStarts", starts);
+        state.put("SliceCounts", counts);
+        state.put("SliceValueCounts", valueCounts);
+        state.put("SliceLongSums", longSums);
+        state.put("SliceDoubleSums", doubleSums);
+        return state;
+    }
+
+    @Override
+    public void restore(Map<String, Object> state) {
+        long[] starts = (long[]) state.get("SliceStarts");
+        long[] counts = (long[]) state.get("SliceCounts");
+        long[] valueCounts = (long[]) state.get("SliceValueCounts");
+        long[] longSums = (long[]) state.get("SliceLongSums");
+        double[] doubleSums = (double[]) state.get("SliceDoubleSums");
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < starts.length) {
+            capacity *= 2;
+        }
+        sliceStarts = new long[capacity];
+        sliceCounts = new long[capacity];
+        sliceValueCounts = new long[capacity];
+        sliceLongSums = new long[capacity];
+        sliceDoubleSums = new double[capacity];
+        reset();
+        for (int i = 0; i < starts.length; i++) {
+            sliceStarts[i] = starts[i];
+            sliceCounts[i] = counts[i];
+            sliceValueCounts[i] = valueCounts[i];
+            sliceLongSums[i] = longSums[i];
+            sliceDoubleSums[i] = doubleSums[i];
+            count += counts[i];
+            valueCount += valueCounts[i];
+            longSum += longSums[i];
+            doubleSum += doubleSums[i];
+        }
+        size = starts.length;
+    }
+}
@@ -62,7 +62,8 @@ import java.util.Map;
         }
 )
 public class SumAttributeAggregatorExecutor
-        extends AttributeAggregatorExecutor<SumAttributeAggregatorExecutor.AggregatorState> {
+        extends AttributeAggregatorExecutor<SumAttributeAggregatorExecutor.AggregatorState>
+        implements SliceableAttributeAggregator {
 
     private Attribute.Type returnType;
 
@@ -156,6 +157,17 @@ public class SumAttributeAggregatorExecutor
         return state.reset();
     }
 
+    @Override
+    public Object processSliced(SlicedAggregatorState state) {
+        if (state.getValueCount() == 0) {
+            return null;
+        } else if (state.isFloatingPoint()) {
+            return state.getDoubleSum();
+        } else {
+            return state.getLongSum();
+        }
+    }
+
     class AggregatorStateDouble extends AggregatorState {
 
         private final Attribute.Type type = Attribute.Type.DOUBLE;
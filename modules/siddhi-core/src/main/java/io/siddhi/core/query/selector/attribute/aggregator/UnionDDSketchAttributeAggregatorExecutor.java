@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.DDSketch;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AttributeAggregatorExecutor} to return a {@link DDSketch} summarizing the aggregated values and sketches.
+ */
+@Extension(
+        name = "unionDDSketch",
+        namespace = "",
+        description = "Summarizes values and DDSketches into a DDSketch of 1% relative accuracy. \n" +
+                "Values are added to the sketch and sketches are merged into it, such that the returned sketch " +
+                "estimates the percentiles of both. This aggregator is not supported on sliding windows, use the " +
+                "percentile aggregator instead.",
+        parameters =
+        @Parameter(name = "arg",
+                description = "The value or the DDSketch that needs to be added into the sketch.",
+                type = {DataType.INT, DataType.LONG, DataType.DOUBLE, DataType.FLOAT, DataType.OBJECT})
+        ,
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the DDSketch object summarizing the aggregated values",
+                type = {DataType.OBJECT}),
+        examples = @Example(
+                syntax = "from requestStream#window.timeBatch(10 sec) \n" +
+                        "select unionDDSketch(latency) as latencySketch \n" +
+                        "insert into latencySketchStream;",
+                description = "latencySketchStream will return the sketch of the request latencies during a batch " +
+                        "window of 10 seconds, which can be merged with the sketches of other batches."
+        )
+)
+public class UnionDDSketchAttributeAggregatorExecutor
+        extends AttributeAggregatorExecutor<UnionDDSketchAttributeAggregatorExecutor.AggregatorState> {
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param processingMode               query processing mode
+     * @param outputExpectsExpiredEvents   is expired events sent as output
+     * @param configReader                 this hold the {@link UnionDDSketchAttributeAggregatorExecutor}
+     *                                     configuration reader.
+     * @param siddhiQueryContext           Siddhi query runtime context
+     */
+    @Override
+    protected StateFactory<AggregatorState> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                                 ProcessingMode processingMode,
+                                                 boolean outputExpectsExpiredEvents, ConfigReader configReader,
+                                                 SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new OperationNotSupportedException("unionDDSketch aggregator has to have exactly 1 parameter, " +
+                    "currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.STRING ||
+                attributeExpressionExecutors[0].getReturnType() == Attribute.Type.BOOL) {
+            throw new OperationNotSupportedException("Parameter passed to unionDDSketch aggregator should be of " +
+                    "type int, long, float, double or object but found: " +
+                    attributeExpressionExecutors[0].getReturnType());
+        }
+        if (processingMode == ProcessingMode.SLIDE || outputExpectsExpiredEvents) {
+            throw new OperationNotSupportedException("unionDDSketch aggregator cannot be used when events " +
+                    "expire, as values cannot be removed from the sketch. Use percentile instead");
+        }
+        return AggregatorState::new;
+    }
+
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.OBJECT;
+    }
+
+    @Override
+    public Object processAdd(Object data, AggregatorState state) {
+        // The returned sketch reference is kept in the in-memory aggregates, which are read by finds outside the
+        // aggregation lock, hence it is copied before being changed.
+        if (data instanceof DDSketch) {
+            DDSketch ddSketch = (DDSketch) data;
+            if (!ddSketch.isEmpty()) {
+                state.sketch = state.sketch.copy();
+                state.sketch.merge(ddSketch);
+            }
+        } else if (data instanceof Number) {
+            state.sketch = state.sketch.copy();
+            state.sketch.add(((Number) data).doubleValue());
+        } else if (data != null) {
+            throw new SiddhiAppRuntimeException("Input to unionDDSketch aggregator should be a number or an " +
+                    "instance of " + DDSketch.class.getCanonicalName() + ", but found " +
+                    data.getClass().getCanonicalName());
+        }
+        return state.sketch;
+    }
+
+    @Override
+    public Object processAdd(Object[] data, AggregatorState state) {
+        //UnionDDSketch can have only one input parameter, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object processRemove(Object data, AggregatorState state) {
+        throw new OperationNotSupportedException("Values cannot be removed from the sketch of unionDDSketch " +
+                "aggregator");
+    }
+
+    @Override
+    public Object processRemove(Object[] data, AggregatorState state) {
+        //UnionDDSketch can have only one input parameter, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object reset(AggregatorState state) {
+        state.sketch = new DDSketch();
+        return state.sketch;   // returning an empty sketch.
+    }
+
+    class AggregatorState extends State {
+
+        private DDSketch sketch = new DDSketch();
+
+        @Override
+        public boolean canDestroy() {
+            return sketch.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("Sketch", sketch);
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            sketch = (DDSketch) state.get("Sketch");
+        }
+    }
+}
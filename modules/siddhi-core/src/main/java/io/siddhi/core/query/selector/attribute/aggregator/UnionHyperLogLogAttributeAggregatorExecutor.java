@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.sketch.HyperLogLog;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AttributeAggregatorExecutor} to return a {@link HyperLogLog} sketch summarizing the aggregated values and
+ * sketches.
+ */
+@Extension(
+        name = "unionHyperLogLog",
+        namespace = "",
+        description = "Summarizes values and HyperLogLog sketches into a HyperLogLog sketch of precision 12. \n" +
+                "Values are offered to the sketch and sketches are merged into it, such that the returned sketch " +
+                "estimates the number of distinct values of both. As the values cannot be removed again, this " +
+                "aggregator is not supported on sliding windows.",
+        parameters =
+        @Parameter(name = "arg",
+                description = "The value or the HyperLogLog sketch that needs to be added into the sketch.",
+                type = {DataType.INT, DataType.LONG, DataType.DOUBLE, DataType.FLOAT, DataType.STRING,
+                        DataType.BOOL, DataType.OBJECT})
+        ,
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the HyperLogLog sketch object summarizing the aggregated values",
+                type = {DataType.OBJECT}),
+        examples = @Example(
+                syntax = "from pageViewStream#window.timeBatch(10 sec) \n" +
+                        "select unionHyperLogLog(userId) as userSketch \n" +
+                        "insert into userSketchStream;",
+                description = "userSketchStream will return the sketch of the users viewing pages during a batch " +
+                        "window of 10 seconds, which can be merged with the sketches of other batches."
+        )
+)
+public class UnionHyperLogLogAttributeAggregatorExecutor
+        extends AttributeAggregatorExecutor<UnionHyperLogLogAttributeAggregatorExecutor.AggregatorState> {
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param processingMode               query processing mode
+     * @param outputExpectsExpiredEvents   is expired events sent as output
+     * @param configReader                 this hold the {@link UnionHyperLogLogAttributeAggregatorExecutor}
+     *                                     configuration reader.
+     * @param siddhiQueryContext           Siddhi query runtime context
+     */
+    @Override
+    protected StateFactory<AggregatorState> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                                 ProcessingMode processingMode,
+                                                 boolean outputExpectsExpiredEvents, ConfigReader configReader,
+                                                 SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new OperationNotSupportedException("unionHyperLogLog aggregator has to have exactly 1 parameter, " +
+                    "currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        if (processingMode == ProcessingMode.SLIDE || outputExpectsExpiredEvents) {
+            throw new OperationNotSupportedException("unionHyperLogLog aggregator cannot be used when events " +
+                    "expire, as values cannot be removed from the sketch. Use approxDistinctCount instead");
+        }
+        return AggregatorState::new;
+    }
+
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.OBJECT;
+    }
+
+    @Override
+    public Object processAdd(Object data, AggregatorState state) {
+        if (data == null) {
+            return state.sketch;
+        }
+        // The returned sketch reference is kept until the aggregated values are inserted into the store, hence it
+        // is copied before being changed. Once the sketch has seen the common values most of the offered values do
+        // not change its registers, so copies are rare.
+        if (data instanceof HyperLogLog) {
+            HyperLogLog hyperLogLog = (HyperLogLog) data;
+            if (state.sketch.isChangedBy(hyperLogLog)) {
+                state.sketch = state.sketch.copy();
+                state.sketch.merge(hyperLogLog);
+            }
+        } else {
+            long hash = HyperLogLog.hash(data);
+            if (state.sketch.isChangedBy(hash)) {
+                state.sketch = state.sketch.copy();
+                state.sketch.offerHash(hash);
+            }
+        }
+        return state.sketch;
+    }
+
+    @Override
+    public Object processAdd(Object[] data, AggregatorState state) {
+        //UnionHyperLogLog can have only one input parameter, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object processRemove(Object data, AggregatorState state) {
+        throw new OperationNotSupportedException("Values cannot be removed from the sketch of unionHyperLogLog " +
+                "aggregator");
+    }
+
+    @Override
+    public Object processRemove(Object[] data, AggregatorState state) {
+        //UnionHyperLogLog can have only one input parameter, hence this will not be invoked.
+        return null;
+    }
+
+    @Override
+    public Object reset(AggregatorState state) {
+        state.sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        return state.sketch;   // returning an empty sketch.
+    }
+
+    class AggregatorState extends State {
+
+        private HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+
+        @Override
+        public boolean canDestroy() {
+            return sketch.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put("Sketch", sketch);
+            return state;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            sketch = (HyperLogLog) state.get("Sketch");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator.incremental;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.Expression;
+
+/**
+ * {@link IncrementalAttributeAggregator} to estimate the distinct count of an event attribute using mergeable
+ * HyperLogLog sketches.
+ */
+@Extension(
+        name = "approxDistinctCount",
+        namespace = "incrementalAggregator",
+        description = "Returns an estimate of the distinct count of the attribute, in incremental event processing. " +
+                "Each duration keeps a HyperLogLog sketch of fixed size per group, which are merged when rolled up.",
+        parameters = {
+                @Parameter(name = "arg",
+                        description = "The attribute whose distinct values need to be counted.",
+                        type = {DataType.INT, DataType.LONG, DataType.DOUBLE,
+                                DataType.FLOAT, DataType.STRING, DataType.BOOL})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the estimated distinct count as a long.",
+                type = {DataType.LONG}),
+        examples = @Example(
+                syntax = " define aggregation pageViewAggregation\n from pageViewStream\n" +
+                        " select approxDistinctCount(userId) as userCount\n aggregate by timeStamp every sec ... " +
+                        "year;",
+                description = "approxDistinctCount(userId) estimates the number of distinct users for the sec, min, " +
+                        "hour, day, month and year durations, using a sketch of 4 KB per duration bucket."
+        )
+)
+public class ApproxDistinctCountIncrementalAttributeAggregator extends IncrementalAttributeAggregator {
+
+    private Attribute[] baseAttributes;
+    private Expression[] baseAttributesInitialValues;
+
+    @Override
+    public void init(String attributeName, Attribute.Type attributeType) {
+        Attribute sketch;
+        Expression sketchInitialValue;
+
+        // approx-distinct-count is not supported for object types.
+        if (attributeType.equals(Attribute.Type.FLOAT) || attributeType.equals(Attribute.Type.DOUBLE)
+                || attributeType.equals(Attribute.Type.INT) || attributeType.equals(Attribute.Type.LONG)
+                || attributeType.equals(Attribute.Type.STRING) || attributeType.equals(Attribute.Type.BOOL)) {
+            sketch = new Attribute("AGG_HLL_".concat(attributeName), Attribute.Type.OBJECT);
+            // The value itself is passed to unionHyperLogLog, which offers it to the sketch of the bucket without
+            // creating a sketch per event
+            sketchInitialValue = Expression.variable(attributeName);
+        } else {
+            throw new SiddhiAppRuntimeException(
+                    "Approximate distinct count aggregation cannot be executed on attribute type " +
+                            attributeType.toString());
+        }
+
+        this.baseAttributes = new Attribute[]{sketch};
+        this.baseAttributesInitialValues = new Expression[]{sketchInitialValue};
+    }
+
+    @Override
+    public Expression aggregate() {
+        return Expression.function("cardinalityOfHyperLogLog", Expression.variable(baseAttributes[0].getName()));
+    }
+
+    @Override
+    public Attribute[] getBaseAttributes() {
+        return this.baseAttributes;
+    }
+
+    @Override
+    public Expression[] getBaseAttributeInitialValues() {
+        return this.baseAttributesInitialValues;
+    }
+
+    @Override
+    public Expression[] getBaseAggregators() {
+        Expression sketchAggregator = Expression.function("unionHyperLogLog",
+                Expression.variable(getBaseAttributes()[0].getName()));
+        return new Expression[]{sketchAggregator};
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.LONG;
+    }
+}
@@ -18,6 +18,7 @@
 
 package io.siddhi.core.query.selector.attribute.aggregator.incremental;
 
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.expression.Expression;
 
@@ -28,6 +29,22 @@ public abstract class IncrementalAttributeAggregator {
 
     public abstract void init(String attributeName, Attribute.Type attributeType);
 
+    /**
+     * Initialize an incremental aggregator which is given constant parameters in addition to the attribute, such
+     * as the percentile of percentile(price, 0.99). Aggregators only taking the attribute need not override this.
+     *
+     * @param attributeName name of the aggregated attribute
+     * @param attributeType type of the aggregated attribute
+     * @param parameters    parameters following the attribute
+     */
+    public void init(String attributeName, Attribute.Type attributeType, Expression[] parameters) {
+        if (parameters.length != 0) {
+            throw new SiddhiAppCreationException("Incremental aggregator requires only one parameter. " +
+                    "Found " + (parameters.length + 1));
+        }
+        init(attributeName, attributeType);
+    }
+
     public abstract Expression aggregate();
 
     public abstract Attribute[] getBaseAttributes();
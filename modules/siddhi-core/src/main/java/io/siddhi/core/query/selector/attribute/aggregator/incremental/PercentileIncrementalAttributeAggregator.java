@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator.incremental;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.Expression;
+import io.siddhi.query.api.expression.constant.DoubleConstant;
+
+/**
+ * {@link IncrementalAttributeAggregator} to estimate a percentile of an event attribute using mergeable DDSketches.
+ */
+@Extension(
+        name = "percentile",
+        namespace = "incrementalAggregator",
+        description = "Returns an estimate of the given percentile of the attribute, in incremental event " +
+                "processing. Each duration keeps a DDSketch of 1% relative accuracy per group, which are merged " +
+                "when rolled up. Percentiles of the same attribute share the same sketch.",
+        parameters = {
+                @Parameter(name = "arg",
+                        description = "The attribute whose percentile needs to be estimated.",
+                        type = {DataType.INT, DataType.LONG, DataType.DOUBLE, DataType.FLOAT}),
+                @Parameter(name = "percentile",
+                        description = "The percentile to be estimated, as a fraction in the range of 0 to 1.",
+                        type = {DataType.DOUBLE})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Returns the estimated percentile as a double.",
+                type = {DataType.DOUBLE}),
+        examples = @Example(
+                syntax = " define aggregation requestAggregation\n from requestStream\n" +
+                        " select percentile(latency, 0.5) as medianLatency, percentile(latency, 0.99) as p99Latency\n" +
+                        " aggregate by timeStamp every sec ... year;",
+                description = "Estimates the median and the 99th percentile latency for the sec, min, hour, day, " +
+                        "month and year durations, using one sketch per duration bucket."
+        )
+)
+public class PercentileIncrementalAttributeAggregator extends IncrementalAttributeAggregator {
+
+    private Attribute[] baseAttributes;
+    private Expression[] baseAttributesInitialValues;
+    private Expression percentile;
+
+    @Override
+    public void init(String attributeName, Attribute.Type attributeType) {
+        throw new SiddhiAppCreationException("Percentile aggregation requires the percentile to be given as the " +
+                "second parameter");
+    }
+
+    @Override
+    public void init(String attributeName, Attribute.Type attributeType, Expression[] parameters) {
+        if (parameters.length != 1) {
+            throw new SiddhiAppCreationException("Percentile aggregation requires 2 parameters. Found " +
+                    (parameters.length + 1));
+        }
+        if (!(parameters[0] instanceof DoubleConstant) || ((DoubleConstant) parameters[0]).getValue() < 0 ||
+                ((DoubleConstant) parameters[0]).getValue() > 1) {
+            throw new SiddhiAppCreationException("Second parameter 'percentile' of percentile aggregation should " +
+                    "be a double constant in the range of [0, 1], but found " + parameters[0]);
+        }
+        Attribute sketch;
+        Expression sketchInitialValue;
+
+        if (attributeType.equals(Attribute.Type.FLOAT) || attributeType.equals(Attribute.Type.DOUBLE)
+                || attributeType.equals(Attribute.Type.INT) || attributeType.equals(Attribute.Type.LONG)) {
+            sketch = new Attribute("AGG_DDSKETCH_".concat(attributeName), Attribute.Type.OBJECT);
+            // The value itself is passed to unionDDSketch, which adds it to the sketch of the bucket without
+            // creating a sketch per event
+            sketchInitialValue = Expression.variable(attributeName);
+        } else {
+            throw new SiddhiAppRuntimeException(
+                    "Percentile aggregation cannot be executed on attribute type " + attributeType.toString());
+        }
+
+        this.baseAttributes = new Attribute[]{sketch};
+        this.baseAttributesInitialValues = new Expression[]{sketchInitialValue};
+        this.percentile = parameters[0];
+    }
+
+    @Override
+    public Expression aggregate() {
+        return Expression.function("quantileOfDDSketch", Expression.variable(baseAttributes[0].getName()),
+                percentile);
+    }
+
+    @Override
+    public Attribute[] getBaseAttributes() {
+        return this.baseAttributes;
+    }
+
+    @Override
+    public Expression[] getBaseAttributeInitialValues() {
+        return this.baseAttributesInitialValues;
+    }
+
+    @Override
+    public Expression[] getBaseAggregators() {
+        Expression sketchAggregator = Expression.function("unionDDSketch",
+                Expression.variable(getBaseAttributes()[0].getName()));
+        return new Expression[]{sketchAggregator};
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+}
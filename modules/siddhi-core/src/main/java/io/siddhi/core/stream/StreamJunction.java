@@ -19,7 +19,11 @@
 package io.siddhi.core.stream;
 
 import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import io.siddhi.core.config.SiddhiAppContext;
@@ -37,12 +41,16 @@ import io.siddhi.core.util.event.handler.EventExchangeHolderFactory;
 import io.siddhi.core.util.event.handler.StreamHandler;
 import io.siddhi.core.util.parser.helper.QueryParserHelper;
 import io.siddhi.core.util.statistics.EventBufferHolder;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.core.util.statistics.LatencyTracker;
 import io.siddhi.core.util.statistics.ThroughputTracker;
 import io.siddhi.core.util.statistics.metrics.Level;
 import io.siddhi.query.api.annotation.Annotation;
 import io.siddhi.query.api.definition.StreamDefinition;
 import io.siddhi.query.api.exception.DuplicateAnnotationException;
 import io.siddhi.query.api.util.AnnotationHelper;
+import io.siddhi.query.compiler.SiddhiCompiler;
+import io.siddhi.query.compiler.exception.SiddhiParserException;
 import org.apache.log4j.Logger;
 
 import java.beans.ExceptionListener;
@@ -72,11 +80,19 @@ public class StreamJunction implements EventBufferHolder {
     private Disruptor<EventExchangeHolder> disruptor;
     private RingBuffer<EventExchangeHolder> ringBuffer;
     private ThroughputTracker throughputTracker = null;
+    private LatencyTracker latencyTracker = null;
+    private boolean isEventTraced;
+    private String traceStage;
     private boolean isTraceEnabled;
     private StreamJunction faultStreamJunction = null;
     private FaultStreamEventConverter faultStreamEventConverter = null;
     private OnErrorAction onErrorAction = OnErrorAction.LOG;
     private ExceptionListener exceptionListener;
+    private int[] partitionKeyPositions;
+    private WaitStrategyType waitStrategyType = WaitStrategyType.BLOCK;
+    private ProducerType producerType = ProducerType.MULTI;
+    private int microBatchSize = -1;
+    private long microBatchMaxLatency = -1;
 
     public StreamJunction(StreamDefinition streamDefinition, ExecutorService executorService, int bufferSize,
                           StreamJunction faultStreamJunction, SiddhiAppContext siddhiAppContext) {
@@ -89,7 +105,12 @@ public class StreamJunction implements EventBufferHolder {
             this.throughputTracker = QueryParserHelper.createThroughputTracker(siddhiAppContext,
                     streamDefinition.getId(),
                     SiddhiConstants.METRIC_INFIX_STREAMS, null);
+            this.latencyTracker = QueryParserHelper.createLatencyTracker(siddhiAppContext,
+                    streamDefinition.getId(),
+                    SiddhiConstants.METRIC_INFIX_STREAMS, null);
         }
+        this.isEventTraced = siddhiAppContext.getEventTraceTracker() != null;
+        this.traceStage = "junction(" + streamDefinition.getId() + ")";
         this.exceptionListener = siddhiAppContext.getRuntimeExceptionListener();
         this.faultStreamJunction = faultStreamJunction;
         if (faultStreamJunction != null) {
@@ -98,6 +119,12 @@ public class StreamJunction implements EventBufferHolder {
                     faultStreamDefinition.getAttributeList().size());
             faultStreamEventConverter = new FaultStreamEventConverter(faultStreamEventFactory);
         }
+        if (siddhiAppContext.getAsyncWaitStrategy() != null) {
+            this.waitStrategyType = siddhiAppContext.getAsyncWaitStrategy();
+        }
+        if (siddhiAppContext.getAsyncProducerType() != null) {
+            this.producerType = siddhiAppContext.getAsyncProducerType();
+        }
         try {
             Annotation asyncAnnotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_ASYNC,
                     streamDefinition.getAnnotations());
@@ -118,6 +145,49 @@ public class StreamJunction implements EventBufferHolder {
                                 siddhiAppContext.getSiddhiAppString());
                     }
                 }
+                String waitStrategyString = asyncAnnotation.getElement(
+                        SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY);
+                if (waitStrategyString != null) {
+                    this.waitStrategyType = WaitStrategyType.of(waitStrategyString);
+                    if (waitStrategyType == null) {
+                        throw new SiddhiAppCreationException("Annotation element '" +
+                                SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY + "' only supports " +
+                                "'busy-spin', 'yield', 'sleep' and 'block', but found '" + waitStrategyString +
+                                "'.", asyncAnnotation.getQueryContextStartIndex(),
+                                asyncAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                                siddhiAppContext.getSiddhiAppString());
+                    }
+                }
+                String producerString = asyncAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER);
+                if (producerString != null) {
+                    this.producerType = parseProducerType(producerString);
+                    if (producerType == null) {
+                        throw new SiddhiAppCreationException("Annotation element '" +
+                                SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER + "' only supports 'single' and " +
+                                "'multi', but found '" + producerString + "'.",
+                                asyncAnnotation.getQueryContextStartIndex(),
+                                asyncAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                                siddhiAppContext.getSiddhiAppString());
+                    }
+                }
+                String partitionByString = asyncAnnotation.getElement(
+                        SiddhiConstants.ANNOTATION_ELEMENT_PARTITION_BY);
+                if (partitionByString != null) {
+                    String[] partitionKeys = partitionByString.split(",");
+                    this.partitionKeyPositions = new int[partitionKeys.length];
+                    for (int i = 0; i < partitionKeys.length; i++) {
+                        String partitionKey = partitionKeys[i].trim();
+                        if (!Arrays.asList(streamDefinition.getAttributeNameArray()).contains(partitionKey)) {
+                            throw new SiddhiAppCreationException("Annotation element '" +
+                                    SiddhiConstants.ANNOTATION_ELEMENT_PARTITION_BY + "' refers to attribute '" +
+                                    partitionKey + "', which is not defined in stream '" +
+                                    streamDefinition.getId() + "'.", asyncAnnotation.getQueryContextStartIndex(),
+                                    asyncAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                                    siddhiAppContext.getSiddhiAppString());
+                        }
+                        partitionKeyPositions[i] = streamDefinition.getAttributePosition(partitionKey);
+                    }
+                }
                 String batchSizeString = asyncAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_MAX_BATCH_SIZE);
                 if (batchSizeString != null) {
                     this.batchSize = Integer.parseInt(batchSizeString);
@@ -130,6 +200,35 @@ public class StreamJunction implements EventBufferHolder {
                     }
                 }
             }
+            Annotation microBatchAnnotation = AnnotationHelper.getAnnotation(
+                    SiddhiConstants.ANNOTATION_MICRO_BATCH, streamDefinition.getAnnotations());
+            if (microBatchAnnotation != null) {
+                String sizeString = microBatchAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_SIZE);
+                String maxLatencyString = microBatchAnnotation.getElement(
+                        SiddhiConstants.ANNOTATION_ELEMENT_MAX_LATENCY);
+                try {
+                    this.microBatchSize = sizeString == null ? SiddhiConstants.DEFAULT_MICRO_BATCH_SIZE :
+                            Integer.parseInt(sizeString);
+                    this.microBatchMaxLatency = maxLatencyString == null ?
+                            SiddhiConstants.DEFAULT_MICRO_BATCH_MAX_LATENCY :
+                            SiddhiCompiler.parseTimeConstantDefinition(maxLatencyString).value();
+                } catch (NumberFormatException | SiddhiParserException e) {
+                    throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_MICRO_BATCH +
+                            "' of stream '" + streamDefinition.getId() + "' contains invalid values, " +
+                            e.getMessage(), e, microBatchAnnotation.getQueryContextStartIndex(),
+                            microBatchAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                            siddhiAppContext.getSiddhiAppString());
+                }
+                if (microBatchSize <= 0 || microBatchMaxLatency <= 0) {
+                    throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_MICRO_BATCH +
+                            "' of stream '" + streamDefinition.getId() + "' expects positive '" +
+                            SiddhiConstants.ANNOTATION_ELEMENT_SIZE + "' and '" +
+                            SiddhiConstants.ANNOTATION_ELEMENT_MAX_LATENCY + "', but found '" + microBatchSize +
+                            "' and '" + microBatchMaxLatency + "'.", microBatchAnnotation.getQueryContextStartIndex(),
+                            microBatchAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                            siddhiAppContext.getSiddhiAppString());
+                }
+            }
             Annotation onErrorAnnotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_ON_ERROR,
                     streamDefinition.getAnnotations());
             if (onErrorAnnotation != null) {
@@ -148,6 +247,9 @@ public class StreamJunction implements EventBufferHolder {
         if (isTraceEnabled) {
             log.trace("Event is received by streamJunction " + this);
         }
+        if (isEventTraced) {
+            EventTrace.mark(complexEvent, traceStage);
+        }
         ComplexEvent complexEventList = complexEvent;
         if (disruptor != null) {
             while (complexEventList != null) {
@@ -173,8 +275,18 @@ public class StreamJunction implements EventBufferHolder {
                 }
                 throughputTracker.eventsIn(messageCount);
             }
-            for (Receiver receiver : receivers) {
-                receiver.receive(complexEvent);
+            boolean latencyTracked = markLatencyIn();
+            try {
+                for (Receiver receiver : receivers) {
+                    receiver.receive(complexEvent);
+                    if (isEventTraced && receiver instanceof StreamCallback) {
+                        EventTrace.complete(complexEvent, ((StreamCallback) receiver).getTraceStage());
+                    }
+                }
+            } finally {
+                if (latencyTracked) {
+                    latencyTracker.markOut();
+                }
             }
         }
     }
@@ -186,6 +298,9 @@ public class StreamJunction implements EventBufferHolder {
         if (isTraceEnabled) {
             log.trace(event + " event is received by streamJunction " + this);
         }
+        if (isEventTraced) {
+            EventTrace.mark(event, traceStage);
+        }
         if (disruptor != null) {
             long sequenceNo = ringBuffer.next();
             try {
@@ -196,8 +311,18 @@ public class StreamJunction implements EventBufferHolder {
                 ringBuffer.publish(sequenceNo);
             }
         } else {
-            for (Receiver receiver : receivers) {
-                receiver.receive(event);
+            boolean latencyTracked = markLatencyIn();
+            try {
+                for (Receiver receiver : receivers) {
+                    receiver.receive(event);
+                    if (isEventTraced && receiver instanceof StreamCallback && event.getTrace() != null) {
+                        event.getTrace().complete(((StreamCallback) receiver).getTraceStage());
+                    }
+                }
+            } finally {
+                if (latencyTracked) {
+                    latencyTracker.markOut();
+                }
             }
         }
     }
@@ -209,20 +334,24 @@ public class StreamJunction implements EventBufferHolder {
         if (isTraceEnabled) {
             log.trace("Event is received by streamJunction " + this);
         }
+        if (isEventTraced) {
+            EventTrace.mark(events, events.length, traceStage);
+        }
         if (disruptor != null) {
-            for (Event event : events) {   // Todo : optimize for arrays
-                long sequenceNo = ringBuffer.next();
-                try {
-                    EventExchangeHolder eventExchangeHolder = ringBuffer.get(sequenceNo);
-                    eventExchangeHolder.getEvent().copyFrom(event);
-                    eventExchangeHolder.getAndSetIsProcessed(false);
-                } finally {
-                    ringBuffer.publish(sequenceNo);
-                }
-            }
+            publishToRingBuffer(events, events.length);
         } else {
-            for (Receiver receiver : receivers) {
-                receiver.receive(events);
+            boolean latencyTracked = markLatencyIn();
+            try {
+                for (Receiver receiver : receivers) {
+                    receiver.receive(events);
+                    if (isEventTraced && receiver instanceof StreamCallback) {
+                        EventTrace.complete(events, events.length, ((StreamCallback) receiver).getTraceStage());
+                    }
+                }
+            } finally {
+                if (latencyTracked) {
+                    latencyTracker.markOut();
+                }
             }
         }
     }
@@ -231,20 +360,53 @@ public class StreamJunction implements EventBufferHolder {
         if (isTraceEnabled) {
             log.trace("Event is received by streamJunction " + this);
         }
+        if (isEventTraced) {
+            for (Event event : events) {
+                EventTrace.mark(event, traceStage);
+            }
+        }
         if (disruptor != null) {
-            for (Event event : events) {   // Todo : optimize for arrays
-                long sequenceNo = ringBuffer.next();
-                try {
+            publishToRingBuffer(events.toArray(new Event[events.size()]), events.size());
+        } else {
+            boolean latencyTracked = markLatencyIn();
+            try {
+                for (Receiver receiver : receivers) {
+                    Event[] eventArray = events.toArray(new Event[events.size()]);
+                    receiver.receive(eventArray);
+                    if (isEventTraced && receiver instanceof StreamCallback) {
+                        EventTrace.complete(eventArray, eventArray.length,
+                                ((StreamCallback) receiver).getTraceStage());
+                    }
+                }
+            } finally {
+                if (latencyTracked) {
+                    latencyTracker.markOut();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publish the events to the ring buffer claiming a range of sequences at once, such that the producers
+     * contend on the ring buffer once per range instead of once per event.
+     *
+     * @param events events to be published
+     * @param length number of events to be published from the start of the array
+     */
+    private void publishToRingBuffer(Event[] events, int length) {
+        int maxClaimSize = ringBuffer.getBufferSize();
+        for (int offset = 0; offset < length; offset += maxClaimSize) {
+            int claimSize = Math.min(maxClaimSize, length - offset);
+            long hi = ringBuffer.next(claimSize);
+            long lo = hi - (claimSize - 1);
+            try {
+                for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
                     EventExchangeHolder eventExchangeHolder = ringBuffer.get(sequenceNo);
-                    eventExchangeHolder.getEvent().copyFrom(event);
+                    eventExchangeHolder.getEvent().copyFrom(events[offset + (int) (sequenceNo - lo)]);
                     eventExchangeHolder.getAndSetIsProcessed(false);
-                } finally {
-                    ringBuffer.publish(sequenceNo);
                 }
-            }
-        } else {
-            for (Receiver receiver : receivers) {
-                receiver.receive(events.toArray(new Event[events.size()]));
+            } finally {
+                ringBuffer.publish(lo, hi);
             }
         }
     }
@@ -260,17 +422,38 @@ public class StreamJunction implements EventBufferHolder {
                 eventExchangeHolder.getAndSetIsProcessed(false);
                 eventExchangeHolder.getEvent().setTimestamp(timeStamp);
                 eventExchangeHolder.getEvent().setIsExpired(false);
+                eventExchangeHolder.getEvent().setTrace(null);
                 System.arraycopy(data, 0, eventExchangeHolder.getEvent().getData(), 0, data.length);
             } finally {
                 ringBuffer.publish(sequenceNo);
             }
         } else {
-            for (Receiver receiver : receivers) {
-                receiver.receive(timeStamp, data);
+            boolean latencyTracked = markLatencyIn();
+            try {
+                for (Receiver receiver : receivers) {
+                    receiver.receive(timeStamp, data);
+                }
+            } finally {
+                if (latencyTracked) {
+                    latencyTracker.markOut();
+                }
             }
         }
     }
 
+    /**
+     * Start timing the dispatch of events to the receivers, if latency is tracked for the stream.
+     *
+     * @return whether {@link LatencyTracker#markOut()} has to be called after the dispatch
+     */
+    private boolean markLatencyIn() {
+        if (latencyTracker != null && Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0) {
+            latencyTracker.markIn();
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Create and start disruptor based on annotations given in the streamDefinition.
      */
@@ -278,11 +461,9 @@ public class StreamJunction implements EventBufferHolder {
         if (!receivers.isEmpty() && async) {
             for (Constructor constructor : Disruptor.class.getConstructors()) {
                 if (constructor.getParameterTypes().length == 5) {      // If new disruptor classes available
-                    ProducerType producerType = ProducerType.MULTI;
                     disruptor = new Disruptor<EventExchangeHolder>(
                             new EventExchangeHolderFactory(streamDefinition.getAttributeList().size()),
-                            bufferSize, executorService, producerType,
-                            new BlockingWaitStrategy());
+                            bufferSize, executorService, producerType, createWaitStrategy(waitStrategyType));
                     disruptor.handleExceptionsWith(siddhiAppContext.getDisruptorExceptionHandler());
                     break;
                 }
@@ -295,12 +476,17 @@ public class StreamJunction implements EventBufferHolder {
             }
             if (workers > 0) {
                 for (int i = 0; i < workers; i++) {
-                    disruptor.handleEventsWith(new StreamHandler(receivers, batchSize, streamDefinition.getId(),
-                            siddhiAppContext.getName(), faultStreamJunction, onErrorAction, exceptionListener));
+                    StreamHandler streamHandler = new StreamHandler(receivers, batchSize, streamDefinition.getId(),
+                            siddhiAppContext.getName(), faultStreamJunction, onErrorAction, exceptionListener,
+                            i, workers, partitionKeyPositions);
+                    streamHandler.setLatencyTracker(latencyTracker, siddhiAppContext);
+                    disruptor.handleEventsWith(streamHandler);
                 }
             } else {
-                disruptor.handleEventsWith(new StreamHandler(receivers, batchSize, streamDefinition.getId(),
-                        siddhiAppContext.getName(), faultStreamJunction, onErrorAction, exceptionListener));
+                StreamHandler streamHandler = new StreamHandler(receivers, batchSize, streamDefinition.getId(),
+                        siddhiAppContext.getName(), faultStreamJunction, onErrorAction, exceptionListener);
+                streamHandler.setLatencyTracker(latencyTracker, siddhiAppContext);
+                disruptor.handleEventsWith(streamHandler);
             }
             ringBuffer = disruptor.start();
         } else {
@@ -346,6 +532,21 @@ public class StreamJunction implements EventBufferHolder {
         return streamDefinition;
     }
 
+    /**
+     * @return maximum number of events accumulated by the input handler before sending them to the junction, or
+     * -1 if micro batching is not enabled for the stream
+     */
+    public int getMicroBatchSize() {
+        return microBatchSize;
+    }
+
+    /**
+     * @return maximum time in milliseconds an event is held by the input handler before sending it to the junction
+     */
+    public long getMicroBatchMaxLatency() {
+        return microBatchMaxLatency;
+    }
+
     @Override
     public long getBufferedEvents() {
         if (disruptor != null) {
@@ -367,6 +568,55 @@ public class StreamJunction implements EventBufferHolder {
         STREAM
     }
 
+    /**
+     * Wait strategies used by the workers of async stream junctions, trading CPU usage for latency
+     */
+    public enum WaitStrategyType {
+        BUSY_SPIN,
+        YIELD,
+        SLEEP,
+        BLOCK;
+
+        /**
+         * @param value wait strategy name as given in annotations, such as 'busy-spin'
+         * @return the wait strategy type, or null if the name is unknown
+         */
+        public static WaitStrategyType of(String value) {
+            for (WaitStrategyType waitStrategyType : values()) {
+                if (waitStrategyType.name().replace('_', '-').equalsIgnoreCase(value.trim())) {
+                    return waitStrategyType;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param value producer type name as given in annotations, 'single' or 'multi'
+     * @return the producer type, or null if the name is unknown
+     */
+    public static ProducerType parseProducerType(String value) {
+        for (ProducerType producerType : ProducerType.values()) {
+            if (producerType.name().equalsIgnoreCase(value.trim())) {
+                return producerType;
+            }
+        }
+        return null;
+    }
+
+    private static WaitStrategy createWaitStrategy(WaitStrategyType waitStrategyType) {
+        switch (waitStrategyType) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case YIELD:
+                return new YieldingWaitStrategy();
+            case SLEEP:
+                return new SleepingWaitStrategy();
+            default:
+                return new BlockingWaitStrategy();
+        }
+    }
+
     /**
      * Interface to be implemented by all receivers who need to subscribe to Stream Junction and receive events.
      */
@@ -19,6 +19,9 @@ package io.siddhi.core.stream.input;
 
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.event.Event;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.core.util.statistics.EventTraceTracker;
+import io.siddhi.core.util.statistics.metrics.Level;
 import org.apache.log4j.Logger;
 
 /**
@@ -34,6 +37,7 @@ public class InputHandler {
     protected InputProcessor inputProcessor;
     protected SiddhiAppContext siddhiAppContext;
     protected InputProcessor pausedInputPublisher;
+    protected String traceStage;
 
     public InputHandler(String streamId, int streamIndex, InputProcessor inputProcessor,
                         SiddhiAppContext siddhiAppContext) {
@@ -42,6 +46,7 @@ public class InputHandler {
         this.inputProcessor = inputProcessor;
         this.siddhiAppContext = siddhiAppContext;
         this.pausedInputPublisher = this.inputProcessor;
+        this.traceStage = "input(" + streamId + ")";
     }
 
     public String getStreamId() {
@@ -50,7 +55,14 @@ public class InputHandler {
 
     public void send(Object[] data) throws InterruptedException {
         if (inputProcessor != null) {
-            inputProcessor.send(System.currentTimeMillis(), data, streamIndex);
+            EventTrace trace = startTrace();
+            if (trace == null) {
+                inputProcessor.send(System.currentTimeMillis(), data, streamIndex);
+            } else {
+                Event event = new Event(System.currentTimeMillis(), data);
+                event.setTrace(trace);
+                inputProcessor.send(event, streamIndex);
+            }
         }
     }
 
@@ -60,7 +72,14 @@ public class InputHandler {
             this.siddhiAppContext.getTimestampGenerator().setCurrentTimestamp(timestamp);
         }
         if (inputProcessor != null) {
-            inputProcessor.send(timestamp, data, streamIndex);
+            EventTrace trace = startTrace();
+            if (trace == null) {
+                inputProcessor.send(timestamp, data, streamIndex);
+            } else {
+                Event event = new Event(timestamp, data);
+                event.setTrace(trace);
+                inputProcessor.send(event, streamIndex);
+            }
         }
     }
 
@@ -70,6 +89,9 @@ public class InputHandler {
             this.siddhiAppContext.getTimestampGenerator().setCurrentTimestamp(event.getTimestamp());
         }
         if (inputProcessor != null) {
+            if (isTracing()) {
+                event.setTrace(startTrace());
+            }
             inputProcessor.send(event, streamIndex);
         }
     }
@@ -80,10 +102,31 @@ public class InputHandler {
             this.siddhiAppContext.getTimestampGenerator().setCurrentTimestamp(events[events.length - 1].getTimestamp());
         }
         if (inputProcessor != null) {
+            if (isTracing()) {
+                for (Event event : events) {
+                    event.setTrace(startTrace());
+                }
+            }
             inputProcessor.send(events, streamIndex);
         }
     }
 
+    private boolean isTracing() {
+        return siddhiAppContext.getEventTraceTracker() != null &&
+                Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0;
+    }
+
+    /**
+     * @return trace of the event entering the stream if it is sampled for tracing, or null otherwise
+     */
+    private EventTrace startTrace() {
+        if (isTracing()) {
+            EventTraceTracker eventTraceTracker = siddhiAppContext.getEventTraceTracker();
+            return eventTraceTracker.startTrace(traceStage);
+        }
+        return null;
+    }
+
     void disconnect() {
         this.inputProcessor = null;
     }
@@ -23,8 +23,11 @@ import io.siddhi.core.event.Event;
 import io.siddhi.core.exception.DefinitionNotExistException;
 import io.siddhi.core.stream.StreamJunction;
 import io.siddhi.query.api.definition.AbstractDefinition;
+import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
@@ -33,11 +36,14 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class InputManager {
 
+    private static final Logger log = Logger.getLogger(InputManager.class);
+
     private final InputEntryValve inputEntryValve;
     private final SiddhiAppContext siddhiAppContext;
     private Map<String, InputHandler> inputHandlerMap = new LinkedHashMap<String, InputHandler>();
     private Map<String, StreamJunction> streamJunctionMap;
     private InputDistributor inputDistributor;
+    private List<MicroBatchInputProcessor> microBatchInputProcessors = new ArrayList<>();
 
     public InputManager(SiddhiAppContext siddhiAppContext,
                         ConcurrentMap<String, AbstractDefinition> streamDefinitionMap,
@@ -57,20 +63,43 @@ public class InputManager {
         }
     }
 
+    /**
+     * Send the events held by the micro batching input handlers.
+     */
+    public synchronized void flush() {
+        for (MicroBatchInputProcessor microBatchInputProcessor : microBatchInputProcessors) {
+            microBatchInputProcessor.flush();
+        }
+    }
+
     public synchronized void disconnect() {
         for (InputHandler inputHandler : inputHandlerMap.values()) {
             inputHandler.disconnect();
         }
         inputHandlerMap.clear();
+        microBatchInputProcessors.clear();
     }
 
     public InputHandler constructInputHandler(String streamId) {
-        InputHandler inputHandler = new InputHandler(streamId, inputHandlerMap.size(),
-                inputEntryValve, siddhiAppContext);
         StreamJunction streamJunction = streamJunctionMap.get(streamId);
         if (streamJunction == null) {
             throw new DefinitionNotExistException("Stream with stream ID " + streamId + " has not been defined");
         }
+        InputProcessor inputProcessor = inputEntryValve;
+        if (streamJunction.getMicroBatchSize() > 0) {
+            if (siddhiAppContext.isPlayback()) {
+                log.warn("Micro batching is disabled for stream '" + streamId + "' of Siddhi App '" +
+                        siddhiAppContext.getName() + "', as event timestamps drive the time in playback mode.");
+            } else {
+                MicroBatchInputProcessor microBatchInputProcessor = new MicroBatchInputProcessor(inputEntryValve,
+                        streamJunction.getMicroBatchSize(), streamJunction.getMicroBatchMaxLatency(),
+                        siddhiAppContext.getScheduledExecutorService(), streamId);
+                microBatchInputProcessors.add(microBatchInputProcessor);
+                inputProcessor = microBatchInputProcessor;
+            }
+        }
+        InputHandler inputHandler = new InputHandler(streamId, inputHandlerMap.size(),
+                inputProcessor, siddhiAppContext);
         inputDistributor.addInputProcessor(streamJunctionMap.get(streamId).constructPublisher());
         inputHandlerMap.put(streamId, inputHandler);
         return inputHandler;
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.stream.input;
+
+import io.siddhi.core.event.Event;
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of {@link InputProcessor} which accumulates the events sent one at a time and sends them to the
+ * next input processor as a batch, such that the thread barrier is entered and the stream junction is called once
+ * per batch. A batch is sent when it reaches the target size or when its oldest event has waited for the maximum
+ * latency.
+ * <p>
+ * The target size adapts to the arrival rate, it shrinks to the number of events that arrived within the latency
+ * bound when a batch is sent due to the latency bound, and doubles up to the maximum size when a batch is sent due to
+ * the size bound, keeping the added latency low under light load while building large batches under heavy load.
+ */
+public class MicroBatchInputProcessor implements InputProcessor {
+
+    private static final Logger log = Logger.getLogger(MicroBatchInputProcessor.class);
+
+    private final InputProcessor inputProcessor;
+    private final int maxBatchSize;
+    private final long maxLatency;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final String streamId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Event[] buffer;
+    private int bufferedCount = 0;
+    private int targetBatchSize;
+    private int streamIndex;
+    private long batchGeneration = 0;
+
+    public MicroBatchInputProcessor(InputProcessor inputProcessor, int maxBatchSize, long maxLatency,
+                                    ScheduledExecutorService scheduledExecutorService, String streamId) {
+        this.inputProcessor = inputProcessor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatency = maxLatency;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.streamId = streamId;
+        this.targetBatchSize = maxBatchSize;
+        this.buffer = new Event[maxBatchSize];
+    }
+
+    // Events are held until the batch is sent, hence they are copied as the callers may reuse their events and
+    // data arrays once the send call returns.
+    @Override
+    public void send(Event event, int streamIndex) {
+        add(new Event(event.getData().length).copyFrom(event), streamIndex);
+    }
+
+    @Override
+    public void send(Event[] events, int streamIndex) {
+        lock.lock();
+        try {
+            flush();
+            inputProcessor.send(events, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void send(List<Event> events, int streamIndex) {
+        lock.lock();
+        try {
+            flush();
+            inputProcessor.send(events, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void send(long timestamp, Object[] data, int streamIndex) {
+        add(new Event(timestamp, data.clone()), streamIndex);
+    }
+
+    private void add(Event event, int streamIndex) {
+        lock.lock();
+        try {
+            this.streamIndex = streamIndex;
+            buffer[bufferedCount++] = event;
+            if (bufferedCount == 1) {
+                scheduleFlush(batchGeneration);
+            }
+            if (bufferedCount >= targetBatchSize) {
+                flush();
+                targetBatchSize = Math.min(maxBatchSize, targetBatchSize << 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleFlush(long generation) {
+        try {
+            scheduledExecutorService.schedule(() -> flushExpired(generation), maxLatency, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The Siddhi app is shutting down, hence events are not held back
+            flush();
+        }
+    }
+
+    private void flushExpired(long generation) {
+        lock.lock();
+        try {
+            if (generation == batchGeneration && bufferedCount > 0) {
+                targetBatchSize = bufferedCount;
+                flush();
+            }
+        } catch (Throwable t) {
+            log.error("Error while sending the micro batch of " + bufferedCount + " events of stream '" +
+                    streamId + "'.", t);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Send the accumulated events to the next input processor.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (bufferedCount == 0) {
+                return;
+            }
+            Event[] events = new Event[bufferedCount];
+            System.arraycopy(buffer, 0, events, 0, bufferedCount);
+            for (int i = 0; i < bufferedCount; i++) {
+                buffer[i] = null;
+            }
+            bufferedCount = 0;
+            batchGeneration++;
+            inputProcessor.send(events, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -42,6 +42,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     private String streamId;
     private AbstractDefinition streamDefinition;
     private SiddhiAppContext siddhiAppContext;
+    private String traceStage;
 
     @Override
     public String getStreamId() {
@@ -50,6 +51,18 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
 
     public void setStreamId(String streamId) {
         this.streamId = streamId;
+        this.traceStage = getTraceStageType() + "(" + streamId + ")";
+    }
+
+    /**
+     * @return name of the stage the traces of the sampled events end at, once received by this callback
+     */
+    public String getTraceStage() {
+        return traceStage;
+    }
+
+    protected String getTraceStageType() {
+        return "callback";
     }
 
     public AbstractDefinition getStreamDefinition() {
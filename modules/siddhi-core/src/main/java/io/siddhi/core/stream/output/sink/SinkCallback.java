@@ -40,6 +40,11 @@ public class SinkCallback extends StreamCallback {
         this.outputStreamDefinition = outputStreamDefinition;
     }
 
+    @Override
+    protected String getTraceStageType() {
+        return "sink";
+    }
+
     public void init(SiddhiAppContext siddhiAppContext) {
         // there's nothing to be done, since we moved the
         // type validation mechanism to the transport itself.
@@ -42,6 +42,7 @@ import io.siddhi.core.util.parser.OperatorParser;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateHolder;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.query.api.definition.TableDefinition;
 import io.siddhi.query.api.execution.query.output.stream.UpdateSet;
 import io.siddhi.query.api.expression.Expression;
@@ -55,7 +56,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 /**
  * In-memory event table implementation of SiddhiQL.
  */
-public class InMemoryTable extends Table {
+public class InMemoryTable extends Table implements MemoryEstimable {
 
     private TableDefinition tableDefinition;
     private StreamEventCloner tableStreamEventCloner;
@@ -213,6 +214,19 @@ public class InMemoryTable extends Table {
         return new InMemoryCompiledUpdateSet(expressionExecutorMap);
     }
 
+    @Override
+    public long getEstimatedMemoryUsage() {
+        TableState state = stateHolder.getState();
+        try {
+            if (state.eventHolder instanceof MemoryEstimable) {
+                return ((MemoryEstimable) state.eventHolder).getEstimatedMemoryUsage();
+            }
+            return -1;
+        } finally {
+            stateHolder.returnState(state);
+        }
+    }
+
     class TableState extends State {
 
         private final EventHolder eventHolder;
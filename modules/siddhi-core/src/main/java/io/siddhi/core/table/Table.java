@@ -215,6 +215,73 @@ public abstract class Table implements FindableProcessor, MemoryCalculable {
     protected abstract StreamEvent find(CompiledCondition compiledCondition, StateEvent matchingEvent)
             throws ConnectionUnavailableException;
 
+    /**
+     * Find the matching events of a batch of events with the same compiled condition. The matches of all the events
+     * are found before any of them is processed further, hence they do not reflect the changes made to the table
+     * while processing the preceding events of the batch, unlike finding the matches of each event separately.
+     *
+     * @param matchingEvents    the events to be matched with the table
+     * @param compiledCondition the compiled condition
+     * @return the first matching event of each of the given events, in the order of the given events
+     */
+    public StreamEvent[] findAll(List<StateEvent> matchingEvents, CompiledCondition compiledCondition) {
+        if (isConnected.get()) {
+            try {
+                if (latencyTrackerFind != null &&
+                        Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0) {
+                    latencyTrackerFind.markIn();
+                }
+                StreamEvent[] results = find(compiledCondition, matchingEvents);
+                if (throughputTrackerFind != null &&
+                        Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0) {
+                    throughputTrackerFind.eventsIn(matchingEvents.size());
+                }
+                return results;
+            } catch (ConnectionUnavailableException e) {
+                isConnected.set(false);
+                LOG.error(ExceptionUtil.getMessageWithContext(e, siddhiAppContext) +
+                        " Connection unavailable at Table '" + tableDefinition.getId() +
+                        "', will retry connection immediately.", e);
+                connectWithRetry();
+                return findAll(matchingEvents, compiledCondition);
+            } finally {
+                if (latencyTrackerFind != null &&
+                        Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0) {
+                    latencyTrackerFind.markOut();
+                }
+            }
+        } else if (isTryingToConnect.get()) {
+            LOG.warn("Error on '" + siddhiAppContext.getName() + "' while performing find for events '" +
+                    matchingEvents + "', operation busy waiting at Table '" + tableDefinition.getId() +
+                    "' as its trying to reconnect!");
+            waitWhileConnect();
+            LOG.info("SiddhiApp '" + siddhiAppContext.getName() + "' table '" + tableDefinition.getId() +
+                    "' has become available for find operation for events '" + matchingEvents + "'");
+            return findAll(matchingEvents, compiledCondition);
+        } else {
+            connectWithRetry();
+            return findAll(matchingEvents, compiledCondition);
+        }
+    }
+
+    /**
+     * Find the matching events of a batch of events. By default each event is matched separately, tables that
+     * can retrieve the matches of many events at once should override this.
+     *
+     * @param compiledCondition the compiled condition
+     * @param matchingEvents    the events to be matched with the table
+     * @return the first matching event of each of the given events, in the order of the given events
+     * @throws ConnectionUnavailableException if the backing store is not reachable
+     */
+    protected StreamEvent[] find(CompiledCondition compiledCondition, List<StateEvent> matchingEvents)
+            throws ConnectionUnavailableException {
+        StreamEvent[] results = new StreamEvent[matchingEvents.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = find(compiledCondition, matchingEvents.get(i));
+        }
+        return results;
+    }
+
     public void deleteEvents(ComplexEventChunk<StateEvent> deletingEventChunk, CompiledCondition compiledCondition,
                              int noOfEvents) {
         if (isConnected.get()) {
@@ -30,6 +30,8 @@ import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.snapshot.SnapshotRequest;
 import io.siddhi.core.util.snapshot.state.Snapshot;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
+import io.siddhi.core.util.statistics.MemoryEstimable;
+import io.siddhi.core.util.statistics.memory.EventMemoryEstimator;
 import io.siddhi.query.api.definition.AbstractDefinition;
 import io.siddhi.query.api.expression.condition.Compare;
 import org.apache.log4j.Logger;
@@ -42,21 +44,31 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 
 import static io.siddhi.core.event.stream.Operation.Operator.ADD;
 import static io.siddhi.core.event.stream.Operation.Operator.CLEAR;
+import static io.siddhi.core.event.stream.Operation.Operator.DELETE_BY_KEY;
 import static io.siddhi.core.event.stream.Operation.Operator.DELETE_BY_OPERATOR;
 import static io.siddhi.core.event.stream.Operation.Operator.OVERWRITE;
 import static io.siddhi.core.event.stream.Operation.Operator.REMOVE;
+import static io.siddhi.core.event.stream.Operation.Operator.UPDATE_BY_KEY;
 
 
 /**
  * EventHolder implementation where events will be indexed and stored. This will offer faster access compared to
- * other EventHolder implementations. User can only add unique events based on a given primary key.
+ * other EventHolder implementations. User can only add unique events based on a given primary key. The memory
+ * retained by the events and their primary key and index entries is estimated as they are added and removed.
+ * <p>
+ * When a primary key is defined the incremental snapshots do not carry a copy of the event for every operation.
+ * Instead the data of each row is remembered when its key is first changed within the snapshot interval, and at
+ * snapshot time only the difference with the current row is logged, as an addition, a deletion by key or an update
+ * by key holding only the changed attributes. Hence repeated changes of the same key are coalesced and the size of
+ * an increment is proportional to the number of distinct rows changed.
  */
-public class IndexEventHolder implements IndexedEventHolder, Serializable {
+public class IndexEventHolder implements IndexedEventHolder, Serializable, MemoryEstimable {
 
     private static final Logger log = Logger.getLogger(IndexEventHolder.class);
     private static final long serialVersionUID = 1272291743721603253L;
@@ -73,9 +85,11 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
     private Map<String, Integer> multiPrimaryKeyMetaData = new LinkedHashMap<>();
     private Map<String, Integer> allIndexMetaData = new HashMap<>();
     private ArrayList<Operation> operationChangeLog = new ArrayList<>();
+    private transient LinkedHashMap<Object, Object[]> changedRows = new LinkedHashMap<>();
     private long eventsCount;
     private boolean forceFullSnapshot = true;
     private boolean isOperationLogEnabled = true;
+    private long estimatedMemoryUsage;
 
     public IndexEventHolder(StreamEventFactory tableStreamEventFactory, StreamEventConverter eventConverter,
                             PrimaryKeyReferenceHolder[] primaryKeyReferenceHolders,
@@ -160,14 +174,13 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
             StreamEvent streamEvent = tableStreamEventFactory.newInstance();
             eventConverter.convertComplexEvent(complexEvent, streamEvent);
             eventsCount++;
-            if (isOperationLogEnabled) {
-                if (!isFullSnapshot()) {
+            if (isChangeLogged()) {
+                if (primaryKeyData != null) {
+                    logChangedRow(constructPrimaryKey(streamEvent, primaryKeyReferenceHolders));
+                } else {
                     StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
                     eventConverter.convertComplexEvent(complexEvent, streamEvent2);
                     operationChangeLog.add(new Operation(ADD, streamEvent2));
-                } else {
-                    operationChangeLog.clear();
-                    forceFullSnapshot = true;
                 }
             }
             add(streamEvent);
@@ -184,6 +197,9 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                         streamEvent + ", as there is already an event stored with primary key '" + primaryKey + "'");
             }
         }
+        if (existingValue == null) {
+            estimatedMemoryUsage += estimate(streamEvent);
+        }
 
         if (indexData != null) {
             for (Map.Entry<String, Integer> indexEntry : indexMetaData.entrySet()) {
@@ -218,14 +234,13 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
 
     @Override
     public void overwrite(StreamEvent streamEvent) {
-        if (isOperationLogEnabled) {
-            if (!isFullSnapshot()) {
+        if (isChangeLogged()) {
+            if (primaryKeyData != null) {
+                logChangedRow(constructPrimaryKey(streamEvent, primaryKeyReferenceHolders));
+            } else {
                 StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
                 eventConverter.convertComplexEvent(streamEvent, streamEvent2);
                 operationChangeLog.add(new Operation(OVERWRITE, streamEvent2));
-            } else {
-                operationChangeLog.clear();
-                forceFullSnapshot = true;
             }
         }
         StreamEvent deletedEvent = null;
@@ -233,6 +248,10 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
             Object primaryKey = constructPrimaryKey(streamEvent, primaryKeyReferenceHolders);
             deletedEvent = primaryKeyData.put(primaryKey, streamEvent);
         }
+        estimatedMemoryUsage += estimate(streamEvent);
+        if (deletedEvent != null) {
+            estimatedMemoryUsage -= estimate(deletedEvent);
+        }
 
         if (indexData != null) {
             for (Map.Entry<String, Integer> indexEntry : indexMetaData.entrySet()) {
@@ -257,6 +276,19 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
         }
     }
 
+    @Override
+    public void beforeUpdate(StreamEvent streamEvent) {
+        if (isChangeLogged()) {
+            if (primaryKeyData != null) {
+                logChangedRow(constructPrimaryKey(streamEvent, primaryKeyReferenceHolders));
+            } else {
+                // without a primary key the in place update cannot be addressed, hence take the next snapshot in full
+                operationChangeLog.clear();
+                forceFullSnapshot = true;
+            }
+        }
+    }
+
     @Override
     public Collection<StreamEvent> getAllEvents() {
         if (primaryKeyData != null) {
@@ -366,14 +398,16 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
 
     @Override
     public void deleteAll() {
-        if (isOperationLogEnabled) {
-            if (!isFullSnapshot()) {
-                operationChangeLog.add(new Operation(CLEAR));
-            } else {
-                operationChangeLog.clear();
-                forceFullSnapshot = true;
-            }
+        if (isChangeLogged()) {
+            // clearing supersedes all the changes logged so far within the snapshot interval
+            operationChangeLog.clear();
+            changedRows.clear();
+            operationChangeLog.add(new Operation(CLEAR));
         }
+        clearAll();
+    }
+
+    private void clearAll() {
         if (primaryKeyData != null) {
             primaryKeyData.clear();
         }
@@ -382,19 +416,17 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                 aIndexedData.clear();
             }
         }
+        estimatedMemoryUsage = 0;
     }
 
     @Override
     public void deleteAll(Collection<StreamEvent> storeEventSet) {
         for (StreamEvent streamEvent : storeEventSet) {
-            if (isOperationLogEnabled) {
-                if (!isFullSnapshot()) {
-                    StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
-                    eventConverter.convertComplexEvent(streamEvent, streamEvent2);
-                    operationChangeLog.add(new Operation(REMOVE, streamEvent));
+            if (isChangeLogged()) {
+                if (primaryKeyData != null) {
+                    logChangedRow(constructPrimaryKey(streamEvent, primaryKeyReferenceHolders));
                 } else {
-                    operationChangeLog.clear();
-                    forceFullSnapshot = true;
+                    operationChangeLog.add(new Operation(REMOVE, streamEvent));
                 }
             }
             deleteAll(streamEvent);
@@ -406,10 +438,14 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
         if (primaryKeyData != null) {
             Object primaryKey = constructPrimaryKey(streamEvent, primaryKeyReferenceHolders);
             StreamEvent deletedEvent = primaryKeyData.remove(primaryKey);
+            if (deletedEvent != null) {
+                estimatedMemoryUsage -= estimate(deletedEvent);
+            }
             if (indexData != null) {
                 deleteFromIndexes(deletedEvent);
             }
         } else if (indexData != null) {
+            estimatedMemoryUsage -= estimate(streamEvent);
             deleteFromIndexes(streamEvent);
         }
     }
@@ -417,12 +453,13 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
     @Override
     public void delete(String attribute, Compare.Operator operator, Object value) {
 
-        if (isOperationLogEnabled) {
-            if (!isFullSnapshot()) {
-                operationChangeLog.add(new Operation(DELETE_BY_OPERATOR, new Object[]{attribute, operator, value}));
+        if (isChangeLogged()) {
+            if (primaryKeyData != null && operator == Compare.Operator.EQUAL
+                    && attribute.equals(primaryKeyAttributes)) {
+                logChangedRow(value);
             } else {
-                operationChangeLog.clear();
-                forceFullSnapshot = true;
+                flushChangedRows();
+                operationChangeLog.add(new Operation(DELETE_BY_OPERATOR, new Object[]{attribute, operator, value}));
             }
         }
 
@@ -435,6 +472,7 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                          iterator.hasNext(); ) {
                         StreamEvent toDeleteEvent = iterator.next();
                         iterator.remove();
+                        estimatedMemoryUsage -= estimate(toDeleteEvent);
                         deleteFromIndexes(toDeleteEvent);
                     }
                     return;
@@ -444,6 +482,7 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                          iterator.hasNext(); ) {
                         StreamEvent toDeleteEvent = iterator.next();
                         iterator.remove();
+                        estimatedMemoryUsage -= estimate(toDeleteEvent);
                         deleteFromIndexes(toDeleteEvent);
                     }
                     return;
@@ -453,6 +492,7 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                          iterator.hasNext(); ) {
                         StreamEvent toDeleteEvent = iterator.next();
                         iterator.remove();
+                        estimatedMemoryUsage -= estimate(toDeleteEvent);
                         deleteFromIndexes(toDeleteEvent);
                     }
                     return;
@@ -462,18 +502,20 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                          iterator.hasNext(); ) {
                         StreamEvent toDeleteEvent = iterator.next();
                         iterator.remove();
+                        estimatedMemoryUsage -= estimate(toDeleteEvent);
                         deleteFromIndexes(toDeleteEvent);
                     }
                     return;
                 case EQUAL:
                     StreamEvent deletedEvent = primaryKeyData.remove(value);
                     if (deletedEvent != null) {
+                        estimatedMemoryUsage -= estimate(deletedEvent);
                         deleteFromIndexes(deletedEvent);
                     }
                     return;
                 case NOT_EQUAL:
                     StreamEvent streamEvent = primaryKeyData.get(value);
-                    deleteAll();
+                    clearAll();
                     if (streamEvent != null) {
                         add(streamEvent);
                     }
@@ -526,7 +568,7 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                     return;
                 case NOT_EQUAL:
                     Set<StreamEvent> matchingEventSet = indexData.get(attribute).get(value);
-                    deleteAll();
+                    clearAll();
                     for (StreamEvent matchingEvent : matchingEventSet) {
                         add(matchingEvent);
                     }
@@ -579,6 +621,7 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
 
     private void deleteFromIndexesAndPrimaryKey(String currentAttribute, Set<StreamEvent> deletedEventSet) {
         for (StreamEvent deletedEvent : deletedEventSet) {
+            estimatedMemoryUsage -= estimate(deletedEvent);
             if (primaryKeyData != null) {
                 Object primaryKey = constructPrimaryKey(deletedEvent, primaryKeyReferenceHolders);
                 primaryKeyData.remove(primaryKey);
@@ -615,17 +658,117 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
         }
     }
 
+    private long estimate(StreamEvent streamEvent) {
+        int entryCount = (primaryKeyData != null ? 1 : 0) + (indexData != null ? indexData.size() : 0);
+        return EventMemoryEstimator.estimate(streamEvent) + entryCount * EventMemoryEstimator.getMapEntrySize();
+    }
+
+    @Override
+    public long getEstimatedMemoryUsage() {
+        return Math.max(estimatedMemoryUsage, 0);
+    }
+
     private boolean isFullSnapshot() {
-        return operationChangeLog.size() > (eventsCount * FULL_SNAPSHOT_THRESHOLD)
+        return operationChangeLog.size() + changedRows.size() > (eventsCount * FULL_SNAPSHOT_THRESHOLD)
                 || forceFullSnapshot
                 || SnapshotRequest.isRequestForFullSnapshot();
     }
 
+    private boolean isChangeLogged() {
+        if (!isOperationLogEnabled) {
+            return false;
+        }
+        if (isFullSnapshot()) {
+            operationChangeLog.clear();
+            changedRows.clear();
+            forceFullSnapshot = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the data of the row with the given primary key, as it was before its first change within the
+     * snapshot interval.
+     */
+    private void logChangedRow(Object primaryKey) {
+        if (!changedRows.containsKey(primaryKey)) {
+            StreamEvent streamEvent = primaryKeyData.get(primaryKey);
+            changedRows.put(primaryKey, streamEvent == null ? null : streamEvent.getOutputData().clone());
+        }
+    }
+
+    /**
+     * Logs the difference between the remembered and the current data of the changed rows.
+     */
+    private void flushChangedRows() {
+        for (Map.Entry<Object, Object[]> changedRow : changedRows.entrySet()) {
+            Object[] previousData = changedRow.getValue();
+            StreamEvent streamEvent = primaryKeyData.get(changedRow.getKey());
+            if (streamEvent == null) {
+                if (previousData != null) {
+                    operationChangeLog.add(new Operation(DELETE_BY_KEY, changedRow.getKey()));
+                }
+            } else if (previousData == null) {
+                StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
+                eventConverter.convertComplexEvent(streamEvent, streamEvent2);
+                operationChangeLog.add(new Operation(ADD, streamEvent2));
+            } else {
+                Object[] data = streamEvent.getOutputData();
+                int changedCount = 0;
+                for (int i = 0; i < data.length; i++) {
+                    if (!Objects.equals(data[i], previousData[i])) {
+                        changedCount++;
+                    }
+                }
+                if (changedCount > 0) {
+                    int[] positions = new int[changedCount];
+                    Object[] values = new Object[changedCount];
+                    for (int i = 0, j = 0; i < data.length; i++) {
+                        if (!Objects.equals(data[i], previousData[i])) {
+                            positions[j] = i;
+                            values[j++] = data[i];
+                        }
+                    }
+                    operationChangeLog.add(new Operation(UPDATE_BY_KEY,
+                            new Object[]{changedRow.getKey(), positions, values}));
+                }
+            }
+        }
+        changedRows.clear();
+    }
+
+    private void deleteByPrimaryKey(Object primaryKey) {
+        StreamEvent deletedEvent = primaryKeyData.remove(primaryKey);
+        if (deletedEvent != null) {
+            estimatedMemoryUsage -= estimate(deletedEvent);
+            if (indexData != null) {
+                deleteFromIndexes(deletedEvent);
+            }
+        }
+    }
+
+    private void updateByPrimaryKey(Object primaryKey, int[] positions, Object[] values) {
+        StreamEvent existingEvent = primaryKeyData.get(primaryKey);
+        if (existingEvent != null) {
+            StreamEvent streamEvent = tableStreamEventFactory.newInstance();
+            eventConverter.convertComplexEvent(existingEvent, streamEvent);
+            for (int i = 0; i < positions.length; i++) {
+                streamEvent.setOutputData(values[i], positions[i]);
+            }
+            deleteByPrimaryKey(primaryKey);
+            add(streamEvent);
+        }
+    }
+
     public Snapshot getSnapshot() {
         if (isFullSnapshot()) {
             forceFullSnapshot = false;
+            operationChangeLog.clear();
+            changedRows.clear();
             return new Snapshot(this, false);
         } else {
+            flushChangedRows();
             Snapshot snapshot = new Snapshot(operationChangeLog, true);
             operationChangeLog = new ArrayList<>();
             return snapshot;
@@ -649,6 +792,10 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                     indexData.clear();
                     indexData.putAll(snapshotEventHolder.indexData);
                 }
+                estimatedMemoryUsage = 0;
+                for (StreamEvent streamEvent : getAllEvents()) {
+                    estimatedMemoryUsage += estimate(streamEvent);
+                }
                 forceFullSnapshot = false;
             } else {
                 ArrayList<Operation> operations = (ArrayList<Operation>) snapshotEntry.getValue().getState();
@@ -670,6 +817,13 @@ public class IndexEventHolder implements IndexedEventHolder, Serializable {
                             Object[] args = (Object[]) op.parameters;
                             delete((String) args[0], (Compare.Operator) args[1], args[2]);
                             break;
+                        case DELETE_BY_KEY:
+                            deleteByPrimaryKey(op.parameters);
+                            break;
+                        case UPDATE_BY_KEY:
+                            Object[] update = (Object[]) op.parameters;
+                            updateByPrimaryKey(update[0], (int[]) update[1], (Object[]) update[2]);
+                            break;
                         default:
                             continue;
                     }
@@ -47,6 +47,13 @@ public interface IndexedEventHolder extends EventHolder {
 
     void overwrite(StreamEvent streamEvent);
 
+    /**
+     * Notifies that attributes of the given stored event, which are not indexed, are about to be updated in place.
+     *
+     * @param streamEvent the stored event that will be updated
+     */
+    void beforeUpdate(StreamEvent streamEvent);
+
     Set<Object> getAllPrimaryKeyValues();
 
     PrimaryKeyReferenceHolder[] getPrimaryKeyReferenceHolders();
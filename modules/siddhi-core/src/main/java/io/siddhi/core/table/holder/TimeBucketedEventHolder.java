@@ -0,0 +1,645 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.table.holder;
+
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.stream.Operation;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.converter.StreamEventConverter;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.util.SiddhiConstants;
+import io.siddhi.core.util.snapshot.SnapshotRequest;
+import io.siddhi.core.util.snapshot.state.Snapshot;
+import io.siddhi.core.util.snapshot.state.SnapshotStateList;
+import io.siddhi.core.util.statistics.MemoryEstimable;
+import io.siddhi.core.util.statistics.memory.EventMemoryEstimator;
+import io.siddhi.query.api.definition.AbstractDefinition;
+import io.siddhi.query.api.expression.condition.Compare;
+import org.apache.log4j.Logger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static io.siddhi.core.event.stream.Operation.Operator.ADD;
+import static io.siddhi.core.event.stream.Operation.Operator.CLEAR;
+import static io.siddhi.core.event.stream.Operation.Operator.DELETE_BY_OPERATOR;
+import static io.siddhi.core.event.stream.Operation.Operator.OVERWRITE;
+import static io.siddhi.core.event.stream.Operation.Operator.REMOVE;
+
+/**
+ * {@link IndexedEventHolder} of the tables of incremental aggregations, whose primary key leads with the
+ * {@link SiddhiConstants#AGG_START_TIMESTAMP_COL} bucket of the aggregates. Events are kept in buckets ordered by
+ * that timestamp, keyed by their primary key within the bucket. Hence the ranges of a within condition are served
+ * by walking the buckets and the retention purging drops whole buckets, instead of evaluating the condition against
+ * every stored event. Attributes given in @Index annotations are indexed within each bucket, such that dropping a
+ * bucket drops its index entries with it, while finds on those attributes look up the index of every bucket.
+ */
+public class TimeBucketedEventHolder implements IndexedEventHolder, Serializable, MemoryEstimable {
+
+    private static final Logger log = Logger.getLogger(TimeBucketedEventHolder.class);
+    private static final long serialVersionUID = -2373519658219536342L;
+    private static final float FULL_SNAPSHOT_THRESHOLD = 2.1f;
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private final PrimaryKeyReferenceHolder[] primaryKeyReferenceHolders;
+    private final String timestampAttribute;
+    private final int timestampPosition;
+    private final String tableName;
+    private final String siddhiAppName;
+    private final String primaryKeyAttributes;
+    private StreamEventFactory tableStreamEventFactory;
+    private StreamEventConverter eventConverter;
+    private Map<String, Integer> indexMetaData;
+    private Map<String, Integer> multiPrimaryKeyMetaData = new LinkedHashMap<>();
+    private Map<String, Integer> allIndexMetaData = new HashMap<>();
+    private ArrayList<Operation> operationChangeLog = new ArrayList<>();
+    private long eventsCount;
+    private boolean forceFullSnapshot = true;
+    private boolean isOperationLogEnabled = true;
+    private long estimatedMemoryUsage;
+
+    public TimeBucketedEventHolder(StreamEventFactory tableStreamEventFactory, StreamEventConverter eventConverter,
+                                   PrimaryKeyReferenceHolder[] primaryKeyReferenceHolders,
+                                   Map<String, Integer> indexMetaData, AbstractDefinition tableDefinition,
+                                   SiddhiAppContext siddhiAppContext) {
+        this.tableStreamEventFactory = tableStreamEventFactory;
+        this.eventConverter = eventConverter;
+        this.primaryKeyReferenceHolders = primaryKeyReferenceHolders;
+        this.indexMetaData = indexMetaData;
+        this.tableName = tableDefinition.getId();
+        this.siddhiAppName = siddhiAppContext.getName();
+        this.timestampAttribute = primaryKeyReferenceHolders[0].getPrimaryKeyAttribute();
+        this.timestampPosition = primaryKeyReferenceHolders[0].getPrimaryKeyPosition();
+
+        if (primaryKeyReferenceHolders.length == 1) {
+            primaryKeyAttributes = timestampAttribute;
+        } else {
+            StringBuilder primaryKeyAttributesBuilder = new StringBuilder();
+            for (PrimaryKeyReferenceHolder primaryKeyReferenceHolder : primaryKeyReferenceHolders) {
+                multiPrimaryKeyMetaData.put(primaryKeyReferenceHolder.getPrimaryKeyAttribute(),
+                        primaryKeyReferenceHolder.getPrimaryKeyPosition());
+                primaryKeyAttributesBuilder.append(primaryKeyReferenceHolder.getPrimaryKeyAttribute())
+                        .append(SiddhiConstants.KEY_DELIMITER);
+            }
+            primaryKeyAttributes = primaryKeyAttributesBuilder.toString();
+        }
+        // Bucket timestamp is always indexed, such that its comparisons are served by the buckets
+        allIndexMetaData.put(timestampAttribute, timestampPosition);
+        allIndexMetaData.putAll(indexMetaData);
+    }
+
+    @Override
+    public Set<Object> getAllPrimaryKeyValues() {
+        Set<Object> primaryKeyValues = new HashSet<>();
+        for (Bucket bucket : buckets.values()) {
+            primaryKeyValues.addAll(bucket.events.keySet());
+        }
+        return primaryKeyValues;
+    }
+
+    @Override
+    public PrimaryKeyReferenceHolder[] getPrimaryKeyReferenceHolders() {
+        return primaryKeyReferenceHolders;
+    }
+
+    @Override
+    public boolean isMultiPrimaryKeyAttribute(String attributeName) {
+        return multiPrimaryKeyMetaData.containsKey(attributeName);
+    }
+
+    @Override
+    public boolean isAttributeIndexed(String attribute) {
+        return allIndexMetaData.containsKey(attribute);
+    }
+
+    @Override
+    public boolean isAttributeIndexed(int position) {
+        return allIndexMetaData.containsValue(position);
+    }
+
+    @Override
+    public void add(ComplexEventChunk<StreamEvent> addingEventChunk) {
+        addingEventChunk.reset();
+        while (addingEventChunk.hasNext()) {
+            ComplexEvent complexEvent = addingEventChunk.next();
+            StreamEvent streamEvent = tableStreamEventFactory.newInstance();
+            eventConverter.convertComplexEvent(complexEvent, streamEvent);
+            eventsCount++;
+            if (isOperationLogEnabled) {
+                if (!isFullSnapshot()) {
+                    StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
+                    eventConverter.convertComplexEvent(complexEvent, streamEvent2);
+                    operationChangeLog.add(new Operation(ADD, streamEvent2));
+                } else {
+                    operationChangeLog.clear();
+                    forceFullSnapshot = true;
+                }
+            }
+            add(streamEvent);
+        }
+    }
+
+    private void add(StreamEvent streamEvent) {
+        Object primaryKey = constructPrimaryKey(streamEvent);
+        Bucket bucket = getOrCreateBucket(streamEvent);
+        StreamEvent existingValue = bucket.events.putIfAbsent(primaryKey, streamEvent);
+        if (existingValue != null) {
+            log.error("Siddhi App '" + siddhiAppName + "' table '" + tableName + "' dropping event : " +
+                    streamEvent + ", as there is already an event stored with primary key '" + primaryKey + "'");
+            return;
+        }
+        long estimate = estimate(streamEvent);
+        bucket.estimatedMemoryUsage += estimate;
+        estimatedMemoryUsage += estimate;
+        addToIndexes(bucket, streamEvent);
+    }
+
+    @Override
+    public void overwrite(StreamEvent streamEvent) {
+        if (isOperationLogEnabled) {
+            if (!isFullSnapshot()) {
+                StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
+                eventConverter.convertComplexEvent(streamEvent, streamEvent2);
+                operationChangeLog.add(new Operation(OVERWRITE, streamEvent2));
+            } else {
+                operationChangeLog.clear();
+                forceFullSnapshot = true;
+            }
+        }
+        Bucket bucket = getOrCreateBucket(streamEvent);
+        StreamEvent deletedEvent = bucket.events.put(constructPrimaryKey(streamEvent), streamEvent);
+        long estimate = estimate(streamEvent);
+        if (deletedEvent != null) {
+            estimate -= estimate(deletedEvent);
+            deleteFromIndexes(bucket, deletedEvent, null);
+        }
+        bucket.estimatedMemoryUsage += estimate;
+        estimatedMemoryUsage += estimate;
+        addToIndexes(bucket, streamEvent);
+    }
+
+    @Override
+    public void beforeUpdate(StreamEvent streamEvent) {
+        // in place updates are not captured by the operation change log, hence the next snapshot is taken in full
+        if (isOperationLogEnabled) {
+            operationChangeLog.clear();
+            forceFullSnapshot = true;
+        }
+    }
+
+    @Override
+    public Collection<StreamEvent> getAllEvents() {
+        ArrayList<StreamEvent> resultEvents = new ArrayList<>();
+        for (Bucket bucket : buckets.values()) {
+            resultEvents.addAll(bucket.events.values());
+        }
+        return resultEvents;
+    }
+
+    @Override
+    public Collection<StreamEvent> findEvents(String attribute, Compare.Operator operator, Object value) {
+        if (attribute.equals(timestampAttribute)) {
+            HashSet<StreamEvent> resultEventSet = new HashSet<>();
+            if (value == null) {
+                return resultEventSet;
+            }
+            if (operator == Compare.Operator.NOT_EQUAL) {
+                Long timestamp = ((Number) value).longValue();
+                for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+                    if (!entry.getKey().equals(timestamp)) {
+                        resultEventSet.addAll(entry.getValue().events.values());
+                    }
+                }
+                return resultEventSet;
+            }
+            for (Bucket bucket : getBuckets(operator, ((Number) value).longValue()).values()) {
+                resultEventSet.addAll(bucket.events.values());
+            }
+            return resultEventSet;
+        } else if (attribute.equals(primaryKeyAttributes)) {
+            StreamEvent resultEvent = findByPrimaryKey(value);
+            switch (operator) {
+                case EQUAL:
+                    HashSet<StreamEvent> resultEventSet = new HashSet<>();
+                    if (resultEvent != null) {
+                        resultEventSet.add(resultEvent);
+                    }
+                    return resultEventSet;
+                case NOT_EQUAL:
+                    resultEventSet = new HashSet<>(getAllEvents());
+                    if (resultEvent != null) {
+                        resultEventSet.remove(resultEvent);
+                    }
+                    return resultEventSet;
+            }
+        } else {
+            HashSet<StreamEvent> resultEventSet = new HashSet<>();
+            for (Bucket bucket : buckets.values()) {
+                TreeMap<Object, Set<StreamEvent>> currentIndexedData = bucket.indexData.get(attribute);
+                switch (operator) {
+                    case LESS_THAN:
+                        for (Set<StreamEvent> eventSet : currentIndexedData.headMap(value, false).values()) {
+                            resultEventSet.addAll(eventSet);
+                        }
+                        break;
+                    case GREATER_THAN:
+                        for (Set<StreamEvent> eventSet : currentIndexedData.tailMap(value, false).values()) {
+                            resultEventSet.addAll(eventSet);
+                        }
+                        break;
+                    case LESS_THAN_EQUAL:
+                        for (Set<StreamEvent> eventSet : currentIndexedData.headMap(value, true).values()) {
+                            resultEventSet.addAll(eventSet);
+                        }
+                        break;
+                    case GREATER_THAN_EQUAL:
+                        for (Set<StreamEvent> eventSet : currentIndexedData.tailMap(value, true).values()) {
+                            resultEventSet.addAll(eventSet);
+                        }
+                        break;
+                    case EQUAL:
+                        Set<StreamEvent> resultEvents = currentIndexedData.get(value);
+                        if (resultEvents != null) {
+                            resultEventSet.addAll(resultEvents);
+                        }
+                        break;
+                    case NOT_EQUAL:
+                        for (Map.Entry<Object, Set<StreamEvent>> entry : currentIndexedData.entrySet()) {
+                            if (!entry.getKey().equals(value)) {
+                                resultEventSet.addAll(entry.getValue());
+                            }
+                        }
+                        break;
+                    default:
+                        throw new OperationNotSupportedException(operator + " not supported for '" + value +
+                                "' by " + getClass().getName());
+                }
+            }
+            return resultEventSet;
+        }
+        throw new OperationNotSupportedException(operator + " not supported for '" + value + "' by " + getClass()
+                .getName());
+    }
+
+    @Override
+    public void deleteAll() {
+        if (isOperationLogEnabled) {
+            if (!isFullSnapshot()) {
+                operationChangeLog.add(new Operation(CLEAR));
+            } else {
+                operationChangeLog.clear();
+                forceFullSnapshot = true;
+            }
+        }
+        clear();
+    }
+
+    private void clear() {
+        buckets.clear();
+        estimatedMemoryUsage = 0;
+    }
+
+    @Override
+    public void deleteAll(Collection<StreamEvent> storeEventSet) {
+        for (StreamEvent streamEvent : storeEventSet) {
+            if (isOperationLogEnabled) {
+                if (!isFullSnapshot()) {
+                    StreamEvent streamEvent2 = tableStreamEventFactory.newInstance();
+                    eventConverter.convertComplexEvent(streamEvent, streamEvent2);
+                    operationChangeLog.add(new Operation(REMOVE, streamEvent2));
+                } else {
+                    operationChangeLog.clear();
+                    forceFullSnapshot = true;
+                }
+            }
+            remove(streamEvent, null);
+        }
+    }
+
+    private void remove(StreamEvent streamEvent, String skippedIndexAttribute) {
+        Long timestamp = getTimestamp(streamEvent);
+        Bucket bucket = buckets.get(timestamp);
+        if (bucket == null) {
+            return;
+        }
+        StreamEvent deletedEvent = bucket.events.remove(constructPrimaryKey(streamEvent));
+        if (deletedEvent != null) {
+            long estimate = estimate(deletedEvent);
+            bucket.estimatedMemoryUsage -= estimate;
+            estimatedMemoryUsage -= estimate;
+            deleteFromIndexes(bucket, deletedEvent, skippedIndexAttribute);
+            if (bucket.events.isEmpty()) {
+                buckets.remove(timestamp);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String attribute, Compare.Operator operator, Object value) {
+        if (isOperationLogEnabled) {
+            if (!isFullSnapshot()) {
+                operationChangeLog.add(new Operation(DELETE_BY_OPERATOR, new Object[]{attribute, operator, value}));
+            } else {
+                operationChangeLog.clear();
+                forceFullSnapshot = true;
+            }
+        }
+        if (attribute.equals(timestampAttribute) && value != null && operator != Compare.Operator.NOT_EQUAL) {
+            // Drop the matching buckets as a whole, together with their indexes
+            NavigableMap<Long, Bucket> deletedBuckets = getBuckets(operator, ((Number) value).longValue());
+            for (Bucket bucket : deletedBuckets.values()) {
+                estimatedMemoryUsage -= bucket.estimatedMemoryUsage;
+            }
+            deletedBuckets.clear();
+        } else if (indexMetaData.containsKey(attribute) && operator == Compare.Operator.EQUAL) {
+            ArrayList<StreamEvent> deletedEvents = new ArrayList<>();
+            for (Bucket bucket : buckets.values()) {
+                Set<StreamEvent> deletedEventSet = bucket.indexData.get(attribute).remove(value);
+                if (deletedEventSet != null) {
+                    deletedEvents.addAll(deletedEventSet);
+                }
+            }
+            for (StreamEvent deletedEvent : deletedEvents) {
+                remove(deletedEvent, attribute);
+            }
+        } else {
+            for (StreamEvent deletedEvent : findEvents(attribute, operator, value)) {
+                remove(deletedEvent, null);
+            }
+        }
+    }
+
+    @Override
+    public boolean containsEventSet(String attribute, Compare.Operator operator, Object value) {
+        if (attribute.equals(timestampAttribute)) {
+            if (value == null) {
+                return false;
+            }
+            long timestamp = ((Number) value).longValue();
+            switch (operator) {
+                case LESS_THAN:
+                    return buckets.lowerKey(timestamp) != null;
+                case GREATER_THAN:
+                    return buckets.higherKey(timestamp) != null;
+                case LESS_THAN_EQUAL:
+                    return buckets.floorKey(timestamp) != null;
+                case GREATER_THAN_EQUAL:
+                    return buckets.ceilingKey(timestamp) != null;
+                case EQUAL:
+                    return buckets.containsKey(timestamp);
+                case NOT_EQUAL:
+                    return buckets.size() > 1 || (buckets.size() == 1 && !buckets.containsKey(timestamp));
+            }
+        } else if (attribute.equals(primaryKeyAttributes)) {
+            switch (operator) {
+                case EQUAL:
+                    return findByPrimaryKey(value) != null;
+                case NOT_EQUAL:
+                    return eventCount() > 1;
+            }
+        } else {
+            for (Bucket bucket : buckets.values()) {
+                TreeMap<Object, Set<StreamEvent>> currentIndexedData = bucket.indexData.get(attribute);
+                boolean contains;
+                switch (operator) {
+                    case LESS_THAN:
+                        contains = currentIndexedData.lowerKey(value) != null;
+                        break;
+                    case GREATER_THAN:
+                        contains = currentIndexedData.higherKey(value) != null;
+                        break;
+                    case LESS_THAN_EQUAL:
+                        contains = currentIndexedData.floorKey(value) != null;
+                        break;
+                    case GREATER_THAN_EQUAL:
+                        contains = currentIndexedData.ceilingKey(value) != null;
+                        break;
+                    case EQUAL:
+                        contains = currentIndexedData.containsKey(value);
+                        break;
+                    case NOT_EQUAL:
+                        contains = currentIndexedData.size() > 1 ||
+                                (currentIndexedData.size() == 1 && !currentIndexedData.containsKey(value));
+                        break;
+                    default:
+                        throw new OperationNotSupportedException(operator + " not supported for '" + value +
+                                "' by " + getClass().getName());
+                }
+                if (contains) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        throw new OperationNotSupportedException(operator + " not supported for '" + value + "' by " + getClass()
+                .getName());
+    }
+
+    private NavigableMap<Long, Bucket> getBuckets(Compare.Operator operator, long timestamp) {
+        switch (operator) {
+            case LESS_THAN:
+                return buckets.headMap(timestamp, false);
+            case GREATER_THAN:
+                return buckets.tailMap(timestamp, false);
+            case LESS_THAN_EQUAL:
+                return buckets.headMap(timestamp, true);
+            case GREATER_THAN_EQUAL:
+                return buckets.tailMap(timestamp, true);
+            case EQUAL:
+                return buckets.subMap(timestamp, true, timestamp, true);
+            default:
+                throw new OperationNotSupportedException(operator + " not supported for '" + timestamp + "' by " +
+                        getClass().getName());
+        }
+    }
+
+    /**
+     * Find the event of a primary key, where the bucket is identified by the leading timestamp of the key.
+     */
+    private StreamEvent findByPrimaryKey(Object primaryKey) {
+        if (primaryKey == null) {
+            return null;
+        }
+        Long timestamp;
+        if (primaryKeyReferenceHolders.length == 1) {
+            timestamp = ((Number) primaryKey).longValue();
+        } else {
+            String compositeKey = primaryKey.toString();
+            int delimiterIndex = compositeKey.indexOf(SiddhiConstants.KEY_DELIMITER);
+            try {
+                timestamp = Long.parseLong(compositeKey.substring(0, delimiterIndex));
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+        Bucket bucket = buckets.get(timestamp);
+        return bucket == null ? null : bucket.events.get(primaryKey);
+    }
+
+    private Long getTimestamp(StreamEvent streamEvent) {
+        return ((Number) streamEvent.getOutputData()[timestampPosition]).longValue();
+    }
+
+    private Object constructPrimaryKey(StreamEvent streamEvent) {
+        if (primaryKeyReferenceHolders.length == 1) {
+            return getTimestamp(streamEvent);
+        } else {
+            StringBuilder stringBuilder = new StringBuilder();
+            for (PrimaryKeyReferenceHolder primaryKeyReferenceHolder : primaryKeyReferenceHolders) {
+                stringBuilder.append(streamEvent.getOutputData()[primaryKeyReferenceHolder.getPrimaryKeyPosition()])
+                        .append(SiddhiConstants.KEY_DELIMITER);
+            }
+            return stringBuilder.toString();
+        }
+    }
+
+    private Bucket getOrCreateBucket(StreamEvent streamEvent) {
+        return buckets.computeIfAbsent(getTimestamp(streamEvent), timestamp -> {
+            Bucket bucket = new Bucket();
+            for (String indexAttributeName : indexMetaData.keySet()) {
+                bucket.indexData.put(indexAttributeName, new TreeMap<>());
+            }
+            return bucket;
+        });
+    }
+
+    private void addToIndexes(Bucket bucket, StreamEvent streamEvent) {
+        for (Map.Entry<String, Integer> indexEntry : indexMetaData.entrySet()) {
+            bucket.indexData.get(indexEntry.getKey())
+                    .computeIfAbsent(streamEvent.getOutputData()[indexEntry.getValue()], key -> new HashSet<>())
+                    .add(streamEvent);
+        }
+    }
+
+    private void deleteFromIndexes(Bucket bucket, StreamEvent toDeleteEvent, String skippedIndexAttribute) {
+        for (Map.Entry<String, Integer> indexEntry : indexMetaData.entrySet()) {
+            if (indexEntry.getKey().equals(skippedIndexAttribute)) {
+                continue;
+            }
+            TreeMap<Object, Set<StreamEvent>> indexMap = bucket.indexData.get(indexEntry.getKey());
+            Object key = toDeleteEvent.getOutputData()[indexEntry.getValue()];
+            Set<StreamEvent> values = indexMap.get(key);
+            if (values != null) {
+                values.remove(toDeleteEvent);
+                if (values.size() == 0) {
+                    indexMap.remove(key);
+                }
+            }
+        }
+    }
+
+    private long eventCount() {
+        long count = 0;
+        for (Bucket bucket : buckets.values()) {
+            count += bucket.events.size();
+        }
+        return count;
+    }
+
+    private long estimate(StreamEvent streamEvent) {
+        int entryCount = 1 + indexMetaData.size();
+        return EventMemoryEstimator.estimate(streamEvent) + entryCount * EventMemoryEstimator.getMapEntrySize();
+    }
+
+    @Override
+    public long getEstimatedMemoryUsage() {
+        return Math.max(estimatedMemoryUsage, 0);
+    }
+
+    private boolean isFullSnapshot() {
+        return operationChangeLog.size() > (eventsCount * FULL_SNAPSHOT_THRESHOLD)
+                || forceFullSnapshot
+                || SnapshotRequest.isRequestForFullSnapshot();
+    }
+
+    public Snapshot getSnapshot() {
+        if (isFullSnapshot()) {
+            forceFullSnapshot = false;
+            return new Snapshot(this, false);
+        } else {
+            Snapshot snapshot = new Snapshot(operationChangeLog, true);
+            operationChangeLog = new ArrayList<>();
+            return snapshot;
+        }
+    }
+
+    public void restore(SnapshotStateList snapshotStatelist) {
+        TreeMap<Long, Snapshot> revisions = snapshotStatelist.getSnapshotStates();
+        Iterator<Map.Entry<Long, Snapshot>> itr = revisions.entrySet().iterator();
+        this.isOperationLogEnabled = false;
+        while (itr.hasNext()) {
+            Map.Entry<Long, Snapshot> snapshotEntry = itr.next();
+            if (!snapshotEntry.getValue().isIncrementalSnapshot()) {
+                clear();
+                TimeBucketedEventHolder snapshotEventHolder =
+                        (TimeBucketedEventHolder) snapshotEntry.getValue().getState();
+                buckets.putAll(snapshotEventHolder.buckets);
+                estimatedMemoryUsage = snapshotEventHolder.estimatedMemoryUsage;
+                forceFullSnapshot = false;
+            } else {
+                ArrayList<Operation> operations = (ArrayList<Operation>) snapshotEntry.getValue().getState();
+                for (Operation op : operations) {
+                    switch (op.operation) {
+                        case ADD:
+                            add((StreamEvent) op.parameters);
+                            break;
+                        case REMOVE:
+                            remove((StreamEvent) op.parameters, null);
+                            break;
+                        case CLEAR:
+                            clear();
+                            break;
+                        case OVERWRITE:
+                            overwrite((StreamEvent) op.parameters);
+                            break;
+                        case DELETE_BY_OPERATOR:
+                            Object[] args = (Object[]) op.parameters;
+                            delete((String) args[0], (Compare.Operator) args[1], args[2]);
+                            break;
+                        default:
+                            continue;
+                    }
+                }
+            }
+        }
+        this.isOperationLogEnabled = true;
+    }
+
+    /**
+     * Events of an aggregation bucket, keyed by their primary key, and the indexes of those events.
+     */
+    private static class Bucket implements Serializable {
+
+        private static final long serialVersionUID = 4226362472325318743L;
+        private final Map<Object, StreamEvent> events = new HashMap<>();
+        private final Map<String, TreeMap<Object, Set<StreamEvent>>> indexData = new HashMap<>();
+        private long estimatedMemoryUsage;
+    }
+}
@@ -21,34 +21,58 @@ package io.siddhi.core.table.record;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.state.MetaStateEvent;
 import io.siddhi.core.event.state.StateEvent;
+import io.siddhi.core.event.stream.MetaStreamEvent;
 import io.siddhi.core.event.stream.StreamEvent;
 import io.siddhi.core.event.stream.StreamEventCloner;
 import io.siddhi.core.event.stream.StreamEventFactory;
 import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.table.CompiledUpdateSet;
 import io.siddhi.core.table.Table;
+import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.collection.AddingStreamEventExtractor;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
 import io.siddhi.core.util.collection.operator.CompiledExpression;
 import io.siddhi.core.util.collection.operator.MatchingMetaInfoHolder;
 import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.parser.helper.QueryParserHelper;
+import io.siddhi.query.api.annotation.Annotation;
+import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.definition.TableDefinition;
 import io.siddhi.query.api.execution.query.output.stream.UpdateSet;
 import io.siddhi.query.api.expression.Expression;
+import io.siddhi.query.api.util.AnnotationHelper;
+import io.siddhi.query.compiler.SiddhiCompiler;
+import io.siddhi.query.compiler.exception.SiddhiParserException;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * An abstract implementation of table. Abstract implementation will handle {@link ComplexEventChunk} so that
  * developer can directly work with event data.
+ * <p>
+ * When the store annotation contains a nested cache annotation, e.g.
+ * {@code @store(type='rdbms', @cache(size='1000', policy='LRU', expiry='1 min', preload='true'))}, lookups by the
+ * primary key of the table are served from a {@link RecordTableCache}. Records read from the store are loaded into
+ * the cache, while additions, updates and deletes invalidate the affected keys, or the whole cache when the affected
+ * keys cannot be determined, as only the store knows whether it kept a record.
+ * <p>
+ * When the store annotation contains a nested write behind annotation, e.g.
+ * {@code @store(type='rdbms', @writeBehind(size='1000', interval='1 sec'))}, mutations selecting records by the
+ * primary key are buffered and coalesced in a {@link RecordTableWriteBehindBuffer} before being written to the store.
  */
 public abstract class AbstractRecordTable extends Table {
 
@@ -56,6 +80,12 @@ public abstract class AbstractRecordTable extends Table {
 
     protected StreamEventFactory storeEventPool;
     protected RecordTableHandler recordTableHandler;
+    protected RecordTableCache recordTableCache;
+    protected RecordTableWriteBehindBuffer writeBehindBuffer;
+    private List<String> primaryKeys;
+    private int[] primaryKeyPositions;
+    private volatile boolean cachePreloadPending;
+    private SiddhiAppContext siddhiAppContext;
 
     @Override
     public void init(TableDefinition tableDefinition, StreamEventFactory storeEventPool,
@@ -67,9 +97,131 @@ public abstract class AbstractRecordTable extends Table {
         }
         this.recordTableHandler = recordTableHandler;
         this.storeEventPool = storeEventPool;
+        this.siddhiAppContext = siddhiAppContext;
+        initCacheAndWriteBehind(tableDefinition, siddhiAppContext);
         init(tableDefinition, configReader);
     }
 
+    private void initCacheAndWriteBehind(TableDefinition tableDefinition, SiddhiAppContext siddhiAppContext) {
+        Annotation storeAnnotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_STORE,
+                tableDefinition.getAnnotations());
+        if (storeAnnotation == null) {
+            return;
+        }
+        List<Annotation> cacheAnnotations = storeAnnotation.getAnnotations(SiddhiConstants.ANNOTATION_CACHE);
+        List<Annotation> writeBehindAnnotations =
+                storeAnnotation.getAnnotations(SiddhiConstants.ANNOTATION_WRITE_BEHIND);
+        if (!cacheAnnotations.isEmpty()) {
+            initPrimaryKeys(tableDefinition, cacheAnnotations.get(0), siddhiAppContext);
+            initCache(tableDefinition, cacheAnnotations.get(0), siddhiAppContext);
+        }
+        if (!writeBehindAnnotations.isEmpty()) {
+            initPrimaryKeys(tableDefinition, writeBehindAnnotations.get(0), siddhiAppContext);
+            initWriteBehind(tableDefinition, writeBehindAnnotations.get(0), siddhiAppContext);
+        }
+    }
+
+    private void initPrimaryKeys(TableDefinition tableDefinition, Annotation annotation,
+                                 SiddhiAppContext siddhiAppContext) {
+        Annotation primaryKeyAnnotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_PRIMARY_KEY,
+                tableDefinition.getAnnotations());
+        if (primaryKeyAnnotation == null || primaryKeyAnnotation.getElements().isEmpty()) {
+            throw new SiddhiAppCreationException("Annotation '" + annotation.getName() + "' of table '" +
+                    tableDefinition.getId() + "' requires the table to have a '" +
+                    SiddhiConstants.ANNOTATION_PRIMARY_KEY + "'", annotation, siddhiAppContext);
+        }
+        primaryKeys = new ArrayList<>();
+        primaryKeyPositions = new int[primaryKeyAnnotation.getElements().size()];
+        for (int i = 0; i < primaryKeyPositions.length; i++) {
+            String primaryKey = primaryKeyAnnotation.getElements().get(i).getValue().trim();
+            primaryKeys.add(primaryKey);
+            primaryKeyPositions[i] = tableDefinition.getAttributePosition(primaryKey);
+        }
+    }
+
+    private void initCache(TableDefinition tableDefinition, Annotation cacheAnnotation,
+                           SiddhiAppContext siddhiAppContext) {
+        String sizeString = cacheAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_SIZE);
+        String policyString = cacheAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_POLICY);
+        String expiryString = cacheAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_EXPIRY);
+        String preloadString = cacheAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_PRELOAD);
+        int size;
+        long expiry;
+        RecordTableCache.Policy policy;
+        try {
+            size = sizeString == null ? SiddhiConstants.DEFAULT_CACHE_SIZE : Integer.parseInt(sizeString.trim());
+            expiry = expiryString == null ? -1 : SiddhiCompiler.parseTimeConstantDefinition(expiryString).value();
+            policy = policyString == null ? RecordTableCache.Policy.LRU :
+                    RecordTableCache.Policy.valueOf(policyString.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException | SiddhiParserException e) {
+            throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_CACHE + "' of table '" +
+                    tableDefinition.getId() + "' contains invalid values, " + e.getMessage(), e,
+                    cacheAnnotation.getQueryContextStartIndex(), cacheAnnotation.getQueryContextEndIndex(),
+                    siddhiAppContext.getName(), siddhiAppContext.getSiddhiAppString());
+        }
+        if (size <= 0) {
+            throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_CACHE + "' of table '" +
+                    tableDefinition.getId() + "' requires a positive size, but found '" + size + "'",
+                    cacheAnnotation, siddhiAppContext);
+        }
+        recordTableCache = new RecordTableCache(size, policy, expiry);
+        cachePreloadPending = Boolean.parseBoolean(preloadString);
+        if (siddhiAppContext.getStatisticsManager() != null) {
+            recordTableCache.setThroughputTrackers(
+                    QueryParserHelper.createThroughputTracker(siddhiAppContext, tableDefinition.getId(),
+                            SiddhiConstants.METRIC_INFIX_TABLES, SiddhiConstants.METRIC_TYPE_CACHE_HIT),
+                    QueryParserHelper.createThroughputTracker(siddhiAppContext, tableDefinition.getId(),
+                            SiddhiConstants.METRIC_INFIX_TABLES, SiddhiConstants.METRIC_TYPE_CACHE_MISS));
+        }
+    }
+
+    private void initWriteBehind(TableDefinition tableDefinition, Annotation writeBehindAnnotation,
+                                 SiddhiAppContext siddhiAppContext) {
+        String sizeString = writeBehindAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_SIZE);
+        String intervalString = writeBehindAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_INTERVAL);
+        int size;
+        long interval;
+        try {
+            size = sizeString == null ? SiddhiConstants.DEFAULT_WRITE_BEHIND_SIZE : Integer.parseInt(sizeString.trim());
+            interval = intervalString == null ? SiddhiConstants.DEFAULT_WRITE_BEHIND_INTERVAL :
+                    SiddhiCompiler.parseTimeConstantDefinition(intervalString).value();
+        } catch (IllegalArgumentException | SiddhiParserException e) {
+            throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_WRITE_BEHIND +
+                    "' of table '" + tableDefinition.getId() + "' contains invalid values, " + e.getMessage(), e,
+                    writeBehindAnnotation.getQueryContextStartIndex(),
+                    writeBehindAnnotation.getQueryContextEndIndex(), siddhiAppContext.getName(),
+                    siddhiAppContext.getSiddhiAppString());
+        }
+        if (size <= 0 || interval <= 0) {
+            throw new SiddhiAppCreationException("Annotation '" + SiddhiConstants.ANNOTATION_WRITE_BEHIND +
+                    "' of table '" + tableDefinition.getId() + "' requires a positive size and interval, but found " +
+                    "size '" + size + "' and interval '" + interval + "'", writeBehindAnnotation, siddhiAppContext);
+        }
+        RecordTableWriteBehindBuffer recordTableWriteBehindBuffer =
+                new RecordTableWriteBehindBuffer(this, size, interval, siddhiAppContext);
+        siddhiAppContext.generateStateHolder(tableDefinition.getId() + "-write-behind",
+                () -> new RecordTableWriteBehindBuffer.WriteBehindState(recordTableWriteBehindBuffer));
+        writeBehindBuffer = recordTableWriteBehindBuffer;
+    }
+
+    /**
+     * Get the cache of the table.
+     *
+     * @return the {@link RecordTableCache}, or null if the table is not cached
+     */
+    public RecordTableCache getRecordTableCache() {
+        return recordTableCache;
+    }
+
+    /**
+     * Get the write-behind buffer of the table.
+     *
+     * @return the {@link RecordTableWriteBehindBuffer}, or null if write-behind is not enabled
+     */
+    public RecordTableWriteBehindBuffer getWriteBehindBuffer() {
+        return writeBehindBuffer;
+    }
+
     /**
      * Initializing the Record Table
      *
@@ -93,10 +245,23 @@ public abstract class AbstractRecordTable extends Table {
             records.add(event.getOutputData());
             timestamp = event.getTimestamp();
         }
-        if (recordTableHandler != null) {
-            recordTableHandler.add(timestamp, records);
-        } else {
-            add(records);
+        if (writeBehindBuffer == null || !bufferAdd(records, timestamp)) {
+            if (recordTableHandler != null) {
+                recordTableHandler.add(timestamp, records);
+            } else {
+                add(records);
+            }
+        }
+        if (recordTableCache != null) {
+            for (Object[] record : records) {
+                Object key = getPrimaryKey(record);
+                if (key != null) {
+                    // the store may not keep the record, hence it is loaded from the store on its next lookup
+                    recordTableCache.invalidate(key);
+                } else {
+                    recordTableCache.clear();
+                }
+            }
         }
     }
 
@@ -121,13 +286,56 @@ public abstract class AbstractRecordTable extends Table {
             findConditionParameterMap.put(entry.getKey(), entry.getValue().execute(matchingEvent));
         }
 
+        if (writeBehindBuffer != null) {
+            flushWriteBehindBuffer(recordStoreCompiledCondition, Collections.singletonList(findConditionParameterMap));
+        }
         Iterator<Object[]> records;
-        if (recordTableHandler != null) {
-            records = recordTableHandler.find(matchingEvent.getTimestamp(), findConditionParameterMap,
+        if (recordTableCache != null && recordStoreCompiledCondition.primaryKeyCondition != null) {
+            records = findCachedRecords(matchingEvent.getTimestamp(), findConditionParameterMap,
+                    recordStoreCompiledCondition).iterator();
+        } else {
+            records = findRecords(matchingEvent.getTimestamp(), findConditionParameterMap,
                     recordStoreCompiledCondition.compiledCondition);
+        }
+        return toStreamEvents(records);
+    }
+
+    @Override
+    protected StreamEvent[] find(CompiledCondition compiledCondition, List<StateEvent> matchingEvents)
+            throws ConnectionUnavailableException {
+        RecordStoreCompiledCondition recordStoreCompiledCondition =
+                ((RecordStoreCompiledCondition) compiledCondition);
+        List<Map<String, Object>> findConditionParameterMaps = new ArrayList<>(matchingEvents.size());
+        long[] timestamps = new long[matchingEvents.size()];
+        for (StateEvent matchingEvent : matchingEvents) {
+            Map<String, Object> findConditionParameterMap = new HashMap<>();
+            for (Map.Entry<String, ExpressionExecutor> entry :
+                    recordStoreCompiledCondition.variableExpressionExecutorMap.entrySet()) {
+                findConditionParameterMap.put(entry.getKey(), entry.getValue().execute(matchingEvent));
+            }
+            timestamps[findConditionParameterMaps.size()] = matchingEvent.getTimestamp();
+            findConditionParameterMaps.add(findConditionParameterMap);
+        }
+
+        if (writeBehindBuffer != null) {
+            flushWriteBehindBuffer(recordStoreCompiledCondition, findConditionParameterMaps);
+        }
+        List<? extends Iterator<Object[]>> records;
+        if (recordTableCache != null && recordStoreCompiledCondition.primaryKeyCondition != null) {
+            records = findCachedRecords(timestamps, findConditionParameterMaps, recordStoreCompiledCondition);
         } else {
-            records = find(findConditionParameterMap, recordStoreCompiledCondition.compiledCondition);
+            records = findRecords(timestamps, findConditionParameterMaps,
+                    recordStoreCompiledCondition.compiledCondition);
+        }
+        StreamEvent[] results = new StreamEvent[matchingEvents.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = toStreamEvents(records.get(i));
+            close(records.get(i));
         }
+        return results;
+    }
+
+    private StreamEvent toStreamEvents(Iterator<Object[]> records) {
         ComplexEventChunk<StreamEvent> streamEventComplexEventChunk = new ComplexEventChunk<>(true);
         if (records != null) {
             while (records.hasNext()) {
@@ -140,6 +348,379 @@ public abstract class AbstractRecordTable extends Table {
         return streamEventComplexEventChunk.getFirst();
     }
 
+    /**
+     * Find records matching the compiled condition for a batch of parameter maps, as done when a batch of events
+     * is joined with the table. By default the records of each parameter map are found separately, stores should
+     * override this when they can retrieve the records of all the parameter maps with a single request, such as a
+     * multi-get or an 'IN' query.
+     * <p>
+     * The records of all the parameter maps are found before the events of the batch are processed further, hence
+     * they reflect the records of the store before the batch, and not the changes made while processing the
+     * preceding events of the batch. The default implementation reads and closes the records of each parameter map
+     * before finding the next, such that only one store cursor is held at a time.
+     *
+     * @param findConditionParameterMaps maps of matching StreamVariable Ids and their values corresponding to the
+     *                                   compiled condition
+     * @param compiledCondition          the compiledCondition against which records should be matched
+     * @return RecordIterators of the matching records of each parameter map, in the order of the parameter maps
+     * @throws ConnectionUnavailableException
+     */
+    protected List<RecordIterator<Object[]>> find(List<Map<String, Object>> findConditionParameterMaps,
+                                                  CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        List<RecordIterator<Object[]>> records = new ArrayList<>(findConditionParameterMaps.size());
+        for (Map<String, Object> findConditionParameterMap : findConditionParameterMaps) {
+            records.add(new ListRecordIterator(readRecords(find(findConditionParameterMap, compiledCondition))));
+        }
+        return records;
+    }
+
+    /**
+     * Read the records of an iterator and close it, if it holds resources of the store.
+     */
+    private List<Object[]> readRecords(Iterator<Object[]> records) {
+        try {
+            return cloneRecords(records);
+        } finally {
+            close(records);
+        }
+    }
+
+    private void close(Iterator<Object[]> records) {
+        if (records instanceof RecordIterator) {
+            try {
+                ((RecordIterator) records).close();
+            } catch (IOException e) {
+                log.warn("Error while closing the record iterator of table '" + tableDefinition.getId() + "'.", e);
+            }
+        }
+    }
+
+    private Iterator<Object[]> findRecords(long timestamp, Map<String, Object> findConditionParameterMap,
+                                           CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        if (recordTableHandler != null) {
+            return recordTableHandler.find(timestamp, findConditionParameterMap, compiledCondition);
+        } else {
+            return find(findConditionParameterMap, compiledCondition);
+        }
+    }
+
+    private List<? extends Iterator<Object[]>> findRecords(long[] timestamps,
+                                                          List<Map<String, Object>> findConditionParameterMaps,
+                                                          CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        if (recordTableHandler != null) {
+            List<Iterator<Object[]>> records = new ArrayList<>(findConditionParameterMaps.size());
+            for (int i = 0; i < timestamps.length; i++) {
+                records.add(readRecords(recordTableHandler.find(timestamps[i], findConditionParameterMaps.get(i),
+                        compiledCondition)).iterator());
+            }
+            return records;
+        } else {
+            return find(findConditionParameterMaps, compiledCondition);
+        }
+    }
+
+    /**
+     * Find the records of a primary key lookup from the cache, and load them from the store on a cache miss.
+     */
+    private List<Object[]> findCachedRecords(long timestamp, Map<String, Object> findConditionParameterMap,
+                                             RecordStoreCompiledCondition recordStoreCompiledCondition)
+            throws ConnectionUnavailableException {
+        if (cachePreloadPending) {
+            preloadCache(timestamp);
+        }
+        Object key = recordStoreCompiledCondition.primaryKeyCondition.resolveKey(findConditionParameterMap);
+        if (key != null) {
+            List<Object[]> cachedRecords = recordTableCache.get(key);
+            if (cachedRecords != null) {
+                return cachedRecords;
+            }
+        }
+        long generation = recordTableCache.getGeneration();
+        List<Object[]> loadedRecords = cloneRecords(findRecords(timestamp, findConditionParameterMap,
+                recordStoreCompiledCondition.compiledCondition));
+        if (key != null) {
+            recordTableCache.load(key, loadedRecords, generation);
+        }
+        return loadedRecords;
+    }
+
+    /**
+     * Find the records of a batch of primary key lookups from the cache, and load the records of the keys missing
+     * in the cache from the store with a single batched find.
+     */
+    private List<Iterator<Object[]>> findCachedRecords(long[] timestamps,
+                                                       List<Map<String, Object>> findConditionParameterMaps,
+                                                       RecordStoreCompiledCondition recordStoreCompiledCondition)
+            throws ConnectionUnavailableException {
+        if (cachePreloadPending) {
+            preloadCache(timestamps[0]);
+        }
+        List<Iterator<Object[]>> records = new ArrayList<>(findConditionParameterMaps.size());
+        List<Integer> missedIndexes = new ArrayList<>();
+        List<Map<String, Object>> missedParameterMaps = new ArrayList<>();
+        Object[] keys = new Object[findConditionParameterMaps.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Map<String, Object> findConditionParameterMap = findConditionParameterMaps.get(i);
+            keys[i] = recordStoreCompiledCondition.primaryKeyCondition.resolveKey(findConditionParameterMap);
+            List<Object[]> cachedRecords = keys[i] == null ? null : recordTableCache.get(keys[i]);
+            if (cachedRecords != null) {
+                records.add(cachedRecords.iterator());
+            } else {
+                records.add(null);
+                missedIndexes.add(i);
+                missedParameterMaps.add(findConditionParameterMap);
+            }
+        }
+        if (!missedParameterMaps.isEmpty()) {
+            long generation = recordTableCache.getGeneration();
+            long[] missedTimestamps = new long[missedIndexes.size()];
+            for (int i = 0; i < missedTimestamps.length; i++) {
+                missedTimestamps[i] = timestamps[missedIndexes.get(i)];
+            }
+            List<? extends Iterator<Object[]>> missedRecords = findRecords(missedTimestamps, missedParameterMaps,
+                    recordStoreCompiledCondition.compiledCondition);
+            for (int i = 0; i < missedIndexes.size(); i++) {
+                int index = missedIndexes.get(i);
+                List<Object[]> loadedRecords = cloneRecords(missedRecords.get(i));
+                if (keys[index] != null) {
+                    recordTableCache.load(keys[index], loadedRecords, generation);
+                }
+                records.set(index, loadedRecords.iterator());
+            }
+        }
+        return records;
+    }
+
+    private List<Object[]> cloneRecords(Iterator<Object[]> records) {
+        List<Object[]> clonedRecords = new ArrayList<>();
+        if (records != null) {
+            while (records.hasNext()) {
+                clonedRecords.add(records.next().clone());
+            }
+        }
+        return clonedRecords;
+    }
+
+    /**
+     * Load all the records of the store into the cache, until the cache is full.
+     */
+    private synchronized void preloadCache(long timestamp) throws ConnectionUnavailableException {
+        if (!cachePreloadPending) {
+            return;
+        }
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addInputDefinition(tableDefinition);
+        for (Attribute attribute : tableDefinition.getAttributeList()) {
+            metaStreamEvent.addOutputData(attribute);
+        }
+        MetaStateEvent metaStateEvent = new MetaStateEvent(1);
+        metaStateEvent.addEvent(metaStreamEvent);
+        MatchingMetaInfoHolder matchingMetaInfoHolder = new MatchingMetaInfoHolder(metaStateEvent, -1, 0,
+                tableDefinition, tableDefinition, 0);
+        ExpressionBuilder expressionBuilder = new ExpressionBuilder(Expression.value(true), matchingMetaInfoHolder,
+                new ArrayList<>(), new HashMap<>(), new SiddhiQueryContext(siddhiAppContext,
+                "cache_preload_" + tableDefinition.getId()));
+        CompiledCondition compiledCondition = compileCondition(expressionBuilder);
+
+        long generation = recordTableCache.getGeneration();
+        Iterator<Object[]> records = findRecords(timestamp, new HashMap<>(), compiledCondition);
+        int loadedCount = 0;
+        if (records != null) {
+            while (records.hasNext() && loadedCount < recordTableCache.getMaxSize()) {
+                Object[] record = records.next();
+                Object key = getPrimaryKey(record);
+                if (key != null) {
+                    recordTableCache.load(key, Collections.singletonList(record.clone()), generation);
+                    loadedCount++;
+                }
+            }
+        }
+        cachePreloadPending = false;
+        if (log.isDebugEnabled()) {
+            log.debug("Preloaded " + loadedCount + " records of table '" + tableDefinition.getId() +
+                    "' into its cache.");
+        }
+    }
+
+    private Object getPrimaryKey(Object[] record) {
+        if (primaryKeyPositions.length == 1) {
+            return record[primaryKeyPositions[0]];
+        }
+        Object[] values = new Object[primaryKeyPositions.length];
+        for (int i = 0; i < primaryKeyPositions.length; i++) {
+            values[i] = record[primaryKeyPositions[i]];
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Invalidate the cached keys affected by a mutation of the table.
+     *
+     * @param recordStoreCompiledCondition condition of the mutation
+     * @param conditionParameterMaps       parameter maps of the condition per event
+     * @param primaryKeyUpdated            whether the mutation may change the primary key of the records
+     */
+    private void invalidateCache(RecordStoreCompiledCondition recordStoreCompiledCondition,
+                                 List<Map<String, Object>> conditionParameterMaps, boolean primaryKeyUpdated) {
+        if (recordStoreCompiledCondition.primaryKeyCondition == null || primaryKeyUpdated) {
+            recordTableCache.clear();
+            return;
+        }
+        for (Map<String, Object> conditionParameterMap : conditionParameterMaps) {
+            Object key = recordStoreCompiledCondition.primaryKeyCondition.resolveKey(conditionParameterMap);
+            if (key == null) {
+                recordTableCache.clear();
+                return;
+            }
+            recordTableCache.invalidate(key);
+        }
+    }
+
+    private boolean isPrimaryKeyUpdated(RecordTableCompiledUpdateSet recordTableCompiledUpdateSet) {
+        for (String primaryKey : primaryKeys) {
+            if (recordTableCompiledUpdateSet.getUpdateSetMap().containsKey(primaryKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPrimaryKeyPreserved(Object key, RecordTableCompiledUpdateSet recordTableCompiledUpdateSet,
+                                          Map<String, Object> updateSetParameterMap) {
+        if (!recordTableCompiledUpdateSet.isDirectAssignment()) {
+            return false;
+        }
+        Object[] record = new Object[tableDefinition.getAttributeList().size()];
+        for (int i = 0; i < primaryKeyPositions.length; i++) {
+            record[primaryKeyPositions[i]] = primaryKeyPositions.length == 1 ? key : ((List) key).get(i);
+        }
+        return key.equals(getPrimaryKey(recordTableCompiledUpdateSet.assign(record, updateSetParameterMap)));
+    }
+
+    /**
+     * Buffer records to be added in the write-behind buffer. When any of the records has no primary key, the
+     * buffered mutations are written to the store so that the records can be added in order.
+     *
+     * @return whether the records are buffered
+     */
+    private boolean bufferAdd(List<Object[]> records, long timestamp) throws ConnectionUnavailableException {
+        Object[] keys = new Object[records.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = getPrimaryKey(records.get(i));
+            if (keys[i] == null) {
+                writeBehindBuffer.flush();
+                return false;
+            }
+        }
+        if (writeBehindBuffer.isFull()) {
+            writeBehindBuffer.flush();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            writeBehindBuffer.add(keys[i], records.get(i).clone(), timestamp);
+        }
+        return true;
+    }
+
+    /**
+     * Buffer a delete, update or update or add in the write-behind buffer. Mutations are buffered only when each
+     * event selects a single primary key and neither the update set nor the adding record moves the record to
+     * another key, else the buffered mutations are written to the store so that the mutation can be executed in
+     * order.
+     *
+     * @param updateSet     update set of an update or update or add, null for a delete
+     * @param addingRecords adding records of an update or add, null for a delete or update
+     * @return whether the mutation is buffered
+     */
+    private boolean bufferMutation(RecordStoreCompiledCondition recordStoreCompiledCondition,
+                                   List<Map<String, Object>> conditionParameterMaps,
+                                   RecordTableCompiledUpdateSet updateSet,
+                                   List<Map<String, Object>> updateSetParameterMaps, List<Object[]> addingRecords,
+                                   long timestamp) throws ConnectionUnavailableException {
+        Object[] keys = resolveKeys(recordStoreCompiledCondition, conditionParameterMaps);
+        boolean primaryKeyUpdated = keys != null && updateSet != null && isPrimaryKeyUpdated(updateSet);
+        for (int i = 0; keys != null && i < keys.length; i++) {
+            if ((primaryKeyUpdated && !isPrimaryKeyPreserved(keys[i], updateSet, updateSetParameterMaps.get(i))) ||
+                    (addingRecords != null && !keys[i].equals(getPrimaryKey(addingRecords.get(i))))) {
+                keys = null;
+            }
+        }
+        if (keys == null) {
+            writeBehindBuffer.flush();
+            return false;
+        }
+        if (writeBehindBuffer.isFull()) {
+            writeBehindBuffer.flush();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (updateSet == null) {
+                writeBehindBuffer.delete(keys[i], recordStoreCompiledCondition, conditionParameterMaps.get(i),
+                        timestamp);
+            } else if (addingRecords == null) {
+                writeBehindBuffer.update(keys[i], recordStoreCompiledCondition, conditionParameterMaps.get(i),
+                        updateSet, updateSetParameterMaps.get(i), timestamp);
+            } else {
+                writeBehindBuffer.updateOrAdd(keys[i], recordStoreCompiledCondition, conditionParameterMaps.get(i),
+                        updateSet, updateSetParameterMaps.get(i), addingRecords.get(i).clone(), timestamp);
+            }
+        }
+        return true;
+    }
+
+    private Object[] resolveKeys(RecordStoreCompiledCondition recordStoreCompiledCondition,
+                                 List<Map<String, Object>> conditionParameterMaps) {
+        if (recordStoreCompiledCondition.primaryKeyCondition == null) {
+            return null;
+        }
+        Object[] keys = new Object[conditionParameterMaps.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = recordStoreCompiledCondition.primaryKeyCondition.resolveKey(conditionParameterMaps.get(i));
+            if (keys[i] == null) {
+                return null;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Write the buffered mutations to the store before reading records matching the condition, when the condition
+     * may match a record with a buffered mutation.
+     */
+    private void flushWriteBehindBuffer(RecordStoreCompiledCondition recordStoreCompiledCondition,
+                                        List<Map<String, Object>> conditionParameterMaps)
+            throws ConnectionUnavailableException {
+        if (writeBehindBuffer.isEmpty()) {
+            return;
+        }
+        Object[] keys = resolveKeys(recordStoreCompiledCondition, conditionParameterMaps);
+        if (keys == null) {
+            writeBehindBuffer.flush();
+            return;
+        }
+        for (Object key : keys) {
+            if (writeBehindBuffer.isPending(key)) {
+                writeBehindBuffer.flush();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write all the buffered mutations to the store, if write-behind is enabled.
+     *
+     * @throws ConnectionUnavailableException when the store is unavailable
+     */
+    void flushWriteBehindBuffer() throws ConnectionUnavailableException {
+        if (writeBehindBuffer != null && !writeBehindBuffer.isEmpty()) {
+            writeBehindBuffer.flush();
+        }
+    }
+
     /**
      * Find records matching the compiled condition
      *
@@ -163,6 +744,14 @@ public abstract class AbstractRecordTable extends Table {
                 recordStoreCompiledCondition.variableExpressionExecutorMap.entrySet()) {
             containsConditionParameterMap.put(entry.getKey(), entry.getValue().execute(matchingEvent));
         }
+        if (writeBehindBuffer != null) {
+            flushWriteBehindBuffer(recordStoreCompiledCondition,
+                    Collections.singletonList(containsConditionParameterMap));
+        }
+        if (recordTableCache != null && recordStoreCompiledCondition.primaryKeyCondition != null) {
+            return !findCachedRecords(matchingEvent.getTimestamp(), containsConditionParameterMap,
+                    recordStoreCompiledCondition).isEmpty();
+        }
         if (recordTableHandler != null) {
             return recordTableHandler.contains(matchingEvent.getTimestamp(), containsConditionParameterMap,
                     recordStoreCompiledCondition.compiledCondition);
@@ -204,11 +793,17 @@ public abstract class AbstractRecordTable extends Table {
             deleteConditionParameterMaps.add(variableMap);
             timestamp = stateEvent.getTimestamp();
         }
-        if (recordTableHandler != null) {
-            recordTableHandler.delete(timestamp, deleteConditionParameterMaps, recordStoreCompiledCondition.
-                    compiledCondition);
-        } else {
-            delete(deleteConditionParameterMaps, recordStoreCompiledCondition.compiledCondition);
+        if (writeBehindBuffer == null || !bufferMutation(recordStoreCompiledCondition, deleteConditionParameterMaps,
+                null, null, null, timestamp)) {
+            if (recordTableHandler != null) {
+                recordTableHandler.delete(timestamp, deleteConditionParameterMaps, recordStoreCompiledCondition.
+                        compiledCondition);
+            } else {
+                delete(deleteConditionParameterMaps, recordStoreCompiledCondition.compiledCondition);
+            }
+        }
+        if (recordTableCache != null) {
+            invalidateCache(recordStoreCompiledCondition, deleteConditionParameterMaps, false);
         }
     }
 
@@ -252,13 +847,20 @@ public abstract class AbstractRecordTable extends Table {
             updateSetParameterMaps.add(variableMapForUpdateSet);
             timestamp = stateEvent.getTimestamp();
         }
-        if (recordTableHandler != null) {
-            recordTableHandler.update(timestamp, recordStoreCompiledCondition.compiledCondition,
-                    updateConditionParameterMaps, recordTableCompiledUpdateSet.getUpdateSetMap(),
-                    updateSetParameterMaps);
-        } else {
-            update(recordStoreCompiledCondition.compiledCondition, updateConditionParameterMaps,
-                    recordTableCompiledUpdateSet.getUpdateSetMap(), updateSetParameterMaps);
+        if (writeBehindBuffer == null || !bufferMutation(recordStoreCompiledCondition, updateConditionParameterMaps,
+                recordTableCompiledUpdateSet, updateSetParameterMaps, null, timestamp)) {
+            if (recordTableHandler != null) {
+                recordTableHandler.update(timestamp, recordStoreCompiledCondition.compiledCondition,
+                        updateConditionParameterMaps, recordTableCompiledUpdateSet.getUpdateSetMap(),
+                        updateSetParameterMaps);
+            } else {
+                update(recordStoreCompiledCondition.compiledCondition, updateConditionParameterMaps,
+                        recordTableCompiledUpdateSet.getUpdateSetMap(), updateSetParameterMaps);
+            }
+        }
+        if (recordTableCache != null) {
+            invalidateCache(recordStoreCompiledCondition, updateConditionParameterMaps,
+                    isPrimaryKeyUpdated(recordTableCompiledUpdateSet));
         }
     }
 
@@ -311,15 +913,29 @@ public abstract class AbstractRecordTable extends Table {
             addingRecords.add(stateEvent.getStreamEvent(0).getOutputData());
             timestamp = stateEvent.getTimestamp();
         }
-        if (recordTableHandler != null) {
-            recordTableHandler.updateOrAdd(timestamp, recordStoreCompiledCondition.compiledCondition,
-                    updateConditionParameterMaps, recordTableCompiledUpdateSet.getUpdateSetMap(),
-                    updateSetParameterMaps, addingRecords);
-        } else {
-            updateOrAdd(recordStoreCompiledCondition.compiledCondition, updateConditionParameterMaps,
-                    recordTableCompiledUpdateSet.getUpdateSetMap(), updateSetParameterMaps, addingRecords);
+        if (writeBehindBuffer == null || !bufferMutation(recordStoreCompiledCondition, updateConditionParameterMaps,
+                recordTableCompiledUpdateSet, updateSetParameterMaps, addingRecords, timestamp)) {
+            if (recordTableHandler != null) {
+                recordTableHandler.updateOrAdd(timestamp, recordStoreCompiledCondition.compiledCondition,
+                        updateConditionParameterMaps, recordTableCompiledUpdateSet.getUpdateSetMap(),
+                        updateSetParameterMaps, addingRecords);
+            } else {
+                updateOrAdd(recordStoreCompiledCondition.compiledCondition, updateConditionParameterMaps,
+                        recordTableCompiledUpdateSet.getUpdateSetMap(), updateSetParameterMaps, addingRecords);
+            }
+        }
+        if (recordTableCache != null) {
+            invalidateCache(recordStoreCompiledCondition, updateConditionParameterMaps,
+                    isPrimaryKeyUpdated(recordTableCompiledUpdateSet));
+            for (Object[] addingRecord : addingRecords) {
+                Object key = getPrimaryKey(addingRecord);
+                if (key != null) {
+                    recordTableCache.invalidate(key);
+                } else {
+                    recordTableCache.clear();
+                }
+            }
         }
-
     }
 
     /**
@@ -348,8 +964,20 @@ public abstract class AbstractRecordTable extends Table {
         ExpressionBuilder expressionBuilder = new ExpressionBuilder(condition, matchingMetaInfoHolder,
                 variableExpressionExecutors, tableMap, siddhiQueryContext);
         CompiledCondition compileCondition = compileCondition(expressionBuilder);
+        PrimaryKeyConditionVisitor primaryKeyCondition = null;
+        if (recordTableCache != null || writeBehindBuffer != null) {
+            Map<String, Attribute.Type> attributeTypes = new HashMap<>();
+            for (Attribute attribute : tableDefinition.getAttributeList()) {
+                attributeTypes.put(attribute.getName(), attribute.getType());
+            }
+            primaryKeyCondition = new PrimaryKeyConditionVisitor(primaryKeys, attributeTypes);
+            expressionBuilder.build(primaryKeyCondition);
+            if (!primaryKeyCondition.isPrimaryKeyCondition()) {
+                primaryKeyCondition = null;
+            }
+        }
         Map<String, ExpressionExecutor> expressionExecutorMap = expressionBuilder.getVariableExpressionExecutorMap();
-        return new RecordStoreCompiledCondition(expressionExecutorMap, compileCondition);
+        return new RecordStoreCompiledCondition(expressionExecutorMap, compileCondition, primaryKeyCondition);
     }
 
     public CompiledUpdateSet compileUpdateSet(UpdateSet updateSet,
@@ -358,19 +986,47 @@ public abstract class AbstractRecordTable extends Table {
                                               Map<String, Table> tableMap, SiddhiQueryContext siddhiQueryContext) {
         RecordTableCompiledUpdateSet recordTableCompiledUpdateSet = new RecordTableCompiledUpdateSet();
         Map<String, ExpressionExecutor> parentExecutorMap = new HashMap<>();
-        for (UpdateSet.SetAttribute setAttribute : updateSet.getSetAttributeList()) {
+        int setAttributeCount = updateSet.getSetAttributeList().size();
+        int[] assignedPositions = new int[setAttributeCount];
+        String[] assignedStreamVariableIds = new String[setAttributeCount];
+        Object[] assignedConstants = new Object[setAttributeCount];
+        boolean directAssignment = writeBehindBuffer != null;
+        for (int i = 0; i < setAttributeCount; i++) {
+            UpdateSet.SetAttribute setAttribute = updateSet.getSetAttributeList().get(i);
+            String attributeName = setAttribute.getTableVariable().getAttributeName();
             ExpressionBuilder expressionBuilder = new ExpressionBuilder(setAttribute.getAssignmentExpression(),
                     matchingMetaInfoHolder, variableExpressionExecutors, tableMap, siddhiQueryContext);
             CompiledExpression compiledExpression = compileSetAttribute(expressionBuilder);
-            recordTableCompiledUpdateSet.put(setAttribute.getTableVariable().getAttributeName(), compiledExpression);
+            recordTableCompiledUpdateSet.put(attributeName, compiledExpression);
             Map<String, ExpressionExecutor> expressionExecutorMap =
                     expressionBuilder.getVariableExpressionExecutorMap();
             parentExecutorMap.putAll(expressionExecutorMap);
+            if (directAssignment) {
+                UpdateSetAssignmentVisitor assignmentVisitor =
+                        new UpdateSetAssignmentVisitor(tableDefinition.getAttributeType(attributeName));
+                expressionBuilder.build(assignmentVisitor);
+                directAssignment = assignmentVisitor.isDirectAssignment();
+                assignedPositions[i] = tableDefinition.getAttributePosition(attributeName);
+                assignedStreamVariableIds[i] = assignmentVisitor.getStreamVariableId();
+                assignedConstants[i] = assignmentVisitor.getConstant();
+            }
         }
         recordTableCompiledUpdateSet.setExpressionExecutorMap(parentExecutorMap);
+        if (directAssignment) {
+            recordTableCompiledUpdateSet.setAssignments(assignedPositions, assignedStreamVariableIds,
+                    assignedConstants);
+        }
         return recordTableCompiledUpdateSet;
     }
 
+    @Override
+    public void shutdown() {
+        if (writeBehindBuffer != null) {
+            writeBehindBuffer.shutdown();
+        }
+        super.shutdown();
+    }
+
     /**
      * Compile the matching expression
      *
@@ -395,6 +1051,7 @@ public abstract class AbstractRecordTable extends Table {
     protected class RecordStoreCompiledCondition implements CompiledCondition {
         protected Map<String, ExpressionExecutor> variableExpressionExecutorMap;
         protected CompiledCondition compiledCondition;
+        PrimaryKeyConditionVisitor primaryKeyCondition;
 
         RecordStoreCompiledCondition(Map<String, ExpressionExecutor> variableExpressionExecutorMap,
                                      CompiledCondition compiledCondition) {
@@ -402,6 +1059,38 @@ public abstract class AbstractRecordTable extends Table {
             this.compiledCondition = compiledCondition;
         }
 
+        RecordStoreCompiledCondition(Map<String, ExpressionExecutor> variableExpressionExecutorMap,
+                                     CompiledCondition compiledCondition,
+                                     PrimaryKeyConditionVisitor primaryKeyCondition) {
+            this(variableExpressionExecutorMap, compiledCondition);
+            this.primaryKeyCondition = primaryKeyCondition;
+        }
+
     }
 
+    /**
+     * {@link RecordIterator} of records already read from the store.
+     */
+    private static class ListRecordIterator implements RecordIterator<Object[]> {
+
+        private final Iterator<Object[]> iterator;
+
+        private ListRecordIterator(List<Object[]> records) {
+            this.iterator = records.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
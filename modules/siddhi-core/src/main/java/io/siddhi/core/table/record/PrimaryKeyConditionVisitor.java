@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.table.record;
+
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.condition.Compare;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Visitor that checks whether a record table condition selects records only by their primary key, i.e. the
+ * condition is an 'and' of equality comparisons of each primary key attribute with a stream attribute or a
+ * constant of the same type. Such conditions match at most one record per event and can be served by the
+ * {@link RecordTableCache}.
+ */
+class PrimaryKeyConditionVisitor extends BaseExpressionVisitor {
+
+    private final List<String> primaryKeys;
+    private final Map<String, Attribute.Type> attributeTypes;
+    private final String[] parameterIds;
+    private final Object[] constants;
+    private final boolean[] matched;
+    private boolean supported = true;
+    private boolean inCompare = false;
+    private String storeAttribute;
+    private String streamVariableId;
+    private Object constant;
+    private Attribute.Type operandType;
+    private int operandCount;
+
+    PrimaryKeyConditionVisitor(List<String> primaryKeys, Map<String, Attribute.Type> attributeTypes) {
+        this.primaryKeys = primaryKeys;
+        this.attributeTypes = attributeTypes;
+        this.parameterIds = new String[primaryKeys.size()];
+        this.constants = new Object[primaryKeys.size()];
+        this.matched = new boolean[primaryKeys.size()];
+    }
+
+    boolean isPrimaryKeyCondition() {
+        if (!supported) {
+            return false;
+        }
+        for (boolean keyMatched : matched) {
+            if (!keyMatched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolve the primary key selected by the condition.
+     *
+     * @param parameterMap values of the stream variables of the condition
+     * @return primary key value, the list of values of a composite primary key, or null if any of the values is
+     * null
+     */
+    Object resolveKey(Map<String, Object> parameterMap) {
+        if (parameterIds.length == 1) {
+            return parameterIds[0] != null ? parameterMap.get(parameterIds[0]) : constants[0];
+        }
+        Object[] values = new Object[parameterIds.length];
+        for (int i = 0; i < parameterIds.length; i++) {
+            values[i] = parameterIds[i] != null ? parameterMap.get(parameterIds[i]) : constants[i];
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    @Override
+    public void beginVisitOr() {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitNot() {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitCompare(Compare.Operator operator) {
+        if (operator != Compare.Operator.EQUAL || inCompare) {
+            supported = false;
+        }
+        inCompare = true;
+        storeAttribute = null;
+        streamVariableId = null;
+        constant = null;
+        operandType = null;
+        operandCount = 0;
+    }
+
+    @Override
+    public void endVisitCompare(Compare.Operator operator) {
+        inCompare = false;
+        if (!supported) {
+            return;
+        }
+        int index = storeAttribute == null ? -1 : primaryKeys.indexOf(storeAttribute);
+        if (index < 0 || operandCount != 1 || matched[index] ||
+                attributeTypes.get(storeAttribute) != operandType) {
+            supported = false;
+            return;
+        }
+        matched[index] = true;
+        parameterIds[index] = streamVariableId;
+        constants[index] = constant;
+    }
+
+    @Override
+    public void beginVisitIsNull(String streamId) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitIn(String storeId) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitConstant(Object value, Attribute.Type type) {
+        if (!inCompare) {
+            supported = false;
+            return;
+        }
+        constant = value;
+        operandType = type;
+        operandCount++;
+    }
+
+    @Override
+    public void beginVisitMath(MathOperator mathOperator) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitAttributeFunction(String namespace, String functionName) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
+        if (!inCompare) {
+            supported = false;
+            return;
+        }
+        streamVariableId = id;
+        operandType = type;
+        operandCount++;
+    }
+
+    @Override
+    public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+        if (!inCompare || storeAttribute != null) {
+            supported = false;
+            return;
+        }
+        storeAttribute = attributeName;
+    }
+}
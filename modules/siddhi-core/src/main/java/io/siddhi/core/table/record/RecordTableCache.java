@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.table.record;
+
+import io.siddhi.core.util.statistics.ThroughputTracker;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of the records of an {@link AbstractRecordTable}, keyed by the primary key of the table.
+ * A cached entry holds the records the store returned for the key, where an empty list records that the key does
+ * not exist in the store. Entries are evicted by the configured {@link Policy} once the cache is full, and are
+ * dropped once they are older than the expiry period, if one is set. For the LFU policy the keys are also kept in
+ * buckets by their access frequency, such that the least frequently used key is found without scanning the entries.
+ * <p>
+ * Every local mutation of the table advances the generation of the cache, so that records read from the store
+ * concurrently with a mutation are not loaded into the cache after the mutation has been applied to it.
+ */
+public class RecordTableCache {
+
+    private final int maxSize;
+    private final long expiryMillis;
+    private final Policy policy;
+    private final LinkedHashMap<Object, CacheEntry> entries;
+    private final TreeMap<Long, LinkedHashSet<Object>> frequencyBuckets = new TreeMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private long generation;
+    private ThroughputTracker throughputTrackerHit;
+    private ThroughputTracker throughputTrackerMiss;
+
+    public RecordTableCache(int maxSize, Policy policy, long expiryMillis) {
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.expiryMillis = expiryMillis;
+        // LRU keeps the entries in access order, while FIFO and LFU keep them in insertion order
+        this.entries = new LinkedHashMap<>(16, 0.75f, policy == Policy.LRU);
+    }
+
+    public void setThroughputTrackers(ThroughputTracker throughputTrackerHit,
+                                      ThroughputTracker throughputTrackerMiss) {
+        this.throughputTrackerHit = throughputTrackerHit;
+        this.throughputTrackerMiss = throughputTrackerMiss;
+    }
+
+    /**
+     * Get the records cached for a primary key.
+     *
+     * @param key primary key value, or the list of values of a composite primary key
+     * @return cached records, or null if the key is not cached
+     */
+    public synchronized List<Object[]> get(Object key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && expiryMillis > 0 && System.currentTimeMillis() - entry.loadedTime > expiryMillis) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            if (throughputTrackerMiss != null) {
+                throughputTrackerMiss.eventIn();
+            }
+            return null;
+        }
+        if (policy == Policy.LFU) {
+            removeFromFrequencyBucket(key, entry.frequency);
+            addToFrequencyBucket(key, entry.frequency + 1);
+        }
+        entry.frequency++;
+        hitCount.incrementAndGet();
+        if (throughputTrackerHit != null) {
+            throughputTrackerHit.eventIn();
+        }
+        return entry.records;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Load the records read from the store for a primary key.
+     *
+     * @param key        primary key value, or the list of values of a composite primary key
+     * @param records    records read from the store
+     * @param generation generation of the cache when the store was read
+     */
+    public synchronized void load(Object key, List<Object[]> records, long generation) {
+        if (this.generation == generation) {
+            store(key, records);
+        }
+    }
+
+    public synchronized void invalidate(Object key) {
+        generation++;
+        remove(key);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        frequencyBuckets.clear();
+    }
+
+    private void store(Object key, List<Object[]> records) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxSize) {
+                evict();
+            }
+            if (policy == Policy.LFU) {
+                addToFrequencyBucket(key, 0);
+            }
+        }
+        long frequency = entry == null ? 0 : entry.frequency;
+        entries.put(key, new CacheEntry(records, System.currentTimeMillis(), frequency));
+    }
+
+    private void remove(Object key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry != null && policy == Policy.LFU) {
+            removeFromFrequencyBucket(key, entry.frequency);
+        }
+    }
+
+    private void addToFrequencyBucket(Object key, long frequency) {
+        frequencyBuckets.computeIfAbsent(frequency, k -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void removeFromFrequencyBucket(Object key, long frequency) {
+        LinkedHashSet<Object> keys = frequencyBuckets.get(frequency);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            frequencyBuckets.remove(frequency);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private void evict() {
+        if (policy == Policy.LFU) {
+            // the least frequently used key that reached its frequency first
+            Map.Entry<Long, LinkedHashSet<Object>> leastFrequent = frequencyBuckets.firstEntry();
+            if (leastFrequent != null) {
+                remove(leastFrequent.getValue().iterator().next());
+            }
+            return;
+        }
+        Iterator<Map.Entry<Object, CacheEntry>> iterator = entries.entrySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Eviction policies of the {@link RecordTableCache}.
+     */
+    public enum Policy {
+        LRU, LFU, FIFO
+    }
+
+    private static class CacheEntry {
+        private final List<Object[]> records;
+        private final long loadedTime;
+        private long frequency;
+
+        CacheEntry(List<Object[]> records, long loadedTime, long frequency) {
+            this.records = records;
+            this.loadedTime = loadedTime;
+            this.frequency = frequency;
+        }
+    }
+}
@@ -32,6 +32,9 @@ import java.util.Map;
 public class RecordTableCompiledUpdateSet implements CompiledUpdateSet {
     private LinkedHashMap<String, CompiledExpression> updateSetMap = new LinkedHashMap<>();
     private Map<String, ExpressionExecutor> expressionExecutorMap = new HashMap<>();
+    private int[] assignedPositions;
+    private String[] assignedStreamVariableIds;
+    private Object[] assignedConstants;
 
     public LinkedHashMap<String, CompiledExpression> getUpdateSetMap() {
         return updateSetMap;
@@ -48,4 +51,38 @@ public class RecordTableCompiledUpdateSet implements CompiledUpdateSet {
     public void setExpressionExecutorMap(Map<String, ExpressionExecutor> expressionExecutorMap) {
         this.expressionExecutorMap = expressionExecutorMap;
     }
+
+    /**
+     * Set the assignments of an update set where every set attribute is directly assigned a stream attribute or a
+     * constant.
+     *
+     * @param positions         positions of the set attributes in the table definition
+     * @param streamVariableIds ids of the assigned stream variables, null where a constant is assigned
+     * @param constants         assigned constants
+     */
+    void setAssignments(int[] positions, String[] streamVariableIds, Object[] constants) {
+        this.assignedPositions = positions;
+        this.assignedStreamVariableIds = streamVariableIds;
+        this.assignedConstants = constants;
+    }
+
+    boolean isDirectAssignment() {
+        return assignedPositions != null;
+    }
+
+    /**
+     * Apply a direct assignment update set to a record.
+     *
+     * @param record                record to be updated
+     * @param updateSetParameterMap values of the stream variables of the update set
+     * @return updated copy of the record
+     */
+    Object[] assign(Object[] record, Map<String, Object> updateSetParameterMap) {
+        Object[] updatedRecord = record.clone();
+        for (int i = 0; i < assignedPositions.length; i++) {
+            updatedRecord[assignedPositions[i]] = assignedStreamVariableIds[i] != null ?
+                    updateSetParameterMap.get(assignedStreamVariableIds[i]) : assignedConstants[i];
+        }
+        return updatedRecord;
+    }
 }
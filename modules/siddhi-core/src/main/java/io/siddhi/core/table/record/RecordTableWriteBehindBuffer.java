@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.table.record;
+
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.core.util.snapshot.state.State;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer of the mutations of an {@link AbstractRecordTable}, enabled with a nested write behind
+ * annotation in the store annotation, e.g. {@code @store(type='rdbms', @writeBehind(size='1000', interval='1 sec'))}.
+ * <p>
+ * Mutations that select records by the primary key of the table are buffered and written to the store in their
+ * arrival order when the buffer reaches its size, when the interval elapses after the first buffered mutation, when
+ * a buffered key is read, when the Siddhi app is persisted and when the table is shutdown. Consecutive mutations of
+ * the same key are coalesced when their update sets directly assign stream attributes or constants, so that a burst
+ * of updates of a hot key results in a single write. Consecutive mutations of the same kind are written to the
+ * store with a single call.
+ */
+public class RecordTableWriteBehindBuffer {
+
+    private static final Logger log = Logger.getLogger(RecordTableWriteBehindBuffer.class);
+
+    private final AbstractRecordTable recordTable;
+    private final int maxSize;
+    private final long interval;
+    private final SiddhiAppContext siddhiAppContext;
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+    private final Map<Object, PendingWrite> lastPendingWrites = new HashMap<>();
+    private int pendingCount;
+    private long coalescedCount;
+    private ScheduledFuture scheduledFlush;
+    private boolean shutdown;
+
+    RecordTableWriteBehindBuffer(AbstractRecordTable recordTable, int maxSize, long interval,
+                                 SiddhiAppContext siddhiAppContext) {
+        this.recordTable = recordTable;
+        this.maxSize = maxSize;
+        this.interval = interval;
+        this.siddhiAppContext = siddhiAppContext;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return number of buffered mutations that are yet to be written to the store
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return number of mutations that were coalesced with a buffered mutation of the same key
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    synchronized boolean isFull() {
+        return pendingCount >= maxSize;
+    }
+
+    synchronized boolean isEmpty() {
+        return pendingCount == 0;
+    }
+
+    synchronized boolean isPending(Object key) {
+        return lastPendingWrites.containsKey(key);
+    }
+
+    synchronized void add(Object key, Object[] record, long timestamp) {
+        append(new PendingWrite(WriteType.ADD, key, null, null, null, null, record, timestamp));
+    }
+
+    synchronized void delete(Object key, AbstractRecordTable.RecordStoreCompiledCondition compiledCondition,
+                             Map<String, Object> conditionParameterMap, long timestamp) {
+        PendingWrite lastPendingWrite = lastPendingWrites.get(key);
+        if (lastPendingWrite != null && lastPendingWrite.type != WriteType.DELETE) {
+            // the outcome of the last mutation is removed by the delete
+            lastPendingWrite.superseded = true;
+            pendingCount--;
+            coalescedCount++;
+        }
+        append(new PendingWrite(WriteType.DELETE, key, compiledCondition, conditionParameterMap, null, null,
+                null, timestamp));
+    }
+
+    synchronized void update(Object key, AbstractRecordTable.RecordStoreCompiledCondition compiledCondition,
+                             Map<String, Object> conditionParameterMap, RecordTableCompiledUpdateSet updateSet,
+                             Map<String, Object> updateSetParameterMap, long timestamp) {
+        PendingWrite lastPendingWrite = lastPendingWrites.get(key);
+        if (lastPendingWrite != null && updateSet.isDirectAssignment()) {
+            if (lastPendingWrite.type == WriteType.ADD) {
+                lastPendingWrite.record = updateSet.assign(lastPendingWrite.record, updateSetParameterMap);
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            } else if (lastPendingWrite.updateSet == updateSet && lastPendingWrite.type == WriteType.UPDATE) {
+                lastPendingWrite.updateSetParameterMap = updateSetParameterMap;
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            } else if (lastPendingWrite.updateSet == updateSet &&
+                    lastPendingWrite.type == WriteType.UPDATE_OR_ADD) {
+                lastPendingWrite.updateSetParameterMap = updateSetParameterMap;
+                lastPendingWrite.record = updateSet.assign(lastPendingWrite.record, updateSetParameterMap);
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            }
+        }
+        append(new PendingWrite(WriteType.UPDATE, key, compiledCondition, conditionParameterMap, updateSet,
+                updateSetParameterMap, null, timestamp));
+    }
+
+    synchronized void updateOrAdd(Object key, AbstractRecordTable.RecordStoreCompiledCondition compiledCondition,
+                                  Map<String, Object> conditionParameterMap, RecordTableCompiledUpdateSet updateSet,
+                                  Map<String, Object> updateSetParameterMap, Object[] addingRecord, long timestamp) {
+        PendingWrite lastPendingWrite = lastPendingWrites.get(key);
+        if (lastPendingWrite != null && updateSet.isDirectAssignment()) {
+            if (lastPendingWrite.type == WriteType.ADD) {
+                lastPendingWrite.record = updateSet.assign(lastPendingWrite.record, updateSetParameterMap);
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            } else if (lastPendingWrite.updateSet == updateSet && lastPendingWrite.type == WriteType.UPDATE_OR_ADD) {
+                lastPendingWrite.updateSetParameterMap = updateSetParameterMap;
+                lastPendingWrite.record = updateSet.assign(lastPendingWrite.record, updateSetParameterMap);
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            } else if (lastPendingWrite.updateSet == updateSet && lastPendingWrite.type == WriteType.UPDATE) {
+                // the update is overwritten if the record exists, else the record is added
+                lastPendingWrite.type = WriteType.UPDATE_OR_ADD;
+                lastPendingWrite.compiledCondition = compiledCondition;
+                lastPendingWrite.conditionParameterMap = conditionParameterMap;
+                lastPendingWrite.updateSetParameterMap = updateSetParameterMap;
+                lastPendingWrite.record = addingRecord;
+                coalesce(lastPendingWrite, timestamp);
+                return;
+            }
+        }
+        append(new PendingWrite(WriteType.UPDATE_OR_ADD, key, compiledCondition, conditionParameterMap, updateSet,
+                updateSetParameterMap, addingRecord, timestamp));
+    }
+
+    private void coalesce(PendingWrite pendingWrite, long timestamp) {
+        pendingWrite.timestamp = timestamp;
+        coalescedCount++;
+    }
+
+    private void append(PendingWrite pendingWrite) {
+        pendingWrites.add(pendingWrite);
+        lastPendingWrites.put(pendingWrite.key, pendingWrite);
+        pendingCount++;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush == null && !shutdown) {
+            scheduledFlush = siddhiAppContext.getScheduledExecutorService().schedule(this::flushOnSchedule,
+                    interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushOnSchedule() {
+        synchronized (this) {
+            scheduledFlush = null;
+        }
+        try {
+            flush();
+        } catch (ConnectionUnavailableException e) {
+            log.error("Error on '" + siddhiAppContext.getName() + "' when writing the buffered mutations of table '"
+                    + recordTable.getTableDefinition().getId() + "', the writes will be retried. " + e.getMessage(),
+                    e);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write all the buffered mutations to the store. When a write fails, the failed mutations and the mutations
+     * following them are retained and retried with the next flush.
+     *
+     * @throws ConnectionUnavailableException when the store is unavailable
+     * @throws SiddhiAppRuntimeException      when the store fails to write the mutations
+     */
+    synchronized void flush() throws ConnectionUnavailableException {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        int flushedCount = 0;
+        try {
+            while (flushedCount < pendingWrites.size()) {
+                PendingWrite firstPendingWrite = pendingWrites.get(flushedCount);
+                List<PendingWrite> group = new ArrayList<>();
+                int end = flushedCount;
+                for (; end < pendingWrites.size(); end++) {
+                    PendingWrite pendingWrite = pendingWrites.get(end);
+                    if (pendingWrite.superseded) {
+                        continue;
+                    }
+                    if (firstPendingWrite.superseded) {
+                        firstPendingWrite = pendingWrite;
+                    } else if (!firstPendingWrite.isGroupableWith(pendingWrite)) {
+                        break;
+                    }
+                    group.add(pendingWrite);
+                }
+                if (!group.isEmpty()) {
+                    try {
+                        write(group);
+                    } catch (RuntimeException e) {
+                        // the group and the mutations following it are retained, such that they are written in
+                        // order when the flush is retried
+                        throw new SiddhiAppRuntimeException("Error on '" + siddhiAppContext.getName() +
+                                "' when writing " + group.size() + " buffered mutations of table '" +
+                                recordTable.getTableDefinition().getId() + "', the writes will be retried. " +
+                                e.getMessage(), e);
+                    }
+                }
+                flushedCount = end;
+            }
+        } finally {
+            pendingWrites.subList(0, flushedCount).clear();
+            lastPendingWrites.clear();
+            pendingCount = 0;
+            for (PendingWrite pendingWrite : pendingWrites) {
+                if (!pendingWrite.superseded) {
+                    lastPendingWrites.put(pendingWrite.key, pendingWrite);
+                    pendingCount++;
+                }
+            }
+            if (pendingCount > 0) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> group) throws ConnectionUnavailableException {
+        PendingWrite firstPendingWrite = group.get(0);
+        long timestamp = group.get(group.size() - 1).timestamp;
+        List<Object[]> records = new ArrayList<>(group.size());
+        List<Map<String, Object>> conditionParameterMaps = new ArrayList<>(group.size());
+        List<Map<String, Object>> updateSetParameterMaps = new ArrayList<>(group.size());
+        for (PendingWrite pendingWrite : group) {
+            records.add(pendingWrite.record);
+            conditionParameterMaps.add(pendingWrite.conditionParameterMap);
+            updateSetParameterMaps.add(pendingWrite.updateSetParameterMap);
+        }
+        RecordTableHandler recordTableHandler = recordTable.recordTableHandler;
+        switch (firstPendingWrite.type) {
+            case ADD:
+                if (recordTableHandler != null) {
+                    recordTableHandler.add(timestamp, records);
+                } else {
+                    recordTable.add(records);
+                }
+                break;
+            case DELETE:
+                if (recordTableHandler != null) {
+                    recordTableHandler.delete(timestamp, conditionParameterMaps,
+                            firstPendingWrite.compiledCondition.compiledCondition);
+                } else {
+                    recordTable.delete(conditionParameterMaps, firstPendingWrite.compiledCondition.compiledCondition);
+                }
+                break;
+            case UPDATE:
+                if (recordTableHandler != null) {
+                    recordTableHandler.update(timestamp, firstPendingWrite.compiledCondition.compiledCondition,
+                            conditionParameterMaps, firstPendingWrite.updateSet.getUpdateSetMap(),
+                            updateSetParameterMaps);
+                } else {
+                    recordTable.update(firstPendingWrite.compiledCondition.compiledCondition, conditionParameterMaps,
+                            firstPendingWrite.updateSet.getUpdateSetMap(), updateSetParameterMaps);
+                }
+                break;
+            case UPDATE_OR_ADD:
+                if (recordTableHandler != null) {
+                    recordTableHandler.updateOrAdd(timestamp, firstPendingWrite.compiledCondition.compiledCondition,
+                            conditionParameterMaps, firstPendingWrite.updateSet.getUpdateSetMap(),
+                            updateSetParameterMaps, records);
+                } else {
+                    recordTable.updateOrAdd(firstPendingWrite.compiledCondition.compiledCondition,
+                            conditionParameterMaps, firstPendingWrite.updateSet.getUpdateSetMap(),
+                            updateSetParameterMaps, records);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Write the buffered mutations and stop scheduling further writes, mutations that cannot be written are lost.
+     */
+    synchronized void shutdown() {
+        shutdown = true;
+        try {
+            flush();
+        } catch (ConnectionUnavailableException | RuntimeException e) {
+            log.error("Error on '" + siddhiAppContext.getName() + "' when writing the buffered mutations of table '"
+                    + recordTable.getTableDefinition().getId() + "' at shutdown, " + pendingCount +
+                    " mutations are lost. " + e.getMessage(), e);
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private enum WriteType {
+        ADD, DELETE, UPDATE, UPDATE_OR_ADD
+    }
+
+    /**
+     * A buffered mutation of a single primary key.
+     */
+    private static class PendingWrite {
+        private final Object key;
+        private WriteType type;
+        private AbstractRecordTable.RecordStoreCompiledCondition compiledCondition;
+        private Map<String, Object> conditionParameterMap;
+        private RecordTableCompiledUpdateSet updateSet;
+        private Map<String, Object> updateSetParameterMap;
+        private Object[] record;
+        private long timestamp;
+        private boolean superseded;
+
+        PendingWrite(WriteType type, Object key, AbstractRecordTable.RecordStoreCompiledCondition compiledCondition,
+                     Map<String, Object> conditionParameterMap, RecordTableCompiledUpdateSet updateSet,
+                     Map<String, Object> updateSetParameterMap, Object[] record, long timestamp) {
+            this.type = type;
+            this.key = key;
+            this.compiledCondition = compiledCondition;
+            this.conditionParameterMap = conditionParameterMap;
+            this.updateSet = updateSet;
+            this.updateSetParameterMap = updateSetParameterMap;
+            this.record = record;
+            this.timestamp = timestamp;
+        }
+
+        boolean isGroupableWith(PendingWrite pendingWrite) {
+            return type == pendingWrite.type && compiledCondition == pendingWrite.compiledCondition &&
+                    updateSet == pendingWrite.updateSet;
+        }
+    }
+
+    /**
+     * State of the buffer registered with the snapshot service, such that the buffered mutations are written to the
+     * store before the Siddhi app is persisted. Persisting fails when the mutations cannot be written.
+     */
+    static class WriteBehindState extends State {
+
+        private final RecordTableWriteBehindBuffer writeBehindBuffer;
+
+        WriteBehindState(RecordTableWriteBehindBuffer writeBehindBuffer) {
+            this.writeBehindBuffer = writeBehindBuffer;
+        }
+
+        @Override
+        public boolean canDestroy() {
+            return false;
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            try {
+                writeBehindBuffer.flush();
+            } catch (ConnectionUnavailableException e) {
+                throw new SiddhiAppRuntimeException("Buffered mutations of table '" +
+                        writeBehindBuffer.recordTable.getTableDefinition().getId() + "' cannot be written before " +
+                        "persisting, " + e.getMessage(), e);
+            }
+            return null;
+        }
+
+        @Override
+        public void restore(Map<String, Object> state) {
+            // the buffered mutations are already in the store
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.table.record;
+
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.condition.Compare;
+
+/**
+ * Visitor that checks whether the expression of a set attribute directly assigns a stream attribute or a constant
+ * of the same type as the table attribute, such that the updated value of a record can be computed without the
+ * store. Used by the {@link RecordTableWriteBehindBuffer} to coalesce updates of the same primary key.
+ */
+class UpdateSetAssignmentVisitor extends BaseExpressionVisitor {
+
+    private final Attribute.Type attributeType;
+    private boolean supported = true;
+    private int operandCount;
+    private String streamVariableId;
+    private Object constant;
+
+    UpdateSetAssignmentVisitor(Attribute.Type attributeType) {
+        this.attributeType = attributeType;
+    }
+
+    boolean isDirectAssignment() {
+        return supported && operandCount == 1;
+    }
+
+    /**
+     * @return id of the assigned stream variable, or null if a constant is assigned
+     */
+    String getStreamVariableId() {
+        return streamVariableId;
+    }
+
+    Object getConstant() {
+        return constant;
+    }
+
+    @Override
+    public void beginVisitAnd() {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitOr() {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitNot() {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitCompare(Compare.Operator operator) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitIsNull(String streamId) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitIn(String storeId) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitConstant(Object value, Attribute.Type type) {
+        if (type != attributeType) {
+            supported = false;
+        }
+        constant = value;
+        operandCount++;
+    }
+
+    @Override
+    public void beginVisitMath(MathOperator mathOperator) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitAttributeFunction(String namespace, String functionName) {
+        supported = false;
+    }
+
+    @Override
+    public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
+        if (type != attributeType) {
+            supported = false;
+        }
+        streamVariableId = id;
+        operandCount++;
+    }
+
+    @Override
+    public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+        supported = false;
+    }
+}
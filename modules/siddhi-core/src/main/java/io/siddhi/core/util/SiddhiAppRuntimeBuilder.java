@@ -25,6 +25,7 @@ import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.partition.PartitionRuntime;
 import io.siddhi.core.query.QueryRuntime;
 import io.siddhi.core.query.input.ProcessStreamReceiver;
+import io.siddhi.core.query.input.SharedWindowStreamReceiver;
 import io.siddhi.core.query.input.stream.StreamRuntime;
 import io.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import io.siddhi.core.query.output.callback.InsertIntoStreamCallback;
@@ -39,6 +40,7 @@ import io.siddhi.core.trigger.Trigger;
 import io.siddhi.core.util.lock.LockSynchronizer;
 import io.siddhi.core.util.parser.AggregationParser;
 import io.siddhi.core.util.parser.helper.DefinitionParserHelper;
+import io.siddhi.core.window.SharedWindowRuntime;
 import io.siddhi.core.window.Window;
 import io.siddhi.query.api.definition.AbstractDefinition;
 import io.siddhi.query.api.definition.AggregationDefinition;
@@ -177,7 +179,13 @@ public class SiddhiAppRuntimeBuilder {
 
         for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
             ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
-            if (processStreamReceiver.toStream()) {
+            if (processStreamReceiver instanceof SharedWindowStreamReceiver) {
+                SharedWindowRuntime sharedWindowRuntime = ((SharedWindowStreamReceiver) processStreamReceiver)
+                        .getSharedWindowRuntime();
+                if (sharedWindowRuntime.addReceiver((SharedWindowStreamReceiver) processStreamReceiver)) {
+                    streamJunctionMap.get(sharedWindowRuntime.getStreamId()).subscribe(sharedWindowRuntime);
+                }
+            } else if (processStreamReceiver.toStream()) {
                 StreamJunction streamJunction = streamJunctionMap.get(processStreamReceiver.getStreamId());
                 if (streamJunction != null) {
                     streamJunction.subscribe(processStreamReceiver);
@@ -47,7 +47,15 @@ public final class SiddhiConstants {
     public static final String ANNOTATION_NAME = "Name";
     public static final String ANNOTATION_PLAYBACK = "Playback";
     public static final String ANNOTATION_ENFORCE_ORDER = "EnforceOrder";
+    public static final String ANNOTATION_SHARE_WINDOWS = "ShareWindows";
     public static final String ANNOTATION_ASYNC = "Async";
+    public static final String ANNOTATION_ASYNC_PROFILE = "AsyncProfile";
+    public static final String ANNOTATION_EVENT_POOLING = "EventPooling";
+    public static final String ANNOTATION_ELEMENT_LEAK_DETECTION = "leak.detection";
+    public static final int DEFAULT_EVENT_POOL_SIZE = 1024;
+    public static final String ANNOTATION_RESTORE = "Restore";
+    public static final String ANNOTATION_ELEMENT_PARALLEL = "parallel";
+    public static final String ANNOTATION_ELEMENT_LAZY = "lazy";
 
     public static final String ANNOTATION_ON_ERROR = "OnError";
     public static final String FAULT_STREAM_PREFIX = "!";
@@ -59,6 +67,7 @@ public final class SiddhiConstants {
     public static final String ANNOTATION_INDEX = "Index";
     public static final String ANNOTATION_PRIMARY_KEY = "PrimaryKey";
     public static final String ANNOTATION_STORE = "Store";
+    public static final String ANNOTATION_AGGREGATION_TABLE = "AggregationTable";
     public static final String ANNOTATION_SOURCE = "Source";
     public static final String ANNOTATION_SINK = "Sink";
     public static final String ANNOTATION_MAP = "Map";
@@ -70,6 +79,9 @@ public final class SiddhiConstants {
     public static final String ANNOTATION_ELEMENT_BUFFER_SIZE = "buffer.size";
     public static final String ANNOTATION_ELEMENT_WORKERS = "workers";
     public static final String ANNOTATION_ELEMENT_MAX_BATCH_SIZE = "batch.size.max";
+    public static final String ANNOTATION_ELEMENT_PARTITION_BY = "partition.by";
+    public static final String ANNOTATION_ELEMENT_WAIT_STRATEGY = "wait.strategy";
+    public static final String ANNOTATION_ELEMENT_PRODUCER = "producer";
     public static final String ANNOTATION_ELEMENT_IDLE_TIME = "idle.time";
     public static final String ANNOTATION_ELEMENT_INCREMENT = "increment";
     public static final String ANNOTATION_ELEMENT_TYPE = "type";
@@ -81,6 +93,20 @@ public final class SiddhiConstants {
     public static final String ANNOTATION_ELEMENT_INTERVAL = "interval";
     public static final String ANNOTATION_ELEMENT_INCLUDE = "include";
     public static final String ANNOTATION_PARTITION_BY_ID = "PartitionById";
+    public static final String ANNOTATION_SLICING = "Slicing";
+    public static final String ANNOTATION_ELEMENT_SIZE = "size";
+    public static final String ANNOTATION_MICRO_BATCH = "MicroBatch";
+    public static final String ANNOTATION_ELEMENT_MAX_LATENCY = "max.latency";
+    public static final int DEFAULT_MICRO_BATCH_SIZE = 1024;
+    public static final long DEFAULT_MICRO_BATCH_MAX_LATENCY = 10;
+    public static final String ANNOTATION_CACHE = "Cache";
+    public static final String ANNOTATION_ELEMENT_POLICY = "policy";
+    public static final String ANNOTATION_ELEMENT_EXPIRY = "expiry";
+    public static final String ANNOTATION_ELEMENT_PRELOAD = "preload";
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+    public static final String ANNOTATION_WRITE_BEHIND = "WriteBehind";
+    public static final int DEFAULT_WRITE_BEHIND_SIZE = 1000;
+    public static final long DEFAULT_WRITE_BEHIND_INTERVAL = 1000;
 
     public static final String TRUE = "true";
     public static final String TRIGGER_START = "start";
@@ -107,12 +133,15 @@ public final class SiddhiConstants {
     public static final String METRIC_INFIX_SOURCE_MAPPERS = "SourceMappers";
     public static final String METRIC_INFIX_SINKS = "Sinks";
     public static final String METRIC_INFIX_SINK_MAPPERS = "SinkMappers";
+    public static final String METRIC_INFIX_TRACES = "Traces";
     public static final String METRIC_TYPE_FIND = "find";
     public static final String METRIC_TYPE_INSERT = "insert";
     public static final String METRIC_TYPE_UPDATE = "update";
     public static final String METRIC_TYPE_DELETE = "delete";
     public static final String METRIC_TYPE_UPDATE_OR_INSERT = "updateOrInsert";
     public static final String METRIC_TYPE_CONTAINS = "contains";
+    public static final String METRIC_TYPE_CACHE_HIT = "cacheHit";
+    public static final String METRIC_TYPE_CACHE_MISS = "cacheMiss";
     public static final String METRIC_DELIMITER = ".";
     public static final String METRIC_AGGREGATE_ANNOTATION = "[+]";
     public static final String EXTENSION_SEPARATOR = ":";
@@ -18,7 +18,7 @@
 
 package io.siddhi.core.util.collection.operator;
 
-import io.siddhi.core.aggregation.IncrementalDataAggregator;
+import io.siddhi.core.aggregation.InMemoryRollUp;
 import io.siddhi.core.aggregation.IncrementalExecutor;
 import io.siddhi.core.aggregation.IncrementalExternalTimestampDataAggregator;
 import io.siddhi.core.config.SiddhiQueryContext;
@@ -92,13 +92,12 @@ public class IncrementalAggregateCompileCondition implements CompiledCondition {
                             Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMap,
                             Map<TimePeriod.Duration, Table> aggregationTables,
                             List<TimePeriod.Duration> incrementalDurations,
-                            List<ExpressionExecutor> baseExecutorsForFind,
+                            InMemoryRollUp inMemoryRollUp,
                             List<ExpressionExecutor> outputExpressionExecutors,
                             SiddhiQueryContext siddhiQueryContext,
                             List<List<ExpressionExecutor>> aggregateProcessingExecutorsListForFind,
                             List<GroupByKeyGenerator> groupbyKeyGeneratorList,
-                            ExpressionExecutor shouldUpdateTimestamp,
-                            Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMapForPartitions) {
+                            ExpressionExecutor shouldUpdateTimestamp) {
 
         ComplexEventChunk<StreamEvent> complexEventChunkToHoldWithinMatches = new ComplexEventChunk<>(true);
 
@@ -142,18 +141,10 @@ public class IncrementalAggregateCompileCondition implements CompiledCondition {
         //If processing on external time, the in-memory data also needs to be queried
         if (isProcessingOnExternalTime || requiresAggregatingInMemoryData(oldestInMemoryEventTimestamp,
                 startTimeEndTime)) {
-            IncrementalDataAggregator incrementalDataAggregator = new IncrementalDataAggregator(incrementalDurations,
-                    perValue, oldestInMemoryEventTimestamp, baseExecutorsForFind, tableMetaStreamEvent,
-                    shouldUpdateTimestamp, groupbyKeyGeneratorList.get(0) != null);
-            ComplexEventChunk<StreamEvent> aggregatedInMemoryEventChunk;
-            // Aggregate in-memory data and create an event chunk out of it
-            if (incrementalExecutorMapForPartitions != null) {
-                aggregatedInMemoryEventChunk = incrementalDataAggregator
-                        .aggregateInMemoryData(incrementalExecutorMapForPartitions);
-            } else {
-                aggregatedInMemoryEventChunk = incrementalDataAggregator
-                        .aggregateInMemoryData(incrementalExecutorMap);
-            }
+            // Aggregate in-memory data and create an event chunk out of it. The roll-up is reused until the
+            // in-memory data changes.
+            ComplexEventChunk<StreamEvent> aggregatedInMemoryEventChunk = inMemoryRollUp.aggregateInMemoryData(
+                    perValue, oldestInMemoryEventTimestamp);
             // Get the in-memory aggregate data, which is within given duration
             StreamEvent withinMatchFromInMemory = ((Operator) inMemoryStoreCompileCondition).find(matchingEvent,
                     aggregatedInMemoryEventChunk, tableEventCloner);
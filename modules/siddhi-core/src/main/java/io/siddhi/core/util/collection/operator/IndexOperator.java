@@ -175,6 +175,7 @@ public class IndexOperator implements Operator {
                 while (foundEventChunk.hasNext()) {
                     StreamEvent streamEvent = foundEventChunk.next();
                     streamEvent.setNext(null); // to make the chained state back to normal
+                    storeEvents.beforeUpdate(streamEvent);
                     for (Map.Entry<Integer, ExpressionExecutor> entry :
                             compiledUpdateSet.getExpressionExecutorMap().entrySet()) {
                         streamEvent.setOutputData(entry.getValue().execute(overwritingOrAddingEvent), entry.getKey());
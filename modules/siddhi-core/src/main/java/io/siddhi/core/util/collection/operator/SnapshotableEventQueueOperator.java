@@ -112,6 +112,7 @@ public class SnapshotableEventQueueOperator implements Operator {
                     StreamEvent storeEvent = storeEventQueue.next();
                     updatingEvent.setEvent(storeEventPosition, storeEvent);
                     if ((Boolean) expressionExecutor.execute(updatingEvent)) {
+                        storeEventQueue.beforeUpdate(storeEvent);
                         for (Map.Entry<Integer, ExpressionExecutor> entry :
                                 compiledUpdateSet.getExpressionExecutorMap().entrySet()) {
                             Object value = entry.getValue().execute(updatingEvent);
@@ -144,6 +145,7 @@ public class SnapshotableEventQueueOperator implements Operator {
                     StreamEvent storeEvent = storeEventQueue.next();
                     overwritingOrAddingEvent.setEvent(storeEventPosition, storeEvent);
                     if ((Boolean) expressionExecutor.execute(overwritingOrAddingEvent)) {
+                        storeEventQueue.beforeUpdate(storeEvent);
                         for (Map.Entry<Integer, ExpressionExecutor> entry :
                                 compiledUpdateSet.getExpressionExecutorMap().entrySet()) {
                             storeEvent.setOutputData(entry.getValue().
@@ -19,16 +19,25 @@
 package io.siddhi.core.util.event.handler;
 
 import com.lmax.disruptor.EventHandler;
+import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.stream.StreamJunction;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.core.util.statistics.LatencyTracker;
+import io.siddhi.core.util.statistics.metrics.Level;
 import org.apache.log4j.Logger;
 
 import java.beans.ExceptionListener;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Interface to be implemented to receive events via handlers.
+ * <p>
+ * When a stream junction has multiple workers, each worker only consumes its own shard of the ring buffer
+ * sequences, selected either round robin by the sequence number, or by the hash of the partition key attributes
+ * such that the events of the same key are processed in order by the same worker.
  */
 public class StreamHandler implements EventHandler<EventExchangeHolder> {
 
@@ -40,13 +49,22 @@ public class StreamHandler implements EventHandler<EventExchangeHolder> {
     private final ExceptionListener exceptionListener;
     private List<StreamJunction.Receiver> receivers;
     private int batchSize;
-    private List<Event> eventBuffer = new LinkedList<>();
+    private Event[] eventBuffer;
+    private int bufferedCount = 0;
+    private int workerIndex = 0;
+    private int workerCount = 1;
+    private int[] partitionKeyPositions;
+    private LatencyTracker latencyTracker;
+    private SiddhiAppContext siddhiAppContext;
+    private boolean isEventTraced;
+    private String traceStage;
 
     public StreamHandler(List<StreamJunction.Receiver> receivers, int batchSize,
                          String streamName, String siddhiAppName, StreamJunction faultStreamJunction,
                          StreamJunction.OnErrorAction onErrorAction, ExceptionListener exceptionListener) {
         this.receivers = receivers;
         this.batchSize = batchSize;
+        this.eventBuffer = new Event[batchSize];
         this.streamName = streamName;
         this.siddhiAppName = siddhiAppName;
         this.faultStreamJunction = faultStreamJunction;
@@ -54,36 +72,93 @@ public class StreamHandler implements EventHandler<EventExchangeHolder> {
         this.exceptionListener = exceptionListener;
     }
 
+    public StreamHandler(List<StreamJunction.Receiver> receivers, int batchSize,
+                         String streamName, String siddhiAppName, StreamJunction faultStreamJunction,
+                         StreamJunction.OnErrorAction onErrorAction, ExceptionListener exceptionListener,
+                         int workerIndex, int workerCount, int[] partitionKeyPositions) {
+        this(receivers, batchSize, streamName, siddhiAppName, faultStreamJunction, onErrorAction,
+                exceptionListener);
+        this.workerIndex = workerIndex;
+        this.workerCount = workerCount;
+        this.partitionKeyPositions = partitionKeyPositions;
+    }
+
+    /**
+     * Time the dispatch of the consumed events to the receivers, and trace the sampled events through the queue of
+     * the stream when event tracing is enabled.
+     *
+     * @param latencyTracker   latency tracker of the stream, or null if latency is not tracked
+     * @param siddhiAppContext Siddhi app context providing the current metrics level
+     */
+    public void setLatencyTracker(LatencyTracker latencyTracker, SiddhiAppContext siddhiAppContext) {
+        this.latencyTracker = latencyTracker;
+        this.siddhiAppContext = siddhiAppContext;
+        this.isEventTraced = siddhiAppContext.getEventTraceTracker() != null;
+        this.traceStage = "queue(" + streamName + ")";
+    }
+
     public void onEvent(EventExchangeHolder eventExchangeHolder, long sequence, boolean endOfBatch) {
-        boolean isProcessed = eventExchangeHolder.getAndSetIsProcessed(true);
+        boolean isProcessed;
+        if (workerCount > 1) {
+            isProcessed = !isOwnedByWorker(eventExchangeHolder.getEvent(), sequence);
+        } else {
+            isProcessed = eventExchangeHolder.getAndSetIsProcessed(true);
+        }
         if (!isProcessed) {
-            eventBuffer.add(eventExchangeHolder.getEvent());
-            if (eventBuffer.size() == batchSize || endOfBatch) {
-                for (StreamJunction.Receiver receiver : receivers) {
-                    try {
-                        receiver.receive(eventBuffer);
-                    } catch (Exception e) {
-                        onError(eventBuffer, e);
-                    }
-                }
-                eventBuffer.clear();
+            eventBuffer[bufferedCount++] = eventExchangeHolder.getEvent();
+            if (bufferedCount == batchSize || endOfBatch) {
+                sendBufferedEvents();
             }
-        } else if (endOfBatch) {
-            if (eventBuffer.size() != 0) {
-                for (StreamJunction.Receiver receiver : receivers) {
-                    try {
-                        receiver.receive(eventBuffer);
-                    } catch (Exception e) {
-                        onError(eventBuffer, e);
+        } else if (endOfBatch && bufferedCount != 0) {
+            sendBufferedEvents();
+        }
+    }
+
+    private void sendBufferedEvents() {
+        // A new array is handed over as receivers such as stream callbacks can retain it
+        Event[] events = Arrays.copyOf(eventBuffer, bufferedCount);
+        Arrays.fill(eventBuffer, 0, bufferedCount, null);
+        bufferedCount = 0;
+        if (isEventTraced) {
+            EventTrace.mark(events, events.length, traceStage);
+        }
+        boolean latencyTracked = latencyTracker != null &&
+                Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0;
+        if (latencyTracked) {
+            latencyTracker.markIn();
+        }
+        try {
+            for (StreamJunction.Receiver receiver : receivers) {
+                try {
+                    receiver.receive(events);
+                    if (isEventTraced && receiver instanceof StreamCallback) {
+                        EventTrace.complete(events, events.length, ((StreamCallback) receiver).getTraceStage());
                     }
+                } catch (Exception e) {
+                    onError(events, e);
                 }
-                eventBuffer.clear();
+            }
+        } finally {
+            if (latencyTracked) {
+                latencyTracker.markOut();
             }
         }
+    }
 
+    private boolean isOwnedByWorker(Event event, long sequence) {
+        if (partitionKeyPositions == null) {
+            return sequence % workerCount == workerIndex;
+        }
+        Object[] data = event.getData();
+        int hash = 1;
+        for (int position : partitionKeyPositions) {
+            Object value = data[position];
+            hash = 31 * hash + (value == null ? 0 : value.hashCode());
+        }
+        return (hash & Integer.MAX_VALUE) % workerCount == workerIndex;
     }
 
-    private void onError(List<Event> eventBuffer, Exception e) {
+    private void onError(Event[] eventBuffer, Exception e) {
         if (exceptionListener != null) {
             exceptionListener.exceptionThrown(e);
         }
@@ -23,6 +23,7 @@ import io.siddhi.core.aggregation.IncrementalAggregationProcessor;
 import io.siddhi.core.aggregation.IncrementalDataPurging;
 import io.siddhi.core.aggregation.IncrementalExecutor;
 import io.siddhi.core.aggregation.RecreateInMemoryData;
+import io.siddhi.core.aggregation.RollUpPipeline;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.event.ComplexEvent;
@@ -295,6 +296,30 @@ public class AggregationParser {
                     incrementalDurations, aggregationTables, siddhiQueryContext, aggregatorName,
                     shouldUpdateTimestamp);
 
+            Annotation asyncAnnotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_ASYNC,
+                    aggregationDefinition.getAnnotations());
+            if (asyncAnnotation != null) {
+                int bufferSize = SiddhiConstants.DEFAULT_EVENT_BUFFER_SIZE;
+                String bufferSizeString = asyncAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE);
+                if (bufferSizeString != null) {
+                    bufferSize = Integer.parseInt(bufferSizeString);
+                    if (bufferSize <= 0) {
+                        throw new SiddhiAppCreationException("Annotation element '" +
+                                SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE + "' of aggregation '" +
+                                aggregatorName + "' cannot be negative or zero, but found, '" + bufferSize + "'.",
+                                asyncAnnotation.getQueryContextStartIndex(),
+                                asyncAnnotation.getQueryContextEndIndex());
+                    }
+                }
+                // Roll up to the larger durations and write to the tables asynchronously
+                RollUpPipeline rollUpPipeline = new RollUpPipeline(aggregatorName, siddhiAppContext.getName(),
+                        bufferSize, siddhiAppContext.getExecutorService());
+                for (TimePeriod.Duration duration : incrementalDurations) {
+                    incrementalExecutorMap.get(duration).setRollUpPipeline(rollUpPipeline);
+                }
+                siddhiAppContext.addEternalReferencedHolder(rollUpPipeline);
+            }
+
             Map<TimePeriod.Duration, IncrementalExecutor> incrementalExecutorMapForPartitions = null;
             if (shardId != null) {
                 incrementalExecutorMapForPartitions =
@@ -677,12 +702,8 @@ public class AggregationParser {
             IncrementalAttributeAggregator incrementalAttributeAggregator) {
         String attributeName = null;
         Attribute.Type attributeType = null;
+        Expression[] parameters = new Expression[0];
         if (attributeFunction.getParameters() != null && attributeFunction.getParameters()[0] != null) {
-            if (attributeFunction.getParameters().length != 1) {
-                throw new SiddhiAppCreationException("Incremental aggregator requires only on one parameter. "
-                        + "Found " + attributeFunction.getParameters().length,
-                        attributeFunction.getQueryContextStartIndex(), attributeFunction.getQueryContextEndIndex());
-            }
             if (!(attributeFunction.getParameters()[0] instanceof Variable)) {
                 throw new SiddhiAppCreationException("Incremental aggregator expected a variable. " +
                         "However a parameter of type " + attributeFunction.getParameters()[0].getClass().getTypeName()
@@ -692,9 +713,16 @@ public class AggregationParser {
             }
             attributeName = ((Variable) attributeFunction.getParameters()[0]).getAttributeName();
             attributeType = lastInputStreamDefinition.getAttributeType(attributeName);
+            parameters = Arrays.copyOfRange(attributeFunction.getParameters(), 1,
+                    attributeFunction.getParameters().length);
         }
 
-        incrementalAttributeAggregator.init(attributeName, attributeType);
+        try {
+            incrementalAttributeAggregator.init(attributeName, attributeType, parameters);
+        } catch (Throwable t) {
+            ExceptionUtil.populateQueryContext(t, attributeFunction, null);
+            throw t;
+        }
 
         Attribute[] baseAttributes = incrementalAttributeAggregator.getBaseAttributes();
         Expression[] baseAttributeInitialValues = incrementalAttributeAggregator
@@ -812,6 +840,22 @@ public class AggregationParser {
             primaryKeyAnnotation.element(null, groupByVariable.getAttributeName());
         }
         annotations.add(primaryKeyAnnotation);
+        // Index the group by attributes of in-memory tables, as the finds filtering on them cannot use the primary
+        // key which leads with the timestamp
+        if (!groupByVariableList.isEmpty()
+                && AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_STORE, annotations) == null
+                && AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_INDEX, annotations) == null) {
+            Annotation indexAnnotation = new Annotation(SiddhiConstants.ANNOTATION_INDEX);
+            for (Variable groupByVariable : groupByVariableList) {
+                indexAnnotation.element(null, groupByVariable.getAttributeName());
+            }
+            annotations.add(indexAnnotation);
+        }
+        // Mark in-memory tables as aggregation tables, such that they are held in time buckets
+        if (AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_STORE, annotations) == null
+                && AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_AGGREGATION_TABLE, annotations) == null) {
+            annotations.add(new Annotation(SiddhiConstants.ANNOTATION_AGGREGATION_TABLE));
+        }
         for (TimePeriod.Duration duration : durations) {
             String tableId = aggregatorName + "_" + duration.toString();
             TableDefinition tableDefinition = TableDefinition.id(tableId);
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.parser;
+
+import io.siddhi.core.query.processor.filter.AndColumnarCondition;
+import io.siddhi.core.query.processor.filter.BoolColumnarCondition;
+import io.siddhi.core.query.processor.filter.ColumnarCondition;
+import io.siddhi.core.query.processor.filter.CompareColumnarCondition;
+import io.siddhi.core.query.processor.filter.NotColumnarCondition;
+import io.siddhi.core.query.processor.filter.OrColumnarCondition;
+import io.siddhi.query.api.definition.AbstractDefinition;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.expression.Expression;
+import io.siddhi.query.api.expression.Variable;
+import io.siddhi.query.api.expression.condition.And;
+import io.siddhi.query.api.expression.condition.Compare;
+import io.siddhi.query.api.expression.condition.Not;
+import io.siddhi.query.api.expression.condition.Or;
+import io.siddhi.query.api.expression.constant.BoolConstant;
+import io.siddhi.query.api.expression.constant.DoubleConstant;
+import io.siddhi.query.api.expression.constant.FloatConstant;
+import io.siddhi.query.api.expression.constant.IntConstant;
+import io.siddhi.query.api.expression.constant.LongConstant;
+import io.siddhi.query.api.expression.constant.StringConstant;
+
+import java.util.List;
+
+/**
+ * Class to parse filter {@link Expression}s into {@link ColumnarCondition}s. Only conditions built from
+ * comparisons of stream attributes with constants, BOOL attributes, and AND, OR and NOT are supported, for other
+ * conditions null is returned and the filter is evaluated per event.
+ */
+public class ColumnarConditionParser {
+
+    private ColumnarConditionParser() {
+
+    }
+
+    /**
+     * Parse a filter condition.
+     *
+     * @param expression        the filter condition
+     * @param streamDefinition  definition of the stream the filter is applied on
+     * @param streamReferenceId reference id of the stream, or null
+     * @return the columnar condition, or null if the condition cannot be evaluated in columnar form
+     */
+    public static ColumnarCondition parse(Expression expression, AbstractDefinition streamDefinition,
+                                          String streamReferenceId) {
+        if (expression instanceof And) {
+            ColumnarCondition left = parse(((And) expression).getLeftExpression(), streamDefinition,
+                    streamReferenceId);
+            ColumnarCondition right = parse(((And) expression).getRightExpression(), streamDefinition,
+                    streamReferenceId);
+            return (left == null || right == null) ? null : new AndColumnarCondition(left, right);
+        } else if (expression instanceof Or) {
+            ColumnarCondition left = parse(((Or) expression).getLeftExpression(), streamDefinition,
+                    streamReferenceId);
+            ColumnarCondition right = parse(((Or) expression).getRightExpression(), streamDefinition,
+                    streamReferenceId);
+            return (left == null || right == null) ? null : new OrColumnarCondition(left, right);
+        } else if (expression instanceof Not) {
+            ColumnarCondition condition = parse(((Not) expression).getExpression(), streamDefinition,
+                    streamReferenceId);
+            return condition == null ? null : new NotColumnarCondition(condition);
+        } else if (expression instanceof Variable) {
+            int position = getPosition((Variable) expression, streamDefinition, streamReferenceId);
+            if (position >= 0 && streamDefinition.getAttributeList().get(position).getType() ==
+                    Attribute.Type.BOOL) {
+                return new BoolColumnarCondition(position);
+            }
+            return null;
+        } else if (expression instanceof Compare) {
+            Compare compare = (Compare) expression;
+            if (compare.getLeftExpression() instanceof Variable) {
+                return parseCompare((Variable) compare.getLeftExpression(), compare.getOperator(),
+                        compare.getRightExpression(), streamDefinition, streamReferenceId);
+            } else if (compare.getRightExpression() instanceof Variable) {
+                return parseCompare((Variable) compare.getRightExpression(), flip(compare.getOperator()),
+                        compare.getLeftExpression(), streamDefinition, streamReferenceId);
+            }
+        }
+        return null;
+    }
+
+    private static ColumnarCondition parseCompare(Variable variable, Compare.Operator operator, Expression constant,
+                                                  AbstractDefinition streamDefinition, String streamReferenceId) {
+        int position = getPosition(variable, streamDefinition, streamReferenceId);
+        if (position < 0) {
+            return null;
+        }
+        boolean equality = operator == Compare.Operator.EQUAL || operator == Compare.Operator.NOT_EQUAL;
+        switch (streamDefinition.getAttributeList().get(position).getType()) {
+            case INT:
+            case LONG:
+                if (constant instanceof IntConstant) {
+                    return CompareColumnarCondition.compareLong(position, operator,
+                            ((IntConstant) constant).getValue());
+                } else if (constant instanceof LongConstant) {
+                    return CompareColumnarCondition.compareLong(position, operator,
+                            ((LongConstant) constant).getValue());
+                } else if (constant instanceof DoubleConstant) {
+                    return CompareColumnarCondition.compareLongAsDouble(position, operator,
+                            ((DoubleConstant) constant).getValue());
+                }
+                // Comparing with a FLOAT constant rounds the attribute to float, hence evaluated per event
+                return null;
+            case FLOAT:
+                if (constant instanceof DoubleConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((DoubleConstant) constant).getValue());
+                } else if (constant instanceof FloatConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((FloatConstant) constant).getValue());
+                }
+                Long value = null;
+                if (constant instanceof IntConstant) {
+                    value = (long) ((IntConstant) constant).getValue();
+                } else if (constant instanceof LongConstant) {
+                    value = ((LongConstant) constant).getValue();
+                }
+                // Integers are rounded to float when compared with a FLOAT attribute
+                if (value != null && (long) (float) (long) value == value) {
+                    return CompareColumnarCondition.compareDouble(position, operator, value);
+                }
+                return null;
+            case DOUBLE:
+                if (constant instanceof IntConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((IntConstant) constant).getValue());
+                } else if (constant instanceof LongConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((LongConstant) constant).getValue());
+                } else if (constant instanceof FloatConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((FloatConstant) constant).getValue());
+                } else if (constant instanceof DoubleConstant) {
+                    return CompareColumnarCondition.compareDouble(position, operator,
+                            ((DoubleConstant) constant).getValue());
+                }
+                return null;
+            case BOOL:
+                if (equality && constant instanceof BoolConstant) {
+                    return CompareColumnarCondition.compareBool(position, operator,
+                            ((BoolConstant) constant).getValue());
+                }
+                return null;
+            case STRING:
+                if (equality && constant instanceof StringConstant) {
+                    return CompareColumnarCondition.compareObject(position, operator,
+                            ((StringConstant) constant).getValue());
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static int getPosition(Variable variable, AbstractDefinition streamDefinition,
+                                   String streamReferenceId) {
+        if (variable.getStreamIndex() != null || variable.getFunctionId() != null ||
+                (variable.getStreamId() != null && !variable.getStreamId().equals(streamDefinition.getId()) &&
+                        !variable.getStreamId().equals(streamReferenceId))) {
+            return -1;
+        }
+        List<Attribute> attributeList = streamDefinition.getAttributeList();
+        for (int i = 0; i < attributeList.size(); i++) {
+            if (attributeList.get(i).getName().equals(variable.getAttributeName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Compare.Operator flip(Compare.Operator operator) {
+        switch (operator) {
+            case LESS_THAN:
+                return Compare.Operator.GREATER_THAN;
+            case GREATER_THAN:
+                return Compare.Operator.LESS_THAN;
+            case LESS_THAN_EQUAL:
+                return Compare.Operator.GREATER_THAN_EQUAL;
+            case GREATER_THAN_EQUAL:
+                return Compare.Operator.LESS_THAN_EQUAL;
+            default:
+                return operator;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import io.siddhi.core.table.holder.EventHolder;
 import io.siddhi.core.table.holder.IndexEventHolder;
 import io.siddhi.core.table.holder.ListEventHolder;
 import io.siddhi.core.table.holder.PrimaryKeyReferenceHolder;
+import io.siddhi.core.table.holder.TimeBucketedEventHolder;
 import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.query.api.annotation.Annotation;
 import io.siddhi.query.api.annotation.Element;
@@ -100,7 +101,14 @@ public class EventHolderPasser {
                     " at '" + tableDefinition.getId() + "'");
         }
 
-        if (primaryKeyReferenceHolders != null || indexMetaData.size() > 0) {
+        if (primaryKeyReferenceHolders != null && primaryKeyReferenceHolders[0].getPrimaryKeyAttribute()
+                .equals(SiddhiConstants.AGG_START_TIMESTAMP_COL) && tableDefinition.getAttributeType(
+                SiddhiConstants.AGG_START_TIMESTAMP_COL) == Attribute.Type.LONG && AnnotationHelper.getAnnotation(
+                SiddhiConstants.ANNOTATION_AGGREGATION_TABLE, tableDefinition.getAnnotations()) != null) {
+            // Tables of incremental aggregations, keyed by the aggregation bucket timestamp
+            return new TimeBucketedEventHolder(tableStreamEventFactory, eventConverter, primaryKeyReferenceHolders,
+                    indexMetaData, tableDefinition, siddhiAppContext);
+        } else if (primaryKeyReferenceHolders != null || indexMetaData.size() > 0) {
             boolean isNumeric = false;
             if (primaryKeyReferenceHolders != null) {
                 if (primaryKeyReferenceHolders.length == 1) {
@@ -1350,7 +1350,7 @@ public class ExpressionParser {
                     MetaStreamEvent metaStreamEvent = metaStreamEvents[i];
                     definition = metaStreamEvent.getLastInputDefinition();
                     if (metaStreamEvent.getInputReferenceId() == null) {
-                        if (definition.getId().equals(variable.getStreamId())) {
+                        if (variable.getStreamId().equals(definition.getId())) {
                             type = definition.getAttributeType(attributeName);
                             eventPosition[SiddhiConstants.STREAM_EVENT_CHAIN_INDEX] = i;
                             break;
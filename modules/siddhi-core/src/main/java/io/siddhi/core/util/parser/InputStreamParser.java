@@ -24,6 +24,7 @@ import io.siddhi.core.event.stream.MetaStreamEvent;
 import io.siddhi.core.exception.OperationNotSupportedException;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.input.ProcessStreamReceiver;
+import io.siddhi.core.query.input.SharedWindowStreamReceiver;
 import io.siddhi.core.query.input.stream.StreamRuntime;
 import io.siddhi.core.table.Table;
 import io.siddhi.core.window.Window;
@@ -76,8 +77,14 @@ public class InputStreamParser {
             Window window = windowMap.get(singleInputStream.getStreamId());
             boolean batchProcessingAllowed = window != null;      // If stream is from window, allow batch
             // processing
-            ProcessStreamReceiver processStreamReceiver = new ProcessStreamReceiver(singleInputStream.getStreamId(),
-                    siddhiQueryContext);
+            ProcessStreamReceiver processStreamReceiver;
+            if (siddhiQueryContext.getSharedWindowRuntime() != null) {
+                processStreamReceiver = new SharedWindowStreamReceiver(singleInputStream.getStreamId(),
+                        siddhiQueryContext.getSharedWindowRuntime(), siddhiQueryContext);
+            } else {
+                processStreamReceiver = new ProcessStreamReceiver(singleInputStream.getStreamId(),
+                        siddhiQueryContext);
+            }
             processStreamReceiver.setBatchProcessingAllowed(batchProcessingAllowed);
             return SingleInputStreamParser.parseInputStream((SingleInputStream) inputStream,
                     executors, streamDefinitionMap,
@@ -35,6 +35,7 @@ import io.siddhi.core.query.output.callback.OutputCallback;
 import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import io.siddhi.core.query.output.ratelimit.snapshot.WrappedSnapshotOutputRateLimiter;
 import io.siddhi.core.query.selector.QuerySelector;
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
 import io.siddhi.core.table.Table;
 import io.siddhi.core.util.ExceptionUtil;
 import io.siddhi.core.util.SiddhiConstants;
@@ -42,6 +43,7 @@ import io.siddhi.core.util.lock.LockSynchronizer;
 import io.siddhi.core.util.lock.LockWrapper;
 import io.siddhi.core.util.parser.helper.QueryParserHelper;
 import io.siddhi.core.util.statistics.LatencyTracker;
+import io.siddhi.core.window.SharedWindowRuntime;
 import io.siddhi.core.window.Window;
 import io.siddhi.query.api.annotation.Element;
 import io.siddhi.query.api.definition.AbstractDefinition;
@@ -53,6 +55,8 @@ import io.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import io.siddhi.query.api.execution.query.output.ratelimit.SnapshotOutputRate;
 import io.siddhi.query.api.execution.query.output.stream.OutputStream;
 import io.siddhi.query.api.util.AnnotationHelper;
+import io.siddhi.query.compiler.SiddhiCompiler;
+import io.siddhi.query.compiler.exception.SiddhiParserException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -91,6 +95,41 @@ public class QueryParser {
                                      Map<String, AggregationRuntime> aggregationMap, Map<String, Window> windowMap,
                                      LockSynchronizer lockSynchronizer,
                                      String queryIndex, boolean partitioned, String partitionId) {
+        return parse(query, siddhiAppContext, streamDefinitionMap, tableDefinitionMap, windowDefinitionMap,
+                aggregationDefinitionMap, tableMap, aggregationMap, windowMap, lockSynchronizer, queryIndex,
+                partitioned, partitionId, null);
+    }
+
+    /**
+     * Parse a query and return corresponding QueryRuntime.
+     *
+     * @param query                    query to be parsed.
+     * @param siddhiAppContext         associated Siddhi app context.
+     * @param streamDefinitionMap      keyvalue containing user given stream definitions.
+     * @param tableDefinitionMap       keyvalue containing table definitions.
+     * @param windowDefinitionMap      keyvalue containing window definition map.
+     * @param aggregationDefinitionMap keyvalue containing aggregation definition map.
+     * @param tableMap                 keyvalue containing event tables.
+     * @param aggregationMap           keyvalue containing aggrigation runtimes.
+     * @param windowMap                keyvalue containing event window map.
+     * @param lockSynchronizer         Lock synchronizer for sync the lock across queries.
+     * @param queryIndex               query index to identify unknown query by number
+     * @param partitioned              is the query partitioned
+     * @param partitionId              The ID of the partition
+     * @param sharedWindowRuntime      window runtime processing the leading window of the query, or null if the
+     *                                 window is not shared with other queries
+     * @return queryRuntime
+     */
+    public static QueryRuntime parse(Query query, SiddhiAppContext siddhiAppContext,
+                                     Map<String, AbstractDefinition> streamDefinitionMap,
+                                     Map<String, AbstractDefinition> tableDefinitionMap,
+                                     Map<String, AbstractDefinition> windowDefinitionMap,
+                                     Map<String, AbstractDefinition> aggregationDefinitionMap,
+                                     Map<String, Table> tableMap,
+                                     Map<String, AggregationRuntime> aggregationMap, Map<String, Window> windowMap,
+                                     LockSynchronizer lockSynchronizer,
+                                     String queryIndex, boolean partitioned, String partitionId,
+                                     SharedWindowRuntime sharedWindowRuntime) {
         List<VariableExpressionExecutor> executors = new ArrayList<VariableExpressionExecutor>();
         QueryRuntime queryRuntime;
         Element nameElement = null;
@@ -107,6 +146,7 @@ public class QueryParser {
             }
             SiddhiQueryContext siddhiQueryContext = new SiddhiQueryContext(siddhiAppContext, queryName, partitionId);
             siddhiQueryContext.setPartitioned(partitioned);
+            siddhiQueryContext.setSharedWindowRuntime(sharedWindowRuntime);
             latencyTracker = QueryParserHelper.createLatencyTracker(siddhiAppContext, siddhiQueryContext.getName(),
                     SiddhiConstants.METRIC_INFIX_QUERIES, null);
             siddhiQueryContext.setLatencyTracker(latencyTracker);
@@ -124,6 +164,19 @@ public class QueryParser {
             }
             siddhiQueryContext.setOutputEventType(outputEventType);
 
+            Element slicingElement = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_SLICING,
+                    SiddhiConstants.ANNOTATION_ELEMENT_SIZE, query.getAnnotations());
+            if (slicingElement != null) {
+                long sliceSize;
+                try {
+                    sliceSize = SiddhiCompiler.parseTimeConstantDefinition(slicingElement.getValue()).value();
+                } catch (SiddhiParserException e) {
+                    throw new SiddhiAppCreationException("Invalid slice size '" + slicingElement.getValue() +
+                            "' in @slicing annotation of query '" + siddhiQueryContext.getName() + "'", e);
+                }
+                siddhiQueryContext.setAggregatorSlicer(new AggregatorSlicer(sliceSize));
+            }
+
             boolean outputExpectsExpiredEvents = false;
             if (outputEventType != OutputStream.OutputEventType.CURRENT_EVENTS) {
                 outputExpectsExpiredEvents = true;
@@ -136,6 +189,7 @@ public class QueryParser {
                     streamRuntime.getMetaComplexEvent(), tableMap, executors,
                     SiddhiConstants.UNKNOWN_STATE, streamRuntime.getProcessingMode(), outputExpectsExpiredEvents,
                     siddhiQueryContext);
+            QueryParserHelper.initAggregatorSlicing(query, streamRuntime, siddhiQueryContext);
             boolean isWindow = query.getInputStream() instanceof JoinInputStream;
             if (!isWindow && query.getInputStream() instanceof SingleInputStream) {
                 for (StreamHandler streamHandler : ((SingleInputStream) query.getInputStream()).getStreamHandlers()) {
@@ -223,6 +277,8 @@ public class QueryParser {
             QueryParserHelper.updateVariablePosition(streamRuntime.getMetaComplexEvent(), executors);
             QueryParserHelper.initStreamRuntime(streamRuntime, streamRuntime.getMetaComplexEvent(), lockWrapper,
                     siddhiQueryContext.getName());
+            QueryParserHelper.initColumnarFilter(query, streamRuntime, siddhiQueryContext);
+            QueryParserHelper.initEventPooling(streamRuntime, outputRateLimiter, outputCallback, siddhiQueryContext);
             selector.setEventPopulator(StateEventPopulatorFactory.constructEventPopulator(streamRuntime
                     .getMetaComplexEvent()));
             queryRuntime = new QueryRuntime(query, streamRuntime, selector, outputRateLimiter, outputCallback,
@@ -18,6 +18,7 @@
 package io.siddhi.core.util.parser;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lmax.disruptor.dsl.ProducerType;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.config.SiddhiContext;
 import io.siddhi.core.exception.SiddhiAppCreationException;
@@ -33,6 +34,7 @@ import io.siddhi.core.util.snapshot.SnapshotService;
 import io.siddhi.core.util.statistics.metrics.Level;
 import io.siddhi.core.util.timestamp.TimestampGenerator;
 import io.siddhi.core.util.timestamp.TimestampGeneratorImpl;
+import io.siddhi.core.window.SharedWindowRuntime;
 import io.siddhi.core.window.Window;
 import io.siddhi.query.api.SiddhiApp;
 import io.siddhi.query.api.annotation.Annotation;
@@ -53,6 +55,10 @@ import io.siddhi.query.api.execution.query.input.handler.StreamHandler;
 import io.siddhi.query.api.execution.query.input.stream.JoinInputStream;
 import io.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import io.siddhi.query.api.execution.query.input.stream.StateInputStream;
+import io.siddhi.query.api.execution.query.output.stream.OutputStream;
+import io.siddhi.query.api.expression.Expression;
+import io.siddhi.query.api.expression.Variable;
+import io.siddhi.query.api.expression.constant.Constant;
 import io.siddhi.query.api.expression.condition.In;
 import io.siddhi.query.api.util.AnnotationHelper;
 import io.siddhi.query.compiler.SiddhiCompiler;
@@ -60,6 +66,9 @@ import io.siddhi.query.compiler.exception.SiddhiParserException;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -101,6 +110,22 @@ public class SiddhiAppParser {
                 siddhiAppContext.setEnforceOrder(true);
             }
 
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_SHARE_WINDOWS,
+                    siddhiApp.getAnnotations());
+            if (annotation != null) {
+                boolean enabled = true;
+                for (Element e : annotation.getElements()) {
+                    if (e.getKey() == null ||
+                            SiddhiConstants.ANNOTATION_ELEMENT_ENABLE.equalsIgnoreCase(e.getKey())) {
+                        enabled = Boolean.parseBoolean(e.getValue());
+                    } else {
+                        throw new SiddhiAppValidationException("Share windows annotation accepts only enable " +
+                                "but found " + e.getKey());
+                    }
+                }
+                siddhiAppContext.setShareWindows(enabled);
+            }
+
             annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_ASYNC,
                     siddhiApp.getAnnotations());
             if (annotation != null) {
@@ -109,6 +134,82 @@ public class SiddhiAppParser {
                         annotation.getQueryContextStartIndex(), annotation.getQueryContextEndIndex());
             }
 
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_ASYNC_PROFILE,
+                    siddhiApp.getAnnotations());
+            if (annotation != null) {
+                for (Element e : annotation.getElements()) {
+                    if (SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY.equalsIgnoreCase(e.getKey())) {
+                        StreamJunction.WaitStrategyType waitStrategyType =
+                                StreamJunction.WaitStrategyType.of(e.getValue());
+                        if (waitStrategyType == null) {
+                            throw new SiddhiAppValidationException("Async profile annotation supports " +
+                                    "'busy-spin', 'yield', 'sleep' and 'block' wait strategies, but found '" +
+                                    e.getValue() + "'");
+                        }
+                        siddhiAppContext.setAsyncWaitStrategy(waitStrategyType);
+                    } else if (SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER.equalsIgnoreCase(e.getKey())) {
+                        ProducerType producerType = StreamJunction.parseProducerType(e.getValue());
+                        if (producerType == null) {
+                            throw new SiddhiAppValidationException("Async profile annotation supports " +
+                                    "'single' and 'multi' producers, but found '" + e.getValue() + "'");
+                        }
+                        siddhiAppContext.setAsyncProducerType(producerType);
+                    } else {
+                        throw new SiddhiAppValidationException("Async profile annotation accepts only " +
+                                "wait.strategy and producer but found " + e.getKey());
+                    }
+                }
+            }
+
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_EVENT_POOLING,
+                    siddhiApp.getAnnotations());
+            if (annotation != null) {
+                boolean enabled = true;
+                int poolSize = SiddhiConstants.DEFAULT_EVENT_POOL_SIZE;
+                boolean leakDetection = log.isDebugEnabled();
+                for (Element e : annotation.getElements()) {
+                    if (e.getKey() == null ||
+                            SiddhiConstants.ANNOTATION_ELEMENT_ENABLE.equalsIgnoreCase(e.getKey())) {
+                        enabled = Boolean.parseBoolean(e.getValue());
+                    } else if (SiddhiConstants.ANNOTATION_ELEMENT_SIZE.equalsIgnoreCase(e.getKey())) {
+                        try {
+                            poolSize = Integer.parseInt(e.getValue());
+                        } catch (NumberFormatException ex) {
+                            throw new SiddhiAppValidationException("Invalid size '" + e.getValue() + "' in " +
+                                    "event pooling annotation, expected an integer", ex);
+                        }
+                        if (poolSize <= 0) {
+                            throw new SiddhiAppValidationException("Event pool size should be greater than " +
+                                    "zero, but found " + poolSize);
+                        }
+                    } else if (SiddhiConstants.ANNOTATION_ELEMENT_LEAK_DETECTION.equalsIgnoreCase(e.getKey())) {
+                        leakDetection = Boolean.parseBoolean(e.getValue());
+                    } else {
+                        throw new SiddhiAppValidationException("Event pooling annotation accepts only enable, " +
+                                "size and leak.detection but found " + e.getKey());
+                    }
+                }
+                if (enabled) {
+                    siddhiAppContext.setEventPoolSize(poolSize);
+                    siddhiAppContext.setEventPoolLeakDetection(leakDetection);
+                }
+            }
+
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_RESTORE,
+                    siddhiApp.getAnnotations());
+            if (annotation != null) {
+                for (Element e : annotation.getElements()) {
+                    if (SiddhiConstants.ANNOTATION_ELEMENT_PARALLEL.equalsIgnoreCase(e.getKey())) {
+                        siddhiAppContext.setParallelRestore(Boolean.parseBoolean(e.getValue()));
+                    } else if (SiddhiConstants.ANNOTATION_ELEMENT_LAZY.equalsIgnoreCase(e.getKey())) {
+                        siddhiAppContext.setLazyRestore(Boolean.parseBoolean(e.getValue()));
+                    } else {
+                        throw new SiddhiAppValidationException("Restore annotation accepts only parallel and " +
+                                "lazy but found " + e.getKey());
+                    }
+                }
+            }
+
             annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_STATISTICS,
                     siddhiApp.getAnnotations());
 
@@ -124,6 +225,16 @@ public class SiddhiAppParser {
                                 siddhiContext.getStatisticsConfiguration().getMetricPrefix(),
                                 siddhiAppContext.getName(),
                                 statisticsElements));
+                siddhiAppContext.setEventTraceTracker(siddhiContext
+                        .getStatisticsConfiguration()
+                        .getFactory()
+                        .createEventTraceTracker(
+                                siddhiContext.getStatisticsConfiguration().getMetricPrefix() +
+                                        SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_SIDDHI_APPS +
+                                        SiddhiConstants.METRIC_DELIMITER + siddhiAppContext.getName() +
+                                        SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_SIDDHI +
+                                        SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_TRACES,
+                                siddhiAppContext.getStatisticsManager()));
             }
 
             Element statStateEnableElement = AnnotationHelper.getAnnotationElement(
@@ -245,6 +356,8 @@ public class SiddhiAppParser {
                 throw t;
             }
         }
+        Map<Query, SharedWindowRuntime> sharedWindowRuntimeMap = createSharedWindowRuntimes(siddhiApp,
+                siddhiAppRuntimeBuilder, siddhiAppContext);
         int queryIndex = 1;
         int partitionIndex = 1;
         for (ExecutionElement executionElement : siddhiApp.getExecutionElementList()) {
@@ -259,7 +372,8 @@ public class SiddhiAppParser {
                             siddhiAppRuntimeBuilder.getAggregationMap(),
                             siddhiAppRuntimeBuilder.getWindowMap(),
                             siddhiAppRuntimeBuilder.getLockSynchronizer(),
-                            String.valueOf(queryIndex), false, SiddhiConstants.PARTITION_ID_DEFAULT);
+                            String.valueOf(queryIndex), false, SiddhiConstants.PARTITION_ID_DEFAULT,
+                            sharedWindowRuntimeMap.get(executionElement));
                     siddhiAppRuntimeBuilder.addQuery(queryRuntime);
                     siddhiAppContext.addEternalReferencedHolder(queryRuntime);
                     queryIndex++;
@@ -285,6 +399,98 @@ public class SiddhiAppParser {
         return siddhiAppRuntimeBuilder;
     }
 
+    /**
+     * Find the queries that apply an identical window as the first handler on the same stream, and create a
+     * {@link SharedWindowRuntime} for each such group, so that the events are retained only once. Windows are
+     * shared only when enabled with the @app:shareWindows annotation.
+     *
+     * @param siddhiApp               the Siddhi app
+     * @param siddhiAppRuntimeBuilder the runtime builder holding the defined streams and tables
+     * @param siddhiAppContext        Siddhi app context
+     * @return shared window runtimes keyed by the queries sharing them
+     */
+    private static Map<Query, SharedWindowRuntime> createSharedWindowRuntimes(
+            SiddhiApp siddhiApp, SiddhiAppRuntimeBuilder siddhiAppRuntimeBuilder, SiddhiAppContext siddhiAppContext) {
+        Map<Query, SharedWindowRuntime> sharedWindowRuntimeMap = new IdentityHashMap<>();
+        if (!siddhiAppContext.isShareWindows()) {
+            return sharedWindowRuntimeMap;
+        }
+        Map<List<Object>, List<Query>> windowQueryMap = new LinkedHashMap<>();
+        for (ExecutionElement executionElement : siddhiApp.getExecutionElementList()) {
+            if (!(executionElement instanceof Query)) {
+                continue;
+            }
+            Query query = (Query) executionElement;
+            if (!(query.getInputStream() instanceof SingleInputStream) ||
+                    AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_SLICING,
+                            query.getAnnotations()) != null) {
+                continue;
+            }
+            SingleInputStream inputStream = (SingleInputStream) query.getInputStream();
+            String streamId = inputStream.getStreamId();
+            if (inputStream.isInnerStream() || inputStream.getStreamHandlers().isEmpty() ||
+                    !(inputStream.getStreamHandlers().get(0) instanceof
+                            io.siddhi.query.api.execution.query.input.handler.Window) ||
+                    !siddhiAppRuntimeBuilder.getStreamDefinitionMap().containsKey(streamId) ||
+                    siddhiAppRuntimeBuilder.getWindowDefinitionMap().containsKey(streamId) ||
+                    siddhiAppRuntimeBuilder.getTableDefinitionMap().containsKey(streamId) ||
+                    siddhiAppRuntimeBuilder.getAggregationDefinitionMap().containsKey(streamId)) {
+                continue;
+            }
+            io.siddhi.query.api.execution.query.input.handler.Window window =
+                    (io.siddhi.query.api.execution.query.input.handler.Window)
+                            inputStream.getStreamHandlers().get(0);
+            if (!isShareable(window, streamId)) {
+                continue;
+            }
+            boolean outputExpectsExpiredEvents = query.getOutputStream().getOutputEventType() !=
+                    OutputStream.OutputEventType.CURRENT_EVENTS;
+            List<Object> key = Arrays.asList(streamId, window, outputExpectsExpiredEvents);
+            windowQueryMap.computeIfAbsent(key, k -> new ArrayList<>()).add(query);
+        }
+        int sharedWindowIndex = 1;
+        for (Map.Entry<List<Object>, List<Query>> entry : windowQueryMap.entrySet()) {
+            if (entry.getValue().size() < 2) {
+                continue;
+            }
+            String streamId = (String) entry.getKey().get(0);
+            String name = "shared_window_" + sharedWindowIndex++;
+            SharedWindowRuntime sharedWindowRuntime = new SharedWindowRuntime(streamId, name);
+            try {
+                sharedWindowRuntime.init(siddhiAppRuntimeBuilder.getStreamDefinitionMap().get(streamId),
+                        (io.siddhi.query.api.execution.query.input.handler.Window) entry.getKey().get(1),
+                        (Boolean) entry.getKey().get(2), siddhiAppRuntimeBuilder.getTableMap(), name,
+                        siddhiAppContext);
+            } catch (Throwable t) {
+                ExceptionUtil.populateQueryContext(t, entry.getValue().get(0), siddhiAppContext);
+                throw t;
+            }
+            for (Query query : entry.getValue()) {
+                sharedWindowRuntimeMap.put(query, sharedWindowRuntime);
+            }
+        }
+        return sharedWindowRuntimeMap;
+    }
+
+    private static boolean isShareable(io.siddhi.query.api.execution.query.input.handler.Window window,
+                                       String streamId) {
+        if (window.getParameters() == null) {
+            return true;
+        }
+        for (Expression parameter : window.getParameters()) {
+            if (parameter instanceof Variable) {
+                Variable variable = (Variable) parameter;
+                if ((variable.getStreamId() != null && !variable.getStreamId().equals(streamId)) ||
+                        variable.getStreamIndex() != null || variable.getFunctionId() != null) {
+                    return false;
+                }
+            } else if (!(parameter instanceof Constant)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static List<String> getFindExecutedElements(SiddhiApp siddhiApp) {
         List<String> findExecutedElements = new ArrayList<>();
         for (ExecutionElement executionElement : siddhiApp.getExecutionElementList()) {
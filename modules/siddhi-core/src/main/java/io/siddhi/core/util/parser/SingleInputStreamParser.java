@@ -26,6 +26,7 @@ import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.input.ProcessStreamReceiver;
+import io.siddhi.core.query.input.SharedWindowStreamReceiver;
 import io.siddhi.core.query.input.stream.single.EntryValveProcessor;
 import io.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import io.siddhi.core.query.processor.ProcessingMode;
@@ -118,8 +119,15 @@ public class SingleInputStreamParser {
             }
         }
 
-        if (!inputStream.getStreamHandlers().isEmpty()) {
-            for (StreamHandler handler : inputStream.getStreamHandlers()) {
+        List<StreamHandler> streamHandlers = inputStream.getStreamHandlers();
+        if (processStreamReceiver instanceof SharedWindowStreamReceiver) {
+            // The leading window is processed by the shared window runtime, and the events are received after it
+            processingMode = ((SharedWindowStreamReceiver) processStreamReceiver).getSharedWindowRuntime()
+                    .getProcessingMode();
+            streamHandlers = streamHandlers.subList(1, streamHandlers.size());
+        }
+        if (!streamHandlers.isEmpty()) {
+            for (StreamHandler handler : streamHandlers) {
                 Processor currentProcessor = generateProcessor(handler, metaComplexEvent,
                         variableExpressionExecutors, tableMap, supportsBatchProcessing,
                         outputExpectsExpiredEvents, findToBeExecuted, siddhiQueryContext);
@@ -19,6 +19,7 @@
 package io.siddhi.core.util.parser.helper;
 
 import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.event.MetaComplexEvent;
 import io.siddhi.core.event.state.MetaStateEvent;
 import io.siddhi.core.event.state.MetaStateEventAttribute;
@@ -27,24 +28,43 @@ import io.siddhi.core.event.state.StateEventFactory;
 import io.siddhi.core.event.stream.MetaStreamEvent;
 import io.siddhi.core.event.stream.StreamEventCloner;
 import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.StreamEventPool;
 import io.siddhi.core.event.stream.populater.ComplexEventPopulater;
 import io.siddhi.core.event.stream.populater.StreamEventPopulaterFactory;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.executor.VariableExpressionExecutor;
 import io.siddhi.core.query.input.ProcessStreamReceiver;
 import io.siddhi.core.query.input.stream.StreamRuntime;
 import io.siddhi.core.query.input.stream.join.JoinProcessor;
 import io.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import io.siddhi.core.query.input.stream.state.StreamPreStateProcessor;
+import io.siddhi.core.query.output.callback.InsertIntoStreamCallback;
+import io.siddhi.core.query.output.callback.OutputCallback;
+import io.siddhi.core.query.output.ratelimit.OutputRateLimiter;
+import io.siddhi.core.query.output.ratelimit.PassThroughOutputRateLimiter;
 import io.siddhi.core.query.processor.Processor;
 import io.siddhi.core.query.processor.SchedulingProcessor;
+import io.siddhi.core.query.processor.filter.AndColumnarCondition;
+import io.siddhi.core.query.processor.filter.ColumnarCondition;
+import io.siddhi.core.query.processor.filter.FilterProcessor;
 import io.siddhi.core.query.processor.stream.AbstractStreamProcessor;
+import io.siddhi.core.query.processor.stream.window.SliceableWindowProcessor;
+import io.siddhi.core.query.processor.stream.window.WindowProcessor;
+import io.siddhi.core.query.selector.attribute.aggregator.AggregatorSlicer;
 import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.collection.operator.IncrementalAggregateCompileCondition;
 import io.siddhi.core.util.lock.LockWrapper;
+import io.siddhi.core.util.parser.ColumnarConditionParser;
 import io.siddhi.core.util.statistics.LatencyTracker;
 import io.siddhi.core.util.statistics.MemoryUsageTracker;
 import io.siddhi.core.util.statistics.ThroughputTracker;
 import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.execution.query.Query;
+import io.siddhi.query.api.execution.query.input.handler.Filter;
+import io.siddhi.query.api.execution.query.input.handler.StreamHandler;
+import io.siddhi.query.api.execution.query.input.stream.SingleInputStream;
+import io.siddhi.query.api.execution.query.output.ratelimit.SnapshotOutputRate;
+import io.siddhi.query.api.execution.query.output.stream.OutputStream;
 
 import java.util.List;
 
@@ -223,6 +243,131 @@ public class QueryParserHelper {
         }
     }
 
+    /**
+     * Switch the sliding time window and the aggregators of a query annotated with {@code @slicing} to sliced
+     * evaluation. Slicing is only supported for single stream queries ending with a sliceable window, which output
+     * only current events and use only decomposable aggregators.
+     *
+     * @param query              the query being parsed
+     * @param streamRuntime      stream runtime of the query
+     * @param siddhiQueryContext Siddhi query runtime context
+     */
+    public static void initAggregatorSlicing(Query query, StreamRuntime streamRuntime,
+                                             SiddhiQueryContext siddhiQueryContext) {
+        AggregatorSlicer aggregatorSlicer = siddhiQueryContext.getAggregatorSlicer();
+        if (aggregatorSlicer == null) {
+            return;
+        }
+        if (!(streamRuntime instanceof SingleStreamRuntime)) {
+            throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated with " +
+                    "@slicing, but slicing is only supported for single stream queries");
+        }
+        if (siddhiQueryContext.getOutputEventType() != OutputStream.OutputEventType.CURRENT_EVENTS) {
+            throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated with " +
+                    "@slicing, but it outputs expired events, which are not retained when slicing");
+        }
+        if (query.getOutputRate() instanceof SnapshotOutputRate) {
+            throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated with " +
+                    "@slicing, but slicing cannot be used with snapshot output rate limiting");
+        }
+        SliceableWindowProcessor sliceableWindowProcessor = null;
+        Processor processor = ((SingleStreamRuntime) streamRuntime).getProcessorChain();
+        while (processor != null) {
+            if (processor instanceof WindowProcessor) {
+                if (!(processor instanceof SliceableWindowProcessor) || processor.getNextProcessor() != null) {
+                    throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is " +
+                            "annotated with @slicing, but slicing is only supported when the last stream handler " +
+                            "is a sliding time window such as 'time' or 'externalTime'");
+                }
+                sliceableWindowProcessor = (SliceableWindowProcessor) processor;
+            }
+            processor = processor.getNextProcessor();
+        }
+        if (sliceableWindowProcessor == null) {
+            throw new SiddhiAppCreationException("Query '" + siddhiQueryContext.getName() + "' is annotated with " +
+                    "@slicing, but it does not contain a sliding time window");
+        }
+        aggregatorSlicer.slice(sliceableWindowProcessor, siddhiQueryContext);
+    }
+
+    /**
+     * Enable columnar evaluation of the leading filters of a single stream query, such that batches of events are
+     * filtered before they are converted to {@link io.siddhi.core.event.stream.StreamEvent}s.
+     *
+     * @param query              the query being parsed
+     * @param streamRuntime      stream runtime of the query
+     * @param siddhiQueryContext Siddhi query runtime context
+     */
+    public static void initColumnarFilter(Query query, StreamRuntime streamRuntime,
+                                          SiddhiQueryContext siddhiQueryContext) {
+        if (siddhiQueryContext.isPartitioned() || !(streamRuntime instanceof SingleStreamRuntime) ||
+                !(query.getInputStream() instanceof SingleInputStream)) {
+            return;
+        }
+        SingleStreamRuntime singleStreamRuntime = (SingleStreamRuntime) streamRuntime;
+        if (singleStreamRuntime.getProcessStreamReceiver().getClass() != ProcessStreamReceiver.class) {
+            return;
+        }
+        SingleInputStream inputStream = (SingleInputStream) query.getInputStream();
+        MetaStreamEvent metaStreamEvent = (MetaStreamEvent) streamRuntime.getMetaComplexEvent();
+        ColumnarCondition columnarCondition = null;
+        int columnarFilterCount = 0;
+        Processor processor = singleStreamRuntime.getProcessorChain();
+        for (StreamHandler streamHandler : inputStream.getStreamHandlers()) {
+            if (!(streamHandler instanceof Filter) || !(processor instanceof FilterProcessor)) {
+                break;
+            }
+            ColumnarCondition condition = ColumnarConditionParser.parse(streamHandler.getParameters()[0],
+                    metaStreamEvent.getLastInputDefinition(), inputStream.getStreamReferenceId());
+            if (condition == null) {
+                break;
+            }
+            columnarCondition = columnarCondition == null ? condition :
+                    new AndColumnarCondition(columnarCondition, condition);
+            columnarFilterCount++;
+            processor = processor.getNextProcessor();
+        }
+        if (columnarCondition != null) {
+            singleStreamRuntime.getProcessStreamReceiver().setColumnarFilter(columnarCondition, columnarFilterCount);
+        }
+    }
+
+    /**
+     * Enable reuse of the events of the query when none of them outlive the processing of the events by the query,
+     * i.e. the query only contains filters, does not rate limit its output, and sends its output to a stream.
+     *
+     * @param streamRuntime      stream runtime of the query
+     * @param outputRateLimiter  output rate limiter of the query
+     * @param outputCallback     output callback of the query
+     * @param siddhiQueryContext query context
+     */
+    public static void initEventPooling(StreamRuntime streamRuntime, OutputRateLimiter outputRateLimiter,
+                                        OutputCallback outputCallback, SiddhiQueryContext siddhiQueryContext) {
+        SiddhiAppContext siddhiAppContext = siddhiQueryContext.getSiddhiAppContext();
+        if (siddhiAppContext.getEventPoolSize() <= 0 || siddhiQueryContext.isPartitioned() ||
+                !(streamRuntime instanceof SingleStreamRuntime) ||
+                !(outputRateLimiter instanceof PassThroughOutputRateLimiter) ||
+                (outputCallback != null && !(outputCallback instanceof InsertIntoStreamCallback))) {
+            return;
+        }
+        SingleStreamRuntime singleStreamRuntime = (SingleStreamRuntime) streamRuntime;
+        ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
+        if (processStreamReceiver.getClass() != ProcessStreamReceiver.class) {
+            return;
+        }
+        for (Processor processor = singleStreamRuntime.getProcessorChain(); processor != null;
+             processor = processor.getNextProcessor()) {
+            if (!(processor instanceof FilterProcessor)) {
+                return;
+            }
+        }
+        StreamEventPool streamEventPool = new StreamEventPool(processStreamReceiver.getStreamEventFactory(),
+                siddhiAppContext.getEventPoolSize(), siddhiAppContext.isEventPoolLeakDetection(),
+                siddhiQueryContext.getName());
+        processStreamReceiver.setStreamEventPool(streamEventPool);
+        siddhiAppContext.addEternalReferencedHolder(streamEventPool);
+    }
+
     public static LatencyTracker createLatencyTracker(SiddhiAppContext siddhiAppContext, String name, String type,
                                                       String function) {
         LatencyTracker latencyTracker = null;
@@ -18,31 +18,75 @@
 
 package io.siddhi.core.util.persistence;
 
-import com.google.common.io.Files;
 import io.siddhi.core.exception.CannotClearSiddhiAppStateException;
 import io.siddhi.core.util.persistence.util.PersistenceConstants;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 /**
- * Implementation of Persistence Store that would persist snapshots to the file system
+ * Implementation of Persistence Store that would persist snapshots to the file system.
+ * Each revision is written through a {@link FileChannel} to a temporary file that is moved in place once complete,
+ * with a header holding the snapshot length and a CRC32 checksum per block of the snapshot appended after it, so that
+ * torn writes are detected on load. When fsync is enabled, the directory is forced as well after each move, such that
+ * the move itself is durable. Revisions are read back through memory mapped buffers, and the retained revisions of
+ * each Siddhi app are listed in a manifest to find the last revision without listing the directory.
  */
 public class FileSystemPersistenceStore implements PersistenceStore {
 
     private static final Logger log = Logger.getLogger(FileSystemPersistenceStore.class);
+    private static final String MANIFEST_FILE = "manifest";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String FSYNC = "fsync";
+    private static final int SNAPSHOT_MAGIC = 0x5353504E;
+    // magic number, block size and snapshot length
+    private static final int HEADER_SIZE = 16;
+    private static final int BLOCK_SIZE = 1024 * 1024;
     private int numberOfRevisionsToSave;
     private String folder;
+    private boolean fsync = false;
 
     @Override
     public void save(String siddhiAppName, String revision, byte[] snapshot) {
-        File file = new File(folder + File.separator + siddhiAppName + File.separator + revision);
+        File directory = new File(folder + File.separator + siddhiAppName);
+        File file = new File(directory, revision);
+        File tempFile = new File(directory, revision + TEMP_FILE_SUFFIX);
         try {
-            Files.createParentDirs(file);
-            Files.write(snapshot, file);
-            cleanOldRevisions(siddhiAppName);
+            if (!directory.exists()) {
+                if (!directory.mkdirs()) {
+                    throw new IOException("Cannot create persistence directory " + directory.getPath());
+                }
+                if (fsync) {
+                    forceDirectory(directory.getParentFile());
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                write(channel, snapshot);
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (fsync) {
+                forceDirectory(directory);
+            }
+            addRevision(siddhiAppName, revision);
             if (log.isDebugEnabled()) {
                 log.debug("Periodic persistence of " + siddhiAppName + " persisted successfully.");
             }
@@ -76,6 +120,10 @@ public class FileSystemPersistenceStore implements PersistenceStore {
             } else {
                 folder = String.valueOf(folderObject);
             }
+            Object fsyncObject = configurationMap.get(FSYNC);
+            if (fsyncObject != null) {
+                fsync = Boolean.parseBoolean(String.valueOf(fsyncObject));
+            }
 
         } else {
             folder = PersistenceConstants.DEFAULT_FILE_PERSISTENCE_FOLDER;
@@ -87,35 +135,33 @@ public class FileSystemPersistenceStore implements PersistenceStore {
 
     @Override
     public byte[] load(String siddhiAppName, String revision) {
-        File file = new File(folder + File.separator + siddhiAppName + File.separator + revision);
-        try {
-            byte[] bytes = Files.toByteArray(file);
-            log.info("State loaded for " + siddhiAppName + " revision " + revision + " from the file system.");
-            return bytes;
-        } catch (IOException e) {
-            log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
-                    " from file system.", e);
+        ByteBuffer snapshot = read(siddhiAppName, revision);
+        if (snapshot == null) {
+            return null;
         }
-        return null;
+        byte[] bytes = new byte[snapshot.remaining()];
+        snapshot.get(bytes);
+        return bytes;
     }
 
     @Override
-    public String getLastRevision(String siddhiAppName) {
-        File dir = new File(folder + File.separator + siddhiAppName);
-        File[] files = dir.listFiles();
-
-        if (files == null || files.length == 0) {
+    public InputStream loadAsStream(String siddhiAppName, String revision) {
+        ByteBuffer snapshot = read(siddhiAppName, revision);
+        if (snapshot == null) {
             return null;
         }
+        return new ByteBufferInputStream(snapshot);
+    }
 
-        String lastRevision = null;
-        for (File file : files) {
-            String fileName = file.getName();
-            if (lastRevision == null || fileName.compareTo(lastRevision) > 0) {
-                lastRevision = fileName;
-            }
+    @Override
+    public String getLastRevision(String siddhiAppName) {
+        try {
+            List<String> revisions = readRevisions(siddhiAppName);
+            return revisions.isEmpty() ? null : revisions.get(revisions.size() - 1);
+        } catch (IOException e) {
+            log.error("Cannot read the revisions of SiddhiApp: " + siddhiAppName + " from the file system.", e);
+            return null;
         }
-        return lastRevision;
     }
 
     @Override
@@ -141,35 +187,216 @@ public class FileSystemPersistenceStore implements PersistenceStore {
     }
 
     /**
-     * Method to remove revisions that are older than the user specified amount
+     * Write the snapshot after the header, followed by the checksums of its blocks.
+     */
+    private void write(FileChannel channel, byte[] snapshot) throws IOException {
+        int blocks = (snapshot.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(SNAPSHOT_MAGIC).putInt(BLOCK_SIZE).putLong(snapshot.length).flip();
+        ByteBuffer checksums = ByteBuffer.allocate(4 * blocks);
+        CRC32 crc = new CRC32();
+        for (int offset = 0; offset < snapshot.length; offset += BLOCK_SIZE) {
+            crc.reset();
+            crc.update(snapshot, offset, Math.min(BLOCK_SIZE, snapshot.length - offset));
+            checksums.putInt((int) crc.getValue());
+        }
+        checksums.flip();
+        ByteBuffer[] buffers = new ByteBuffer[]{header, ByteBuffer.wrap(snapshot), checksums};
+        long size = HEADER_SIZE + snapshot.length + 4L * blocks;
+        long written = 0;
+        while (written < size) {
+            written += channel.write(buffers);
+        }
+    }
+
+    /**
+     * Map the revision and verify the checksums of its blocks.
      *
-     * @param siddhiAppName is the name of the Siddhi Application whose old revisions to remove
+     * @return buffer holding the snapshot, or null if the revision cannot be read or is corrupted
      */
+    private ByteBuffer read(String siddhiAppName, String revision) {
+        File file = new File(folder + File.separator + siddhiAppName + File.separator + revision);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                        " as its " + size + " bytes exceed " + Integer.MAX_VALUE + " bytes.");
+                return null;
+            }
+            MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE || mappedBuffer.getInt(0) != SNAPSHOT_MAGIC) {
+                // revision persisted without a header and checksums
+                log.info("State loaded for " + siddhiAppName + " revision " + revision + " from the file system.");
+                return mappedBuffer;
+            }
+            int blockSize = mappedBuffer.getInt(4);
+            long length = mappedBuffer.getLong(8);
+            long blocks = blockSize > 0 ? (length + blockSize - 1) / blockSize : -1;
+            if (blocks < 0 || length < 0 || HEADER_SIZE + length + 4 * blocks != size) {
+                log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                        " as it is incomplete, expected " + (HEADER_SIZE + length + 4 * blocks) +
+                        " bytes but found " + size + " bytes.");
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < blocks; i++) {
+                int position = HEADER_SIZE + i * blockSize;
+                ByteBuffer block = mappedBuffer.duplicate();
+                block.limit((int) Math.min(position + (long) blockSize, HEADER_SIZE + length)).position(position);
+                crc.reset();
+                crc.update(block);
+                if ((int) crc.getValue() != mappedBuffer.getInt((int) (HEADER_SIZE + length + 4 * i))) {
+                    log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                            " as the checksum of block " + i + " does not match.");
+                    return null;
+                }
+            }
+            ByteBuffer snapshot = mappedBuffer.duplicate();
+            snapshot.limit((int) (HEADER_SIZE + length)).position(HEADER_SIZE);
+            log.info("State loaded for " + siddhiAppName + " revision " + revision + " from the file system.");
+            return snapshot.slice();
+        } catch (IOException e) {
+            log.error("Cannot load the revision " + revision + " of SiddhiApp: " + siddhiAppName +
+                    " from file system.", e);
+        }
+        return null;
+    }
 
-    private void cleanOldRevisions(String siddhiAppName) {
+    /**
+     * Add the revision to the manifest and remove revisions that are older than the user specified amount
+     *
+     * @param siddhiAppName is the name of the Siddhi Application whose revision is saved
+     * @param revision      saved revision
+     */
+    private synchronized void addRevision(String siddhiAppName, String revision) throws IOException {
         File targetDirectory = new File(folder + File.separator + siddhiAppName);
-        File[] files = targetDirectory.listFiles();
-        if (files != null) {
-            while (files.length > numberOfRevisionsToSave) {
-                String firstRevision = null;
+        List<String> revisions = readRevisions(siddhiAppName);
+        if (!revisions.contains(revision)) {
+            revisions.add(revision);
+            Collections.sort(revisions);
+        }
+        while (revisions.size() > numberOfRevisionsToSave) {
+            String firstRevision = revisions.remove(0);
+            File fileToDelete = new File(targetDirectory + File.separator + firstRevision);
+            if (fileToDelete.exists()) {
+                Boolean isDeleted = fileToDelete.delete();
+                if (!isDeleted) {
+                    log.error("Error deleting old revision " + firstRevision);
+                }
+            }
+        }
+        File manifest = new File(targetDirectory, MANIFEST_FILE);
+        File tempManifest = new File(targetDirectory, MANIFEST_FILE + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempManifest.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(String.join("\n", revisions).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        Files.move(tempManifest.toPath(), manifest.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        if (fsync) {
+            forceDirectory(targetDirectory);
+        }
+    }
+
+    /**
+     * Force the entries of the directory to the storage device, such that the files created or moved into it
+     * survive a crash.
+     *
+     * @param directory directory to be forced
+     */
+    private void forceDirectory(File directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            // directories cannot be opened on some platforms such as Windows, where the moves are durable already
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot open the persistence directory " + directory.getPath() + " to force it.", e);
+            }
+            return;
+        }
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Read the revisions from the manifest, or from the directory when no manifest is written yet.
+     *
+     * @param siddhiAppName is the name of the Siddhi Application whose revisions are read
+     * @return revisions in ascending order
+     */
+    private List<String> readRevisions(String siddhiAppName) throws IOException {
+        File targetDirectory = new File(folder + File.separator + siddhiAppName);
+        File manifest = new File(targetDirectory, MANIFEST_FILE);
+        List<String> revisions = new ArrayList<>();
+        if (manifest.exists()) {
+            for (String revision : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+                if (!revision.isEmpty()) {
+                    revisions.add(revision);
+                }
+            }
+        } else {
+            File[] files = targetDirectory.listFiles();
+            if (files != null) {
                 for (File file : files) {
                     String fileName = file.getName();
-                    if (firstRevision == null || fileName.compareTo(firstRevision) < 0) {
-                        firstRevision = fileName;
-                    }
-                }
-                File fileToDelete = new File(targetDirectory + File.separator + firstRevision);
-                if (fileToDelete.exists()) {
-                    Boolean isDeleted = fileToDelete.delete();
-                    if (!isDeleted) {
-                        log.error("Error deleting old revision " + firstRevision);
+                    if (!fileName.equals(MANIFEST_FILE) && !fileName.endsWith(TEMP_FILE_SUFFIX)) {
+                        revisions.add(fileName);
                     }
                 }
-                files = targetDirectory.listFiles();
-                if (files == null || files.length < 1) {
-                    break;
-                }
             }
+            Collections.sort(revisions);
+        }
+        return revisions;
+    }
+
+    /**
+     * {@link InputStream} reading a snapshot from a memory mapped buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
         }
     }
 }
@@ -17,6 +17,8 @@
  */
 package io.siddhi.core.util.persistence;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -31,6 +33,19 @@ public interface PersistenceStore {
 
     byte[] load(String siddhiAppId, String revision);
 
+    /**
+     * Load the snapshot as a stream, stores can override this to restore the snapshot without copying it to an
+     * intermediate byte array.
+     *
+     * @param siddhiAppId id of the Siddhi app
+     * @param revision    revision to be loaded
+     * @return snapshot stream, or null if the revision cannot be loaded
+     */
+    default InputStream loadAsStream(String siddhiAppId, String revision) {
+        byte[] snapshot = load(siddhiAppId, revision);
+        return snapshot == null ? null : new ByteArrayInputStream(snapshot);
+    }
+
     String getLastRevision(String siddhiAppId);
 
     void clearAllRevisions(String siddhiAppId);
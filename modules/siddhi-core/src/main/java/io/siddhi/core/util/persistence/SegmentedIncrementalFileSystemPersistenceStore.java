@@ -0,0 +1,717 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.persistence;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.siddhi.core.exception.CannotClearSiddhiAppStateException;
+import io.siddhi.core.util.persistence.util.IncrementalSnapshotInfo;
+import io.siddhi.core.util.persistence.util.PersistenceConstants;
+import io.siddhi.core.util.persistence.util.PersistenceHelper;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of Incremental Persistence Store that appends the snapshots of each Siddhi app to a log of segment
+ * files in the file system, instead of writing a file per snapshot. Each record carries its revision and a checksum,
+ * and segments are sealed with an index of their records when they are rolled over, so that the store is opened
+ * without scanning them and snapshots are read from memory mapped segments. Records superseded by a newer base or
+ * periodic snapshot of the same element are dropped from the index, and segments mostly made of such records are
+ * compacted in the background.
+ */
+public class SegmentedIncrementalFileSystemPersistenceStore implements IncrementalPersistenceStore {
+
+    private static final Logger log = Logger.getLogger(SegmentedIncrementalFileSystemPersistenceStore.class);
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".log";
+    private static final String SEGMENT_SIZE = "segment.size";
+    private static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    // revision length, data length and checksum
+    private static final int RECORD_HEADER_SIZE = 16;
+    // index offset and magic number
+    private static final int SEGMENT_TRAILER_SIZE = 12;
+    private static final int SEGMENT_TRAILER_MAGIC = 0x53534958;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private final Map<String, SegmentLog> segmentLogs = new HashMap<>();
+    private final ExecutorService compactionExecutorService = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Siddhi-persistence-compaction-%d").setDaemon(true).build());
+    private String folder;
+    private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    public SegmentedIncrementalFileSystemPersistenceStore() {
+    }
+
+    public SegmentedIncrementalFileSystemPersistenceStore(String storageFilePath) {
+        folder = storageFilePath;
+    }
+
+    public SegmentedIncrementalFileSystemPersistenceStore(String storageFilePath, long segmentSize) {
+        folder = storageFilePath;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public void save(IncrementalSnapshotInfo snapshotInfo, byte[] snapshot) {
+        try {
+            getSegmentLog(snapshotInfo.getSiddhiAppId()).append(snapshotInfo, snapshot);
+            if (log.isDebugEnabled()) {
+                log.debug("Incremental persistence of '" + snapshotInfo.getSiddhiAppId() +
+                        "' with revision '" + snapshotInfo.getRevision() + "' persisted successfully.");
+            }
+        } catch (IOException e) {
+            log.error("Cannot save the revision '" + snapshotInfo.getRevision() + "' of SiddhiApp: '" +
+                    snapshotInfo.getSiddhiAppId() + "' to the file system.", e);
+        }
+    }
+
+    @Override
+    public void setProperties(Map properties) {
+        Map configurationMap = (Map) properties.get(PersistenceConstants.STATE_PERSISTENCE_CONFIGS);
+        folder = PersistenceConstants.DEFAULT_FILE_PERSISTENCE_FOLDER;
+        if (configurationMap != null) {
+            Object folderObject = configurationMap.get("location");
+            if (folderObject instanceof String) {
+                folder = String.valueOf(folderObject);
+            } else if (log.isDebugEnabled()) {
+                log.debug("File system persistence location not set. Default persistence location will be used.");
+            }
+            Object segmentSizeObject = configurationMap.get(SEGMENT_SIZE);
+            if (segmentSizeObject != null) {
+                try {
+                    segmentSize = Long.parseLong(String.valueOf(segmentSizeObject));
+                } catch (NumberFormatException e) {
+                    log.error("Invalid segment size '" + segmentSizeObject + "', default segment size " +
+                            DEFAULT_SEGMENT_SIZE + " will be used.", e);
+                }
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("File system persistence config not set. Default persistence location will be used.");
+        }
+    }
+
+    @Override
+    public byte[] load(IncrementalSnapshotInfo snapshotInfo) {
+        try {
+            byte[] bytes = getSegmentLog(snapshotInfo.getSiddhiAppId()).read(snapshotInfo.getRevision());
+            if (bytes == null) {
+                log.error("Cannot find the revision '" + snapshotInfo.getRevision() + "' of SiddhiApp '" +
+                        snapshotInfo.getSiddhiAppId() + "' in the segments.");
+            } else if (log.isDebugEnabled()) {
+                log.debug("State loaded for SiddhiApp '" + snapshotInfo.getSiddhiAppId() + "' revision '" +
+                        snapshotInfo.getRevision() + "' from file system.");
+            }
+            return bytes;
+        } catch (IOException e) {
+            log.error("Cannot load the revision '" + snapshotInfo.getRevision() + "' of SiddhiApp '" +
+                    snapshotInfo.getSiddhiAppId() + "' from file system.", e);
+        }
+        return null;
+    }
+
+    @Override
+    public List<IncrementalSnapshotInfo> getListOfRevisionsToLoad(long restoreTime, String siddhiAppName) {
+        List<IncrementalSnapshotInfo> results = new ArrayList<>();
+        for (IncrementalSnapshotInfo snapshotInfo : getSnapshotInfos(siddhiAppName)) {
+            if (snapshotInfo.getTime() <= restoreTime) {
+                if (log.isDebugEnabled()) {
+                    log.debug("List of revisions to load : " + snapshotInfo.getRevision());
+                }
+                results.add(snapshotInfo);
+            }
+        }
+        return results.isEmpty() ? null : results;
+    }
+
+    @Override
+    public String getLastRevision(String siddhiAppName) {
+        IncrementalSnapshotInfo lastSnapshotInfo = null;
+        for (IncrementalSnapshotInfo snapshotInfo : getSnapshotInfos(siddhiAppName)) {
+            if (lastSnapshotInfo == null || snapshotInfo.getTime() > lastSnapshotInfo.getTime()) {
+                lastSnapshotInfo = snapshotInfo;
+            }
+        }
+        if (lastSnapshotInfo != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Latest revision to load: " + lastSnapshotInfo.getTime() +
+                        PersistenceConstants.REVISION_SEPARATOR + siddhiAppName);
+            }
+            return lastSnapshotInfo.getRevision();
+        }
+        return null;
+    }
+
+    @Override
+    public void clearAllRevisions(String siddhiAppName) {
+        try {
+            if (!getSegmentLog(siddhiAppName).clear()) {
+                log.info("No revisions were found to delete for the Siddhi App " + siddhiAppName);
+            }
+        } catch (IOException e) {
+            throw new CannotClearSiddhiAppStateException("Persistence state segments of Siddhi App " +
+                    siddhiAppName + " are not deleted", e);
+        }
+    }
+
+    private List<IncrementalSnapshotInfo> getSnapshotInfos(String siddhiAppName) {
+        try {
+            return getSegmentLog(siddhiAppName).getSnapshotInfos();
+        } catch (IOException e) {
+            log.error("Cannot read the persistence state segments of SiddhiApp '" + siddhiAppName +
+                    "' from file system.", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private synchronized SegmentLog getSegmentLog(String siddhiAppName) throws IOException {
+        SegmentLog segmentLog = segmentLogs.get(siddhiAppName);
+        if (segmentLog == null) {
+            segmentLog = new SegmentLog(new File(folder + File.separator + siddhiAppName));
+            segmentLog.open();
+            segmentLogs.put(siddhiAppName, segmentLog);
+        }
+        return segmentLog;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment at position " + position);
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Log of segments holding the snapshots of a Siddhi app.
+     */
+    private class SegmentLog {
+        private final File directory;
+        private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+        private final Map<String, Record> records = new HashMap<>();
+        private final Map<String, List<Record>> recordsById = new HashMap<>();
+        private final Object syncLock = new Object();
+        private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+        private Segment activeSegment;
+        private int nextSegmentId;
+        private boolean compactionNeeded;
+        private long appendedCount;
+        private long syncedCount;
+
+        private SegmentLog(File directory) {
+            this.directory = directory;
+        }
+
+        private synchronized void open() throws IOException {
+            File[] files = directory.listFiles((dir, name) ->
+                    name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX));
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                String name = file.getName();
+                int id = Integer.parseInt(name.substring(SEGMENT_FILE_PREFIX.length(),
+                        name.length() - SEGMENT_FILE_SUFFIX.length()));
+                segments.put(id, new Segment(id, file));
+            }
+            nextSegmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+            List<Segment> unsealedSegments = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                segment.channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                long size = segment.channel.size();
+                List<Record> segmentRecords = readIndex(segment, size);
+                if (segmentRecords != null) {
+                    segment.size = size;
+                } else {
+                    // the segment was being written when the app stopped, drop its incomplete tail
+                    segmentRecords = scan(segment, size);
+                    if (segment.size < size) {
+                        log.warn("Dropping " + (size - segment.size) + " bytes of incomplete records at the end " +
+                                "of persistence segment " + segment.file.getPath());
+                        segment.channel.truncate(segment.size);
+                    }
+                    unsealedSegments.add(segment);
+                }
+                for (Record record : segmentRecords) {
+                    addRecord(record);
+                }
+            }
+            for (Segment segment : segments.values()) {
+                if (unsealedSegments.contains(segment)) {
+                    seal(segment);
+                } else {
+                    map(segment);
+                }
+            }
+        }
+
+        private void append(IncrementalSnapshotInfo snapshotInfo, byte[] snapshot) throws IOException {
+            long sequence;
+            boolean compact;
+            synchronized (this) {
+                byte[] revision = snapshotInfo.getRevision().getBytes(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(revision);
+                crc.update(snapshot);
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + revision.length + snapshot.length);
+                buffer.putInt(revision.length).putInt(snapshot.length).putLong(crc.getValue())
+                        .put(revision).put(snapshot).flip();
+                Record record = write(buffer);
+                record.snapshotInfo = snapshotInfo;
+                record.dataLength = snapshot.length;
+                record.revisionLength = revision.length;
+                addRecord(record);
+                sequence = ++appendedCount;
+                compact = compactionNeeded;
+            }
+            sync(sequence);
+            if (compact) {
+                scheduleCompaction();
+            }
+        }
+
+        /**
+         * Force the appended records to the disk. Saves arriving while a sync is in progress are covered by a
+         * single sync of the next save reaching here, instead of syncing each of them. The segment is forced outside
+         * the lock of the log, so that appends and reads are not blocked by the disk.
+         */
+        private void sync(long sequence) throws IOException {
+            synchronized (syncLock) {
+                if (syncedCount >= sequence) {
+                    return;
+                }
+                long syncedUpTo;
+                FileChannel channel;
+                synchronized (this) {
+                    syncedUpTo = appendedCount;
+                    channel = activeSegment != null ? activeSegment.channel : null;
+                }
+                if (channel != null) {
+                    try {
+                        channel.force(false);
+                    } catch (ClosedChannelException e) {
+                        // the segment has been sealed, which forces it, or deleted since
+                    }
+                }
+                syncedCount = syncedUpTo;
+            }
+        }
+
+        private synchronized byte[] read(String revision) throws IOException {
+            Record record = records.get(revision);
+            if (record == null) {
+                return null;
+            }
+            byte[] bytes = new byte[record.dataLength];
+            readRecord(record, ByteBuffer.wrap(bytes), record.position + RECORD_HEADER_SIZE + record.revisionLength);
+            return bytes;
+        }
+
+        private synchronized List<IncrementalSnapshotInfo> getSnapshotInfos() {
+            List<IncrementalSnapshotInfo> snapshotInfos = new ArrayList<>(records.size());
+            for (Record record : records.values()) {
+                snapshotInfos.add(record.snapshotInfo);
+            }
+            return snapshotInfos;
+        }
+
+        private synchronized boolean clear() throws IOException {
+            boolean found = !segments.isEmpty();
+            for (Segment segment : segments.values()) {
+                delete(segment);
+            }
+            segments.clear();
+            records.clear();
+            recordsById.clear();
+            activeSegment = null;
+            return found;
+        }
+
+        private Record write(ByteBuffer buffer) throws IOException {
+            if (activeSegment == null || activeSegment.size >= segmentSize) {
+                rollSegment();
+            }
+            Record record = new Record();
+            record.segment = activeSegment;
+            record.position = activeSegment.size;
+            writeFully(activeSegment.channel, buffer, activeSegment.size);
+            activeSegment.size += buffer.limit();
+            return record;
+        }
+
+        private void readRecord(Record record, ByteBuffer buffer, long position) throws IOException {
+            if (record.segment.mappedBuffer != null) {
+                ByteBuffer mappedBuffer = record.segment.mappedBuffer.duplicate();
+                mappedBuffer.position((int) position);
+                mappedBuffer.limit((int) position + buffer.remaining());
+                buffer.put(mappedBuffer);
+            } else {
+                readFully(record.segment.channel, buffer, position);
+            }
+        }
+
+        /**
+         * Index the record, dropping the records it supersedes, or the record itself when a newer snapshot of the
+         * element is already indexed.
+         */
+        private void addRecord(Record record) {
+            IncrementalSnapshotInfo snapshotInfo = record.snapshotInfo;
+            List<Record> elementRecords = recordsById.computeIfAbsent(snapshotInfo.getId(), k -> new ArrayList<>());
+            for (Record elementRecord : elementRecords) {
+                if (supersedes(elementRecord.snapshotInfo, snapshotInfo)) {
+                    return;
+                }
+            }
+            for (Iterator<Record> iterator = elementRecords.iterator(); iterator.hasNext(); ) {
+                Record elementRecord = iterator.next();
+                if (supersedes(snapshotInfo, elementRecord.snapshotInfo) ||
+                        snapshotInfo.getRevision().equals(elementRecord.snapshotInfo.getRevision())) {
+                    iterator.remove();
+                    records.remove(elementRecord.snapshotInfo.getRevision());
+                    elementRecord.segment.records.remove(elementRecord);
+                    elementRecord.segment.liveBytes -= elementRecord.size();
+                    if (elementRecord.segment != activeSegment && isCompactable(elementRecord.segment)) {
+                        compactionNeeded = true;
+                    }
+                }
+            }
+            elementRecords.add(record);
+            records.put(snapshotInfo.getRevision(), record);
+            record.segment.records.add(record);
+            record.segment.liveBytes += record.size();
+        }
+
+        private boolean isCompactable(Segment segment) {
+            return segment.liveBytes <= segment.size * COMPACTION_THRESHOLD;
+        }
+
+        private boolean supersedes(IncrementalSnapshotInfo newer, IncrementalSnapshotInfo older) {
+            if (newer.getTime() <= older.getTime()) {
+                return false;
+            }
+            if (newer.getType() == IncrementalSnapshotInfo.SnapshotType.BASE) {
+                return older.getType() != IncrementalSnapshotInfo.SnapshotType.PERIODIC;
+            }
+            return newer.getType() == IncrementalSnapshotInfo.SnapshotType.PERIODIC &&
+                    older.getType() == IncrementalSnapshotInfo.SnapshotType.PERIODIC;
+        }
+
+        private void rollSegment() throws IOException {
+            if (activeSegment != null) {
+                seal(activeSegment);
+            }
+            Segment segment = createSegment(nextSegmentId++);
+            segments.put(segment.id, segment);
+            activeSegment = segment;
+        }
+
+        private Segment createSegment(int id) throws IOException {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create persistence directory " + directory.getPath());
+            }
+            Segment segment = new Segment(id, new File(directory,
+                    SEGMENT_FILE_PREFIX + String.format("%010d", id) + SEGMENT_FILE_SUFFIX));
+            segment.channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return segment;
+        }
+
+        /**
+         * Append the index of the live records of the segment followed by the trailer pointing to it, and map the
+         * segment for reading as no more records are written to it.
+         */
+        private void seal(Segment segment) throws IOException {
+            writeIndex(segment);
+            if (segment == activeSegment) {
+                activeSegment = null;
+            }
+            map(segment);
+        }
+
+        private void writeIndex(Segment segment) throws IOException {
+            List<byte[]> revisions = new ArrayList<>(segment.records.size());
+            int indexSize = 4;
+            for (Record record : segment.records) {
+                byte[] revision = record.snapshotInfo.getRevision().getBytes(StandardCharsets.UTF_8);
+                revisions.add(revision);
+                indexSize += 4 + revision.length + 12;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(indexSize + SEGMENT_TRAILER_SIZE);
+            buffer.putInt(segment.records.size());
+            Iterator<byte[]> revisionIterator = revisions.iterator();
+            for (Record record : segment.records) {
+                byte[] revision = revisionIterator.next();
+                buffer.putInt(revision.length).put(revision).putLong(record.position).putInt(record.dataLength);
+            }
+            buffer.putLong(segment.size).putInt(SEGMENT_TRAILER_MAGIC).flip();
+            writeFully(segment.channel, buffer, segment.size);
+            segment.size += buffer.limit();
+            segment.channel.force(false);
+        }
+
+        private void map(Segment segment) throws IOException {
+            if (segment.size <= Integer.MAX_VALUE) {
+                segment.mappedBuffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+                segment.channel.close();
+                segment.channel = null;
+            }
+        }
+
+        private List<Record> readIndex(Segment segment, long size) throws IOException {
+            if (size < SEGMENT_TRAILER_SIZE) {
+                return null;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(SEGMENT_TRAILER_SIZE);
+            readFully(segment.channel, trailer, size - SEGMENT_TRAILER_SIZE);
+            trailer.flip();
+            long indexPosition = trailer.getLong();
+            if (trailer.getInt() != SEGMENT_TRAILER_MAGIC || indexPosition < 0 ||
+                    indexPosition > size - SEGMENT_TRAILER_SIZE) {
+                return null;
+            }
+            ByteBuffer index = ByteBuffer.allocate((int) (size - SEGMENT_TRAILER_SIZE - indexPosition));
+            readFully(segment.channel, index, indexPosition);
+            index.flip();
+            try {
+                int count = index.getInt();
+                List<Record> segmentRecords = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    byte[] revision = new byte[index.getInt()];
+                    index.get(revision);
+                    Record record = new Record();
+                    record.segment = segment;
+                    record.snapshotInfo = PersistenceHelper.convertRevision(
+                            new String(revision, StandardCharsets.UTF_8));
+                    record.revisionLength = revision.length;
+                    record.position = index.getLong();
+                    record.dataLength = index.getInt();
+                    segmentRecords.add(record);
+                }
+                return segmentRecords;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private List<Record> scan(Segment segment, long size) throws IOException {
+            List<Record> segmentRecords = new ArrayList<>();
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            long position = 0;
+            while (position + RECORD_HEADER_SIZE <= size) {
+                header.clear();
+                readFully(segment.channel, header, position);
+                header.flip();
+                int revisionLength = header.getInt();
+                int dataLength = header.getInt();
+                long checksum = header.getLong();
+                if (revisionLength <= 0 || dataLength < 0 ||
+                        position + RECORD_HEADER_SIZE + revisionLength + dataLength > size) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(revisionLength + dataLength);
+                readFully(segment.channel, body, position + RECORD_HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                crc.update(body.array());
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+                Record record = new Record();
+                record.segment = segment;
+                try {
+                    record.snapshotInfo = PersistenceHelper.convertRevision(
+                            new String(body.array(), 0, revisionLength, StandardCharsets.UTF_8));
+                } catch (RuntimeException e) {
+                    break;
+                }
+                record.revisionLength = revisionLength;
+                record.dataLength = dataLength;
+                record.position = position;
+                segmentRecords.add(record);
+                position += RECORD_HEADER_SIZE + revisionLength + dataLength;
+            }
+            segment.size = position;
+            return segmentRecords;
+        }
+
+        private void scheduleCompaction() {
+            if (compactionScheduled.compareAndSet(false, true)) {
+                compactionExecutorService.execute(() -> {
+                    compactionScheduled.set(false);
+                    try {
+                        compact();
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Error while compacting the persistence segments at " + directory.getPath(), e);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Copy the live records of the sealed segments that are mostly made of superseded records into a new sealed
+         * segment, and delete those segments. The new segment is written outside the lock of the log, as sealed
+         * segments are not modified, and it is swapped in under the lock, keeping only the records that were not
+         * superseded in the meantime.
+         */
+        private void compact() throws IOException {
+            List<Segment> compactableSegments = new ArrayList<>();
+            List<Record> compactedRecords = new ArrayList<>();
+            List<Record> copiedRecords = new ArrayList<>();
+            int compactedSegmentId;
+            synchronized (this) {
+                compactionNeeded = false;
+                for (Segment segment : segments.values()) {
+                    if (segment != activeSegment && isCompactable(segment)) {
+                        compactableSegments.add(segment);
+                        compactedRecords.addAll(segment.records);
+                    }
+                }
+                if (compactableSegments.isEmpty()) {
+                    return;
+                }
+                compactedSegmentId = nextSegmentId++;
+                for (Record record : compactedRecords) {
+                    Record copiedRecord = new Record();
+                    copiedRecord.snapshotInfo = record.snapshotInfo;
+                    copiedRecord.segment = record.segment;
+                    copiedRecord.position = record.position;
+                    copiedRecord.revisionLength = record.revisionLength;
+                    copiedRecord.dataLength = record.dataLength;
+                    copiedRecords.add(copiedRecord);
+                }
+            }
+            Segment segment = createSegment(compactedSegmentId);
+            try {
+                for (Record copiedRecord : copiedRecords) {
+                    ByteBuffer buffer = ByteBuffer.allocate(copiedRecord.size());
+                    readRecord(copiedRecord, buffer, copiedRecord.position);
+                    buffer.flip();
+                    copiedRecord.segment = segment;
+                    copiedRecord.position = segment.size;
+                    writeFully(segment.channel, buffer, segment.size);
+                    segment.size += buffer.limit();
+                    segment.records.add(copiedRecord);
+                }
+                writeIndex(segment);
+                map(segment);
+            } catch (IOException | RuntimeException e) {
+                // the compacted segments may have been deleted by clearing the log
+                delete(segment);
+                throw e;
+            }
+            synchronized (this) {
+                segment.records.clear();
+                Iterator<Record> copiedRecordIterator = copiedRecords.iterator();
+                for (Record record : compactedRecords) {
+                    Record copiedRecord = copiedRecordIterator.next();
+                    if (record.segment.records.remove(record)) {
+                        record.segment.liveBytes -= record.size();
+                        record.segment = segment;
+                        record.position = copiedRecord.position;
+                        segment.records.add(record);
+                        segment.liveBytes += record.size();
+                    }
+                }
+                if (segment.records.isEmpty()) {
+                    delete(segment);
+                } else {
+                    segments.put(segment.id, segment);
+                }
+                for (Segment compactableSegment : compactableSegments) {
+                    if (segments.remove(compactableSegment.id, compactableSegment)) {
+                        delete(compactableSegment);
+                        if (log.isDebugEnabled()) {
+                            log.debug("Compacted persistence segment " + compactableSegment.file.getPath());
+                        }
+                    }
+                }
+            }
+        }
+
+        private void delete(Segment segment) throws IOException {
+            if (segment.channel != null) {
+                segment.channel.close();
+                segment.channel = null;
+            }
+            segment.mappedBuffer = null;
+            if (segment.file.exists() && !segment.file.delete()) {
+                throw new IOException("Cannot delete persistence segment " + segment.file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Segment file of a {@link SegmentLog}.
+     */
+    private static class Segment {
+        private final int id;
+        private final File file;
+        private final Set<Record> records = new LinkedHashSet<>();
+        private FileChannel channel;
+        private MappedByteBuffer mappedBuffer;
+        private long size;
+        private long liveBytes;
+
+        private Segment(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Location of a snapshot in the segments.
+     */
+    private static class Record {
+        private IncrementalSnapshotInfo snapshotInfo;
+        private Segment segment;
+        private long position;
+        private int revisionLength;
+        private int dataLength;
+
+        private int size() {
+            return RECORD_HEADER_SIZE + revisionLength + dataLength;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.sketch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch estimating the frequencies of the values offered to it, using a fixed memory of width * depth
+ * counters. An estimate never falls below the true frequency, and with a width of e / error it exceeds the true
+ * frequency by more than error * (total count) with a probability of at most e^-depth. Counters are updated
+ * conservatively, only raising the counters of a value up to its new estimate, which reduces the overestimation.
+ */
+public class CountMinSketch implements Serializable {
+
+    public static final int DEFAULT_DEPTH = 5;
+
+    private static final long serialVersionUID = -6034961437255813092L;
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+
+    /**
+     * @param width number of counters per row
+     * @param depth number of rows, each indexed by an independent hash
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth of Count-Min sketch should be positive, but found " +
+                    width + " and " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * @param error relative error of the estimates with respect to the total count, in the range of (0, 1)
+     * @param depth number of rows, each indexed by an independent hash
+     * @return sketch wide enough for the given error
+     */
+    public static CountMinSketch forError(double error, int depth) {
+        if (error <= 0 || error >= 1) {
+            throw new IllegalArgumentException("Error of Count-Min sketch should be in the range of (0, 1), but " +
+                    "found " + error);
+        }
+        return new CountMinSketch((int) Math.ceil(Math.E / error), depth);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Offer a value to the sketch.
+     *
+     * @param hash 64 bit hash of the value as given by {@link HyperLogLog#hash(Object)}
+     * @return estimated frequency of the value after offering it
+     */
+    public long add(long hash) {
+        return add(hash, 1);
+    }
+
+    /**
+     * Offer a value to the sketch a number of times.
+     *
+     * @param hash  64 bit hash of the value as given by {@link HyperLogLog#hash(Object)}
+     * @param count number of times the value is offered
+     * @return estimated frequency of the value after offering it
+     */
+    public long add(long hash, long count) {
+        long estimate = estimate(hash) + count;
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, hash1, hash2);
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * @param hash 64 bit hash of a value as given by {@link HyperLogLog#hash(Object)}
+     * @return estimated frequency of the value, which is never less than its true frequency
+     */
+    public long estimate(long hash) {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long counter = counters[index(row, hash1, hash2)];
+            if (counter < estimate) {
+                estimate = counter;
+            }
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    /**
+     * @return bytes retained by the counters of the sketch
+     */
+    public long getCountersSize() {
+        return 8L * counters.length;
+    }
+
+    private int index(int row, int hash1, int hash2) {
+        // Rows are indexed by combining two hashes, as by Kirsch and Mitzenmacher
+        int combinedHash = hash1 + row * hash2;
+        return row * width + (combinedHash & Integer.MAX_VALUE) % width;
+    }
+
+    @Override
+    public String toString() {
+        return "CountMinSketch{width=" + width + ", depth=" + depth + "}";
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.sketch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * DDSketch estimating the quantiles of the values offered to it with a relative accuracy guarantee, as described by
+ * Masson et al. ("DDSketch: A fast and fully-mergeable quantile sketch with relative-error guarantees", 2019).
+ * Values are counted in logarithmically sized bins, such that any quantile is estimated within the relative
+ * accuracy of the true value. The bins of positive and negative values are each limited to a maximum number, beyond
+ * which the bins of the values closest to zero are collapsed, keeping the accuracy of the higher quantiles.
+ * <p>
+ * As the bins only hold counts, values can be removed again as done for sliding windows, and sketches of the same
+ * relative accuracy can be merged, giving the sketch of the union of their values.
+ */
+public class DDSketch implements Serializable {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    public static final int DEFAULT_MAX_BIN_COUNT = 2048;
+
+    private static final long serialVersionUID = -4672083515378431096L;
+    private static final int INITIAL_BIN_COUNT = 64;
+
+    private final double relativeAccuracy;
+    private final int maxBinCount;
+    private final double gamma;
+    private final double logGamma;
+    private final Store positiveStore;
+    private final Store negativeStore;
+    private long zeroCount;
+
+    public DDSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BIN_COUNT);
+    }
+
+    /**
+     * @param relativeAccuracy relative accuracy of the estimated quantiles, in the range of (0, 1)
+     * @param maxBinCount      maximum number of bins for the positive and for the negative values
+     */
+    public DDSketch(double relativeAccuracy, int maxBinCount) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy of DDSketch should be in the range of (0, 1), " +
+                    "but found " + relativeAccuracy);
+        }
+        if (maxBinCount < 1) {
+            throw new IllegalArgumentException("Maximum bin count of DDSketch should be positive, but found " +
+                    maxBinCount);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBinCount = maxBinCount;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positiveStore = new Store();
+        this.negativeStore = new Store();
+    }
+
+    private DDSketch(DDSketch ddSketch) {
+        this.relativeAccuracy = ddSketch.relativeAccuracy;
+        this.maxBinCount = ddSketch.maxBinCount;
+        this.gamma = ddSketch.gamma;
+        this.logGamma = ddSketch.logGamma;
+        this.positiveStore = ddSketch.positiveStore.copy();
+        this.negativeStore = ddSketch.negativeStore.copy();
+        this.zeroCount = ddSketch.zeroCount;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Offer a value to the sketch.
+     *
+     * @param value value, where NaN values are ignored
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value >= Double.MIN_NORMAL) {
+            positiveStore.add(index(value), 1, maxBinCount);
+        } else if (value <= -Double.MIN_NORMAL) {
+            negativeStore.add(index(-value), 1, maxBinCount);
+        } else {
+            zeroCount++;
+        }
+    }
+
+    /**
+     * Remove a value previously offered to the sketch.
+     *
+     * @param value value, where NaN values are ignored
+     */
+    public void remove(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value >= Double.MIN_NORMAL) {
+            positiveStore.remove(index(value), value);
+        } else if (value <= -Double.MIN_NORMAL) {
+            negativeStore.remove(index(-value), value);
+        } else {
+            if (zeroCount == 0) {
+                throw new IllegalStateException("Value '" + value + "' removed from DDSketch was not offered to it");
+            }
+            zeroCount--;
+        }
+    }
+
+    /**
+     * Merge another sketch into this sketch.
+     *
+     * @param ddSketch sketch of the same relative accuracy
+     */
+    public void merge(DDSketch ddSketch) {
+        if (ddSketch.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("DDSketches of relative accuracy " + relativeAccuracy + " and " +
+                    ddSketch.relativeAccuracy + " cannot be merged");
+        }
+        positiveStore.merge(ddSketch.positiveStore, maxBinCount);
+        negativeStore.merge(ddSketch.negativeStore, maxBinCount);
+        zeroCount += ddSketch.zeroCount;
+    }
+
+    /**
+     * @return number of values in the sketch
+     */
+    public long getCount() {
+        return negativeStore.total + zeroCount + positiveStore.total;
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    /**
+     * Estimate a quantile of the values in the sketch.
+     *
+     * @param quantile quantile in the range of [0, 1], such as 0.99 for the 99th percentile
+     * @return estimated value of the quantile, or NaN if the sketch is empty
+     */
+    public double getValueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile should be in the range of [0, 1], but found " + quantile);
+        }
+        long count = getCount();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double rank = quantile * (count - 1);
+        long cumulativeCount = 0;
+        long[] negativeCounts = negativeStore.counts;
+        for (int i = negativeCounts.length - 1; i >= 0; i--) {
+            cumulativeCount += negativeCounts[i];
+            if (cumulativeCount > rank) {
+                return -value(negativeStore.offset + i);
+            }
+        }
+        cumulativeCount += zeroCount;
+        if (cumulativeCount > rank) {
+            return 0;
+        }
+        long[] positiveCounts = positiveStore.counts;
+        int highestIndex = 0;
+        for (int i = 0; i < positiveCounts.length; i++) {
+            if (positiveCounts[i] > 0) {
+                cumulativeCount += positiveCounts[i];
+                highestIndex = positiveStore.offset + i;
+                if (cumulativeCount > rank) {
+                    return value(highestIndex);
+                }
+            }
+        }
+        return value(highestIndex);
+    }
+
+    public void clear() {
+        positiveStore.clear();
+        negativeStore.clear();
+        zeroCount = 0;
+    }
+
+    /**
+     * @return a copy of the sketch
+     */
+    public DDSketch copy() {
+        return new DDSketch(this);
+    }
+
+    /**
+     * @return bytes retained by the bins of the sketch
+     */
+    public long getBinsSize() {
+        return 8L * (positiveStore.counts.length + negativeStore.counts.length);
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * @return the value of the bin, which is within the relative accuracy of all the values counted in the bin
+     */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "DDSketch{relativeAccuracy=" + relativeAccuracy + ", count=" + getCount() + "}";
+    }
+
+    /**
+     * Contiguous bins of a range of indexes. Once the range exceeds the maximum bin count, the bins of the lowest
+     * indexes are collapsed into the lowest retained bin.
+     */
+    private static class Store implements Serializable {
+
+        private static final long serialVersionUID = 2903586231468135947L;
+
+        private long[] counts = new long[0];
+        private int offset;
+        private boolean collapsed;
+        private long total;
+
+        private void add(int index, long count, int maxBinCount) {
+            if (collapsed && index < offset) {
+                index = offset;
+            } else if (index < offset || index >= offset + counts.length) {
+                extendRange(index, maxBinCount);
+                if (index < offset) {
+                    index = offset;
+                }
+            }
+            counts[index - offset] += count;
+            total += count;
+        }
+
+        private void remove(int index, double value) {
+            if (collapsed && index < offset) {
+                index = offset;
+            }
+            int position = index - offset;
+            if (position < 0 || position >= counts.length || counts[position] == 0) {
+                throw new IllegalStateException("Value '" + value + "' removed from DDSketch was not offered to it");
+            }
+            counts[position]--;
+            total--;
+        }
+
+        private void merge(Store store, int maxBinCount) {
+            for (int i = 0; i < store.counts.length; i++) {
+                if (store.counts[i] > 0) {
+                    add(store.offset + i, store.counts[i], maxBinCount);
+                }
+            }
+        }
+
+        private void extendRange(int index, int maxBinCount) {
+            int lowestIndex = index;
+            int highestIndex = index;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    lowestIndex = Math.min(lowestIndex, offset + i);
+                    highestIndex = Math.max(highestIndex, offset + i);
+                    break;
+                }
+            }
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    highestIndex = Math.max(highestIndex, offset + i);
+                    break;
+                }
+            }
+            long span = (long) highestIndex - lowestIndex + 1;
+            int newOffset;
+            long[] newCounts;
+            if (span <= maxBinCount) {
+                // leave room to grow towards the new index, to avoid extending the range on every new index
+                int length = (int) Math.min(maxBinCount, Math.max(span, Math.max(INITIAL_BIN_COUNT,
+                        2L * counts.length)));
+                newOffset = index <= lowestIndex ? highestIndex + 1 - length : lowestIndex;
+                newCounts = new long[length];
+            } else {
+                newOffset = highestIndex + 1 - maxBinCount;
+                newCounts = new long[maxBinCount];
+                collapsed = true;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    newCounts[Math.max(offset + i, newOffset) - newOffset] += counts[i];
+                }
+            }
+            counts = newCounts;
+            offset = newOffset;
+        }
+
+        private void clear() {
+            counts = new long[0];
+            offset = 0;
+            collapsed = false;
+            total = 0;
+        }
+
+        private Store copy() {
+            Store store = new Store();
+            store.counts = Arrays.copyOf(counts, counts.length);
+            store.offset = offset;
+            store.collapsed = collapsed;
+            store.total = total;
+            return store;
+        }
+    }
+}
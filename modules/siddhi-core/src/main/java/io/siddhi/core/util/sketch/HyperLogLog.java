@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.sketch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values offered to it, using a fixed memory of 2^precision
+ * registers. The relative standard error of the estimate is about 1.04 / sqrt(2^precision), hence 1.6% for the
+ * default precision of 12 which uses 4 KB. Sketches of the same precision can be merged, giving the sketch of the
+ * union of their values.
+ * <p>
+ * A removable sketch additionally counts the values offered per register and rank, such that values can be
+ * removed again as done for sliding windows. Each register then holds an int array with a counter per rank up to
+ * the highest rank offered to it, which grows with log2 of the values per register and is bounded by
+ * (65 - precision) counters. Hence a removable sketch takes about 60 to 100 bytes per register instead of one.
+ */
+public class HyperLogLog implements Serializable {
+
+    public static final int DEFAULT_PRECISION = 12;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final long serialVersionUID = 3528651427104375893L;
+
+    private final int precision;
+    private final byte[] registers;
+    private int[][] rankCounts;
+
+    public HyperLogLog(int precision) {
+        this(precision, false);
+    }
+
+    /**
+     * @param precision number of bits addressing the registers, in the range of [4, 18]
+     * @param removable whether values can be removed from the sketch
+     */
+    public HyperLogLog(int precision, boolean removable) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision of HyperLogLog should be in the range of [" +
+                    MIN_PRECISION + ", " + MAX_PRECISION + "], but found " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        if (removable) {
+            this.rankCounts = new int[1 << precision][];
+        }
+    }
+
+    private HyperLogLog(HyperLogLog hyperLogLog) {
+        this.precision = hyperLogLog.precision;
+        this.registers = hyperLogLog.registers.clone();
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Offer a value to the sketch.
+     *
+     * @param value value, where null values are ignored
+     * @return whether the estimate of the sketch may have changed
+     */
+    public boolean offer(Object value) {
+        if (value == null) {
+            return false;
+        }
+        return offerHash(hash(value));
+    }
+
+    /**
+     * Offer the hash of a value to the sketch.
+     *
+     * @param hash 64 bit hash of the value as given by {@link #hash(Object)}
+     * @return whether the estimate of the sketch may have changed
+     */
+    public boolean offerHash(long hash) {
+        int register = register(hash);
+        int rank = rank(hash);
+        if (rankCounts != null) {
+            int[] counts = rankCounts[register];
+            if (counts == null || counts.length < rank) {
+                counts = counts == null ? new int[rank] : Arrays.copyOf(counts, rank);
+                rankCounts[register] = counts;
+            }
+            counts[rank - 1]++;
+        }
+        if (registers[register] < rank) {
+            registers[register] = (byte) rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param hash 64 bit hash of a value as given by {@link #hash(Object)}
+     * @return whether offering the hash would change the sketch
+     */
+    public boolean isChangedBy(long hash) {
+        return registers[register(hash)] < rank(hash);
+    }
+
+    /**
+     * Remove a value previously offered to a removable sketch.
+     *
+     * @param value value, where null values are ignored
+     * @return whether the estimate of the sketch may have changed
+     */
+    public boolean remove(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (rankCounts == null) {
+            throw new UnsupportedOperationException("Values cannot be removed from a HyperLogLog sketch that is " +
+                    "not removable");
+        }
+        long hash = hash(value);
+        int register = register(hash);
+        int rank = rank(hash);
+        int[] counts = rankCounts[register];
+        if (counts == null || counts.length < rank || counts[rank - 1] == 0) {
+            throw new IllegalStateException("Value '" + value + "' removed from HyperLogLog sketch was not offered " +
+                    "to it");
+        }
+        if (--counts[rank - 1] == 0 && registers[register] == rank) {
+            int maxRank = rank - 1;
+            while (maxRank > 0 && counts[maxRank - 1] == 0) {
+                maxRank--;
+            }
+            registers[register] = (byte) maxRank;
+            if (maxRank == 0) {
+                rankCounts[register] = null;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merge another sketch into this sketch.
+     *
+     * @param hyperLogLog sketch of the same precision
+     * @return whether the estimate of the sketch may have changed
+     */
+    public boolean merge(HyperLogLog hyperLogLog) {
+        checkPrecision(hyperLogLog);
+        boolean changed = false;
+        byte[] otherRegisters = hyperLogLog.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < otherRegisters[i]) {
+                registers[i] = otherRegisters[i];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param hyperLogLog sketch of the same precision
+     * @return whether merging the given sketch would change this sketch
+     */
+    public boolean isChangedBy(HyperLogLog hyperLogLog) {
+        checkPrecision(hyperLogLog);
+        byte[] otherRegisters = hyperLogLog.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < otherRegisters[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimate the cardinality with the improved estimator of Ertl ("New cardinality estimation algorithms for
+     * HyperLogLog sketches", 2017), which unlike the original estimator needs no switch to linear counting for
+     * small cardinalities and hence has no bias around that switch.
+     *
+     * @return estimated number of distinct values offered to the sketch
+     */
+    public long cardinality() {
+        int registerCount = registers.length;
+        int maxRank = 65 - precision;
+        int[] rankHistogram = new int[maxRank + 1];
+        for (byte register : registers) {
+            rankHistogram[register]++;
+        }
+        double z = registerCount * tau(1.0 - (double) rankHistogram[maxRank] / registerCount);
+        for (int rank = maxRank - 1; rank >= 1; rank--) {
+            z = 0.5 * (z + rankHistogram[rank]);
+        }
+        z += registerCount * sigma((double) rankHistogram[0] / registerCount);
+        return Math.round((double) registerCount * registerCount / (2 * Math.log(2)) / z);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+        if (rankCounts != null) {
+            Arrays.fill(rankCounts, null);
+        }
+    }
+
+    /**
+     * @return a copy of the sketch, which is not removable
+     */
+    public HyperLogLog copy() {
+        return new HyperLogLog(this);
+    }
+
+    /**
+     * @param value value of a Siddhi attribute
+     * @return 64 bit hash of the value, where equal values of the same attribute type give equal hashes
+     */
+    public static long hash(Object value) {
+        long hash;
+        if (value instanceof String) {
+            String string = (String) value;
+            hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+            }
+        } else if (value instanceof Double) {
+            hash = Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Float) {
+            hash = Float.floatToIntBits((Float) value);
+        } else if (value instanceof Number) {
+            hash = ((Number) value).longValue();
+        } else if (value instanceof Boolean) {
+            hash = (Boolean) value ? 1 : 0;
+        } else {
+            hash = value.hashCode();
+        }
+        // Finalization mix of MurmurHash3, spreading the bits of the value over the whole hash
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int register(long hash) {
+        return (int) (hash >>> (64 - precision));
+    }
+
+    private int rank(long hash) {
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+
+    private void checkPrecision(HyperLogLog hyperLogLog) {
+        if (hyperLogLog.precision != precision) {
+            throw new IllegalArgumentException("HyperLogLog sketches of precision " + precision + " and " +
+                    hyperLogLog.precision + " cannot be merged");
+        }
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previousZ;
+        do {
+            x *= x;
+            previousZ = z;
+            z += x * y;
+            y += y;
+        } while (z != previousZ);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1 - x;
+        double previousZ;
+        do {
+            x = Math.sqrt(x);
+            previousZ = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (z != previousZ);
+        return z / 3;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{precision=" + precision + ", cardinality=" + cardinality() + "}";
+    }
+}
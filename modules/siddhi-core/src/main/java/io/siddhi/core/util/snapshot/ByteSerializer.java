@@ -25,6 +25,7 @@ import org.apache.log4j.Logger;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
@@ -60,12 +61,18 @@ public class ByteSerializer {
     }
 
     public static Object byteToObject(byte[] bytes, SiddhiAppContext siddhiAppContext) {
+        if (bytes == null) {
+            return null;
+        }
+        return inputStreamToObject(new ByteArrayInputStream(bytes), siddhiAppContext);
+    }
+
+    public static Object inputStreamToObject(InputStream inputStream, SiddhiAppContext siddhiAppContext) {
         long start = System.currentTimeMillis();
         Object out = null;
-        if (bytes != null) {
+        if (inputStream != null) {
             try {
-                ByteArrayInputStream bios = new ByteArrayInputStream(bytes);
-                ObjectInputStream ois = new ObjectInputStream(bios);
+                ObjectInputStream ois = new ObjectInputStream(inputStream);
                 out = ois.readObject();
             } catch (IOException e) {
                 log.error(ExceptionUtil.getMessageWithContext(e, siddhiAppContext) +
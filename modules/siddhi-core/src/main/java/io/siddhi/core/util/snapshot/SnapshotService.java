@@ -29,19 +29,25 @@ import io.siddhi.core.util.persistence.PersistenceStore;
 import io.siddhi.core.util.persistence.util.IncrementalSnapshotInfo;
 import io.siddhi.core.util.persistence.util.PersistenceConstants;
 import io.siddhi.core.util.persistence.util.PersistenceHelper;
+import io.siddhi.core.util.snapshot.state.SingleSyncStateHolder;
 import io.siddhi.core.util.snapshot.state.Snapshot;
 import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateHolder;
 import org.apache.log4j.Logger;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Service level implementation to take/restore snapshots of processing elements.
@@ -335,9 +341,20 @@ public class SnapshotService {
             throw new CannotRestoreSiddhiAppStateException("Restoring of Siddhi app " + siddhiAppContext.
                     getName() + " failed due to no snapshot.");
         }
+        restoreFullSnapshot(ByteSerializer.byteToObject(snapshot, siddhiAppContext));
+    }
+
+    public void restore(InputStream snapshot) throws CannotRestoreSiddhiAppStateException {
+        if (snapshot == null) {
+            throw new CannotRestoreSiddhiAppStateException("Restoring of Siddhi app " + siddhiAppContext.
+                    getName() + " failed due to no snapshot.");
+        }
+        restoreFullSnapshot(ByteSerializer.inputStreamToObject(snapshot, siddhiAppContext));
+    }
+
+    private void restoreFullSnapshot(Object snapshot) throws CannotRestoreSiddhiAppStateException {
         Map<String, Map<String, Map<String, Map<String, Map<String, Object>>>>> fullSnapshot =
-                (Map<String, Map<String, Map<String, Map<String, Map<String, Object>>>>>)
-                        ByteSerializer.byteToObject(snapshot, siddhiAppContext);
+                (Map<String, Map<String, Map<String, Map<String, Map<String, Object>>>>>) snapshot;
         if (fullSnapshot == null) {
             throw new CannotRestoreSiddhiAppStateException("Restoring of Siddhi app " + siddhiAppContext.
                     getName() + " failed due to invalid snapshot.");
@@ -349,6 +366,7 @@ public class SnapshotService {
                 //cleaning old group by states
                 cleanGroupByStates();
                 //restore data
+                Map<StateHolder, List<Runnable>> restoreTasks = new LinkedHashMap<>();
                 for (Map.Entry<String, Map<String, Map<String, Map<String, Map<String, Object>>>>> partitionIdSnapshot :
                         fullSnapshot.entrySet()) {
                     PartitionIdStateHolder partitionStateHolder = partitionIdStates.get(partitionIdSnapshot.getKey());
@@ -371,53 +389,23 @@ public class SnapshotService {
                                 if (stateHolder == null) {
                                     continue;
                                 }
-                                try {
-                                    String partitionKey = null;
-                                    String groupByKey = null;
-                                    if (partitionGroupByKeySnapshot.getKey() != null) {
-                                        String[] keys = partitionGroupByKeySnapshot.getKey().split("--");
-                                        if (keys.length == 2) {
-                                            if (!keys[0].equals("null")) {
-                                                partitionKey = keys[0];
-                                            }
-                                            if (!keys[1].equals("null")) {
-                                                groupByKey = keys[1];
-                                            }
-                                        }
-                                    }
-                                    SiddhiAppContext.startPartitionFlow(partitionKey);
-                                    SiddhiAppContext.startGroupByFlow(groupByKey);
-                                    State state = stateHolder.getState();
-                                    try {
-                                        if (state == null) {
-                                            continue;
-                                        }
-                                        Map<String, Object> snapshotRestores = new HashMap<>();
-                                        for (Map.Entry<String, Object> itemSnapshot :
-                                                elementSnapshot.getValue().entrySet()) {
-                                            if (itemSnapshot.getValue() instanceof Snapshot) {
-                                                SnapshotStateList snapshotStateList = new SnapshotStateList();
-                                                snapshotStateList.putSnapshotState(0L,
-                                                        (Snapshot) itemSnapshot.getValue());
-                                                snapshotRestores.put(itemSnapshot.getKey(), snapshotStateList);
-                                            } else {
-                                                snapshotRestores.put(itemSnapshot.getKey(),
-                                                        itemSnapshot.getValue());
-                                            }
-                                        }
-                                        state.restore(snapshotRestores);
-                                    } finally {
-                                        stateHolder.returnState(state);
-                                    }
-                                } finally {
-                                    SiddhiAppContext.stopPartitionFlow();
-                                    SiddhiAppContext.stopGroupByFlow();
+                                Map<String, Object> itemSnapshots = elementSnapshot.getValue();
+                                if (siddhiAppContext.isLazyRestore() && stateHolder instanceof SingleSyncStateHolder
+                                        && itemSnapshots.values().stream().anyMatch(item -> item instanceof Snapshot)) {
+                                    ((SingleSyncStateHolder) stateHolder).setPendingRestore(
+                                            state -> state.restore(toSnapshotRestores(itemSnapshots)));
+                                    continue;
                                 }
+                                String partitionGroupByKey = partitionGroupByKeySnapshot.getKey();
+                                restoreTasks.computeIfAbsent(stateHolder, k -> new ArrayList<>()).add(
+                                        () -> restoreState(stateHolder, partitionGroupByKey,
+                                                toSnapshotRestores(itemSnapshots)));
                             }
                         }
                     }
 
                 }
+                runRestoreTasks(restoreTasks);
             } catch (Throwable t) {
                 throw new CannotRestoreSiddhiAppStateException("Restoring of Siddhi app " +
                         siddhiAppContext.getName() + " not completed properly because content of Siddhi " +
@@ -439,21 +427,58 @@ public class SnapshotService {
                 //cleaning old group by states
                 cleanGroupByStates();
                 //restore data
+                Map<StateHolder, List<Runnable>> restoreTasks = new LinkedHashMap<>();
                 for (Map.Entry<String, Map<String, Map<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>>>>
                         partitionIdSnapshot : snapshot.entrySet()) {
                     PartitionIdStateHolder partitionStateHolder = partitionIdStates.get(partitionIdSnapshot.getKey());
                     if (partitionStateHolder == null) {
                         continue;
                     }
-                    for (Iterator<Map.Entry<String, Map<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>>>>
-                         iterator = partitionIdSnapshot.getValue().entrySet().iterator(); iterator.hasNext(); ) {
-                        Map.Entry<String, Map<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>>>
-                                partitionGroupByKeySnapshot = iterator.next();
-                        restoreIncrementalSnapshot(partitionStateHolder, partitionGroupByKeySnapshot.getValue());
-                        iterator.remove();
+                    for (Map<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>> incrementalStateById :
+                            partitionIdSnapshot.getValue().values()) {
+                        for (Map<Long, Map<IncrementalSnapshotInfo, byte[]>> incrementalStateByTime :
+                                incrementalStateById.values()) {
+                            IncrementalSnapshotInfo incrementalSnapshotInfo = incrementalStateByTime.values().stream()
+                                    .flatMap(incrementalStateByInfo -> incrementalStateByInfo.keySet().stream())
+                                    .findFirst().orElse(null);
+                            if (incrementalSnapshotInfo == null) {
+                                continue;
+                            }
+                            ElementStateHolder elementStateHolder = partitionStateHolder.
+                                    queryStateHolderMap.get(incrementalSnapshotInfo.getQueryName());
+                            if (elementStateHolder == null) {
+                                continue;
+                            }
+                            StateHolder stateHolder = elementStateHolder.elementHolderMap.get(
+                                    incrementalSnapshotInfo.getElementId());
+                            if (stateHolder == null) {
+                                continue;
+                            }
+                            if (siddhiAppContext.isLazyRestore() && stateHolder instanceof SingleSyncStateHolder &&
+                                    incrementalStateByTime.values().stream().anyMatch(incrementalStateByInfo ->
+                                            incrementalStateByInfo.keySet().stream().anyMatch(info ->
+                                                    info.getType() != IncrementalSnapshotInfo.SnapshotType.PERIODIC))) {
+                                ((SingleSyncStateHolder) stateHolder).setPendingRestore(state -> {
+                                    Map<String, Object> snapshotRestores =
+                                            deserializeIncrementalSnapshot(incrementalStateByTime);
+                                    if (snapshotRestores != null) {
+                                        state.restore(snapshotRestores);
+                                    }
+                                });
+                                continue;
+                            }
+                            String partitionGroupByKey = incrementalSnapshotInfo.getPartitionGroupByKey();
+                            restoreTasks.computeIfAbsent(stateHolder, k -> new ArrayList<>()).add(() -> {
+                                Map<String, Object> snapshotRestores =
+                                        deserializeIncrementalSnapshot(incrementalStateByTime);
+                                if (snapshotRestores != null) {
+                                    restoreState(stateHolder, partitionGroupByKey, snapshotRestores);
+                                }
+                            });
+                        }
                     }
-
                 }
+                runRestoreTasks(restoreTasks);
             } catch (Throwable t) {
                 throw new CannotRestoreSiddhiAppStateException("Restoring of Siddhi app " +
                         siddhiAppContext.getName() + " not completed properly because content of Siddhi " +
@@ -465,143 +490,117 @@ public class SnapshotService {
         }
     }
 
-    private void restoreIncrementalSnapshot(PartitionIdStateHolder partitionIdStateHolder,
-                                            Map<String, Map<Long, Map<IncrementalSnapshotInfo,
-                                                    byte[]>>> incrementalStateByTime) {
-        if (incrementalStateByTime != null) {
-            String id = null;
-            State state = null;
-            StateHolder stateHolder = null;
-            Map<String, Object> deserializedStateMap = null;
+    /**
+     * Run the restore tasks, tasks of the same state holder are run sequentially while tasks of different state
+     * holders are run concurrently when parallel restore is enabled.
+     */
+    private void runRestoreTasks(Map<StateHolder, List<Runnable>> restoreTasks) throws Throwable {
+        if (!siddhiAppContext.isParallelRestore() || restoreTasks.size() <= 1) {
+            for (List<Runnable> stateHolderTasks : restoreTasks.values()) {
+                stateHolderTasks.forEach(Runnable::run);
+            }
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(restoreTasks.size());
+        for (List<Runnable> stateHolderTasks : restoreTasks.values()) {
+            futures.add(siddhiAppContext.getExecutorService().submit(() -> stateHolderTasks.forEach(Runnable::run)));
+        }
+        Throwable error = null;
+        for (Future<?> future : futures) {
             try {
-                for (Iterator<Map.Entry<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>>> iterator =
-                     incrementalStateByTime.entrySet().iterator(); iterator.hasNext(); ) {
-                    Map.Entry<String, Map<Long, Map<IncrementalSnapshotInfo, byte[]>>> incrementalStateByTimeEntry =
-                            iterator.next();
-                    iterator.remove();
-                    for (Iterator<Map.Entry<Long, Map<IncrementalSnapshotInfo, byte[]>>> partitionGroupByKeyIterator =
-                         incrementalStateByTimeEntry.getValue().entrySet().iterator();
-                         partitionGroupByKeyIterator.hasNext(); ) {
-                        Map.Entry<Long, Map<IncrementalSnapshotInfo, byte[]>>
-                                partitionGroupByKeyStateByTimeEntry = partitionGroupByKeyIterator.next();
-                        partitionGroupByKeyIterator.remove();
-                        for (Iterator<Map.Entry<IncrementalSnapshotInfo, byte[]>> iterator1 =
-                             partitionGroupByKeyStateByTimeEntry.getValue().entrySet().iterator();
-                             iterator1.hasNext(); ) {
-                            Map.Entry<IncrementalSnapshotInfo, byte[]> incrementalStateByInfoEntry = iterator1.next();
-                            iterator1.remove();
-                            IncrementalSnapshotInfo incrementalSnapshotInfo = incrementalStateByInfoEntry.getKey();
-                            Map<String, Object> singleIncrementSnapshot = (Map<String, Object>)
-                                    ByteSerializer.byteToObject(
-                                            incrementalStateByInfoEntry.getValue(),
-                                            siddhiAppContext);
-                            if (singleIncrementSnapshot != null) {
-                                if (!incrementalSnapshotInfo.getId().equals(id)) {
-                                    if (id != null) {
-                                        state.restore(deserializedStateMap);
-                                        SiddhiAppContext.startPartitionFlow(id);
-                                        try {
-                                            stateHolder.returnState(state);
-                                        } finally {
-                                            SiddhiAppContext.stopPartitionFlow();
-                                        }
-                                        id = null;
-                                        state = null;
-                                        stateHolder = null;
-                                        deserializedStateMap = null;
-                                    }
-                                    ElementStateHolder elementStateHolder = partitionIdStateHolder.
-                                            queryStateHolderMap.get(incrementalSnapshotInfo.getQueryName());
-                                    if (elementStateHolder == null) {
-                                        continue;
-                                    }
-                                    stateHolder = elementStateHolder.elementHolderMap.get(
-                                            incrementalSnapshotInfo.getElementId());
-                                    if (stateHolder == null) {
-                                        continue;
-                                    }
-                                    String partitionKey = null;
-                                    String groupByKey = null;
-                                    String[] keys = incrementalSnapshotInfo.getPartitionGroupByKey().split("--");
-                                    if (keys.length == 2) {
-                                        if (!keys[0].equals("null")) {
-                                            partitionKey = keys[0];
-                                        }
-                                        if (!keys[1].equals("null")) {
-                                            groupByKey = keys[1];
-                                        }
-                                    }
-                                    SiddhiAppContext.startPartitionFlow(partitionKey);
-                                    SiddhiAppContext.startGroupByFlow(groupByKey);
-                                    try {
-                                        state = stateHolder.getState();
-                                    } finally {
-                                        SiddhiAppContext.stopGroupByFlow();
-                                        SiddhiAppContext.stopPartitionFlow();
-                                    }
-                                    if (state != null) {
-                                        id = incrementalSnapshotInfo.getId();
-                                        deserializedStateMap = new HashMap<>();
-                                    }
-                                }
-                                if (state != null) {
-                                    for (Map.Entry<String, Object> singleIncrementSnapshotEntry :
-                                            singleIncrementSnapshot.entrySet()) {
-                                        if (singleIncrementSnapshotEntry.getValue() instanceof Snapshot) {
-                                            Snapshot snapshot = (Snapshot)
-                                                    singleIncrementSnapshotEntry.getValue();
-                                            SnapshotStateList snapshotStateList = (SnapshotStateList)
-                                                    deserializedStateMap.computeIfAbsent(
-                                                            singleIncrementSnapshotEntry.getKey(),
-                                                            k -> new SnapshotStateList());
-                                            if (snapshot.isIncrementalSnapshot()) {
-                                                snapshotStateList.putSnapshotState(
-                                                        partitionGroupByKeyStateByTimeEntry.getKey(),
-                                                        snapshot);
-                                            } else {
-                                                snapshotStateList.getSnapshotStates().clear();
-                                                snapshotStateList.putSnapshotState(
-                                                        partitionGroupByKeyStateByTimeEntry.getKey(),
-                                                        snapshot);
-                                            }
-                                        } else {
-                                            deserializedStateMap.put(singleIncrementSnapshotEntry.getKey(),
-                                                    singleIncrementSnapshotEntry.getValue());
-                                        }
-                                    }
-                                }
-                            }
-                        }
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause();
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void restoreState(StateHolder stateHolder, String partitionGroupByKey,
+                              Map<String, Object> snapshotRestores) {
+        try {
+            String partitionKey = null;
+            String groupByKey = null;
+            if (partitionGroupByKey != null) {
+                String[] keys = partitionGroupByKey.split("--");
+                if (keys.length == 2) {
+                    if (!keys[0].equals("null")) {
+                        partitionKey = keys[0];
                     }
-                    if (id != null) {
-                        state.restore(deserializedStateMap);
-                        SiddhiAppContext.startPartitionFlow(id);
-                        try {
-                            stateHolder.returnState(state);
-                        } finally {
-                            SiddhiAppContext.stopPartitionFlow();
-                        }
-                        id = null;
-                        state = null;
-                        stateHolder = null;
-                        deserializedStateMap = null;
+                    if (!keys[1].equals("null")) {
+                        groupByKey = keys[1];
                     }
                 }
+            }
+            SiddhiAppContext.startPartitionFlow(partitionKey);
+            SiddhiAppContext.startGroupByFlow(groupByKey);
+            State state = stateHolder.getState();
+            if (state == null) {
+                return;
+            }
+            try {
+                state.restore(snapshotRestores);
             } finally {
-                if (id != null && stateHolder != null && state != null) {
-                    SiddhiAppContext.startPartitionFlow(id);
-                    try {
-                        stateHolder.returnState(state);
-                    } finally {
-                        SiddhiAppContext.stopPartitionFlow();
+                stateHolder.returnState(state);
+            }
+        } finally {
+            SiddhiAppContext.stopPartitionFlow();
+            SiddhiAppContext.stopGroupByFlow();
+        }
+    }
+
+    private Map<String, Object> toSnapshotRestores(Map<String, Object> itemSnapshots) {
+        Map<String, Object> snapshotRestores = new HashMap<>();
+        for (Map.Entry<String, Object> itemSnapshot : itemSnapshots.entrySet()) {
+            if (itemSnapshot.getValue() instanceof Snapshot) {
+                SnapshotStateList snapshotStateList = new SnapshotStateList();
+                snapshotStateList.putSnapshotState(0L, (Snapshot) itemSnapshot.getValue());
+                snapshotRestores.put(itemSnapshot.getKey(), snapshotStateList);
+            } else {
+                snapshotRestores.put(itemSnapshot.getKey(), itemSnapshot.getValue());
+            }
+        }
+        return snapshotRestores;
+    }
+
+    private Map<String, Object> deserializeIncrementalSnapshot(Map<Long, Map<IncrementalSnapshotInfo, byte[]>>
+                                                                       incrementalStateByTime) {
+        Map<String, Object> deserializedStateMap = null;
+        for (Iterator<Map.Entry<Long, Map<IncrementalSnapshotInfo, byte[]>>> iterator =
+             incrementalStateByTime.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Long, Map<IncrementalSnapshotInfo, byte[]>> incrementalStateByTimeEntry = iterator.next();
+            iterator.remove();
+            for (byte[] serializedIncrement : incrementalStateByTimeEntry.getValue().values()) {
+                Map<String, Object> singleIncrementSnapshot = (Map<String, Object>)
+                        ByteSerializer.byteToObject(serializedIncrement, siddhiAppContext);
+                if (singleIncrementSnapshot == null) {
+                    continue;
+                }
+                if (deserializedStateMap == null) {
+                    deserializedStateMap = new HashMap<>();
+                }
+                for (Map.Entry<String, Object> singleIncrementSnapshotEntry : singleIncrementSnapshot.entrySet()) {
+                    if (singleIncrementSnapshotEntry.getValue() instanceof Snapshot) {
+                        Snapshot snapshot = (Snapshot) singleIncrementSnapshotEntry.getValue();
+                        SnapshotStateList snapshotStateList = (SnapshotStateList)
+                                deserializedStateMap.computeIfAbsent(singleIncrementSnapshotEntry.getKey(),
+                                        k -> new SnapshotStateList());
+                        if (!snapshot.isIncrementalSnapshot()) {
+                            snapshotStateList.getSnapshotStates().clear();
+                        }
+                        snapshotStateList.putSnapshotState(incrementalStateByTimeEntry.getKey(), snapshot);
+                    } else {
+                        deserializedStateMap.put(singleIncrementSnapshotEntry.getKey(),
+                                singleIncrementSnapshotEntry.getValue());
                     }
-                    id = null;
-                    state = null;
-                    stateHolder = null;
                 }
             }
-
         }
+        return deserializedStateMap;
     }
 
     public void restoreRevision(String revision) throws CannotRestoreSiddhiAppStateException {
@@ -613,7 +612,7 @@ public class SnapshotService {
             if (log.isDebugEnabled()) {
                 log.debug("Restoring revision: " + revision + " ...");
             }
-            byte[] snapshot = persistenceStore.load(siddhiAppContext.getName(), revision);
+            InputStream snapshot = persistenceStore.loadAsStream(siddhiAppContext.getName(), revision);
             if (snapshot != null) {
                 restore(snapshot);
                 if (log.isDebugEnabled()) {
@@ -739,6 +738,25 @@ public class SnapshotService {
         }
     }
 
+    /**
+     * Check whether any state restored lazily is yet to be restored on its first access.
+     *
+     * @return true if a deferred restore is pending
+     */
+    public boolean hasPendingRestores() {
+        for (PartitionIdStateHolder partitionIdStateHolder : partitionIdStates.values()) {
+            for (ElementStateHolder elementStateHolder : partitionIdStateHolder.queryStateHolderMap.values()) {
+                for (StateHolder stateHolder : elementStateHolder.elementHolderMap.values()) {
+                    if (stateHolder instanceof SingleSyncStateHolder &&
+                            ((SingleSyncStateHolder) stateHolder).hasPendingRestore()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     private void cleanGroupByStates() {
         for (Map.Entry<String, PartitionIdStateHolder> partitionIdState : partitionIdStates.entrySet()) {
             for (Map.Entry<String, ElementStateHolder> queryState :
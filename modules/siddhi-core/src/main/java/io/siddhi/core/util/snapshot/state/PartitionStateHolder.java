@@ -124,7 +124,7 @@ public class PartitionStateHolder implements StateHolder {
 
         }
         if (states.isEmpty()) {
-            states.remove(partitionFlowId);
+            this.states.remove(partitionFlowId);
         }
     }
 
@@ -22,6 +22,7 @@ import org.apache.log4j.Logger;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * State holder for non partition use case
@@ -33,6 +34,7 @@ public class SingleSyncStateHolder implements StateHolder {
     private State state = null;
     final Map<String, State> groupByStates = new HashMap<>(1);
     final Map<String, Map<String, State>> allStates = new HashMap<>(1);
+    private volatile Consumer<State> pendingRestore = null;
 
     public SingleSyncStateHolder(StateFactory stateFactory) {
         this.stateFactory = stateFactory;
@@ -41,13 +43,8 @@ public class SingleSyncStateHolder implements StateHolder {
 
     @Override
     public State getState() {
-        if (state == null) {
-            synchronized (this) {
-                if (state == null) {
-                    state = stateFactory.createNewState();
-                    groupByStates.put(null, state);
-                }
-            }
+        if (state == null || pendingRestore != null) {
+            initState();
         }
         return state;
     }
@@ -58,13 +55,8 @@ public class SingleSyncStateHolder implements StateHolder {
     }
 
     public Map<String, Map<String, State>> getAllStates() {
-        if (state == null) {
-            synchronized (this) {
-                if (state == null) {
-                    state = stateFactory.createNewState();
-                    groupByStates.put(null, state);
-                }
-            }
+        if (state == null || pendingRestore != null) {
+            initState();
         }
         return allStates;
     }
@@ -77,21 +69,52 @@ public class SingleSyncStateHolder implements StateHolder {
 
     @Override
     public Map<String, State> getAllGroupByStates() {
+        if (state == null || pendingRestore != null) {
+            initState();
+        }
+        return groupByStates;
+    }
+
+    /**
+     * Defer restoring the state till it is first accessed.
+     *
+     * @param pendingRestore restore to be applied on the state when it is first accessed
+     */
+    public synchronized void setPendingRestore(Consumer<State> pendingRestore) {
+        this.pendingRestore = pendingRestore;
+    }
+
+    public synchronized boolean hasPendingRestore() {
+        return pendingRestore != null;
+    }
+
+    private synchronized void initState() {
         if (state == null) {
-            synchronized (this) {
-                if (state == null) {
-                    state = stateFactory.createNewState();
-                    groupByStates.put(null, state);
-                }
+            state = stateFactory.createNewState();
+            groupByStates.put(null, state);
+        }
+        if (pendingRestore != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Restoring deferred state on first access");
+            }
+            try {
+                pendingRestore.accept(state);
+            } catch (RuntimeException e) {
+                // keep the restore pending on a new state, such that every access fails instead of continuing from
+                // a partially restored state, which would also be persisted over the revision being restored
+                state = null;
+                groupByStates.clear();
+                throw e;
             }
+            pendingRestore = null;
         }
-        return groupByStates;
     }
 
     @Override
     public synchronized State cleanGroupByStates() {
         State returnValue = state;
         state = null;
+        pendingRestore = null;
         groupByStates.clear();
         return returnValue;
     }
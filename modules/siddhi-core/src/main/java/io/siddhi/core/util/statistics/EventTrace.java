@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics;
+
+import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.event.stream.StreamEvent;
+
+/**
+ * Trace of a sampled event, recording the time the event reached each stage of its path through the Siddhi app.
+ * A trace is immutable and refers to the trace of its previous stage, hence the events derived from the same
+ * event share the stages up to the point they branched.
+ */
+public final class EventTrace {
+
+    private final EventTraceTracker tracker;
+    private final EventTrace previous;
+    private final String stage;
+    private final long timestamp;
+
+    public EventTrace(EventTraceTracker tracker, String stage) {
+        this(tracker, null, stage);
+    }
+
+    private EventTrace(EventTraceTracker tracker, EventTrace previous, String stage) {
+        this.tracker = tracker;
+        this.previous = previous;
+        this.stage = stage;
+        this.timestamp = System.nanoTime();
+    }
+
+    /**
+     * @param stage name of the stage reached
+     * @return trace of the stage, following this trace
+     */
+    public EventTrace mark(String stage) {
+        return new EventTrace(tracker, this, stage);
+    }
+
+    /**
+     * Mark the final stage of the trace and record its latencies.
+     *
+     * @param stage name of the stage the trace ends at
+     */
+    public void complete(String stage) {
+        tracker.record(mark(stage));
+    }
+
+    public EventTrace getPrevious() {
+        return previous;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the time the stage is reached, as given by {@link System#nanoTime()}
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Mark a stage at the traces of a chain of events.
+     *
+     * @param complexEvent first event of the chain
+     * @param stage        name of the stage reached
+     */
+    public static void mark(ComplexEvent complexEvent, String stage) {
+        while (complexEvent != null) {
+            if (complexEvent instanceof StreamEvent) {
+                StreamEvent streamEvent = (StreamEvent) complexEvent;
+                if (streamEvent.getTrace() != null) {
+                    streamEvent.setTrace(streamEvent.getTrace().mark(stage));
+                }
+            }
+            complexEvent = complexEvent.getNext();
+        }
+    }
+
+    /**
+     * Mark a stage at the trace of an event.
+     *
+     * @param event event
+     * @param stage name of the stage reached
+     */
+    public static void mark(Event event, String stage) {
+        if (event.getTrace() != null) {
+            event.setTrace(event.getTrace().mark(stage));
+        }
+    }
+
+    /**
+     * Mark a stage at the traces of events.
+     *
+     * @param events events
+     * @param length number of events from the start of the array
+     * @param stage  name of the stage reached
+     */
+    public static void mark(Event[] events, int length, String stage) {
+        for (int i = 0; i < length; i++) {
+            Event event = events[i];
+            if (event.getTrace() != null) {
+                event.setTrace(event.getTrace().mark(stage));
+            }
+        }
+    }
+
+    /**
+     * Complete the traces of a chain of events at their final stage.
+     *
+     * @param complexEvent first event of the chain
+     * @param stage        name of the stage the traces end at
+     */
+    public static void complete(ComplexEvent complexEvent, String stage) {
+        while (complexEvent != null) {
+            if (complexEvent instanceof StreamEvent && ((StreamEvent) complexEvent).getTrace() != null) {
+                ((StreamEvent) complexEvent).getTrace().complete(stage);
+            }
+            complexEvent = complexEvent.getNext();
+        }
+    }
+
+    /**
+     * Complete the traces of events at their final stage.
+     *
+     * @param events events
+     * @param length number of events from the start of the array
+     * @param stage  name of the stage the traces end at
+     */
+    public static void complete(Event[] events, int length, String stage) {
+        for (int i = 0; i < length; i++) {
+            if (events[i].getTrace() != null) {
+                events[i].getTrace().complete(stage);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics;
+
+/**
+ * This interface will have the necessary methods to trace sampled events through the Siddhi app, and to record
+ * the latencies between the stages they pass through.
+ */
+public interface EventTraceTracker {
+
+    /**
+     * Start tracing an event entering the Siddhi app, if it is selected by the sampling.
+     *
+     * @param stage name of the stage the event enters the Siddhi app at
+     * @return trace to be carried by the event, or null if the event is not sampled
+     */
+    EventTrace startTrace(String stage);
+
+    /**
+     * Record the latencies of a trace that reached the end of its path.
+     *
+     * @param trace last stage of the trace
+     */
+    void record(EventTrace trace);
+
+    /**
+     * @return Name of the event trace tracker
+     */
+    String getName();
+
+}
@@ -37,4 +37,15 @@ public interface StatisticsTrackerFactory {
 
     StatisticsManager createStatisticsManager(String prefix, String siddhiAppName, List<Element> elements);
 
+    /**
+     * Create the tracker of sampled event traces, where tracing is not supported by default.
+     *
+     * @param name              base name of the trace metrics
+     * @param statisticsManager statistics manager of the Siddhi app
+     * @return event trace tracker, or null if event tracing is not enabled
+     */
+    default EventTraceTracker createEventTraceTracker(String name, StatisticsManager statisticsManager) {
+        return null;
+    }
+
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics.memory;
+
+import io.siddhi.core.event.stream.StreamEvent;
+
+/**
+ * Estimates the memory retained by events from their attribute values, without reflection. The estimates are based
+ * on the memory layout of the JVM and are meant to be maintained incrementally by event holders as events are added
+ * and removed, where the reflective {@link ObjectSizeCalculator} is used only to calibrate them.
+ */
+public final class EventMemoryEstimator {
+
+    private static final int ARRAY_HEADER_SIZE;
+    private static final int REFERENCE_SIZE;
+    private static final int OBJECT_PADDING;
+    private static final long STREAM_EVENT_SIZE;
+    private static final long INTEGER_SIZE;
+    private static final long LONG_SIZE;
+    private static final long STRING_SIZE;
+    private static final long OBJECT_SIZE;
+    private static final long MAP_ENTRY_SIZE;
+
+    static {
+        MemoryLayoutSpecification layout;
+        try {
+            layout = ObjectSizeCalculator.getEffectiveMemoryLayoutSpecification();
+        } catch (UnsupportedOperationException e) {
+            layout = null;
+        }
+        int objectHeaderSize = layout != null ? layout.getObjectHeaderSize() : 12;
+        ARRAY_HEADER_SIZE = layout != null ? layout.getArrayHeaderSize() : 16;
+        REFERENCE_SIZE = layout != null ? layout.getReferenceSize() : 4;
+        OBJECT_PADDING = layout != null ? layout.getObjectPadding() : 8;
+        // timestamp, type, outputData, beforeWindowData, onAfterWindowData and next
+        STREAM_EVENT_SIZE = pad(objectHeaderSize + 8 + 5 * REFERENCE_SIZE);
+        INTEGER_SIZE = pad(objectHeaderSize + 4);
+        LONG_SIZE = pad(objectHeaderSize + 8);
+        // value, hash and coder
+        STRING_SIZE = pad(objectHeaderSize + REFERENCE_SIZE + 4 + 1);
+        OBJECT_SIZE = pad(objectHeaderSize);
+        // hash, key, value, next and the bucket reference
+        MAP_ENTRY_SIZE = pad(objectHeaderSize + 4 + 3 * REFERENCE_SIZE) + REFERENCE_SIZE;
+    }
+
+    private EventMemoryEstimator() {
+
+    }
+
+    private static long pad(long size) {
+        return ObjectSizeCalculator.roundTo(size, OBJECT_PADDING);
+    }
+
+    /**
+     * @param streamEvent event, the events chained to it are not considered
+     * @return estimated memory retained by the event in bytes
+     */
+    public static long estimate(StreamEvent streamEvent) {
+        return STREAM_EVENT_SIZE + estimate(streamEvent.getBeforeWindowData()) +
+                estimate(streamEvent.getOnAfterWindowData()) + estimate(streamEvent.getOutputData());
+    }
+
+    /**
+     * @param data attribute values
+     * @return estimated memory retained by the array and its values in bytes
+     */
+    public static long estimate(Object[] data) {
+        if (data == null) {
+            return 0;
+        }
+        long size = pad(ARRAY_HEADER_SIZE + (long) data.length * REFERENCE_SIZE);
+        for (Object value : data) {
+            size += estimateValue(value);
+        }
+        return size;
+    }
+
+    /**
+     * @param value attribute value
+     * @return estimated memory retained by the value in bytes, where unknown objects are counted as empty objects
+     */
+    public static long estimateValue(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        } else if (value instanceof String) {
+            return STRING_SIZE + pad(ARRAY_HEADER_SIZE + 2L * ((String) value).length());
+        } else if (value instanceof Long || value instanceof Double) {
+            return LONG_SIZE;
+        } else if (value instanceof Number) {
+            return INTEGER_SIZE;
+        }
+        return OBJECT_SIZE;
+    }
+
+    /**
+     * @return estimated memory retained by an entry of a hash or tree map in bytes
+     */
+    public static long getMapEntrySize() {
+        return MAP_ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds with logarithmic buckets of linear sub buckets, as in HDR histograms, such
+ * that percentiles are reported within a relative error of about 1.6% while the memory footprint stays fixed. Values
+ * above {@link #HIGHEST_TRACKABLE_VALUE} are recorded as the highest trackable value.
+ * <p>
+ * A histogram has a single writer, which records its values with ordered writes such that other threads can read or
+ * merge it while it is being recorded.
+ */
+public class LatencyHistogram {
+
+    static final long HIGHEST_TRACKABLE_VALUE = 1L << 36;
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT << 1;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    private static final int COUNTS_LENGTH = countsIndex(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private volatile long minValue = Long.MAX_VALUE;
+    private volatile long maxValue;
+
+    /**
+     * Record a value. Only one thread may record to a histogram.
+     *
+     * @param value latency in nanoseconds
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > HIGHEST_TRACKABLE_VALUE) {
+            value = HIGHEST_TRACKABLE_VALUE;
+        }
+        int index = countsIndex(value);
+        counts.lazySet(index, counts.get(index) + 1);
+        if (value < minValue) {
+            minValue = value;
+        }
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Add the values recorded at the given histogram to this histogram.
+     *
+     * @param histogram histogram to be added
+     */
+    public void add(LatencyHistogram histogram) {
+        long addedCount = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long count = histogram.counts.get(i);
+            if (count != 0) {
+                counts.lazySet(i, counts.get(i) + count);
+                addedCount += count;
+            }
+        }
+        if (addedCount != 0) {
+            minValue = Math.min(minValue, histogram.minValue);
+            maxValue = Math.max(maxValue, histogram.maxValue);
+        }
+    }
+
+    /**
+     * Remove the values of the given histogram, which have been previously added to this histogram. The exact
+     * minimum and maximum are replaced by the bucket bounds of the remaining values.
+     *
+     * @param histogram histogram to be subtracted
+     */
+    public void subtract(LatencyHistogram histogram) {
+        long remainingCount = 0;
+        int lowestIndex = -1;
+        int highestIndex = -1;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long count = counts.get(i) - histogram.counts.get(i);
+            counts.lazySet(i, count);
+            if (count > 0) {
+                remainingCount += count;
+                if (lowestIndex == -1) {
+                    lowestIndex = i;
+                }
+                highestIndex = i;
+            }
+        }
+        if (remainingCount == 0) {
+            minValue = Long.MAX_VALUE;
+            maxValue = 0;
+        } else {
+            minValue = Math.max(minValue, valueFromIndex(lowestIndex));
+            maxValue = Math.min(maxValue, highestEquivalentValue(highestIndex));
+        }
+    }
+
+    public long getTotalCount() {
+        long count = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMinValue() {
+        return minValue == Long.MAX_VALUE ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile percentile in the range of 0 to 100
+     * @return the highest value of the bucket the percentile falls in, bounded by the recorded minimum and maximum
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getTotalCount();
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long runningCount = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            runningCount += counts.get(i);
+            if (runningCount >= countAtPercentile) {
+                return Math.max(getMinValue(), Math.min(maxValue, highestEquivalentValue(i)));
+            }
+        }
+        return maxValue;
+    }
+
+    public double getMean() {
+        double total = 0;
+        long count = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                total += (double) medianEquivalentValue(i) * bucketCount;
+                count += bucketCount;
+            }
+        }
+        return count == 0 ? 0 : total / count;
+    }
+
+    public double getStdDeviation() {
+        double mean = getMean();
+        double deviationTotal = 0;
+        long count = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                double deviation = medianEquivalentValue(i) - mean;
+                deviationTotal += deviation * deviation * bucketCount;
+                count += bucketCount;
+            }
+        }
+        return count == 0 ? 0 : Math.sqrt(deviationTotal / count);
+    }
+
+    /**
+     * @return a representative value of each non empty bucket
+     */
+    public long[] getBucketValues() {
+        int nonEmptyBuckets = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            if (counts.get(i) != 0) {
+                nonEmptyBuckets++;
+            }
+        }
+        long[] values = new long[nonEmptyBuckets];
+        int position = 0;
+        for (int i = 0; i < COUNTS_LENGTH && position < nonEmptyBuckets; i++) {
+            if (counts.get(i) != 0) {
+                values[position++] = medianEquivalentValue(i);
+            }
+        }
+        return values;
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static long valueFromIndex(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private static long rangeFromIndex(int index) {
+        return 1L << Math.max(0, (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        return valueFromIndex(index) + rangeFromIndex(index) - 1;
+    }
+
+    private static long medianEquivalentValue(int index) {
+        return valueFromIndex(index) + (rangeFromIndex(index) >> 1);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link Reservoir} keeping a {@link LatencyHistogram} per recording thread, such that recording does not contend
+ * between threads. The histograms are merged when a snapshot is taken, and snapshots cover the values recorded
+ * within the last one to two rollover intervals. Histograms of threads that have terminated are folded into a single
+ * retired histogram when a snapshot is taken, so that short lived threads are not retained.
+ */
+public class LatencyHistogramReservoir implements Reservoir {
+
+    public static final long DEFAULT_ROLLOVER_INTERVAL = 60000;
+
+    private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<LatencyHistogram> recorder = new ThreadLocal<LatencyHistogram>() {
+        @Override
+        protected LatencyHistogram initialValue() {
+            Recorder recorder = new Recorder(Thread.currentThread());
+            recorders.add(recorder);
+            return recorder.histogram;
+        }
+    };
+    private final LatencyHistogram retired = new LatencyHistogram();
+    private final long rolloverInterval;
+    private LatencyHistogram baseline = new LatencyHistogram();
+    private LatencyHistogram checkpoint = new LatencyHistogram();
+    private long checkpointTime;
+
+    public LatencyHistogramReservoir() {
+        this(DEFAULT_ROLLOVER_INTERVAL);
+    }
+
+    /**
+     * @param rolloverInterval interval in milliseconds after which old values are dropped from the snapshots
+     */
+    public LatencyHistogramReservoir(long rolloverInterval) {
+        this.rolloverInterval = rolloverInterval;
+        this.checkpointTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, getSnapshotHistogram().getTotalCount());
+    }
+
+    @Override
+    public void update(long value) {
+        recorder.get().recordValue(value);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        return new HistogramSnapshot(getSnapshotHistogram());
+    }
+
+    private synchronized LatencyHistogram getSnapshotHistogram() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (Recorder recorder : recorders) {
+            if (recorder.isRetired()) {
+                retired.add(recorder.histogram);
+                recorders.remove(recorder);
+            } else {
+                merged.add(recorder.histogram);
+            }
+        }
+        merged.add(retired);
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - checkpointTime >= rolloverInterval) {
+            baseline = checkpoint;
+            checkpoint = new LatencyHistogram();
+            checkpoint.add(merged);
+            checkpointTime = currentTime;
+        }
+        merged.subtract(baseline);
+        return merged;
+    }
+
+    /**
+     * {@link LatencyHistogram} of a recording thread.
+     */
+    private static class Recorder {
+
+        private final WeakReference<Thread> thread;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Recorder(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+
+        /**
+         * @return whether the thread has terminated, hence no more values are recorded to the histogram
+         */
+        boolean isRetired() {
+            Thread thread = this.thread.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
+
+    /**
+     * {@link Snapshot} of a merged {@link LatencyHistogram}.
+     */
+    private static class HistogramSnapshot extends Snapshot {
+
+        private final LatencyHistogram histogram;
+
+        HistogramSnapshot(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return histogram.getValueAtPercentile(quantile * 100);
+        }
+
+        /**
+         * @return a representative value of each occupied bucket of the histogram, rather than each recorded value
+         */
+        @Override
+        public long[] getValues() {
+            return histogram.getBucketValues();
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMaxValue();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getMinValue();
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getStdDeviation();
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            try {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
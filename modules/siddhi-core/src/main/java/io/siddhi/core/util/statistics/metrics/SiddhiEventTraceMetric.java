@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.util.statistics.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.siddhi.core.util.SiddhiConstants;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.core.util.statistics.EventTraceTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class to trace sampled events through the Siddhi app. The latencies of the traces are grouped by the path of stages
+ * the events went through, where each path has a timer for its end to end latency and a timer for the latency of
+ * each of its stages, measured from the previous stage.
+ */
+public class SiddhiEventTraceMetric implements EventTraceTracker {
+
+    private static final String PATH_DELIMITER = " > ";
+
+    private final String name;
+    private final MetricRegistry metricRegistry;
+    private final int samplingInterval;
+    private final AtomicLong eventCount = new AtomicLong();
+    private final ConcurrentMap<String, Timer[]> pathTimers = new ConcurrentHashMap<>();
+
+    /**
+     * @param name             base name of the trace metrics
+     * @param metricRegistry   registry the timers are registered at
+     * @param samplingInterval trace one in every samplingInterval events
+     */
+    public SiddhiEventTraceMetric(String name, MetricRegistry metricRegistry, int samplingInterval) {
+        this.name = name;
+        this.metricRegistry = metricRegistry;
+        this.samplingInterval = Math.max(1, samplingInterval);
+    }
+
+    @Override
+    public EventTrace startTrace(String stage) {
+        if (samplingInterval == 1 || eventCount.incrementAndGet() % samplingInterval == 0) {
+            return new EventTrace(this, stage);
+        }
+        return null;
+    }
+
+    @Override
+    public void record(EventTrace trace) {
+        List<EventTrace> stages = new ArrayList<>();
+        for (EventTrace stage = trace; stage != null; stage = stage.getPrevious()) {
+            stages.add(stage);
+        }
+        StringBuilder pathBuilder = new StringBuilder();
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            pathBuilder.append(stages.get(i).getStage());
+            if (i != 0) {
+                pathBuilder.append(PATH_DELIMITER);
+            }
+        }
+        String path = pathBuilder.toString();
+        Timer[] timers = pathTimers.get(path);
+        if (timers == null) {
+            timers = createTimers(path, stages);
+            Timer[] existingTimers = pathTimers.putIfAbsent(path, timers);
+            if (existingTimers != null) {
+                timers = existingTimers;
+            }
+        }
+        EventTrace first = stages.get(stages.size() - 1);
+        timers[0].update(trace.getTimestamp() - first.getTimestamp(), TimeUnit.NANOSECONDS);
+        for (int i = stages.size() - 2, index = 1; i >= 0; i--, index++) {
+            timers[index].update(stages.get(i).getTimestamp() - stages.get(i + 1).getTimestamp(),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] createTimers(String path, List<EventTrace> stages) {
+        String pathName = name + SiddhiConstants.METRIC_DELIMITER + path + SiddhiConstants.METRIC_DELIMITER;
+        Timer[] timers = new Timer[stages.size()];
+        timers[0] = timer(pathName + "total.latency");
+        for (int i = stages.size() - 2, index = 1; i >= 0; i--, index++) {
+            timers[index] = timer(pathName + index + SiddhiConstants.METRIC_DELIMITER + stages.get(i).getStage() +
+                    SiddhiConstants.METRIC_DELIMITER + "latency");
+        }
+        return timers;
+    }
+
+    private Timer timer(String metricName) {
+        try {
+            return metricRegistry.register(metricName, new Timer(new LatencyHistogramReservoir()));
+        } catch (IllegalArgumentException e) {
+            return metricRegistry.timer(metricName);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -19,42 +19,65 @@
 package io.siddhi.core.util.statistics.metrics;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
 import io.siddhi.core.util.statistics.LatencyTracker;
 
+import java.util.concurrent.TimeUnit;
+
 /**
- * Class to calculate Siddhi latency.
+ * Class to calculate Siddhi latency. Latencies are recorded to per thread histograms of a
+ * {@link LatencyHistogramReservoir}, hence the timer reports stable percentiles such as the p50, p99, p999 and max
+ * latencies. When a sampling interval is given only one in that many executions of each thread is timed, and the
+ * count and rates of the timer refer to the sampled executions.
  */
 public class SiddhiLatencyMetric implements LatencyTracker {
     // Using thread local variables to keep the timer track the time of the same execution path by different threads.
-    private ThreadLocal<Timer> execLatencyTimer;
-    private ThreadLocal<Timer.Context> context;
-    private String metricName;
+    private final ThreadLocal<Execution> execution = new ThreadLocal<Execution>() {
+        @Override
+        protected Execution initialValue() {
+            return new Execution();
+        }
+    };
+    private final String metricName;
+    private final Timer timer;
+    private final int samplingInterval;
 
     public SiddhiLatencyMetric(String name, final MetricRegistry metricRegistry) {
+        this(name, metricRegistry, 1);
+    }
+
+    /**
+     * @param name             name of the latency metric
+     * @param metricRegistry   registry the timer is registered at
+     * @param samplingInterval time one in every samplingInterval executions of a thread
+     */
+    public SiddhiLatencyMetric(String name, final MetricRegistry metricRegistry, int samplingInterval) {
         this.metricName = name;
-        execLatencyTimer = new ThreadLocal<Timer>() {
-            protected Timer initialValue() {
-                return metricRegistry.timer(metricName);
-            }
-        };
-        context = new ThreadLocal<Timer.Context>() {
-            protected Timer.Context initialValue() {
-                return null;
-            }
-        };
+        this.samplingInterval = Math.max(1, samplingInterval);
+        Timer timer;
+        try {
+            timer = metricRegistry.register(metricName, new Timer(new LatencyHistogramReservoir()));
+        } catch (IllegalArgumentException e) {
+            timer = metricRegistry.timer(metricName);
+        }
+        this.timer = timer;
     }
 
     /**
      * This is called when the processing of the event is started. This is
      * called at ProcessStreamReceiver#receive before the event is passed into
-     * process chain
+     * process chain. Calls made while the thread is already timing an execution are nested in it, and the execution
+     * is timed until the outermost call is marked out.
      */
     public void markIn() {
-        if (context.get() != null) {
-            throw new IllegalStateException("MarkIn consecutively called without calling markOut in " + metricName);
+        Execution execution = this.execution.get();
+        if (execution.depth++ == 0) {
+            if (++execution.executionCount >= samplingInterval) {
+                execution.executionCount = 0;
+                execution.startTime = System.nanoTime();
+            }
         }
-        context.set(execLatencyTimer.get().time());
     }
 
     /**
@@ -63,12 +86,16 @@ public class SiddhiLatencyMetric implements LatencyTracker {
      * 1. OutputRateLimiter#sendToCallBacks - When the event is processed and by the full chain and emitted out
      * 2. ProcessStreamReceiver#receive - When event is not processed by full process chain(e.g. Filtered out by a
      * filter)
+     * The latency is recorded when the outermost call of the thread is marked out.
      */
     @Override
     public void markOut() {
-        if (context.get() != null) {
-            context.get().stop();
-            context.set(null);
+        Execution execution = this.execution.get();
+        if (execution.depth > 0 && --execution.depth == 0) {
+            if (execution.startTime != -1) {
+                timer.update(System.nanoTime() - execution.startTime, TimeUnit.NANOSECONDS);
+                execution.startTime = -1;
+            }
         }
     }
 
@@ -79,4 +106,20 @@ public class SiddhiLatencyMetric implements LatencyTracker {
     public String getName() {
         return metricName;
     }
+
+    /**
+     * @return snapshot of the recent latencies in nanoseconds
+     */
+    public Snapshot getSnapshot() {
+        return timer.getSnapshot();
+    }
+
+    /**
+     * Timing state of the current execution of a thread.
+     */
+    private static class Execution {
+        private int depth;
+        private long startTime = -1;
+        private int executionCount;
+    }
 }
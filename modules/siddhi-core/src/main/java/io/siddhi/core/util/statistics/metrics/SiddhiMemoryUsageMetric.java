@@ -20,6 +20,7 @@ package io.siddhi.core.util.statistics.metrics;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.core.util.statistics.MemoryUsageTracker;
 import io.siddhi.core.util.statistics.memory.ObjectSizeCalculator;
 
@@ -27,14 +28,29 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
- * Class to calculate Siddhi memory usage.
+ * Class to calculate Siddhi memory usage. Objects that are {@link MemoryEstimable} are reported from their
+ * incrementally maintained estimates, and their object graph is only walked once per calibration interval to
+ * correct the estimate for the memory it does not account for. Other objects are walked on every read.
  */
 public class SiddhiMemoryUsageMetric implements MemoryUsageTracker {
+    public static final long DEFAULT_CALIBRATION_INTERVAL = 600000;
+
     private ConcurrentMap<Object, ObjectMetric> registeredObjects = new ConcurrentHashMap<Object, ObjectMetric>();
     private MetricRegistry metricRegistry;
+    private final long calibrationInterval;
 
     public SiddhiMemoryUsageMetric(MetricRegistry metricRegistry) {
+        this(metricRegistry, DEFAULT_CALIBRATION_INTERVAL);
+    }
+
+    /**
+     * @param metricRegistry      registry the memory usage gauges are registered at
+     * @param calibrationInterval interval in milliseconds in which the estimates are calibrated by walking the
+     *                            object graph
+     */
+    public SiddhiMemoryUsageMetric(MetricRegistry metricRegistry, long calibrationInterval) {
         this.metricRegistry = metricRegistry;
+        this.calibrationInterval = calibrationInterval;
     }
 
     /**
@@ -48,7 +64,7 @@ public class SiddhiMemoryUsageMetric implements MemoryUsageTracker {
         if (registeredObjects.get(object) == null) {
             ObjectMetric objectMetric = new ObjectMetric(object, name);
             metricRegistry.register(name, objectMetric.getGauge());
-            registeredObjects.put(object, new ObjectMetric(object, name));
+            registeredObjects.put(object, objectMetric);
         }
     }
 
@@ -86,6 +102,8 @@ public class SiddhiMemoryUsageMetric implements MemoryUsageTracker {
         private final Object object;
         private String name;
         private Gauge gauge;
+        private volatile long offset;
+        private volatile long lastCalibrationTime = -1;
 
         public ObjectMetric(final Object object, String name) {
             this.object = object;
@@ -93,15 +111,38 @@ public class SiddhiMemoryUsageMetric implements MemoryUsageTracker {
             this.gauge = new Gauge<Long>() {
                 @Override
                 public Long getValue() {
-                    try {
-                        return ObjectSizeCalculator.getObjectSize(object);
-                    } catch (UnsupportedOperationException e) {
-                        return 0L;
+                    if (object instanceof MemoryEstimable) {
+                        long estimate = ((MemoryEstimable) object).getEstimatedMemoryUsage();
+                        if (estimate >= 0) {
+                            return calibratedEstimate(estimate);
+                        }
                     }
+                    return calculateObjectSize();
                 }
             };
         }
 
+        private long calibratedEstimate(long estimate) {
+            long currentTime = System.currentTimeMillis();
+            if (lastCalibrationTime == -1 || currentTime - lastCalibrationTime >= calibrationInterval) {
+                lastCalibrationTime = currentTime;
+                long objectSize = calculateObjectSize();
+                if (objectSize > 0) {
+                    offset = objectSize - estimate;
+                    return objectSize;
+                }
+            }
+            return Math.max(0, estimate + offset);
+        }
+
+        private long calculateObjectSize() {
+            try {
+                return ObjectSizeCalculator.getObjectSize(object);
+            } catch (UnsupportedOperationException e) {
+                return 0L;
+            }
+        }
+
         public String getName() {
             return name;
         }
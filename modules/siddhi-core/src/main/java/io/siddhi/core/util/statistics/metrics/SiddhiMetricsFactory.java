@@ -19,6 +19,7 @@
 package io.siddhi.core.util.statistics.metrics;
 
 import io.siddhi.core.util.statistics.BufferedEventsTracker;
+import io.siddhi.core.util.statistics.EventTraceTracker;
 import io.siddhi.core.util.statistics.LatencyTracker;
 import io.siddhi.core.util.statistics.MemoryUsageTracker;
 import io.siddhi.core.util.statistics.StatisticsManager;
@@ -34,7 +35,9 @@ import java.util.List;
 public class SiddhiMetricsFactory implements StatisticsTrackerFactory {
 
     public LatencyTracker createLatencyTracker(String name, StatisticsManager statisticsManager) {
-        return new SiddhiLatencyMetric(name, ((SiddhiStatisticsManager) statisticsManager).getRegistry());
+        SiddhiStatisticsManager siddhiStatisticsManager = (SiddhiStatisticsManager) statisticsManager;
+        return new SiddhiLatencyMetric(name, siddhiStatisticsManager.getRegistry(),
+                siddhiStatisticsManager.getLatencySamplingInterval());
     }
 
     public ThroughputTracker createThroughputTracker(String name, StatisticsManager statisticsManager) {
@@ -49,6 +52,16 @@ public class SiddhiMetricsFactory implements StatisticsTrackerFactory {
         return new SiddhiMemoryUsageMetric(((SiddhiStatisticsManager) statisticsManager).getRegistry());
     }
 
+    @Override
+    public EventTraceTracker createEventTraceTracker(String name, StatisticsManager statisticsManager) {
+        SiddhiStatisticsManager siddhiStatisticsManager = (SiddhiStatisticsManager) statisticsManager;
+        if (siddhiStatisticsManager.getTraceSamplingInterval() == 0) {
+            return null;
+        }
+        return new SiddhiEventTraceMetric(name, siddhiStatisticsManager.getRegistry(),
+                siddhiStatisticsManager.getTraceSamplingInterval());
+    }
+
     @Override
     public StatisticsManager createStatisticsManager(String prefix, String siddhiAppName, List<Element> elements) {
         return new SiddhiStatisticsManager(elements);
@@ -23,6 +23,7 @@ import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Reporter;
 import com.codahale.metrics.ScheduledReporter;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.util.statistics.StatisticsManager;
 import io.siddhi.query.api.annotation.Element;
 
@@ -37,6 +38,8 @@ public class SiddhiStatisticsManager implements StatisticsManager {
     private Reporter reporter;
     private String reporterName = "console";
     private int interval = 60;
+    private int latencySamplingInterval = 1;
+    private int traceSamplingInterval = 0;
 
     public SiddhiStatisticsManager(List<Element> elements) {
         for (Element element : elements) {
@@ -44,6 +47,32 @@ public class SiddhiStatisticsManager implements StatisticsManager {
                 reporterName = element.getValue();
             } else if ("interval".equals(element.getKey())) {
                 interval = Integer.parseInt(element.getValue());
+            } else if ("sampling".equals(element.getKey())) {
+                double samplingRate;
+                try {
+                    samplingRate = Double.parseDouble(element.getValue());
+                } catch (NumberFormatException e) {
+                    throw new SiddhiAppCreationException("Latency sampling rate of statistics should be a number " +
+                            "in the range of (0, 1], but found '" + element.getValue() + "'", e);
+                }
+                if (!(samplingRate > 0 && samplingRate <= 1)) {
+                    throw new SiddhiAppCreationException("Latency sampling rate of statistics should be in the " +
+                            "range of (0, 1], but found '" + element.getValue() + "'");
+                }
+                latencySamplingInterval = (int) Math.round(1 / samplingRate);
+            } else if ("tracing".equals(element.getKey())) {
+                double tracingRate;
+                try {
+                    tracingRate = Double.parseDouble(element.getValue());
+                } catch (NumberFormatException e) {
+                    throw new SiddhiAppCreationException("Event tracing rate of statistics should be a number " +
+                            "in the range of (0, 1], but found '" + element.getValue() + "'", e);
+                }
+                if (!(tracingRate > 0 && tracingRate <= 1)) {
+                    throw new SiddhiAppCreationException("Event tracing rate of statistics should be in the " +
+                            "range of (0, 1], but found '" + element.getValue() + "'");
+                }
+                traceSamplingInterval = (int) Math.round(1 / tracingRate);
             }
         }
     }
@@ -52,6 +81,21 @@ public class SiddhiStatisticsManager implements StatisticsManager {
         return metricRegistry;
     }
 
+    /**
+     * @return latencies are measured for one in every this many executions, as given by the 'sampling' rate
+     */
+    public int getLatencySamplingInterval() {
+        return latencySamplingInterval;
+    }
+
+    /**
+     * @return one in every this many events entering the Siddhi app is traced, as given by the 'tracing' rate,
+     * or 0 if event tracing is not enabled
+     */
+    public int getTraceSamplingInterval() {
+        return traceSamplingInterval;
+    }
+
     public void startReporting() {
         if (reporterName.equalsIgnoreCase("console")) {
             reporter = ConsoleReporter.forRegistry(metricRegistry)
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.window;
+
+import io.siddhi.core.config.SiddhiAppContext;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.event.ComplexEventChunk;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.event.stream.MetaStreamEvent;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.event.stream.StreamEventCloner;
+import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.converter.ZeroStreamEventConverter;
+import io.siddhi.core.executor.VariableExpressionExecutor;
+import io.siddhi.core.query.input.SharedWindowStreamReceiver;
+import io.siddhi.core.query.input.stream.single.EntryValveProcessor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.processor.Processor;
+import io.siddhi.core.query.processor.SchedulingProcessor;
+import io.siddhi.core.query.processor.stream.window.WindowProcessor;
+import io.siddhi.core.stream.StreamJunction;
+import io.siddhi.core.table.Table;
+import io.siddhi.core.util.Scheduler;
+import io.siddhi.core.util.lock.LockWrapper;
+import io.siddhi.core.util.parser.SchedulerParser;
+import io.siddhi.core.util.parser.SingleInputStreamParser;
+import io.siddhi.query.api.definition.AbstractDefinition;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Window buffer shared by the queries that apply an identical window on the same stream. The window retains a
+ * single copy of the events and hands over its output to the {@link SharedWindowStreamReceiver}s of the queries,
+ * where each query converts the events to its own layout and keeps its own selector and aggregator state.
+ */
+public class SharedWindowRuntime implements StreamJunction.Receiver {
+
+    private final String streamId;
+    private final LockWrapper lockWrapper;
+    private final ZeroStreamEventConverter eventConverter = new ZeroStreamEventConverter();
+    private final List<SharedWindowStreamReceiver> receivers = new ArrayList<>();
+    private StreamEventFactory streamEventFactory;
+    private Processor windowProcessor;
+    private ProcessingMode processingMode;
+
+    public SharedWindowRuntime(String streamId, String name) {
+        this.streamId = streamId;
+        this.lockWrapper = new LockWrapper(name);
+        this.lockWrapper.setLock(new ReentrantLock());
+    }
+
+    /**
+     * Initialize the shared {@link WindowProcessor}. Events are retained in the same layout as a defined window,
+     * hence all the attributes of the stream are kept as output data.
+     *
+     * @param streamDefinition           definition of the stream the window is applied on
+     * @param window                     the window handler common to all the sharing queries
+     * @param outputExpectsExpiredEvents is expired events sent as output
+     * @param tableMap                   map of {@link Table}s
+     * @param name                       name used to identify the shared window state
+     * @param siddhiAppContext           Siddhi app context
+     */
+    public void init(AbstractDefinition streamDefinition,
+                     io.siddhi.query.api.execution.query.input.handler.Window window,
+                     boolean outputExpectsExpiredEvents, Map<String, Table> tableMap, String name,
+                     SiddhiAppContext siddhiAppContext) {
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addInputDefinition(streamDefinition);
+        metaStreamEvent.setEventType(MetaStreamEvent.EventType.WINDOW);
+        metaStreamEvent.initializeAfterWindowData();
+        for (Attribute attribute : streamDefinition.getAttributeList()) {
+            metaStreamEvent.addOutputData(attribute);
+        }
+
+        this.streamEventFactory = new StreamEventFactory(metaStreamEvent);
+        StreamEventCloner streamEventCloner = new StreamEventCloner(metaStreamEvent, streamEventFactory);
+
+        SiddhiQueryContext siddhiQueryContext = new SiddhiQueryContext(siddhiAppContext, name);
+        WindowProcessor internalWindowProcessor = (WindowProcessor) SingleInputStreamParser.generateProcessor(
+                window, metaStreamEvent, new ArrayList<VariableExpressionExecutor>(), tableMap, false,
+                outputExpectsExpiredEvents, false, siddhiQueryContext);
+        internalWindowProcessor.setStreamEventCloner(streamEventCloner);
+        internalWindowProcessor.constructStreamEventPopulater(metaStreamEvent, 0);
+        this.processingMode = internalWindowProcessor.getProcessingMode();
+
+        if (internalWindowProcessor instanceof SchedulingProcessor) {
+            EntryValveProcessor entryValveProcessor = new EntryValveProcessor(siddhiAppContext);
+            Scheduler scheduler = SchedulerParser.parse(entryValveProcessor, siddhiQueryContext);
+            scheduler.init(lockWrapper, name);
+            scheduler.setStreamEventFactory(streamEventFactory);
+            ((SchedulingProcessor) internalWindowProcessor).setScheduler(scheduler);
+            entryValveProcessor.setToLast(internalWindowProcessor);
+            this.windowProcessor = entryValveProcessor;
+        } else {
+            this.windowProcessor = internalWindowProcessor;
+        }
+        // DispatchProcessor must be the last in chain so that the window output reaches all the queries
+        this.windowProcessor.setToLast(new DispatchProcessor());
+    }
+
+    /**
+     * Add the receiver of a query sharing this window.
+     *
+     * @param receiver receiver of the query
+     * @return true if this is the first receiver, where the window has to be subscribed to the stream
+     */
+    public boolean addReceiver(SharedWindowStreamReceiver receiver) {
+        receivers.add(receiver);
+        return receivers.size() == 1;
+    }
+
+    public ProcessingMode getProcessingMode() {
+        return processingMode;
+    }
+
+    @Override
+    public String getStreamId() {
+        return streamId;
+    }
+
+    @Override
+    public void receive(ComplexEvent complexEvent) {
+        StreamEvent firstEvent = streamEventFactory.newInstance();
+        eventConverter.convertComplexEvent(complexEvent, firstEvent);
+        StreamEvent currentEvent = firstEvent;
+        complexEvent = complexEvent.getNext();
+        while (complexEvent != null) {
+            StreamEvent nextEvent = streamEventFactory.newInstance();
+            eventConverter.convertComplexEvent(complexEvent, nextEvent);
+            currentEvent.setNext(nextEvent);
+            currentEvent = nextEvent;
+            complexEvent = complexEvent.getNext();
+        }
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, false));
+    }
+
+    @Override
+    public void receive(Event event) {
+        if (event != null) {
+            StreamEvent newEvent = streamEventFactory.newInstance();
+            eventConverter.convertEvent(event, newEvent);
+            process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, false));
+        }
+    }
+
+    @Override
+    public void receive(List<Event> events) {
+        StreamEvent firstEvent = null;
+        StreamEvent currentEvent = null;
+        for (Event event : events) {
+            StreamEvent nextEvent = streamEventFactory.newInstance();
+            eventConverter.convertEvent(event, nextEvent);
+            if (firstEvent == null) {
+                firstEvent = nextEvent;
+            } else {
+                currentEvent.setNext(nextEvent);
+            }
+            currentEvent = nextEvent;
+        }
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, false));
+    }
+
+    @Override
+    public void receive(long timestamp, Object[] data) {
+        StreamEvent newEvent = streamEventFactory.newInstance();
+        eventConverter.convertData(timestamp, data, newEvent);
+        process(new ComplexEventChunk<StreamEvent>(newEvent, newEvent, false));
+    }
+
+    @Override
+    public void receive(Event[] events) {
+        StreamEvent firstEvent = streamEventFactory.newInstance();
+        eventConverter.convertEvent(events[0], firstEvent);
+        StreamEvent currentEvent = firstEvent;
+        for (int i = 1, eventsLength = events.length; i < eventsLength; i++) {
+            StreamEvent nextEvent = streamEventFactory.newInstance();
+            eventConverter.convertEvent(events[i], nextEvent);
+            currentEvent.setNext(nextEvent);
+            currentEvent = nextEvent;
+        }
+        process(new ComplexEventChunk<StreamEvent>(firstEvent, currentEvent, false));
+    }
+
+    private void process(ComplexEventChunk<StreamEvent> streamEventChunk) {
+        lockWrapper.lock();
+        try {
+            windowProcessor.process(streamEventChunk);
+        } finally {
+            lockWrapper.unlock();
+        }
+    }
+
+    /**
+     * Last processor of the shared window which sends the window output to all the sharing queries.
+     */
+    private class DispatchProcessor implements Processor {
+
+        @Override
+        public void process(ComplexEventChunk complexEventChunk) {
+            ComplexEvent first = complexEventChunk.getFirst();
+            if (first == null) {
+                return;
+            }
+            for (SharedWindowStreamReceiver receiver : receivers) {
+                receiver.receive(first, complexEventChunk.isBatch());
+            }
+        }
+
+        @Override
+        public Processor getNextProcessor() {
+            return null;
+        }
+
+        @Override
+        public void setNextProcessor(Processor processor) {
+            // Do nothing
+        }
+
+        @Override
+        public void setToLast(Processor processor) {
+            // Do nothing
+        }
+    }
+}
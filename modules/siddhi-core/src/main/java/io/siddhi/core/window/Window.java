@@ -46,6 +46,7 @@ import io.siddhi.core.util.parser.SingleInputStreamParser;
 import io.siddhi.core.util.parser.helper.QueryParserHelper;
 import io.siddhi.core.util.statistics.LatencyTracker;
 import io.siddhi.core.util.statistics.MemoryCalculable;
+import io.siddhi.core.util.statistics.MemoryEstimable;
 import io.siddhi.core.util.statistics.ThroughputTracker;
 import io.siddhi.core.util.statistics.metrics.Level;
 import io.siddhi.query.api.definition.Attribute;
@@ -62,7 +63,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * Window implementation of SiddhiQL.
  * It can be seen as a global Window which can be accessed from multiple queries.
  */
-public class Window implements FindableProcessor, MemoryCalculable {
+public class Window implements FindableProcessor, MemoryCalculable, MemoryEstimable {
 
     /**
      * WindowDefinition used to construct this window.
@@ -298,6 +299,14 @@ public class Window implements FindableProcessor, MemoryCalculable {
         return internalWindowProcessor.getProcessingMode();
     }
 
+    @Override
+    public long getEstimatedMemoryUsage() {
+        if (internalWindowProcessor == null) {
+            return -1;
+        }
+        return internalWindowProcessor.getEstimatedMemoryUsage();
+    }
+
     /**
      * PublisherProcessor receives events from the last window processor of Window,
      * filter them depending on user defined output type and publish them to the stream junction.
@@ -21,6 +21,7 @@ package io.siddhi.core.aggregation;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.CannotRestoreSiddhiAppStateException;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.exception.StoreQueryCreationException;
 import io.siddhi.core.query.output.callback.QueryCallback;
@@ -28,6 +29,7 @@ import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.util.EventPrinter;
 import io.siddhi.core.util.SiddhiTestHelper;
 import io.siddhi.core.util.config.InMemoryConfigManager;
+import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
 import org.apache.log4j.Logger;
 import org.testng.Assert;
 import org.testng.AssertJUnit;
@@ -722,5 +724,286 @@ public class Aggregation2TestCase {
 
     }
 
-}
+    @Test
+    public void incrementalStreamProcessorTest61() throws InterruptedException {
+
+        LOG.info("incrementalStreamProcessorTest61 - Reuse of in-memory roll-up across find queries");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String stockStream =
+                "define stream stockStream (symbol string, price float, lastClosingPrice float, volume long , " +
+                        "quantity int, timestamp long);";
+        String query = "define aggregation stockAggregation " +
+                "from stockStream " +
+                "select symbol, sum(price) as totalPrice " +
+                "group by symbol " +
+                "aggregate by timestamp every sec...year ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(stockStream + query);
+
+        try {
+            InputHandler stockStreamInputHandler = siddhiAppRuntime.getInputHandler("stockStream");
+            siddhiAppRuntime.start();
+            String findQuery = "from stockAggregation within 0L, 1543664151000L per 'days' " +
+                    "select AGG_TIMESTAMP, symbol, totalPrice ";
+
+            // Thursday, June 1, 2017 4:05:50 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 50f, 60f, 90L, 6, 1496289950000L});
+            stockStreamInputHandler.send(new Object[]{"IBM", 100f, null, 200L, 16, 1496289950000L});
+
+            List<Object[]> expected = Arrays.asList(
+                    new Object[]{1496275200000L, "WSO2", 50.0},
+                    new Object[]{1496275200000L, "IBM", 100.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+            // Unchanged in-memory data is served from the materialized roll-up
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+
+            // Only the in-memory data of the root executor changes
+            stockStreamInputHandler.send(new Object[]{"WSO2", 20f, null, 200L, 9, 1496289950000L});
+            expected = Arrays.asList(
+                    new Object[]{1496275200000L, "WSO2", 70.0},
+                    new Object[]{1496275200000L, "IBM", 100.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+
+            // Thursday, June 1, 2017 4:05:52 AM, where the root executor emits to the executors of larger durations
+            stockStreamInputHandler.send(new Object[]{"IBM", 30f, null, 200L, 26, 1496289952000L});
+            Thread.sleep(500);
+            expected = Arrays.asList(
+                    new Object[]{1496275200000L, "WSO2", 70.0},
+                    new Object[]{1496275200000L, "IBM", 130.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+
+            List<Object[]> expectedPerSecond = Arrays.asList(
+                    new Object[]{1496289950000L, "WSO2", 70.0},
+                    new Object[]{1496289950000L, "IBM", 100.0},
+                    new Object[]{1496289952000L, "IBM", 30.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query("from stockAggregation within 0L, 1543664151000L " +
+                            "per 'seconds' select AGG_TIMESTAMP, symbol, totalPrice ")), expectedPerSecond));
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test(dependsOnMethods = {"incrementalStreamProcessorTest61"})
+    public void incrementalStreamProcessorTest62() throws InterruptedException {
+
+        LOG.info("incrementalStreamProcessorTest62 - Group by filters pushed down to the aggregation tables");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String stockStream =
+                "define stream stockStream (symbol string, price float, lastClosingPrice float, volume long , " +
+                        "quantity int, timestamp long);";
+        String query = "define aggregation stockAggregation " +
+                "from stockStream " +
+                "select symbol, sum(price) as totalPrice " +
+                "group by symbol " +
+                "aggregate by timestamp every sec...year ;" +
+
+                "define stream inputStream (symbol string); " +
+
+                "@info(name = 'query1') " +
+                "from inputStream as i join stockAggregation as s " +
+                "on i.symbol == s.symbol " +
+                "within 0L, 1543664151000L " +
+                "per 'days' " +
+                "select s.symbol, totalPrice " +
+                "insert all events into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(stockStream + query);
+
+        try {
+            siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+                @Override
+                public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                    if (inEvents != null) {
+                        EventPrinter.print(timestamp, inEvents, removeEvents);
+                        for (Event event : inEvents) {
+                            inEventsList.add(event.getData());
+                            inEventCount.incrementAndGet();
+                        }
+                        eventArrived = true;
+                    }
+                }
+            });
+
+            InputHandler stockStreamInputHandler = siddhiAppRuntime.getInputHandler("stockStream");
+            InputHandler inputStreamInputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+            siddhiAppRuntime.start();
+
+            // Thursday, June 1, 2017 4:05:50 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 50f, 60f, 90L, 6, 1496289950000L});
+            stockStreamInputHandler.send(new Object[]{"IBM", 100f, null, 200L, 16, 1496289950000L});
+            // Friday, June 2, 2017 4:05:50 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 30f, null, 200L, 26, 1496376350000L});
+            stockStreamInputHandler.send(new Object[]{"WSO2", 20f, null, 200L, 9, 1496376350000L});
+            // Saturday, June 3, 2017 4:05:50 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 10f, null, 200L, 26, 1496462750000L});
+            Thread.sleep(500);
+
+            List<Object[]> expected = Arrays.asList(
+                    new Object[]{1496275200000L, "IBM", 100.0},
+                    new Object[]{1496361600000L, "IBM", 30.0},
+                    new Object[]{1496448000000L, "IBM", 10.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query("from stockAggregation on symbol == 'IBM' " +
+                            "within 0L, 1543664151000L per 'days' select AGG_TIMESTAMP, symbol, totalPrice ")),
+                    expected));
+
+            // Only the conjunct on the group by attribute is pushed down, the one on the aggregate is not
+            expected = Arrays.asList(
+                    new Object[]{1496275200000L, "IBM", 100.0},
+                    new Object[]{1496361600000L, "IBM", 30.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query("from stockAggregation " +
+                            "on symbol == 'IBM' and totalPrice > 20.0 " +
+                            "within 0L, 1543664151000L per 'days' select AGG_TIMESTAMP, symbol, totalPrice ")),
+                    expected));
+
+            expected = Arrays.asList(
+                    new Object[]{"WSO2", 50.0},
+                    new Object[]{"WSO2", 20.0}
+            );
+            inputStreamInputHandler.send(new Object[]{"WSO2"});
+            Thread.sleep(100);
+            AssertJUnit.assertEquals("Number of success events", 2, inEventCount.get());
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(inEventsList, expected));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test(dependsOnMethods = {"incrementalStreamProcessorTest62"})
+    public void incrementalStreamProcessorTest63() throws InterruptedException, CannotRestoreSiddhiAppStateException {
 
+        LOG.info("incrementalStreamProcessorTest63 - Time bucketed aggregation tables with restore");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+
+        String siddhiApp = "@app:name('incrementalStreamProcessorTest63') " +
+                "define stream stockStream (symbol string, price float, timestamp long);" +
+                "define aggregation stockAggregation " +
+                "from stockStream " +
+                "select symbol, sum(price) as totalPrice " +
+                "group by symbol " +
+                "aggregate by timestamp every sec...min ;";
+        String findQuery = "from stockAggregation within 1496289951000L, 1496289953000L per 'seconds' " +
+                "select AGG_TIMESTAMP, symbol, totalPrice ";
+        String indexedFindQuery = "from stockAggregation on symbol == 'IBM' " +
+                "within 1496289951000L, 1496289953000L per 'seconds' " +
+                "select AGG_TIMESTAMP, symbol, totalPrice ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        try {
+            InputHandler stockStreamInputHandler = siddhiAppRuntime.getInputHandler("stockStream");
+            siddhiAppRuntime.start();
+
+            // Thursday, June 1, 2017 4:05:50 AM to 4:05:53 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 50f, 1496289950000L});
+            stockStreamInputHandler.send(new Object[]{"IBM", 100f, 1496289951000L});
+            stockStreamInputHandler.send(new Object[]{"WSO2", 20f, 1496289951500L});
+            stockStreamInputHandler.send(new Object[]{"IBM", 30f, 1496289952000L});
+            stockStreamInputHandler.send(new Object[]{"IBM", 10f, 1496289953000L});
+            Thread.sleep(100);
+
+            List<Object[]> expected = Arrays.asList(
+                    new Object[]{1496289951000L, "IBM", 100.0},
+                    new Object[]{1496289951000L, "WSO2", 20.0},
+                    new Object[]{1496289952000L, "IBM", 30.0}
+            );
+            List<Object[]> expectedIndexed = Arrays.asList(
+                    new Object[]{1496289951000L, "IBM", 100.0},
+                    new Object[]{1496289952000L, "IBM", 30.0}
+            );
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query(indexedFindQuery)), expectedIndexed));
+
+            siddhiAppRuntime.persist();
+            Thread.sleep(100);
+            siddhiAppRuntime.shutdown();
+
+            siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+            siddhiAppRuntime.restoreLastRevision();
+            siddhiAppRuntime.start();
+            AssertJUnit.assertEquals("Data Matched", true,
+                    SiddhiTestHelper.isUnsortedEventsMatch(getData(siddhiAppRuntime.query(findQuery)), expected));
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query(indexedFindQuery)), expectedIndexed));
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test(dependsOnMethods = {"incrementalStreamProcessorTest63"})
+    public void incrementalStreamProcessorTest64() throws InterruptedException {
+
+        LOG.info("incrementalStreamProcessorTest64 - Pipelined roll-up across durations");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String stockStream = "define stream stockStream (symbol string, price float, timestamp long);";
+        String query = "@Async(buffer.size='2') " +
+                "define aggregation stockAggregation " +
+                "from stockStream " +
+                "select symbol, sum(price) as totalPrice, count() as count " +
+                "group by symbol " +
+                "aggregate by timestamp every sec...hour ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(stockStream + query);
+        try {
+            InputHandler stockStreamInputHandler = siddhiAppRuntime.getInputHandler("stockStream");
+            siddhiAppRuntime.start();
+
+            // One event per 20 seconds from Thursday, June 1, 2017 4:00:00 AM, crossing second, minute and hour
+            // boundaries
+            long startTime = 1496289600000L;
+            for (int i = 0; i < 200; i++) {
+                stockStreamInputHandler.send(new Object[]{i % 2 == 0 ? "WSO2" : "IBM", 1f, startTime + i * 20000L});
+            }
+
+            List<Object[]> expected = Arrays.asList(
+                    new Object[]{1496289600000L, "WSO2", 90.0, 90L},
+                    new Object[]{1496289600000L, "IBM", 90.0, 90L},
+                    new Object[]{1496293200000L, "WSO2", 10.0, 10L},
+                    new Object[]{1496293200000L, "IBM", 10.0, 10L}
+            );
+            AssertJUnit.assertEquals("Data Matched", true, SiddhiTestHelper.isUnsortedEventsMatch(
+                    getData(siddhiAppRuntime.query("from stockAggregation within 0L, 1543664151000L " +
+                            "per 'hours' select AGG_TIMESTAMP, symbol, totalPrice, count ")), expected));
+
+            Event[] events = siddhiAppRuntime.query("from stockAggregation within 0L, 1543664151000L " +
+                    "per 'minutes' select AGG_TIMESTAMP, symbol, totalPrice, count ");
+            AssertJUnit.assertNotNull(events);
+            AssertJUnit.assertEquals("Number of aggregates per minute and symbol", 134, events.length);
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    private List<Object[]> getData(Event[] events) {
+        AssertJUnit.assertNotNull("Aggregation event list is null", events);
+        List<Object[]> eventsList = new ArrayList<>();
+        for (Event event : events) {
+            eventsList.add(event.getData());
+        }
+        return eventsList;
+    }
+}
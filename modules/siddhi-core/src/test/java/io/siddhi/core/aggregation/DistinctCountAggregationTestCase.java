@@ -180,4 +180,132 @@ public class DistinctCountAggregationTestCase {
             siddhiAppRuntime.shutdown();
         }
     }
+
+    @Test
+    public void incrementalStreamProcessorTest2() throws InterruptedException {
+        LOG.info("incrementalStreamProcessorTest2: testing approxDistinctCount incremental aggregator");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String stockStream =
+                "define stream stockStream (symbol string, price float, lastClosingPrice float, volume long , " +
+                        "quantity int, timestamp long);";
+        String query =
+                "define aggregation stockAggregation " +
+                        "from stockStream " +
+                        "select approxDistinctCount(symbol) as distinctCnt " +
+                        "aggregate by timestamp every sec...year ;" +
+
+                        "define stream inputStream (symbol string); " +
+
+                        "@info(name = 'query1') " +
+                        "from inputStream as i join stockAggregation as s " +
+                        "within 1496200000000L, 1596535449000L " +
+                        "per \"days\" " +
+                        "select AGG_TIMESTAMP, s.distinctCnt " +
+                        "order by AGG_TIMESTAMP " +
+                        "insert all events into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(stockStream + query);
+
+        try {
+            siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+                @Override
+                public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                    if (inEvents != null) {
+                        EventPrinter.print(timestamp, inEvents, removeEvents);
+                        for (Event event : inEvents) {
+                            inEventsList.add(event.getData());
+                            inEventCount.incrementAndGet();
+                        }
+                        eventArrived = true;
+                    }
+                    if (removeEvents != null) {
+                        EventPrinter.print(timestamp, inEvents, removeEvents);
+                        for (Event event : removeEvents) {
+                            removeEventsList.add(event.getData());
+                            removeEventCount.incrementAndGet();
+                        }
+                    }
+                    eventArrived = true;
+                }
+            });
+            InputHandler stockStreamInputHandler = siddhiAppRuntime.getInputHandler("stockStream");
+            InputHandler inputStreamInputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+            siddhiAppRuntime.start();
+
+            // Thursday, June 1, 2017 4:05:50 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 50f, 60f, 90L, 6, 1496289950000L});
+            stockStreamInputHandler.send(new Object[]{"WSO22", 70f, null, 40L, 10, 1496289950000L});
+
+            // Thursday, June 1, 2017 4:05:52 AM
+            stockStreamInputHandler.send(new Object[]{"WSO23", 60f, 44f, 200L, 56, 1496289952000L});
+            stockStreamInputHandler.send(new Object[]{"WSO24", 100f, null, 200L, 16, 1496289952000L});
+
+            // Thursday, June 1, 2017 4:05:54 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 101f, null, 200L, 26, 1496289954000L});
+            stockStreamInputHandler.send(new Object[]{"IBM1", 102f, null, 200L, 96, 1496289954000L});
+
+            // Thursday, June 1, 2017 4:05:56 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 900f, null, 200L, 60, 1496289956000L});
+            stockStreamInputHandler.send(new Object[]{"IBM1", 500f, null, 200L, 7, 1496289956000L});
+
+            // Thursday, June 1, 2017 4:06:56 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 400f, null, 200L, 9, 1496290016000L});
+
+            // Thursday, June 1, 2017 4:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"IBM2", 600f, null, 200L, 6, 1496290076000L});
+
+            // Thursday, June 1, 2017 5:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"CISCO", 700f, null, 200L, 20, 1496293676000L});
+
+            // Thursday, June 1, 2017 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 61f, 44f, 200L, 56, 1496297276000L});
+
+            // Friday, June 2, 2017 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"CISCO", 801f, null, 100L, 10, 1496383676000L});
+
+            // Saturday, June 3, 2017 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"CISCO", 901f, null, 100L, 15, 1496470076000L});
+
+            // Monday, July 3, 2017 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 101f, null, 200L, 96, 1499062076000L});
+
+            // Thursday, August 3, 2017 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"IBM", 402f, null, 200L, 9, 1501740476000L});
+
+            // Friday, August 3, 2018 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 63f, 44f, 200L, 6, 1533276476000L});
+
+            // Saturday, August 3, 2019 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"WSO2", 260f, 44f, 200L, 16, 1564812476000L});
+
+            // Monday, August 3, 2020 6:07:56 AM
+            stockStreamInputHandler.send(new Object[]{"CISCO", 26f, 44f, 200L, 16, 1596434876000L});
+
+            Thread.sleep(100);
+
+            inputStreamInputHandler.send(new Object[]{"IBM"});
+            Thread.sleep(100);
+
+            List<Object[]> expected = Arrays.asList(
+                    new Object[]{1496275200000L, 8L},
+                    new Object[]{1496361600000L, 1L},
+                    new Object[]{1496448000000L, 1L},
+                    new Object[]{1499040000000L, 1L},
+                    new Object[]{1501718400000L, 1L},
+                    new Object[]{1533254400000L, 1L},
+                    new Object[]{1564790400000L, 1L},
+                    new Object[]{1596412800000L, 1L}
+            );
+            SiddhiTestHelper.waitForEvents(100, 8, inEventCount, 10000);
+            AssertJUnit.assertEquals("In events matched", true, SiddhiTestHelper.isEventsMatch(inEventsList, expected));
+            AssertJUnit.assertEquals("Remove events matched", true, SiddhiTestHelper.isEventsMatch(
+                    removeEventsList, expected));
+            AssertJUnit.assertEquals("Number of success events", 8, inEventCount.get());
+            AssertJUnit.assertEquals("Number of remove events", 8, removeEventCount.get());
+            AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        } finally {
+            siddhiAppRuntime.shutdown();
+        }
+    }
 }
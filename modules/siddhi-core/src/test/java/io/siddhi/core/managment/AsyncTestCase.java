@@ -32,7 +32,14 @@ import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AsyncTestCase {
@@ -400,4 +407,182 @@ public class AsyncTestCase {
         SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
 
     }
+
+    @Test(dependsOnMethods = {"asyncTest8"})
+    public void asyncTest9() throws InterruptedException {
+        log.info("async test 9 - workers consume disjoint shards round robin");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@async(buffer.size='16', workers='4', batch.size.max='5')" +
+                "define stream cseEventStream (symbol string, price float, volume int);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        Set<Object> volumes = ConcurrentHashMap.newKeySet();
+        siddhiAppRuntime.addCallback("cseEventStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    count.incrementAndGet();
+                    volumes.add(event.getData(2));
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, i});
+        }
+        SiddhiTestHelper.waitForEvents(100, 100, count, 5000);
+        Thread.sleep(100);
+        AssertJUnit.assertEquals(100, count.get());
+        AssertJUnit.assertEquals(100, volumes.size());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(dependsOnMethods = {"asyncTest9"})
+    public void asyncTest10() throws InterruptedException {
+        log.info("async test 10 - workers consume shards by partition key preserving the order per key");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@async(buffer.size='16', workers='3', batch.size.max='5', partition.by='symbol')" +
+                "define stream cseEventStream (symbol string, price float, volume int);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        Map<Object, List<Object>> volumesPerSymbol = new ConcurrentHashMap<>();
+        Map<Object, String> threadPerSymbol = new ConcurrentHashMap<>();
+        AtomicBoolean sameThreadPerSymbol = new AtomicBoolean(true);
+        siddhiAppRuntime.addCallback("cseEventStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    Object symbol = event.getData(0);
+                    String thread = threadPerSymbol.putIfAbsent(symbol, Thread.currentThread().getName());
+                    if (thread != null && !thread.equals(Thread.currentThread().getName())) {
+                        sameThreadPerSymbol.set(false);
+                    }
+                    volumesPerSymbol.computeIfAbsent(symbol, k -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(event.getData(2));
+                    count.incrementAndGet();
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        siddhiAppRuntime.start();
+        String[] symbols = new String[]{"WSO2", "IBM", "ORACLE", "GOOG", "MSFT"};
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{symbols[i % symbols.length], 55.6f, i});
+        }
+        SiddhiTestHelper.waitForEvents(100, 100, count, 5000);
+        AssertJUnit.assertEquals(100, count.get());
+        AssertJUnit.assertTrue(sameThreadPerSymbol.get());
+        for (int i = 0; i < symbols.length; i++) {
+            List<Object> volumes = volumesPerSymbol.get(symbols[i]);
+            AssertJUnit.assertEquals(20, volumes.size());
+            for (int j = 0; j < volumes.size(); j++) {
+                AssertJUnit.assertEquals(i + j * symbols.length, volumes.get(j));
+            }
+        }
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class, dependsOnMethods = {"asyncTest10"})
+    public void asyncTest11() throws InterruptedException {
+        log.info("async test 11 - partition key not defined in the stream");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@async(buffer.size='16', workers='2', partition.by='company')" +
+                "define stream cseEventStream (symbol string, price float, volume int);";
+
+        siddhiManager.createSiddhiAppRuntime(siddhiApp);
+    }
+
+    @Test(dependsOnMethods = {"asyncTest11"})
+    public void asyncTest12() throws InterruptedException {
+        log.info("async test 12 - wait strategies and producer types");
+
+        String[][] profiles = new String[][]{
+                {"busy-spin", "single"}, {"yield", "multi"}, {"sleep", "single"}, {"block", "multi"}};
+        for (String[] profile : profiles) {
+            count.set(0);
+            SiddhiManager siddhiManager = new SiddhiManager();
+            String siddhiApp = "" +
+                    "@async(buffer.size='16', wait.strategy='" + profile[0] + "', producer='" + profile[1] + "')" +
+                    "define stream cseEventStream (symbol string, price float, volume int);" +
+                    "" +
+                    "@info(name = 'query1') " +
+                    "from cseEventStream[70 > price] " +
+                    "select * " +
+                    "insert into outputStream ;";
+
+            SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+            siddhiAppRuntime.addCallback("outputStream", new StreamCallback() {
+                @Override
+                public void receive(Event[] events) {
+                    count.addAndGet(events.length);
+                }
+            });
+            InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+            siddhiAppRuntime.start();
+            for (int i = 0; i < 50; i++) {
+                inputHandler.send(new Object[]{"WSO2", i % 2 == 0 ? 55.6f : 75.6f, i});
+            }
+            SiddhiTestHelper.waitForEvents(10, 25, count, 5000);
+            AssertJUnit.assertEquals("Wait strategy " + profile[0], 25, count.get());
+            siddhiAppRuntime.shutdown();
+        }
+    }
+
+    @Test(dependsOnMethods = {"asyncTest12"})
+    public void asyncTest13() throws InterruptedException {
+        log.info("async test 13 - app level async profile");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@app:asyncProfile(wait.strategy='yield', producer='multi') " +
+                "@async(buffer.size='16')" +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[70 > price] " +
+                "select * " +
+                "insert into outputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                count.addAndGet(events.length);
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 20; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, i});
+        }
+        SiddhiTestHelper.waitForEvents(10, 20, count, 5000);
+        AssertJUnit.assertEquals(20, count.get());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class, dependsOnMethods = {"asyncTest13"})
+    public void asyncTest14() throws InterruptedException {
+        log.info("async test 14 - unknown wait strategy");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@async(buffer.size='16', wait.strategy='park')" +
+                "define stream cseEventStream (symbol string, price float, volume int);";
+
+        siddhiManager.createSiddhiAppRuntime(siddhiApp);
+    }
 }
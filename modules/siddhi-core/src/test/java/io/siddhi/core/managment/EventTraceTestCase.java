@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.managment;
+
+import com.codahale.metrics.MetricRegistry;
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.statistics.EventTrace;
+import io.siddhi.core.util.statistics.metrics.SiddhiEventTraceMetric;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventTraceTestCase {
+    private static final Logger log = Logger.getLogger(EventTraceTestCase.class);
+
+    @Test
+    public void eventTraceTest1() {
+        log.info("event trace test 1 - sampling and per path timers");
+        MetricRegistry metricRegistry = new MetricRegistry();
+        SiddhiEventTraceMetric eventTraceMetric = new SiddhiEventTraceMetric("test", metricRegistry, 2);
+        int sampled = 0;
+        for (int i = 0; i < 10; i++) {
+            EventTrace trace = eventTraceMetric.startTrace("input(S)");
+            if (trace != null) {
+                sampled++;
+                trace.mark("junction(S)").complete("callback(S)");
+            }
+        }
+        AssertJUnit.assertEquals(5, sampled);
+
+        String path = "test.input(S) > junction(S) > callback(S).";
+        AssertJUnit.assertEquals(3, metricRegistry.getTimers().size());
+        AssertJUnit.assertEquals(5, metricRegistry.getTimers().get(path + "total.latency").getCount());
+        AssertJUnit.assertEquals(5, metricRegistry.getTimers().get(path + "1.junction(S).latency").getCount());
+        AssertJUnit.assertEquals(5, metricRegistry.getTimers().get(path + "2.callback(S).latency").getCount());
+    }
+
+    @Test
+    public void eventTraceTest2() throws InterruptedException {
+        log.info("event trace test 2 - tracing through async streams and partitions");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@app:statistics(reporter = 'console', interval = '1', tracing = '1')" +
+                " " +
+                "@async(buffer.size = '16')" +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[70 > price] " +
+                "select * " +
+                "insert into outputStream ;" +
+                "" +
+                "partition with (symbol of cseEventStream) " +
+                "begin " +
+                "   @info(name = 'query2') " +
+                "   from cseEventStream " +
+                "   select symbol, sum(volume) as totalVolume " +
+                "   insert into partitionedStream ;" +
+                "end;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        final AtomicInteger count = new AtomicInteger();
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                count.addAndGet(events.length);
+            }
+        };
+        siddhiAppRuntime.addCallback("outputStream", streamCallback);
+        siddhiAppRuntime.addCallback("partitionedStream", streamCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos);
+        PrintStream old = System.out;
+        System.setOut(ps);
+
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10; i++) {
+            inputHandler.send(new Object[]{i % 2 == 0 ? "WSO2" : "IBM", 55.6f, 100});
+        }
+
+        Thread.sleep(1500);
+        siddhiAppRuntime.shutdown();
+
+        System.out.flush();
+        String output = baos.toString();
+        System.setOut(old);
+        log.info(output);
+
+        AssertJUnit.assertEquals(20, count.get());
+        AssertJUnit.assertTrue(output.contains("Traces.input(cseEventStream) > junction(cseEventStream) > " +
+                "queue(cseEventStream) > receiver(query1) > selector(query1) > junction(outputStream) > " +
+                "callback(outputStream).total.latency"));
+        AssertJUnit.assertTrue(output.contains("queue(cseEventStream) > partition(cseEventStream)"));
+        AssertJUnit.assertTrue(output.contains("selector(query2) > junction(partitionedStream) > " +
+                "callback(partitionedStream).total.latency"));
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void eventTraceTest3() {
+        log.info("event trace test 3 - invalid tracing rate");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@app:statistics(reporter = 'console', tracing = '0')" +
+                " " +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream " +
+                "select * " +
+                "insert into outputStream ;";
+        siddhiManager.createSiddhiAppRuntime(siddhiApp);
+    }
+}
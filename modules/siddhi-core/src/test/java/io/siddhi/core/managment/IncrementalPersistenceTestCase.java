@@ -28,15 +28,24 @@ import io.siddhi.core.stream.output.StreamCallback;
 import io.siddhi.core.util.EventPrinter;
 import io.siddhi.core.util.SiddhiTestHelper;
 import io.siddhi.core.util.persistence.IncrementalFileSystemPersistenceStore;
+import io.siddhi.core.util.persistence.SegmentedIncrementalFileSystemPersistenceStore;
+import io.siddhi.core.util.persistence.util.PersistenceConstants;
+import io.siddhi.core.util.snapshot.PersistenceReference;
 import org.apache.log4j.Logger;
 import org.testng.Assert;
 import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -1280,4 +1289,338 @@ public class IncrementalPersistenceTestCase {
 
         AssertJUnit.assertEquals(true, eventArrived);
     }
+
+    @Test
+    public void incrementalPersistenceTest13() throws InterruptedException, ExecutionException {
+        log.info("Incremental persistence test 13 - length window query with segmented file persistence store");
+        final int eventWindowSize = 4;
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(
+                new SegmentedIncrementalFileSystemPersistenceStore(storageFilePath, 1024));
+
+        String siddhiApp = "" +
+                "@app:name('incrementalPersistenceTest13') " +
+                "" +
+                "define stream StockStream ( symbol string, price float, volume int );" +
+                "" +
+                "@info(name = 'query1')" +
+                "from StockStream#window.length(" + eventWindowSize + ") " +
+                "select symbol, price, sum(volume) as totalVol " +
+                "insert into OutStream ";
+
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = (Long) inEvent.getData(2);
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 10; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f + i, 100 + i});
+            PersistenceReference persistenceReference = siddhiAppRuntime.persist();
+            for (Future future : persistenceReference.getIncrementalStateFuture()) {
+                future.get();
+            }
+            Thread.sleep(10);
+        }
+        AssertJUnit.assertEquals(new Long(430), lastValue);
+        siddhiAppRuntime.shutdown();
+
+        // reopen the segments with a new store
+        siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(
+                new SegmentedIncrementalFileSystemPersistenceStore(storageFilePath, 1024));
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            log.error(e.getMessage(), e);
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 100.4f, 200});
+        AssertJUnit.assertEquals(new Long(524), lastValue);
+
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.shutdown();
+        AssertJUnit.assertEquals(11, count);
+    }
+
+    @Test
+    public void incrementalPersistenceTest14() throws InterruptedException, ExecutionException {
+        log.info("Incremental persistence test 14 - primary key table updates and length window");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(new IncrementalFileSystemPersistenceStore(storageFilePath));
+
+        String siddhiApp = "" +
+                "@app:name('incrementalPersistenceTest14') " +
+                "" +
+                "define stream StockStream ( symbol string, price float, volume long );" +
+                "define stream DeleteStockStream ( symbol string );" +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable ( symbol string, price float, volume long );" +
+                "" +
+                "from StockStream " +
+                "update or insert into StockTable " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query1')" +
+                "from StockStream#window.length(2) " +
+                "select symbol, sum(volume) as totalVol " +
+                "insert into OutStream ";
+
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = (Long) inEvent.getData(1);
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"IBM", 10f, 100L});
+        stockStream.send(new Object[]{"WSO2", 20f, 200L});
+        stockStream.send(new Object[]{"ORCL", 30f, 300L});
+        persist(siddhiAppRuntime);
+        for (int i = 1; i <= 5; i++) {
+            stockStream.send(new Object[]{"IBM", 10f + i, 100L + i});
+            stockStream.send(new Object[]{"WSO2", 20f + i, 200L + i});
+            persist(siddhiAppRuntime);
+        }
+        deleteStockStream.send(new Object[]{"ORCL"});
+        stockStream.send(new Object[]{"GOOG", 40f, 400L});
+        persist(siddhiAppRuntime);
+        AssertJUnit.assertEquals(new Long(605), lastValue);
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            log.error(e.getMessage(), e);
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+        siddhiAppRuntime.start();
+
+        Event[] events = siddhiAppRuntime.query("from StockTable select symbol, price, volume order by symbol ");
+        AssertJUnit.assertEquals(3, events.length);
+        AssertJUnit.assertArrayEquals(new Object[]{"GOOG", 40f, 400L}, events[0].getData());
+        AssertJUnit.assertArrayEquals(new Object[]{"IBM", 15f, 105L}, events[1].getData());
+        AssertJUnit.assertArrayEquals(new Object[]{"WSO2", 25f, 205L}, events[2].getData());
+
+        stockStream.send(new Object[]{"IBM", 16f, 106L});
+        AssertJUnit.assertEquals(new Long(506), lastValue);
+
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.shutdown();
+        AssertJUnit.assertEquals(15, count);
+    }
+
+    @Test
+    public void incrementalPersistenceTest15() throws InterruptedException, ExecutionException, IOException {
+        log.info("Incremental persistence test 15 - segment truncated in the middle of a record");
+        String siddhiApp = getSegmentedSiddhiApp("incrementalPersistenceTest15");
+        persistSegmented(siddhiApp, 16 * 1024 * 1024);
+
+        // cut the segment in the middle of the first record of the last revision, as if the app stopped while
+        // writing it
+        File segmentFile = getSegmentFile("incrementalPersistenceTest15", 0);
+        long[] record = findLastRevisionRecord(segmentFile);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.setLength(record[0] + record[1] / 2);
+        }
+
+        // the incomplete record and the records after it are dropped, restoring the previous revision
+        restoreSegmented(siddhiApp, 16 * 1024 * 1024, 621);
+    }
+
+    @Test
+    public void incrementalPersistenceTest16() throws InterruptedException, ExecutionException, IOException {
+        log.info("Incremental persistence test 16 - segment with a corrupted record checksum");
+        String siddhiApp = getSegmentedSiddhiApp("incrementalPersistenceTest16");
+        persistSegmented(siddhiApp, 16 * 1024 * 1024);
+
+        // flip the checksum of the first record of the last revision
+        File segmentFile = getSegmentFile("incrementalPersistenceTest16", 0);
+        long[] record = findLastRevisionRecord(segmentFile);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(record[0] + 8);
+            long checksum = file.readLong();
+            file.seek(record[0] + 8);
+            file.writeLong(~checksum);
+        }
+
+        // the corrupted record and the records after it are dropped, restoring the previous revision
+        restoreSegmented(siddhiApp, 16 * 1024 * 1024, 621);
+    }
+
+    @Test
+    public void incrementalPersistenceTest17() throws InterruptedException, ExecutionException, IOException {
+        log.info("Incremental persistence test 17 - compaction of superseded segments");
+        String siddhiApp = "" +
+                "@app:name('incrementalPersistenceTest17') " +
+                "" +
+                "define stream StockStream ( symbol string, price float, volume int );" +
+                "" +
+                "@info(name = 'query1')" +
+                "from StockStream " +
+                "select symbol, price, sum(volume) as totalVol " +
+                "insert into OutStream ";
+        // every record is written to a segment of its own, and the records of the running sum are periodic
+        // snapshots superseded by the next revision, hence the sealed segments hold no live records
+        persistSegmented(siddhiApp, 1);
+
+        File firstSegmentFile = getSegmentFile("incrementalPersistenceTest17", 0);
+        for (int i = 0; i < 100 && firstSegmentFile.exists(); i++) {
+            Thread.sleep(50);
+        }
+        AssertJUnit.assertFalse(firstSegmentFile.exists());
+
+        restoreSegmented(siddhiApp, 1, 1245);
+    }
+
+    private String getSegmentedSiddhiApp(String siddhiAppName) {
+        return "" +
+                "@app:name('" + siddhiAppName + "') " +
+                "" +
+                "define stream StockStream ( symbol string, price float, volume int );" +
+                "" +
+                "@info(name = 'query1')" +
+                "from StockStream#window.length(4) " +
+                "select symbol, price, sum(volume) as totalVol " +
+                "insert into OutStream ";
+    }
+
+    private QueryCallback getSegmentedQueryCallback() {
+        return new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = (Long) inEvent.getData(2);
+                }
+            }
+        };
+    }
+
+    private void persistSegmented(String siddhiApp, long segmentSize) throws InterruptedException,
+            ExecutionException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(
+                new SegmentedIncrementalFileSystemPersistenceStore(storageFilePath, segmentSize));
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.addCallback("query1", getSegmentedQueryCallback());
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f + i, 100 + i});
+            persist(siddhiAppRuntime);
+        }
+        siddhiAppRuntime.shutdown();
+    }
+
+    private void restoreSegmented(String siddhiApp, long segmentSize, long expectedValue)
+            throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(
+                new SegmentedIncrementalFileSystemPersistenceStore(storageFilePath, segmentSize));
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("query1", getSegmentedQueryCallback());
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            log.error(e.getMessage(), e);
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 100.4f, 200});
+        AssertJUnit.assertEquals(new Long(expectedValue), lastValue);
+
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.shutdown();
+        AssertJUnit.assertEquals(11, count);
+    }
+
+    private File getSegmentFile(String siddhiAppName, int id) {
+        return new File(storageFilePath + File.separator + siddhiAppName + File.separator +
+                "segment-" + String.format("%010d", id) + ".log");
+    }
+
+    /**
+     * Find the first record of the last revision in a segment, where each record is made of the revision length,
+     * the data length and the checksum, followed by the revision and the data.
+     *
+     * @return position and size of the record
+     */
+    private long[] findLastRevisionRecord(File segmentFile) throws IOException {
+        long[] lastRecord = null;
+        long lastTime = -1;
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r")) {
+            long position = 0;
+            while (position + 16 <= file.length()) {
+                file.seek(position);
+                int revisionLength = file.readInt();
+                int dataLength = file.readInt();
+                file.readLong();
+                byte[] revision = new byte[revisionLength];
+                file.readFully(revision);
+                String revisionString = new String(revision, StandardCharsets.UTF_8);
+                long time = Long.parseLong(revisionString.substring(0,
+                        revisionString.indexOf(PersistenceConstants.REVISION_SEPARATOR)));
+                long size = 16 + revisionLength + dataLength;
+                if (time > lastTime) {
+                    lastTime = time;
+                    lastRecord = new long[]{position, size};
+                }
+                position += size;
+            }
+        }
+        AssertJUnit.assertNotNull(lastRecord);
+        return lastRecord;
+    }
+
+    private void persist(SiddhiAppRuntime siddhiAppRuntime) throws InterruptedException, ExecutionException {
+        PersistenceReference persistenceReference = siddhiAppRuntime.persist();
+        for (Future future : persistenceReference.getIncrementalStateFuture()) {
+            future.get();
+        }
+        Thread.sleep(10);
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.managment;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.SiddhiConstants;
+import io.siddhi.core.util.statistics.metrics.LatencyHistogramReservoir;
+import io.siddhi.core.util.statistics.metrics.SiddhiLatencyMetric;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+public class LatencyMetricTestCase {
+    private static final Logger log = Logger.getLogger(LatencyMetricTestCase.class);
+
+    @Test
+    public void latencyMetricTest1() throws InterruptedException {
+        log.info("latency metric test 1 - percentiles merged across threads");
+        final LatencyHistogramReservoir reservoir = new LatencyHistogramReservoir();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int value = threadIndex + 1; value <= 100000; value += threads.length) {
+                        reservoir.update(value * 1000L);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        AssertJUnit.assertEquals(100000, snapshot.size());
+        AssertJUnit.assertEquals(1000L, snapshot.getMin());
+        AssertJUnit.assertEquals(100000000L, snapshot.getMax());
+        assertWithinError(50000000, snapshot.getMedian());
+        assertWithinError(99000000, snapshot.get99thPercentile());
+        assertWithinError(99900000, snapshot.get999thPercentile());
+        assertWithinError(50000500, snapshot.getMean());
+
+        // histograms of the terminated threads are retained after being retired
+        snapshot = reservoir.getSnapshot();
+        AssertJUnit.assertEquals(100000, snapshot.size());
+        AssertJUnit.assertEquals(100000000L, snapshot.getMax());
+    }
+
+    @Test
+    public void latencyMetricTest2() {
+        log.info("latency metric test 2 - sampling");
+        MetricRegistry metricRegistry = new MetricRegistry();
+        SiddhiLatencyMetric latencyMetric = new SiddhiLatencyMetric("test.latency", metricRegistry, 10);
+        for (int i = 0; i < 100; i++) {
+            latencyMetric.markIn();
+            latencyMetric.markOut();
+            // Calls without a matching markIn are ignored
+            latencyMetric.markOut();
+        }
+        AssertJUnit.assertEquals(10, metricRegistry.getTimers().get("test.latency").getCount());
+        AssertJUnit.assertEquals(10, latencyMetric.getSnapshot().size());
+
+        latencyMetric.markIn();
+        latencyMetric.markIn();
+        latencyMetric.markOut();
+        AssertJUnit.assertEquals(10, metricRegistry.getTimers().get("test.latency").getCount());
+    }
+
+    @Test
+    public void latencyMetricTest5() {
+        log.info("latency metric test 5 - nested executions");
+        MetricRegistry metricRegistry = new MetricRegistry();
+        SiddhiLatencyMetric latencyMetric = new SiddhiLatencyMetric("test.latency", metricRegistry);
+        latencyMetric.markIn();
+        latencyMetric.markIn();
+        latencyMetric.markOut();
+        AssertJUnit.assertEquals(0, metricRegistry.getTimers().get("test.latency").getCount());
+        latencyMetric.markOut();
+        AssertJUnit.assertEquals(1, metricRegistry.getTimers().get("test.latency").getCount());
+        latencyMetric.markOut();
+        AssertJUnit.assertEquals(1, metricRegistry.getTimers().get("test.latency").getCount());
+    }
+
+    @Test
+    public void latencyMetricTest3() throws InterruptedException {
+        log.info("latency metric test 3 - stream latency with sampling");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@app:statistics(reporter = 'console', interval = '1', sampling = '0.5')" +
+                " " +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[70 > price] " +
+                "select * " +
+                "insert into outputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos);
+        PrintStream old = System.out;
+        System.setOut(ps);
+
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        }
+
+        Thread.sleep(1500);
+        siddhiAppRuntime.shutdown();
+
+        System.out.flush();
+        String output = baos.toString();
+        System.setOut(old);
+        log.info(output);
+
+        AssertJUnit.assertTrue(output.contains(SiddhiConstants.METRIC_INFIX_STREAMS + SiddhiConstants.METRIC_DELIMITER +
+                "cseEventStream.latency"));
+        AssertJUnit.assertTrue(output.contains("query1.latency"));
+        AssertJUnit.assertTrue(output.contains("99.9% <="));
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void latencyMetricTest4() {
+        log.info("latency metric test 4 - invalid sampling rate");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@app:statistics(reporter = 'console', sampling = '2')" +
+                " " +
+                "define stream cseEventStream (symbol string, price float, volume int);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream " +
+                "select * " +
+                "insert into outputStream ;";
+        siddhiManager.createSiddhiAppRuntime(siddhiApp);
+    }
+
+    private void assertWithinError(double expected, double actual) {
+        AssertJUnit.assertTrue("expected " + expected + " but found " + actual,
+                Math.abs(actual - expected) <= expected * 0.02);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.managment;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.table.Table;
+import io.siddhi.core.util.statistics.MemoryEstimable;
+import io.siddhi.core.util.statistics.metrics.SiddhiMemoryUsageMetric;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+public class MemoryEstimateTestCase {
+    private static final Logger log = Logger.getLogger(MemoryEstimateTestCase.class);
+
+    @Test
+    public void memoryEstimateTest1() throws InterruptedException {
+        log.info("memory estimate test 1 - indexed table");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "define stream DeleteStockStream (symbol string);" +
+                "@PrimaryKey('symbol') @Index('volume') " +
+                "define table StockTable (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        MemoryEstimable table = (MemoryEstimable) siddhiAppRuntime.getTables().iterator().next();
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        AssertJUnit.assertEquals(0, table.getEstimatedMemoryUsage());
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        long oneEvent = table.getEstimatedMemoryUsage();
+        AssertJUnit.assertTrue(oneEvent > 0);
+        stockStream.send(new Object[]{"IBM", 75.6f, 100L});
+        AssertJUnit.assertTrue(table.getEstimatedMemoryUsage() > oneEvent);
+        stockStream.send(new Object[]{"IBM", 76.6f, 200L});
+        deleteStockStream.send(new Object[]{"IBM"});
+        AssertJUnit.assertEquals(oneEvent, table.getEstimatedMemoryUsage());
+        deleteStockStream.send(new Object[]{"WSO2"});
+        AssertJUnit.assertEquals(0, table.getEstimatedMemoryUsage());
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void memoryEstimateTest2() throws InterruptedException {
+        log.info("memory estimate test 2 - list table");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "define stream DeleteStockStream (symbol string);" +
+                "define table StockTable (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        MemoryEstimable table = (MemoryEstimable) siddhiAppRuntime.getTables().iterator().next();
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        long oneEvent = table.getEstimatedMemoryUsage();
+        AssertJUnit.assertTrue(oneEvent > 0);
+        stockStream.send(new Object[]{"ORCL", 75.6f, 100L});
+        stockStream.send(new Object[]{"ORCL", 76.6f, 200L});
+        AssertJUnit.assertEquals(3 * oneEvent, table.getEstimatedMemoryUsage());
+        deleteStockStream.send(new Object[]{"ORCL"});
+        AssertJUnit.assertEquals(oneEvent, table.getEstimatedMemoryUsage());
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void memoryEstimateTest3() throws InterruptedException {
+        log.info("memory estimate test 3 - calibrated gauge");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        Table table = siddhiAppRuntime.getTables().iterator().next();
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        SiddhiMemoryUsageMetric memoryUsageMetric = new SiddhiMemoryUsageMetric(metricRegistry, Long.MAX_VALUE);
+        memoryUsageMetric.registerObject(table, "StockTable.memory");
+        Gauge gauge = metricRegistry.getGauges().get("StockTable.memory");
+
+        long calibratedSize = (Long) gauge.getValue();
+        AssertJUnit.assertTrue(calibratedSize > 0);
+        long estimate = ((MemoryEstimable) table).getEstimatedMemoryUsage();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 100L});
+        long added = ((MemoryEstimable) table).getEstimatedMemoryUsage() - estimate;
+        AssertJUnit.assertTrue(added > 0);
+        AssertJUnit.assertEquals(calibratedSize + added, (long) (Long) gauge.getValue());
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void memoryEstimateTest4() throws InterruptedException {
+        log.info("memory estimate test 4 - list table updated in place");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "define stream UpdateStockStream (symbol string, newSymbol string);" +
+                "define stream DeleteStockStream (symbol string);" +
+                "define table StockTable (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from UpdateStockStream " +
+                "update StockTable " +
+                "   set StockTable.symbol = newSymbol " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        MemoryEstimable table = (MemoryEstimable) siddhiAppRuntime.getTables().iterator().next();
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler updateStockStream = siddhiAppRuntime.getInputHandler("UpdateStockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"IBM", 75.6f, 100L});
+        long oneEvent = table.getEstimatedMemoryUsage();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        long twoEvents = table.getEstimatedMemoryUsage();
+        updateStockStream.send(new Object[]{"WSO2", "WSO2 Incorporated"});
+        AssertJUnit.assertTrue(table.getEstimatedMemoryUsage() > twoEvents);
+        deleteStockStream.send(new Object[]{"WSO2 Incorporated"});
+        AssertJUnit.assertEquals(oneEvent, table.getEstimatedMemoryUsage());
+
+        siddhiAppRuntime.shutdown();
+    }
+}
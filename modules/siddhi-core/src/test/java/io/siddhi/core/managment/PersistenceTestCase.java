@@ -28,8 +28,10 @@ import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.stream.output.StreamCallback;
 import io.siddhi.core.util.EventPrinter;
 import io.siddhi.core.util.SiddhiTestHelper;
+import io.siddhi.core.util.persistence.FileSystemPersistenceStore;
 import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
 import io.siddhi.core.util.persistence.PersistenceStore;
+import io.siddhi.core.util.persistence.util.PersistenceConstants;
 import io.siddhi.core.util.snapshot.PersistenceReference;
 import org.apache.log4j.Logger;
 import org.testng.Assert;
@@ -37,11 +39,20 @@ import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PersistenceTestCase {
     private static final Logger log = Logger.getLogger(PersistenceTestCase.class);
+    private static final String FILE_PERSISTENCE_LOCATION = "./target/temp-file-persistence";
     private int count;
     private boolean eventArrived;
     private long firstValue;
@@ -1119,4 +1130,273 @@ public class PersistenceTestCase {
 
         siddhiAppRuntime.shutdown();
     }
+
+    @Test(dependsOnMethods = "persistenceTest13")
+    public void persistenceTest14() throws InterruptedException, ExecutionException {
+        log.info("Persistence test 14 - lazy restore of table and window states.");
+        PersistenceStore persistenceStore = new InMemoryPersistenceStore();
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(persistenceStore);
+
+        String siddhiApp = "" +
+                "@app:name('Test') " +
+                "@app:restore(lazy='true') " +
+                "define stream StockStream (symbol string, price float, volume int); " +
+                "define table StockTable (symbol string, price float, volume int); " +
+                "" +
+                "from StockStream " +
+                "insert into StockTable; " +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.length(10) " +
+                "select sum(volume) as totalVol " +
+                "insert into OutStream; ";
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                eventArrived = true;
+                for (Event event : events) {
+                    count++;
+                    lastValue = (Long) event.getData(0);
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 5; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f + i, 100});
+        }
+        AssertJUnit.assertEquals(new Long(500), lastValue);
+
+        siddhiAppRuntime.persist().getFuture().get();
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+        // the table and window states are restored on their first access
+        AssertJUnit.assertTrue(siddhiAppRuntime.isRestorePending());
+
+        Event[] events = siddhiAppRuntime.query("from StockTable select * ");
+        AssertJUnit.assertEquals(5, events.length);
+
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        AssertJUnit.assertEquals(new Long(600), lastValue);
+        AssertJUnit.assertEquals(6, count);
+        AssertJUnit.assertEquals(true, eventArrived);
+        AssertJUnit.assertFalse(siddhiAppRuntime.isRestorePending());
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(dependsOnMethods = "persistenceTest14")
+    public void persistenceTest15() throws InterruptedException, ExecutionException {
+        log.info("Persistence test 15 - window query with file system persistence store.");
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("location", FILE_PERSISTENCE_LOCATION);
+        configuration.put("fsync", "true");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("config", configuration);
+        properties.put("revisionsToKeep", 2);
+        PersistenceStore persistenceStore = new FileSystemPersistenceStore();
+        persistenceStore.setProperties(properties);
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(persistenceStore);
+
+        String siddhiApp = "" +
+                "@app:name('persistenceTest15') " +
+                "define stream StockStream (symbol string, price float, volume int); " +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.length(3) " +
+                "select sum(volume) as totalVol " +
+                "insert into OutStream; ";
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                eventArrived = true;
+                for (Event event : events) {
+                    count++;
+                    lastValue = (Long) event.getData(0);
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 5; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f + i, 100 + i});
+            siddhiAppRuntime.persist().getFuture().get();
+            Thread.sleep(5);
+        }
+        AssertJUnit.assertEquals(new Long(309), lastValue);
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        try {
+            siddhiAppRuntime.restoreLastRevision();
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 200});
+        AssertJUnit.assertEquals(new Long(407), lastValue);
+        AssertJUnit.assertEquals(6, count);
+
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(dependsOnMethods = "persistenceTest15")
+    public void persistenceTest16() {
+        log.info("Persistence test 16 - file system revision with a corrupted block.");
+        PersistenceStore persistenceStore = getFileSystemPersistenceStore();
+        persistenceStore.clearAllRevisions("persistenceTest16");
+        String revision = System.currentTimeMillis() + PersistenceConstants.REVISION_SEPARATOR + "persistenceTest16";
+        byte[] snapshot = getSnapshot(3 * 1024 * 1024 + 100);
+        persistenceStore.save("persistenceTest16", revision, snapshot);
+        AssertJUnit.assertTrue(Arrays.equals(snapshot, persistenceStore.load("persistenceTest16", revision)));
+
+        // flip a byte of the second block, after the 16 byte header
+        File file = new File(FILE_PERSISTENCE_LOCATION + File.separator + "persistenceTest16", revision);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(16 + 1024 * 1024 + 10);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(16 + 1024 * 1024 + 10);
+            randomAccessFile.write(~value);
+        } catch (IOException e) {
+            Assert.fail("Cannot corrupt the revision " + revision, e);
+        }
+        AssertJUnit.assertNull(persistenceStore.load("persistenceTest16", revision));
+        AssertJUnit.assertNull(persistenceStore.loadAsStream("persistenceTest16", revision));
+
+        persistenceStore.clearAllRevisions("persistenceTest16");
+    }
+
+    @Test(dependsOnMethods = "persistenceTest16")
+    public void persistenceTest17() {
+        log.info("Persistence test 17 - truncated file system revision.");
+        PersistenceStore persistenceStore = getFileSystemPersistenceStore();
+        persistenceStore.clearAllRevisions("persistenceTest17");
+        String revision = System.currentTimeMillis() + PersistenceConstants.REVISION_SEPARATOR + "persistenceTest17";
+        byte[] snapshot = getSnapshot(1024 * 1024 + 100);
+        persistenceStore.save("persistenceTest17", revision, snapshot);
+        AssertJUnit.assertTrue(Arrays.equals(snapshot, persistenceStore.load("persistenceTest17", revision)));
+
+        // drop the checksums and the end of the snapshot, as if the write was torn
+        File file = new File(FILE_PERSISTENCE_LOCATION + File.separator + "persistenceTest17", revision);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() / 2);
+        } catch (IOException e) {
+            Assert.fail("Cannot truncate the revision " + revision, e);
+        }
+        AssertJUnit.assertNull(persistenceStore.load("persistenceTest17", revision));
+        AssertJUnit.assertNull(persistenceStore.loadAsStream("persistenceTest17", revision));
+
+        persistenceStore.clearAllRevisions("persistenceTest17");
+    }
+
+    @Test(dependsOnMethods = "persistenceTest17")
+    public void persistenceTest18() throws IOException {
+        log.info("Persistence test 18 - restore of a file system revision persisted without a header.");
+        PersistenceStore persistenceStore = getFileSystemPersistenceStore();
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(persistenceStore);
+
+        String siddhiApp = "" +
+                "@app:name('persistenceTest18') " +
+                "define stream StockStream (symbol string, price float, volume int); " +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.length(3) " +
+                "select sum(volume) as totalVol " +
+                "insert into OutStream; ";
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                for (Event event : events) {
+                    count++;
+                    lastValue = (Long) event.getData(0);
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 5; i++) {
+            inputHandler.send(new Object[]{"IBM", 75.6f + i, 100 + i});
+        }
+        AssertJUnit.assertEquals(new Long(309), lastValue);
+        byte[] snapshot = siddhiAppRuntime.snapshot();
+        siddhiAppRuntime.shutdown();
+
+        // write the snapshot as is, as done before revisions had a header and checksums, without a manifest
+        File directory = new File(FILE_PERSISTENCE_LOCATION + File.separator + "persistenceTest18");
+        AssertJUnit.assertTrue(directory.exists() || directory.mkdirs());
+        String revision = System.currentTimeMillis() + PersistenceConstants.REVISION_SEPARATOR + "persistenceTest18";
+        Files.write(new File(directory, revision).toPath(), snapshot);
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("OutStream", streamCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        try {
+            AssertJUnit.assertEquals(revision, siddhiAppRuntime.restoreLastRevision());
+        } catch (CannotRestoreSiddhiAppStateException e) {
+            Assert.fail("Restoring of Siddhi app " + siddhiAppRuntime.getName() + " failed");
+        }
+
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 200});
+        AssertJUnit.assertEquals(new Long(407), lastValue);
+        AssertJUnit.assertEquals(6, count);
+
+        siddhiAppRuntime.clearAllRevisions();
+        siddhiAppRuntime.shutdown();
+    }
+
+    private PersistenceStore getFileSystemPersistenceStore() {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("location", FILE_PERSISTENCE_LOCATION);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("config", configuration);
+        properties.put("revisionsToKeep", 2);
+        PersistenceStore persistenceStore = new FileSystemPersistenceStore();
+        persistenceStore.setProperties(properties);
+        return persistenceStore;
+    }
+
+    private byte[] getSnapshot(int length) {
+        byte[] snapshot = new byte[length];
+        new Random(length).nextBytes(snapshot);
+        return snapshot;
+    }
 }
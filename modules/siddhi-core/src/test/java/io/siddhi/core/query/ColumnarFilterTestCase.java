@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.query;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ColumnarFilterTestCase {
+    private static final Logger log = Logger.getLogger(ColumnarFilterTestCase.class);
+
+    private static final String STREAMS = "" +
+            "define stream SensorStream (sensorId string, temperature float, humidity double, reading int, " +
+            "timestamp long, active bool);";
+
+    private static final Event[] EVENTS = new Event[]{
+            new Event(1, new Object[]{"s1", 25.5f, 40.0, 10, 1000L, true}),
+            new Event(2, new Object[]{"s2", 35.0f, 80.5, 200, 2000L, false}),
+            new Event(3, new Object[]{"s3", null, 60.0, null, 3000L, true}),
+            new Event(4, new Object[]{null, 45.25f, null, 150, null, null}),
+            new Event(5, new Object[]{"s1", 30.0f, 55.0, 100, 5000L, true}),
+            new Event(6, new Object[]{"s2", 29.99f, 70.0, 99, 6000L, false}),
+            new Event(7, new Object[]{"s4", 50.0f, 90.0, 101, 7000L, true})
+    };
+
+    @Test
+    public void columnarFilterTest1() throws InterruptedException {
+        log.info("columnarFilterTest1 - numeric comparisons with and, or, not and null values");
+        assertSameAsPerEvent("" +
+                "@info(name = 'query1') " +
+                "from SensorStream[(temperature >= 30 and reading < 150) or not (humidity > 50.0)] " +
+                "select sensorId, temperature, reading " +
+                "insert into OutputStream ;");
+    }
+
+    @Test
+    public void columnarFilterTest2() throws InterruptedException {
+        log.info("columnarFilterTest2 - string and bool comparisons");
+        assertSameAsPerEvent("" +
+                "@info(name = 'query1') " +
+                "from SensorStream[sensorId != 's2' and active][1500 < timestamp] " +
+                "select sensorId, timestamp " +
+                "insert into OutputStream ;");
+    }
+
+    @Test
+    public void columnarFilterTest3() throws InterruptedException {
+        log.info("columnarFilterTest3 - columnar filter followed by a filter evaluated per event");
+        assertSameAsPerEvent("" +
+                "@info(name = 'query1') " +
+                "from SensorStream[reading > 50][humidity > temperature or active == false] " +
+                "select sensorId, reading, humidity " +
+                "insert into OutputStream ;");
+    }
+
+    @Test
+    public void columnarFilterTest4() throws InterruptedException {
+        log.info("columnarFilterTest4 - columnar filter before a window");
+        assertSameAsPerEvent("" +
+                "@info(name = 'query1') " +
+                "from SensorStream[humidity < 85.0]#window.length(2) " +
+                "select sensorId, sum(reading) as totalReading " +
+                "insert into OutputStream ;");
+    }
+
+    private void assertSameAsPerEvent(String query) throws InterruptedException {
+        List<Object[]> perEventResults = run(query, false);
+        List<Object[]> batchResults = run(query, true);
+        AssertJUnit.assertTrue(perEventResults.size() > 0);
+        AssertJUnit.assertEquals(perEventResults.size(), batchResults.size());
+        for (int i = 0; i < perEventResults.size(); i++) {
+            AssertJUnit.assertTrue(Arrays.equals(perEventResults.get(i), batchResults.get(i)));
+        }
+    }
+
+    private List<Object[]> run(String query, boolean batch) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(STREAMS + query);
+        List<Object[]> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        results.add(event.getData());
+                    }
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("SensorStream");
+        siddhiAppRuntime.start();
+        if (batch) {
+            inputHandler.send(EVENTS);
+        } else {
+            for (Event event : EVENTS) {
+                inputHandler.send(event);
+            }
+        }
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+        return results;
+    }
+}
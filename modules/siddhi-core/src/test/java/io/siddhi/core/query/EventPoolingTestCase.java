@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.query;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.event.stream.MetaStreamEvent;
+import io.siddhi.core.event.stream.StreamEvent;
+import io.siddhi.core.event.stream.StreamEventFactory;
+import io.siddhi.core.event.stream.StreamEventPool;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.query.api.definition.Attribute;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EventPoolingTestCase {
+    private static final Logger log = Logger.getLogger(EventPoolingTestCase.class);
+
+    private static final String STREAMS = "" +
+            "define stream StockStream (symbol string, price float, volume long);";
+
+    private static final String QUERIES = "" +
+            "@info(name = 'query1') " +
+            "from StockStream[price > 20] " +
+            "select symbol, price * 2 as doublePrice, volume " +
+            "insert into FilteredStream ;" +
+            "" +
+            "@info(name = 'query2') " +
+            "from FilteredStream[volume < 500] " +
+            "select symbol, doublePrice " +
+            "insert into OutputStream ;";
+
+    private static final Event[] EVENTS = new Event[]{
+            new Event(1, new Object[]{"IBM", 10f, 100L}),
+            new Event(2, new Object[]{"WSO2", 25f, 200L}),
+            new Event(3, new Object[]{"ORACLE", 30f, 600L}),
+            new Event(4, new Object[]{"IBM", 45f, 300L}),
+            new Event(5, new Object[]{"WSO2", null, 400L}),
+            new Event(6, new Object[]{"GOOG", 55f, 50L})
+    };
+
+    @Test
+    public void eventPoolingTest1() throws InterruptedException {
+        log.info("eventPoolingTest1 - pooled events sent one by one");
+        assertSameAsUnpooled(false);
+    }
+
+    @Test
+    public void eventPoolingTest2() throws InterruptedException {
+        log.info("eventPoolingTest2 - pooled events sent as a batch");
+        assertSameAsUnpooled(true);
+    }
+
+    @Test
+    public void eventPoolingTest3() {
+        log.info("eventPoolingTest3 - returned events are reset and reused");
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addOutputData(new Attribute("symbol", Attribute.Type.STRING));
+        StreamEventPool streamEventPool = new StreamEventPool(new StreamEventFactory(metaStreamEvent), 2, true,
+                "pool");
+
+        int mark = streamEventPool.mark();
+        StreamEvent first = streamEventPool.borrow();
+        first.setOutputData("IBM", 0);
+        first.setTimestamp(100L);
+        StreamEvent second = streamEventPool.borrow();
+        first.setNext(second);
+        AssertJUnit.assertEquals(2, streamEventPool.getOutstandingEvents());
+        streamEventPool.returnTo(mark);
+        AssertJUnit.assertEquals(0, streamEventPool.getOutstandingEvents());
+
+        mark = streamEventPool.mark();
+        StreamEvent reused = streamEventPool.borrow();
+        AssertJUnit.assertTrue(reused == first || reused == second);
+        AssertJUnit.assertNull(reused.getOutputData()[0]);
+        AssertJUnit.assertEquals(-1L, reused.getTimestamp());
+        AssertJUnit.assertNull(reused.getNext());
+        streamEventPool.returnTo(mark);
+        AssertJUnit.assertEquals(0, streamEventPool.getOutstandingEvents());
+    }
+
+    @Test
+    public void eventPoolingTest4() {
+        log.info("eventPoolingTest4 - events are not pooled once stopped");
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addOutputData(new Attribute("symbol", Attribute.Type.STRING));
+        StreamEventPool streamEventPool = new StreamEventPool(new StreamEventFactory(metaStreamEvent), 2, true,
+                "pool");
+
+        int mark = streamEventPool.mark();
+        StreamEvent first = streamEventPool.borrow();
+        streamEventPool.returnTo(mark);
+        mark = streamEventPool.mark();
+        StreamEvent second = streamEventPool.borrow();
+        AssertJUnit.assertSame(first, second);
+
+        streamEventPool.stop();
+        streamEventPool.returnTo(mark);
+        mark = streamEventPool.mark();
+        StreamEvent third = streamEventPool.borrow();
+        AssertJUnit.assertNotSame(second, third);
+        streamEventPool.returnTo(mark);
+        AssertJUnit.assertNotSame(third, streamEventPool.borrow());
+    }
+
+    private void assertSameAsUnpooled(boolean batch) throws InterruptedException {
+        List<Object[]> unpooledResults = run("", batch);
+        List<Object[]> pooledResults = run("@app:eventPooling(size='2', leak.detection='true') ", batch);
+        AssertJUnit.assertEquals(3, unpooledResults.size());
+        AssertJUnit.assertEquals(unpooledResults.size(), pooledResults.size());
+        for (int i = 0; i < unpooledResults.size(); i++) {
+            AssertJUnit.assertTrue(Arrays.equals(unpooledResults.get(i), pooledResults.get(i)));
+        }
+    }
+
+    private List<Object[]> run(String appAnnotation, boolean batch) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(appAnnotation + STREAMS + QUERIES);
+        List<Object[]> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                for (Event event : events) {
+                    results.add(event.getData());
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        if (batch) {
+            inputHandler.send(EVENTS);
+        } else {
+            for (Event event : EVENTS) {
+                inputHandler.send(event.getTimestamp(), event.getData());
+            }
+        }
+        siddhiAppRuntime.shutdown();
+        return results;
+    }
+}
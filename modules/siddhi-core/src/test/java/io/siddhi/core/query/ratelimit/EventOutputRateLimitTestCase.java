@@ -1065,4 +1065,113 @@ public class EventOutputRateLimitTestCase {
         AssertJUnit.assertEquals("Number of output event value", 6, count);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testEventOutputRateLimitQuery19() throws InterruptedException {
+        log.info("EventOutputRateLimit test19");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@app:name('EventOutputRateLimitTest19') " +
+                "" +
+                "define stream LoginEvents (timestamp long, ip string);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from LoginEvents " +
+                "select ip, count() as total " +
+                "group by ip " +
+                "output first every 3 events " +
+                "insert into uniqueIps ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+
+        log.info("Running : " + siddhiAppRuntime.getName());
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        long total = (Long) event.getData(1);
+                        Assert.assertTrue(total == 1L || total == 4L);
+                        count++;
+                    }
+                } else {
+                    AssertJUnit.fail("Remove events emitted");
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("LoginEvents");
+
+        siddhiAppRuntime.start();
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 100; i++) {
+                inputHandler.send(new Object[]{System.currentTimeMillis(), "192.10.1." + i});
+            }
+        }
+
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertEquals("Number of output event value", 200, count);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testEventOutputRateLimitQuery20() throws InterruptedException {
+        log.info("EventOutputRateLimit test20");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = "" +
+                "@app:name('EventOutputRateLimitTest20') " +
+                "" +
+                "define stream LoginEvents (timestamp long, ip string);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from LoginEvents " +
+                "select ip, count() as total " +
+                "group by ip " +
+                "output last every 100 events " +
+                "insert into uniqueIps ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+
+        log.info("Running : " + siddhiAppRuntime.getName());
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    AssertJUnit.assertEquals(50, inEvents.length);
+                    for (int i = 0; i < inEvents.length; i++) {
+                        AssertJUnit.assertEquals("192.10.1." + i, inEvents[i].getData(0));
+                        AssertJUnit.assertEquals(count == 0 ? 2L : 4L, inEvents[i].getData(1));
+                    }
+                    count += inEvents.length;
+                } else {
+                    AssertJUnit.fail("Remove events emitted");
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("LoginEvents");
+
+        siddhiAppRuntime.start();
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 50; i++) {
+                inputHandler.send(new Object[]{System.currentTimeMillis(), "192.10.1." + i});
+            }
+        }
+
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertEquals("Number of output event value", 100, count);
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ApproxDistinctCountAttributeAggregatorExecutorTestCase {
+
+    private static final Logger log = Logger.getLogger(ApproxDistinctCountAttributeAggregatorExecutorTestCase.class);
+    private List<Object[]> outputEvents;
+
+    @BeforeMethod
+    public void init() {
+        outputEvents = new ArrayList<>();
+    }
+
+    @Test
+    public void approxDistinctCountTest1() throws InterruptedException {
+        log.info("Approx Distinct Count TestCase 1: batch window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (userID string, pageID string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.lengthBatch(20000) " +
+                "select approxDistinctCount(userID) as distinctUsers, " +
+                "approxDistinctCount(userID, 16) as preciseDistinctUsers " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 20000; i++) {
+            inputHandler.send(new Object[]{"USER_" + (i % 10000), "WEB_PAGE_" + (i % 7)});
+        }
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 1, outputEvents.size());
+        assertEstimate(10000, (Long) outputEvents.get(0)[0], 0.05);
+        assertEstimate(10000, (Long) outputEvents.get(0)[1], 0.02);
+    }
+
+    @Test
+    public void approxDistinctCountTest2() throws InterruptedException {
+        log.info("Approx Distinct Count TestCase 2: sliding window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (userID long, pageID string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.length(3) " +
+                "select approxDistinctCount(userID) as distinctUsers " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1L, "WEB_PAGE_1"});
+        inputHandler.send(new Object[]{2L, "WEB_PAGE_1"});
+        inputHandler.send(new Object[]{1L, "WEB_PAGE_2"});
+        inputHandler.send(new Object[]{3L, "WEB_PAGE_2"});
+        inputHandler.send(new Object[]{3L, "WEB_PAGE_1"});
+        inputHandler.send(new Object[]{3L, "WEB_PAGE_3"});
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 6, outputEvents.size());
+        AssertJUnit.assertEquals(1L, outputEvents.get(0)[0]);
+        AssertJUnit.assertEquals(2L, outputEvents.get(1)[0]);
+        AssertJUnit.assertEquals(2L, outputEvents.get(2)[0]);
+        AssertJUnit.assertEquals(3L, outputEvents.get(3)[0]);
+        AssertJUnit.assertEquals(2L, outputEvents.get(4)[0]);
+        AssertJUnit.assertEquals(1L, outputEvents.get(5)[0]);
+    }
+
+    @Test
+    public void approxDistinctCountTest3() throws InterruptedException {
+        log.info("Approx Distinct Count TestCase 3: large sliding window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (userID string, pageID string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.length(5000) " +
+                "select approxDistinctCount(userID) as distinctUsers " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 20000; i++) {
+            inputHandler.send(new Object[]{"USER_" + i, "WEB_PAGE_1"});
+        }
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 20000, outputEvents.size());
+        assertEstimate(5000, (Long) outputEvents.get(19999)[0], 0.05);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void approxDistinctCountTest4() {
+        log.info("Approx Distinct Count TestCase 4: invalid precision");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (userID string, pageID string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.length(5) " +
+                "select approxDistinctCount(userID, 30) as distinctUsers " +
+                "insert into outputStream; ";
+
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+    }
+
+    @Test
+    public void approxDistinctCountTest5() throws InterruptedException {
+        log.info("Approx Distinct Count TestCase 5: union of sketches");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (userID string, pageID string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.lengthBatch(1000) " +
+                "select unionHyperLogLog(userID) as userSketch " +
+                "insert into sketchStream; " +
+                "" +
+                "@info(name = 'query2') " +
+                "from sketchStream#window.lengthBatch(4) " +
+                "select cardinalityOfHyperLogLog(unionHyperLogLog(userSketch)) as distinctUsers " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 4000; i++) {
+            // Batches overlap by half of their users
+            inputHandler.send(new Object[]{"USER_" + (i / 1000 * 500 + i % 1000), "WEB_PAGE_1"});
+        }
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 1, outputEvents.size());
+        assertEstimate(2500, (Long) outputEvents.get(0)[0], 0.05);
+    }
+
+    private void addCallback(SiddhiAppRuntime siddhiAppRuntime) {
+        siddhiAppRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputEvents.add(event.getData());
+                }
+            }
+        });
+    }
+
+    private void assertEstimate(long expected, long estimate, double relativeError) {
+        AssertJUnit.assertTrue("Estimate " + estimate + " is not within " + relativeError + " of " + expected,
+                Math.abs(estimate - expected) <= expected * relativeError);
+    }
+}
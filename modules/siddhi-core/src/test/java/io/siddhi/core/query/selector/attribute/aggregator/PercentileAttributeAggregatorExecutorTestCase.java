@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.selector.attribute.aggregator;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PercentileAttributeAggregatorExecutorTestCase {
+
+    private static final Logger log = Logger.getLogger(PercentileAttributeAggregatorExecutorTestCase.class);
+    private List<Object[]> outputEvents;
+
+    @BeforeMethod
+    public void init() {
+        outputEvents = new ArrayList<>();
+    }
+
+    @Test
+    public void percentileTest1() throws InterruptedException {
+        log.info("Percentile TestCase 1: batch window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (requestID string, latency long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.lengthBatch(10000) " +
+                "select percentile(latency, 0.5) as medianLatency, percentile(latency, 0.99) as p99Latency, " +
+                "percentile(latency, 0.99, 0.001) as preciseP99Latency " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 10000; i++) {
+            // Latencies of 1 to 10000 in a shuffled order
+            inputHandler.send(new Object[]{"REQUEST_" + i, (i * 7919L) % 10000 + 1});
+        }
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 1, outputEvents.size());
+        assertEstimate(5000, (Double) outputEvents.get(0)[0], 0.01);
+        assertEstimate(9900, (Double) outputEvents.get(0)[1], 0.01);
+        assertEstimate(9900, (Double) outputEvents.get(0)[2], 0.001);
+    }
+
+    @Test
+    public void percentileTest2() throws InterruptedException {
+        log.info("Percentile TestCase 2: sliding window");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (requestID string, latency double); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.length(3) " +
+                "select percentile(latency, 1.0) as maxLatency " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"REQUEST_1", 100.0});
+        inputHandler.send(new Object[]{"REQUEST_2", 300.0});
+        inputHandler.send(new Object[]{"REQUEST_3", 200.0});
+        inputHandler.send(new Object[]{"REQUEST_4", 50.0});
+        inputHandler.send(new Object[]{"REQUEST_5", 20.0});
+        inputHandler.send(new Object[]{"REQUEST_6", 10.0});
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 6, outputEvents.size());
+        assertEstimate(100, (Double) outputEvents.get(0)[0], 0.01);
+        assertEstimate(300, (Double) outputEvents.get(1)[0], 0.01);
+        assertEstimate(300, (Double) outputEvents.get(2)[0], 0.01);
+        assertEstimate(300, (Double) outputEvents.get(3)[0], 0.01);
+        assertEstimate(200, (Double) outputEvents.get(4)[0], 0.01);
+        assertEstimate(50, (Double) outputEvents.get(5)[0], 0.01);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void percentileTest3() {
+        log.info("Percentile TestCase 3: invalid percentile");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (requestID string, latency double); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.length(5) " +
+                "select percentile(latency, 99.0) as p99Latency " +
+                "insert into outputStream; ";
+
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+    }
+
+    @Test
+    public void percentileTest4() throws InterruptedException {
+        log.info("Percentile TestCase 4: union of sketches");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "" +
+                "define stream inputStream (requestID string, latency int); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from inputStream#window.lengthBatch(1000) " +
+                "select unionDDSketch(latency) as latencySketch " +
+                "insert into sketchStream; " +
+                "" +
+                "@info(name = 'query2') " +
+                "from sketchStream#window.lengthBatch(4) " +
+                "select quantileOfDDSketch(unionDDSketch(latencySketch), 0.25) as p25Latency " +
+                "insert into outputStream; ";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        addCallback(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 4000; i++) {
+            inputHandler.send(new Object[]{"REQUEST_" + i, i + 1});
+        }
+        siddhiAppRuntime.shutdown();
+
+        AssertJUnit.assertEquals("Event count", 1, outputEvents.size());
+        assertEstimate(1000, (Double) outputEvents.get(0)[0], 0.01);
+    }
+
+    private void addCallback(SiddhiAppRuntime siddhiAppRuntime) {
+        siddhiAppRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    outputEvents.add(event.getData());
+                }
+            }
+        });
+    }
+
+    private void assertEstimate(double expected, double estimate, double relativeError) {
+        AssertJUnit.assertTrue("Estimate " + estimate + " is not within " + relativeError + " of " + expected,
+                Math.abs(estimate - expected) <= expected * relativeError);
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.table;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.query.table.util.TestRecordStore;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.table.Table;
+import io.siddhi.core.table.record.RecordTableCache;
+import io.siddhi.core.util.EventPrinter;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CacheTableTestCase {
+    private static final Logger log = Logger.getLogger(CacheTableTestCase.class);
+    private List<Object[]> inEventsList;
+
+    @BeforeMethod
+    public void init() {
+        inEventsList = new ArrayList<>();
+    }
+
+    @Test
+    public void cacheTableTest1() throws InterruptedException {
+        log.info("cacheTableTest1 - primary key joins are served from the cache");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @cache(size='10', policy='LRU')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+        RecordTableCache cache = store.getRecordTableCache();
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+        checkStockStream.send(new Object[]{"ORACLE"});
+        checkStockStream.send(new Object[]{"ORACLE"});
+
+        AssertJUnit.assertEquals(3, inEventsList.size());
+        AssertJUnit.assertEquals("WSO2", inEventsList.get(0)[0]);
+        AssertJUnit.assertEquals(55.6f, inEventsList.get(0)[1]);
+        AssertJUnit.assertEquals("IBM", inEventsList.get(2)[0]);
+        AssertJUnit.assertEquals(75.6f, inEventsList.get(2)[1]);
+        // only the first lookup of each key reaches the store, including the lookup of the missing key
+        AssertJUnit.assertEquals(3, store.getFindCount());
+        AssertJUnit.assertEquals(2, cache.getHitCount());
+        AssertJUnit.assertEquals(3, cache.getMissCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void cacheTableTest2() throws InterruptedException {
+        log.info("cacheTableTest2 - updates and deletes keep the cache consistent");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream UpdateStockStream (symbol string, price float); " +
+                "define stream DeleteStockStream (symbol string); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @cache(size='10')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from UpdateStockStream " +
+                "update StockTable " +
+                "   set StockTable.price = price " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query4') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query4");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler updateStockStream = siddhiAppRuntime.getInputHandler("UpdateStockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        checkStockStream.send(new Object[]{"WSO2"});
+        updateStockStream.send(new Object[]{"WSO2", 60.0f});
+        checkStockStream.send(new Object[]{"WSO2"});
+        deleteStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+
+        AssertJUnit.assertEquals(3, inEventsList.size());
+        AssertJUnit.assertEquals(55.6f, inEventsList.get(0)[1]);
+        AssertJUnit.assertEquals(60.0f, inEventsList.get(1)[1]);
+        AssertJUnit.assertEquals("IBM", inEventsList.get(2)[0]);
+        // added, updated and deleted keys are reloaded from the store on their next lookup
+        AssertJUnit.assertEquals(4, store.getFindCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void cacheTableTest3() throws InterruptedException {
+        log.info("cacheTableTest3 - non primary key conditions and eviction");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string, volume long); " +
+                "@store(type='testRecord', @cache(size='2', policy='FIFO')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.volume == StockTable.volume " +
+                "select StockTable.symbol " +
+                "insert into OutputStream ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from CheckStockStream[(symbol == StockTable.symbol) in StockTable] " +
+                "insert into CheckedStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+        RecordTableCache cache = store.getRecordTableCache();
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        stockStream.send(new Object[]{"ORACLE", 35.6f, 50L});
+        AssertJUnit.assertEquals(0, cache.size());
+
+        checkStockStream.send(new Object[]{"IBM", 10L});
+        checkStockStream.send(new Object[]{"ORACLE", 50L});
+        checkStockStream.send(new Object[]{"WSO2", 100L});
+        AssertJUnit.assertEquals(2, cache.size());
+        // IBM was evicted by WSO2, and evicts ORACLE when loaded again
+        checkStockStream.send(new Object[]{"IBM", 10L});
+        checkStockStream.send(new Object[]{"WSO2", 100L});
+
+        AssertJUnit.assertEquals(5, inEventsList.size());
+        AssertJUnit.assertEquals("IBM", inEventsList.get(0)[0]);
+        // the volume joins always reach the store, while the in condition loads each key on a miss
+        AssertJUnit.assertEquals(9, store.getFindCount());
+        AssertJUnit.assertEquals(0, store.getContainsCount());
+        AssertJUnit.assertEquals(1, cache.getHitCount());
+        AssertJUnit.assertEquals(4, cache.getMissCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void cacheTableTest4() throws InterruptedException {
+        log.info("cacheTableTest4 - preload");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @cache(size='10', policy='LFU', expiry='1 min', preload='true')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        stockStream.send(new Object[]{"ORACLE", 35.6f, 50L});
+        store.getRecordTableCache().clear();
+
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+        checkStockStream.send(new Object[]{"ORACLE"});
+
+        AssertJUnit.assertEquals(3, inEventsList.size());
+        AssertJUnit.assertEquals(35.6f, inEventsList.get(2)[1]);
+        // all the records are loaded by a single find on the first lookup
+        AssertJUnit.assertEquals(1, store.getFindCount());
+        AssertJUnit.assertEquals(3, store.getRecordTableCache().getHitCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cacheTableTest5() {
+        log.info("cacheTableTest5 - cache without primary key");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "@store(type='testRecord', @cache(size='10')) " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        siddhiManager.createSiddhiAppRuntime(streams);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void cacheTableTest6() {
+        log.info("cacheTableTest6 - invalid cache policy");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "@store(type='testRecord', @cache(size='10', policy='MRU')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        siddhiManager.createSiddhiAppRuntime(streams);
+    }
+
+    @Test
+    public void cacheTableTest7() throws InterruptedException {
+        log.info("cacheTableTest7 - batched lookups only load the missing keys from the store");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @cache(size='10')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        checkStockStream.send(new Event[]{
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2"}),
+                new Event(System.currentTimeMillis(), new Object[]{"IBM"}),
+                new Event(System.currentTimeMillis(), new Object[]{"ORACLE"})
+        });
+        checkStockStream.send(new Event[]{
+                new Event(System.currentTimeMillis(), new Object[]{"IBM"}),
+                new Event(System.currentTimeMillis(), new Object[]{"ORACLE"})
+        });
+
+        AssertJUnit.assertEquals(3, inEventsList.size());
+        AssertJUnit.assertEquals("WSO2", inEventsList.get(0)[0]);
+        AssertJUnit.assertEquals(75.6f, inEventsList.get(1)[1]);
+        AssertJUnit.assertEquals("IBM", inEventsList.get(2)[0]);
+        // all the keys are loaded by a single batched find, the second batch is served from the cache
+        AssertJUnit.assertEquals(1, store.getBatchFindCount());
+        AssertJUnit.assertEquals(0, store.getFindCount());
+        AssertJUnit.assertEquals(2, store.getRecordTableCache().getHitCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void cacheTableTest8() throws InterruptedException {
+        log.info("cacheTableTest8 - LFU eviction keeps the frequently used keys");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @cache(size='2', policy='LFU')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+        RecordTableCache cache = store.getRecordTableCache();
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        stockStream.send(new Object[]{"ORACLE", 35.6f, 50L});
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+        // IBM is used less often than WSO2, hence it is evicted by ORACLE, which is then evicted by IBM
+        checkStockStream.send(new Object[]{"ORACLE"});
+        checkStockStream.send(new Object[]{"IBM"});
+        checkStockStream.send(new Object[]{"WSO2"});
+
+        AssertJUnit.assertEquals(6, inEventsList.size());
+        AssertJUnit.assertEquals(2, cache.size());
+        AssertJUnit.assertEquals(4, store.getFindCount());
+        AssertJUnit.assertEquals(2, cache.getHitCount());
+        AssertJUnit.assertEquals(4, cache.getMissCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    private TestRecordStore getStore(SiddhiAppRuntime siddhiAppRuntime, String tableId) {
+        for (Table table : siddhiAppRuntime.getTables()) {
+            if (table.getTableDefinition().getId().equals(tableId)) {
+                return (TestRecordStore) table;
+            }
+        }
+        return null;
+    }
+
+    private void addCallback(SiddhiAppRuntime siddhiAppRuntime, String queryName) {
+        siddhiAppRuntime.addCallback(queryName, new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventsList.add(event.getData());
+                    }
+                }
+            }
+        });
+    }
+}
@@ -22,7 +22,9 @@ import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.query.table.util.TestRecordStore;
 import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.table.Table;
 import io.siddhi.core.util.EventPrinter;
 import org.apache.log4j.Logger;
 import org.testng.AssertJUnit;
@@ -525,4 +527,156 @@ public class JoinTableTestCase {
 
     }
 
+    @Test
+    public void testTableJoinQuery8() throws InterruptedException {
+        log.info("testTableJoinQuery8 - batch of events joined with an in-memory table");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol2 string, price2 float, volume2 long); " +
+                "define stream CheckStockStream (symbol1 string); " +
+                "define table StockTable (symbol2 string, price2 float, volume2 long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream left outer join StockTable " +
+                "   on symbol1 == symbol2 " +
+                "select symbol1, symbol2, volume2  " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                AssertJUnit.assertArrayEquals(new Object[]{"WSO2", "WSO2", 100L}, event.getData());
+                                break;
+                            case 2:
+                                AssertJUnit.assertArrayEquals(new Object[]{"ORACLE", null, null}, event.getData());
+                                break;
+                            case 3:
+                                AssertJUnit.assertArrayEquals(new Object[]{"IBM", "IBM", 10L}, event.getData());
+                                break;
+                            default:
+                                AssertJUnit.assertSame(3, inEventCount);
+                        }
+                    }
+                    eventArrived = true;
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        checkStockStream.send(new Event[]{
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2"}),
+                new Event(System.currentTimeMillis(), new Object[]{"ORACLE"}),
+                new Event(System.currentTimeMillis(), new Object[]{"IBM"})
+        });
+
+        AssertJUnit.assertEquals("Number of success events", 3, inEventCount);
+        AssertJUnit.assertEquals("Number of remove events", 0, removeEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+
+        siddhiAppRuntime.shutdown();
+
+    }
+
+    @Test
+    public void testTableJoinQuery9() throws InterruptedException {
+        log.info("testTableJoinQuery9 - batch of events joined with a store using a single batched find");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol2 string, price2 float, volume2 long); " +
+                "define stream CheckStockStream (symbol1 string); " +
+                "@store(type='testRecord') " +
+                "define table StockTable (symbol2 string, price2 float, volume2 long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "   on symbol1 == symbol2 " +
+                "select symbol1, symbol2, volume2  " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        switch (inEventCount) {
+                            case 1:
+                                AssertJUnit.assertArrayEquals(new Object[]{"WSO2", "WSO2", 100L}, event.getData());
+                                break;
+                            case 2:
+                            case 3:
+                                AssertJUnit.assertArrayEquals(new Object[]{"IBM", "IBM", 10L}, event.getData());
+                                break;
+                            default:
+                                AssertJUnit.assertSame(3, inEventCount);
+                        }
+                    }
+                    eventArrived = true;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        TestRecordStore store = null;
+        for (Table table : siddhiAppRuntime.getTables()) {
+            store = (TestRecordStore) table;
+        }
+
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        checkStockStream.send(new Event[]{
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2"}),
+                new Event(System.currentTimeMillis(), new Object[]{"ORACLE"}),
+                new Event(System.currentTimeMillis(), new Object[]{"IBM"})
+        });
+        checkStockStream.send(new Object[]{"IBM"});
+
+        AssertJUnit.assertEquals("Number of success events", 3, inEventCount);
+        AssertJUnit.assertEquals("Event arrived", true, eventArrived);
+        AssertJUnit.assertEquals("Number of batched finds", 1, store.getBatchFindCount());
+        AssertJUnit.assertEquals("Number of finds", 1, store.getFindCount());
+
+        siddhiAppRuntime.shutdown();
+
+    }
 }
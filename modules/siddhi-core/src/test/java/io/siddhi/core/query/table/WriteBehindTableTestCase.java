@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.table;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.query.table.util.TestRecordStore;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.table.Table;
+import io.siddhi.core.table.record.RecordTableWriteBehindBuffer;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteBehindTableTestCase {
+    private static final Logger log = Logger.getLogger(WriteBehindTableTestCase.class);
+    private List<Object[]> inEventsList;
+
+    @BeforeMethod
+    public void init() {
+        inEventsList = new ArrayList<>();
+    }
+
+    @Test
+    public void writeBehindTableTest1() throws InterruptedException {
+        log.info("writeBehindTableTest1 - updates of a hot key are coalesced");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @writeBehind(size='100', interval='1 min')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "update or insert into StockTable " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price, StockTable.volume " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query2");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+        RecordTableWriteBehindBuffer writeBehindBuffer = store.getWriteBehindBuffer();
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"WSO2", 56.6f, 110L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        stockStream.send(new Object[]{"WSO2", 57.6f, 120L});
+        stockStream.send(new Object[]{"WSO2", 58.6f, 130L});
+        stockStream.send(new Object[]{"IBM", 76.6f, 20L});
+
+        AssertJUnit.assertEquals(0, store.getWriteCount());
+        AssertJUnit.assertEquals(2, writeBehindBuffer.getPendingCount());
+        AssertJUnit.assertEquals(4, writeBehindBuffer.getCoalescedCount());
+
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+
+        // reading a buffered key writes both keys to the store with a single call
+        AssertJUnit.assertEquals(1, store.getWriteCount());
+        AssertJUnit.assertEquals(2, store.size());
+        AssertJUnit.assertEquals(0, writeBehindBuffer.getPendingCount());
+        AssertJUnit.assertEquals(2, inEventsList.size());
+        AssertJUnit.assertEquals("WSO2", inEventsList.get(0)[0]);
+        AssertJUnit.assertEquals(58.6f, inEventsList.get(0)[1]);
+        AssertJUnit.assertEquals(130L, inEventsList.get(0)[2]);
+        AssertJUnit.assertEquals("IBM", inEventsList.get(1)[0]);
+        AssertJUnit.assertEquals(76.6f, inEventsList.get(1)[1]);
+        AssertJUnit.assertEquals(20L, inEventsList.get(1)[2]);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void writeBehindTableTest2() throws InterruptedException {
+        log.info("writeBehindTableTest2 - buffered inserts, updates and deletes are visible to reads");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream UpdateStockStream (symbol string, price float); " +
+                "define stream DeleteStockStream (symbol string); " +
+                "define stream CheckStockStream (symbol string); " +
+                "@store(type='testRecord', @writeBehind(size='100', interval='1 min')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from UpdateStockStream " +
+                "update StockTable " +
+                "   set StockTable.price = price " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from DeleteStockStream " +
+                "delete StockTable " +
+                "   on StockTable.symbol == symbol ;" +
+                "" +
+                "@info(name = 'query4') " +
+                "from CheckStockStream join StockTable " +
+                "on CheckStockStream.symbol == StockTable.symbol " +
+                "select CheckStockStream.symbol, StockTable.price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallback(siddhiAppRuntime, "query4");
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler updateStockStream = siddhiAppRuntime.getInputHandler("UpdateStockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        InputHandler checkStockStream = siddhiAppRuntime.getInputHandler("CheckStockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        updateStockStream.send(new Object[]{"WSO2", 57.6f});
+        deleteStockStream.send(new Object[]{"IBM"});
+        AssertJUnit.assertEquals(0, store.getWriteCount());
+
+        checkStockStream.send(new Object[]{"WSO2"});
+        checkStockStream.send(new Object[]{"IBM"});
+        // the update is merged into the insert and the delete supersedes the insert
+        AssertJUnit.assertEquals(2, store.getWriteCount());
+        AssertJUnit.assertEquals(1, store.size());
+        AssertJUnit.assertEquals(1, inEventsList.size());
+        AssertJUnit.assertEquals("WSO2", inEventsList.get(0)[0]);
+        AssertJUnit.assertEquals(57.6f, inEventsList.get(0)[1]);
+
+        stockStream.send(new Object[]{"ORACLE", 35.6f, 50L});
+        AssertJUnit.assertEquals(1, store.size());
+        siddhiAppRuntime.shutdown();
+        // buffered mutations are written at shutdown
+        AssertJUnit.assertEquals(2, store.size());
+    }
+
+    @Test
+    public void writeBehindTableTest3() throws InterruptedException {
+        log.info("writeBehindTableTest3 - buffered mutations are written when the app is persisted");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+
+        String streams = "" +
+                "@app:name('WriteBehindTest') " +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@store(type='testRecord', @writeBehind(size='100', interval='1 min')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        AssertJUnit.assertEquals(0, store.size());
+
+        siddhiAppRuntime.persist();
+        AssertJUnit.assertEquals(2, store.size());
+        AssertJUnit.assertEquals(0, store.getWriteBehindBuffer().getPendingCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void writeBehindTableTest4() throws InterruptedException {
+        log.info("writeBehindTableTest4 - buffered mutations are written on size and on interval");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@store(type='testRecord', @writeBehind(size='2', interval='200 millisec')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+        AssertJUnit.assertEquals(0, store.size());
+        stockStream.send(new Object[]{"ORACLE", 35.6f, 50L});
+        AssertJUnit.assertEquals(2, store.size());
+
+        Thread.sleep(1000);
+        AssertJUnit.assertEquals(3, store.size());
+        AssertJUnit.assertEquals(2, store.getWriteCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void writeBehindTableTest5() {
+        log.info("writeBehindTableTest5 - write-behind requires a primary key");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "@store(type='testRecord', @writeBehind(size='100')) " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        siddhiManager.createSiddhiAppRuntime(streams);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void writeBehindTableTest6() {
+        log.info("writeBehindTableTest6 - write-behind requires a positive size");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "@store(type='testRecord', @writeBehind(size='0')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        siddhiManager.createSiddhiAppRuntime(streams);
+    }
+
+    @Test
+    public void writeBehindTableTest7() throws InterruptedException {
+        log.info("writeBehindTableTest7 - buffered mutations failing to be written are retried");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("store:testRecord", TestRecordStore.class);
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@store(type='testRecord', @writeBehind(size='100', interval='200 millisec')) " +
+                "@PrimaryKey('symbol') " +
+                "define table StockTable (symbol string, price float, volume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into StockTable ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        TestRecordStore store = getStore(siddhiAppRuntime, "StockTable");
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        store.setFailingWrites(true);
+        stockStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6f, 10L});
+
+        Thread.sleep(500);
+        AssertJUnit.assertEquals(0, store.size());
+        AssertJUnit.assertEquals(2, store.getWriteBehindBuffer().getPendingCount());
+
+        store.setFailingWrites(false);
+        Thread.sleep(500);
+        AssertJUnit.assertEquals(2, store.size());
+        AssertJUnit.assertEquals(0, store.getWriteBehindBuffer().getPendingCount());
+        siddhiAppRuntime.shutdown();
+    }
+
+    private TestRecordStore getStore(SiddhiAppRuntime siddhiAppRuntime, String tableId) {
+        for (Table table : siddhiAppRuntime.getTables()) {
+            if (table.getTableDefinition().getId().equals(tableId)) {
+                return (TestRecordStore) table;
+            }
+        }
+        return null;
+    }
+
+    private void addCallback(SiddhiAppRuntime siddhiAppRuntime, String queryName) {
+        siddhiAppRuntime.addCallback(queryName, new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventsList.add(event.getData());
+                    }
+                }
+            }
+        });
+    }
+}
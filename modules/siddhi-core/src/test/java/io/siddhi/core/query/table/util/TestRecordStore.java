@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.core.query.table.util;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.table.record.AbstractRecordTable;
+import io.siddhi.core.table.record.BaseExpressionVisitor;
+import io.siddhi.core.table.record.ExpressionBuilder;
+import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.core.util.collection.operator.CompiledCondition;
+import io.siddhi.core.util.collection.operator.CompiledExpression;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.definition.TableDefinition;
+import io.siddhi.query.api.expression.condition.Compare;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory store for testing the record table layer, which matches records by the equality of their attributes
+ * and counts the calls reaching the store.
+ */
+@Extension(
+        name = "testRecord",
+        namespace = "store",
+        description = "In-memory store supporting conditions that compare table attributes for equality.",
+        examples = {
+                @Example(
+                        syntax = "@store(type='testRecord')" +
+                                "define table testTable (symbol string, price int, volume float); ",
+                        description = "The above syntax initializes a testRecord type store."
+                )
+        }
+)
+public class TestRecordStore extends AbstractRecordTable {
+
+    private final List<Object[]> records = new ArrayList<>();
+    private final AtomicInteger findCount = new AtomicInteger();
+    private final AtomicInteger batchFindCount = new AtomicInteger();
+    private final AtomicInteger containsCount = new AtomicInteger();
+    private final AtomicInteger writeCount = new AtomicInteger();
+    private volatile boolean failingWrites;
+
+    public int getFindCount() {
+        return findCount.get();
+    }
+
+    public int getBatchFindCount() {
+        return batchFindCount.get();
+    }
+
+    public int getContainsCount() {
+        return containsCount.get();
+    }
+
+    public int getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @param failingWrites whether the records added to the store are rejected with an error
+     */
+    public void setFailingWrites(boolean failingWrites) {
+        this.failingWrites = failingWrites;
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    @Override
+    protected void init(TableDefinition tableDefinition, ConfigReader configReader) {
+        //Not Applicable
+    }
+
+    @Override
+    protected synchronized void add(List<Object[]> records) throws ConnectionUnavailableException {
+        if (failingWrites) {
+            throw new IllegalStateException("Records are rejected by the store");
+        }
+        writeCount.incrementAndGet();
+        for (Object[] record : records) {
+            this.records.add(record.clone());
+        }
+    }
+
+    @Override
+    protected synchronized RecordIterator<Object[]> find(Map<String, Object> findConditionParameterMap,
+                                                         CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        findCount.incrementAndGet();
+        return findMatching(findConditionParameterMap, (EqualityCondition) compiledCondition);
+    }
+
+    @Override
+    protected synchronized List<RecordIterator<Object[]>> find(List<Map<String, Object>> findConditionParameterMaps,
+                                                               CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        batchFindCount.incrementAndGet();
+        List<RecordIterator<Object[]>> matchingRecords = new ArrayList<>();
+        for (Map<String, Object> findConditionParameterMap : findConditionParameterMaps) {
+            matchingRecords.add(findMatching(findConditionParameterMap, (EqualityCondition) compiledCondition));
+        }
+        return matchingRecords;
+    }
+
+    private RecordIterator<Object[]> findMatching(Map<String, Object> findConditionParameterMap,
+                                                  EqualityCondition compiledCondition) {
+        List<Object[]> matchingRecords = new ArrayList<>();
+        for (Object[] record : records) {
+            if (compiledCondition.matches(record, findConditionParameterMap)) {
+                matchingRecords.add(record.clone());
+            }
+        }
+        return new ListRecordIterator(matchingRecords.iterator());
+    }
+
+    @Override
+    protected synchronized boolean contains(Map<String, Object> containsConditionParameterMap,
+                                            CompiledCondition compiledCondition)
+            throws ConnectionUnavailableException {
+        containsCount.incrementAndGet();
+        for (Object[] record : records) {
+            if (((EqualityCondition) compiledCondition).matches(record, containsConditionParameterMap)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected synchronized void delete(List<Map<String, Object>> deleteConditionParameterMaps,
+                                       CompiledCondition compiledCondition) throws ConnectionUnavailableException {
+        writeCount.incrementAndGet();
+        for (Map<String, Object> deleteConditionParameterMap : deleteConditionParameterMaps) {
+            records.removeIf(record ->
+                    ((EqualityCondition) compiledCondition).matches(record, deleteConditionParameterMap));
+        }
+    }
+
+    @Override
+    protected synchronized void update(CompiledCondition updateCondition,
+                                       List<Map<String, Object>> updateConditionParameterMaps,
+                                       Map<String, CompiledExpression> updateSetExpressions,
+                                       List<Map<String, Object>> updateSetParameterMaps)
+            throws ConnectionUnavailableException {
+        writeCount.incrementAndGet();
+        for (int i = 0; i < updateConditionParameterMaps.size(); i++) {
+            update((EqualityCondition) updateCondition, updateConditionParameterMaps.get(i), updateSetExpressions,
+                    updateSetParameterMaps.get(i));
+        }
+    }
+
+    @Override
+    protected synchronized void updateOrAdd(CompiledCondition updateCondition,
+                                            List<Map<String, Object>> updateConditionParameterMaps,
+                                            Map<String, CompiledExpression> updateSetExpressions,
+                                            List<Map<String, Object>> updateSetParameterMaps,
+                                            List<Object[]> addingRecords)
+            throws ConnectionUnavailableException {
+        writeCount.incrementAndGet();
+        for (int i = 0; i < updateConditionParameterMaps.size(); i++) {
+            if (!update((EqualityCondition) updateCondition, updateConditionParameterMaps.get(i),
+                    updateSetExpressions, updateSetParameterMaps.get(i))) {
+                records.add(addingRecords.get(i).clone());
+            }
+        }
+    }
+
+    private boolean update(EqualityCondition updateCondition, Map<String, Object> updateConditionParameterMap,
+                           Map<String, CompiledExpression> updateSetExpressions,
+                           Map<String, Object> updateSetParameterMap) {
+        boolean updated = false;
+        for (Object[] record : records) {
+            if (updateCondition.matches(record, updateConditionParameterMap)) {
+                for (Map.Entry<String, CompiledExpression> entry : updateSetExpressions.entrySet()) {
+                    record[tableDefinition.getAttributePosition(entry.getKey())] =
+                            ((Operand) entry.getValue()).value(updateSetParameterMap);
+                }
+                updated = true;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    protected CompiledCondition compileCondition(ExpressionBuilder expressionBuilder) {
+        EqualityCondition equalityCondition = new EqualityCondition();
+        expressionBuilder.build(new BaseExpressionVisitor() {
+            private String attributeName;
+            private Operand operand;
+
+            @Override
+            public void beginVisitCompare(Compare.Operator operator) {
+                attributeName = null;
+                operand = null;
+            }
+
+            @Override
+            public void endVisitCompare(Compare.Operator operator) {
+                equalityCondition.operands.put(tableDefinition.getAttributePosition(attributeName), operand);
+            }
+
+            @Override
+            public void beginVisitConstant(Object value, Attribute.Type type) {
+                operand = new Operand(null, value);
+            }
+
+            @Override
+            public void beginVisitStreamVariable(String id, String streamId, String attributeName,
+                                                 Attribute.Type type) {
+                operand = new Operand(id, null);
+            }
+
+            @Override
+            public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
+                this.attributeName = attributeName;
+            }
+        });
+        return equalityCondition;
+    }
+
+    @Override
+    protected CompiledExpression compileSetAttribute(ExpressionBuilder expressionBuilder) {
+        Operand[] operand = new Operand[1];
+        expressionBuilder.build(new BaseExpressionVisitor() {
+            @Override
+            public void beginVisitConstant(Object value, Attribute.Type type) {
+                operand[0] = new Operand(null, value);
+            }
+
+            @Override
+            public void beginVisitStreamVariable(String id, String streamId, String attributeName,
+                                                 Attribute.Type type) {
+                operand[0] = new Operand(id, null);
+            }
+        });
+        return operand[0];
+    }
+
+    @Override
+    protected void connect() throws ConnectionUnavailableException {
+        //Not Applicable
+    }
+
+    @Override
+    protected void disconnect() {
+        //Not Applicable
+    }
+
+    @Override
+    protected void destroy() {
+        //Not Applicable
+    }
+
+    private static class Operand implements CompiledExpression {
+        private final String parameterId;
+        private final Object constant;
+
+        Operand(String parameterId, Object constant) {
+            this.parameterId = parameterId;
+            this.constant = constant;
+        }
+
+        Object value(Map<String, Object> parameterMap) {
+            return parameterId != null ? parameterMap.get(parameterId) : constant;
+        }
+    }
+
+    private static class EqualityCondition implements CompiledCondition {
+        private final Map<Integer, Operand> operands = new HashMap<>();
+
+        boolean matches(Object[] record, Map<String, Object> parameterMap) {
+            for (Map.Entry<Integer, Operand> entry : operands.entrySet()) {
+                if (!Objects.equals(record[entry.getKey()], entry.getValue().value(parameterMap))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class ListRecordIterator implements RecordIterator<Object[]> {
+        private final Iterator<Object[]> iterator;
+
+        ListRecordIterator(Iterator<Object[]> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+            //Not Applicable
+        }
+    }
+}
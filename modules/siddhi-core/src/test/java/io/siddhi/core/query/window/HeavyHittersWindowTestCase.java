@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.query.window;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.CannotRestoreSiddhiAppStateException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HeavyHittersWindowTestCase {
+    private static final Logger log = Logger.getLogger(HeavyHittersWindowTestCase.class);
+
+    private int inEventCount;
+    private int removeEventCount;
+    private List<Object> removedCardNos;
+
+    @BeforeMethod
+    public void initialize() {
+        inEventCount = 0;
+        removeEventCount = 0;
+        removedCardNos = new ArrayList<>();
+    }
+
+    @Test
+    public void heavyHittersWindowTest1() throws InterruptedException {
+        log.info("heavyHittersWindow test1");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "" +
+                "define stream purchase (cardNo string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from purchase[price >= 30]#window.heavyHitters(2, cardNo) " +
+                "select cardNo, price " +
+                "insert all events into PotentialFraud ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cseEventStream + query);
+        siddhiAppRuntime.addCallback("query1", new TestQueryCallback());
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("purchase");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 78.36f});
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 46.36f});
+        // not retained until it is more frequent than the least frequent card number
+        inputHandler.send(new Object[]{"5768-3244-2432-5646", 48.36f});
+        inputHandler.send(new Object[]{"5768-3244-2432-5646", 58.36f});
+        inputHandler.send(new Object[]{"5768-3244-2432-5646", 68.36f});
+        inputHandler.send(new Object[]{"9853-3244-2432-4125", 78.36f});
+
+        AssertJUnit.assertEquals("In Event count", 5, inEventCount);
+        AssertJUnit.assertEquals("Out Event count", 1, removeEventCount);
+        AssertJUnit.assertEquals("1234-3244-2432-123", removedCardNos.get(0));
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void heavyHittersWindowTest2() throws InterruptedException, CannotRestoreSiddhiAppStateException {
+        log.info("heavyHittersWindow test2 - persistence");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+
+        String siddhiApp = "" +
+                "@app:name('heavyHittersWindowTest2') " +
+                "define stream purchase (cardNo string, price float);" +
+                "@info(name = 'query1') " +
+                "from purchase#window.heavyHitters(1, 0.01, cardNo) " +
+                "select cardNo, price " +
+                "insert all events into PotentialFraud ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("query1", new TestQueryCallback());
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("purchase");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 78.36f});
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 46.36f});
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 56.36f});
+        siddhiAppRuntime.persist();
+        Thread.sleep(500);
+        siddhiAppRuntime.shutdown();
+        AssertJUnit.assertEquals("In Event count", 2, inEventCount);
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        siddhiAppRuntime.addCallback("query1", new TestQueryCallback());
+        inputHandler = siddhiAppRuntime.getInputHandler("purchase");
+        siddhiAppRuntime.restoreLastRevision();
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 66.36f});
+        AssertJUnit.assertEquals("In Event count", 3, inEventCount);
+        AssertJUnit.assertEquals("Out Event count", 1, removeEventCount);
+        AssertJUnit.assertEquals("3234-3244-2432-4124", removedCardNos.get(0));
+
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void heavyHittersWindowTest3() {
+        log.info("heavyHittersWindow test3 - invalid error");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "define stream purchase (cardNo string, price float);" +
+                "@info(name = 'query1') " +
+                "from purchase#window.heavyHitters(2, 1.5, cardNo) " +
+                "select cardNo, price " +
+                "insert all events into PotentialFraud ;";
+        try {
+            siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        } finally {
+            siddhiManager.shutdown();
+        }
+    }
+
+    private class TestQueryCallback extends QueryCallback {
+        @Override
+        public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+            EventPrinter.print(timestamp, inEvents, removeEvents);
+            if (inEvents != null) {
+                inEventCount += inEvents.length;
+            }
+            if (removeEvents != null) {
+                removeEventCount += removeEvents.length;
+                for (Event removeEvent : removeEvents) {
+                    removedCardNos.add(removeEvent.getData(0));
+                }
+            }
+        }
+    }
+}
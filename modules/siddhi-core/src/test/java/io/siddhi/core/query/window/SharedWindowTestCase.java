@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.query.window;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.core.util.snapshot.ByteSerializer;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SharedWindowTestCase {
+    private static final Logger log = Logger.getLogger(SharedWindowTestCase.class);
+    private List<Object[]> query1Events;
+    private List<Object[]> query2Events;
+
+    @BeforeMethod
+    public void init() {
+        query1Events = new ArrayList<>();
+        query2Events = new ArrayList<>();
+    }
+
+    @Test
+    public void sharedLengthWindowTest1() throws InterruptedException {
+        log.info("sharedLengthWindowTest1");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "@app:shareWindows " +
+                "define stream StockStream (symbol string, price float, volume int);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.length(2) " +
+                "select sum(price) as totalPrice " +
+                "insert into OutputStream1 ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from StockStream#window.length(2) " +
+                "select symbol, max(price) as maxPrice, count() as count " +
+                "having count > 1 " +
+                "insert into OutputStream2 ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallbacks(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 100});
+        inputHandler.send(new Object[]{"WSO2", 20f, 200});
+        inputHandler.send(new Object[]{"IBM", 30f, 300});
+
+        AssertJUnit.assertEquals(3, query1Events.size());
+        AssertJUnit.assertEquals(10.0, query1Events.get(0)[0]);
+        AssertJUnit.assertEquals(30.0, query1Events.get(1)[0]);
+        AssertJUnit.assertEquals(50.0, query1Events.get(2)[0]);
+        AssertJUnit.assertEquals(2, query2Events.size());
+        AssertJUnit.assertEquals("WSO2", query2Events.get(0)[0]);
+        AssertJUnit.assertEquals(20f, query2Events.get(0)[1]);
+        AssertJUnit.assertEquals(2L, query2Events.get(0)[2]);
+        AssertJUnit.assertEquals("IBM", query2Events.get(1)[0]);
+        AssertJUnit.assertEquals(30f, query2Events.get(1)[1]);
+        AssertJUnit.assertEquals(2L, query2Events.get(1)[2]);
+        AssertJUnit.assertTrue(hasSharedWindowState(siddhiAppRuntime.snapshot()));
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void sharedTimeBatchWindowTest2() throws InterruptedException {
+        log.info("sharedTimeBatchWindowTest2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "@app:shareWindows " +
+                "define stream StockStream (symbol string, price float, volume int);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.timeBatch(1 sec) " +
+                "select sum(volume) as totalVolume " +
+                "insert into OutputStream1 ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from StockStream#window.timeBatch(1 sec)[price > 15] " +
+                "select symbol, count() as count " +
+                "group by symbol " +
+                "insert into OutputStream2 ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallbacks(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 100});
+        inputHandler.send(new Object[]{"WSO2", 20f, 200});
+        inputHandler.send(new Object[]{"WSO2", 30f, 300});
+        Thread.sleep(1500);
+
+        AssertJUnit.assertEquals(1, query1Events.size());
+        AssertJUnit.assertEquals(600L, query1Events.get(0)[0]);
+        AssertJUnit.assertEquals(1, query2Events.size());
+        AssertJUnit.assertEquals("WSO2", query2Events.get(0)[0]);
+        AssertJUnit.assertEquals(2L, query2Events.get(0)[1]);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void sharedExternalTimeWindowTest3() throws InterruptedException {
+        log.info("sharedExternalTimeWindowTest3");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "@app:shareWindows " +
+                "define stream StockStream (timestamp long, symbol string, volume int);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.externalTime(timestamp, 1 sec) " +
+                "select symbol, sum(volume) as totalVolume " +
+                "group by symbol " +
+                "insert into OutputStream1 ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from StockStream#window.externalTime(timestamp, 1 sec) " +
+                "select count() as count " +
+                "insert into OutputStream2 ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallbacks(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1000L, "IBM", 10});
+        inputHandler.send(new Object[]{1500L, "IBM", 20});
+        inputHandler.send(new Object[]{2200L, "IBM", 30});
+
+        AssertJUnit.assertEquals(3, query1Events.size());
+        AssertJUnit.assertEquals(10L, query1Events.get(0)[1]);
+        AssertJUnit.assertEquals(30L, query1Events.get(1)[1]);
+        AssertJUnit.assertEquals(50L, query1Events.get(2)[1]);
+        AssertJUnit.assertEquals(3, query2Events.size());
+        AssertJUnit.assertEquals(1L, query2Events.get(0)[0]);
+        AssertJUnit.assertEquals(2L, query2Events.get(1)[0]);
+        AssertJUnit.assertEquals(2L, query2Events.get(2)[0]);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void unsharedLengthWindowTest4() throws InterruptedException {
+        log.info("unsharedLengthWindowTest4 - windows are not shared by default");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume int);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.length(2) " +
+                "select sum(price) as totalPrice " +
+                "insert into OutputStream1 ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from StockStream#window.length(2) " +
+                "select sum(volume) as totalVolume " +
+                "insert into OutputStream2 ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        addCallbacks(siddhiAppRuntime);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 100});
+        inputHandler.send(new Object[]{"WSO2", 20f, 200});
+        inputHandler.send(new Object[]{"IBM", 30f, 300});
+
+        AssertJUnit.assertEquals(3, query1Events.size());
+        AssertJUnit.assertEquals(50.0, query1Events.get(2)[0]);
+        AssertJUnit.assertEquals(3, query2Events.size());
+        AssertJUnit.assertEquals(500L, query2Events.get(2)[0]);
+        AssertJUnit.assertFalse(hasSharedWindowState(siddhiAppRuntime.snapshot()));
+        siddhiAppRuntime.shutdown();
+    }
+
+    private boolean hasSharedWindowState(byte[] snapshot) {
+        // full snapshots are keyed by partition id, partition and group by key, and query
+        Map<?, Map<?, Map<?, ?>>> fullSnapshot =
+                (Map<?, Map<?, Map<?, ?>>>) ByteSerializer.byteToObject(snapshot, null);
+        for (Map<?, Map<?, ?>> partitionIdSnapshot : fullSnapshot.values()) {
+            for (Map<?, ?> groupByKeySnapshot : partitionIdSnapshot.values()) {
+                for (Object queryName : groupByKeySnapshot.keySet()) {
+                    if (String.valueOf(queryName).startsWith("shared_window_")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addCallbacks(SiddhiAppRuntime siddhiAppRuntime) {
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        query1Events.add(event.getData());
+                    }
+                }
+            }
+        });
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        query2Events.add(event.getData());
+                    }
+                }
+            }
+        });
+    }
+}
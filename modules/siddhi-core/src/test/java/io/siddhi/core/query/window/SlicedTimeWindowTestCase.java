@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.query.window;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.core.util.snapshot.ByteSerializer;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class SlicedTimeWindowTestCase {
+    private static final Logger log = Logger.getLogger(SlicedTimeWindowTestCase.class);
+    private List<Object[]> inEvents;
+    private int removeEventCount;
+
+    @BeforeMethod
+    public void init() {
+        inEvents = new ArrayList<>();
+        removeEventCount = 0;
+    }
+
+    @Test
+    public void slicedExternalTimeWindowTest1() throws InterruptedException {
+        log.info("slicedExternalTimeWindowTest1");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (timestamp long, symbol string, price double, volume int);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='1 sec') " +
+                "from StockStream#window.externalTime(timestamp, 10 sec) " +
+                "select symbol, sum(volume) as totalVolume, count() as count, avg(price) as avgPrice " +
+                "group by symbol " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        SlicedTimeWindowTestCase.this.inEvents.add(event.getData());
+                    }
+                }
+                if (removeEvents != null) {
+                    removeEventCount += removeEvents.length;
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1000L, "IBM", 10.0, 10});
+        inputHandler.send(new Object[]{1500L, "IBM", 20.0, 20});
+        inputHandler.send(new Object[]{1600L, "WSO2", 5.0, 5});
+        inputHandler.send(new Object[]{5000L, "IBM", 30.0, 30});
+        inputHandler.send(new Object[]{11500L, "IBM", 40.0, 40});
+        inputHandler.send(new Object[]{12000L, "IBM", 50.0, 50});
+        inputHandler.send(new Object[]{12500L, "WSO2", 15.0, 15});
+
+        AssertJUnit.assertEquals(7, inEvents.size());
+        AssertJUnit.assertEquals(0, removeEventCount);
+        assertEvent(inEvents.get(0), "IBM", 10L, 1L, 10.0);
+        assertEvent(inEvents.get(1), "IBM", 30L, 2L, 15.0);
+        assertEvent(inEvents.get(2), "WSO2", 5L, 1L, 5.0);
+        assertEvent(inEvents.get(3), "IBM", 60L, 3L, 20.0);
+        // the slice [1000, 2000) is retained until all of its events have expired
+        assertEvent(inEvents.get(4), "IBM", 100L, 4L, 25.0);
+        assertEvent(inEvents.get(5), "IBM", 120L, 3L, 40.0);
+        assertEvent(inEvents.get(6), "WSO2", 15L, 1L, 15.0);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void slicedTimeWindowTest2() throws InterruptedException {
+        log.info("slicedTimeWindowTest2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='100 millisec') " +
+                "from StockStream[volume > 0]#window.time(1 sec) " +
+                "select sum(price) as totalPrice, count() as count " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timestamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timestamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        SlicedTimeWindowTestCase.this.inEvents.add(event.getData());
+                    }
+                }
+                if (removeEvents != null) {
+                    removeEventCount += removeEvents.length;
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 100L});
+        inputHandler.send(new Object[]{"WSO2", 20f, 0L});
+        inputHandler.send(new Object[]{"WSO2", 30f, 200L});
+        Thread.sleep(1500);
+        inputHandler.send(new Object[]{"IBM", 40f, 300L});
+        Thread.sleep(500);
+
+        AssertJUnit.assertEquals(3, inEvents.size());
+        AssertJUnit.assertEquals(0, removeEventCount);
+        AssertJUnit.assertEquals(10.0, inEvents.get(0)[0]);
+        AssertJUnit.assertEquals(1L, inEvents.get(0)[1]);
+        AssertJUnit.assertEquals(40.0, inEvents.get(1)[0]);
+        AssertJUnit.assertEquals(2L, inEvents.get(1)[1]);
+        AssertJUnit.assertEquals(40.0, inEvents.get(2)[0]);
+        AssertJUnit.assertEquals(1L, inEvents.get(2)[1]);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void slicedTimeWindowTest3() {
+        log.info("slicedTimeWindowTest3 - non decomposable aggregator");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='1 sec') " +
+                "from StockStream#window.time(1 min) " +
+                "select sum(price) as totalPrice, max(volume) as maxVolume " +
+                "insert into OutputStream ;";
+        siddhiManager.createSiddhiAppRuntime(streams + query);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void slicedTimeWindowTest4() {
+        log.info("slicedTimeWindowTest4 - expired events are not retained when slicing");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='1 sec') " +
+                "from StockStream#window.time(1 min) " +
+                "select sum(price) as totalPrice " +
+                "insert all events into OutputStream ;";
+        siddhiManager.createSiddhiAppRuntime(streams + query);
+    }
+
+    @Test
+    public void slicedTimeWindowTest5() throws InterruptedException {
+        log.info("slicedTimeWindowTest5 - states of idle groups are released");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='100 millisec') " +
+                "from StockStream#window.time(1 sec) " +
+                "select symbol, sum(price) as totalPrice, count() as count " +
+                "group by symbol " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 100L});
+        Thread.sleep(600);
+        inputHandler.send(new Object[]{"WSO2", 20f, 200L});
+        AssertJUnit.assertEquals(2, countSlicedStates(siddhiAppRuntime.snapshot(), "IBM"));
+        AssertJUnit.assertEquals(2, countSlicedStates(siddhiAppRuntime.snapshot(), "WSO2"));
+        Thread.sleep(700);
+        AssertJUnit.assertEquals(0, countSlicedStates(siddhiAppRuntime.snapshot(), "IBM"));
+        AssertJUnit.assertEquals(2, countSlicedStates(siddhiAppRuntime.snapshot(), "WSO2"));
+        Thread.sleep(700);
+        AssertJUnit.assertEquals(0, countSlicedStates(siddhiAppRuntime.snapshot(), "WSO2"));
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void slicedExternalTimeWindowTest6() throws InterruptedException {
+        log.info("slicedExternalTimeWindowTest6 - states of idle groups are released");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream StockStream (timestamp long, symbol string, price double, volume int);";
+        String query = "" +
+                "@info(name = 'query1') @slicing(size='1 sec') " +
+                "from StockStream#window.externalTime(timestamp, 10 sec) " +
+                "select symbol, sum(volume) as totalVolume, count() as count, avg(price) as avgPrice " +
+                "group by symbol " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1000L, "IBM", 10.0, 10});
+        inputHandler.send(new Object[]{1600L, "WSO2", 5.0, 5});
+        inputHandler.send(new Object[]{9000L, "WSO2", 15.0, 15});
+        AssertJUnit.assertEquals(3, countSlicedStates(siddhiAppRuntime.snapshot(), "IBM"));
+        inputHandler.send(new Object[]{12500L, "WSO2", 25.0, 25});
+        AssertJUnit.assertEquals(0, countSlicedStates(siddhiAppRuntime.snapshot(), "IBM"));
+        AssertJUnit.assertEquals(3, countSlicedStates(siddhiAppRuntime.snapshot(), "WSO2"));
+        siddhiAppRuntime.shutdown();
+    }
+
+    private int countSlicedStates(byte[] snapshot, String groupByKey) {
+        // full snapshots are keyed by partition id, partition and group by key, query and element id
+        Map<?, Map<?, Map<?, Map<?, Map<?, ?>>>>> fullSnapshot =
+                (Map<?, Map<?, Map<?, Map<?, Map<?, ?>>>>>) ByteSerializer.byteToObject(snapshot, null);
+        int count = 0;
+        for (Map<?, Map<?, Map<?, Map<?, ?>>>> partitionIdSnapshot : fullSnapshot.values()) {
+            for (Map.Entry<?, Map<?, Map<?, Map<?, ?>>>> groupByKeySnapshot : partitionIdSnapshot.entrySet()) {
+                if (String.valueOf(groupByKeySnapshot.getKey()).endsWith("--" + groupByKey)) {
+                    for (Map<?, Map<?, ?>> querySnapshot : groupByKeySnapshot.getValue().values()) {
+                        for (Map<?, ?> elementSnapshot : querySnapshot.values()) {
+                            if (elementSnapshot.containsKey("SliceStarts")) {
+                                count++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void assertEvent(Object[] data, String symbol, long totalVolume, long count, double avgPrice) {
+        AssertJUnit.assertEquals(symbol, data[0]);
+        AssertJUnit.assertEquals(totalVolume, data[1]);
+        AssertJUnit.assertEquals(count, data[2]);
+        AssertJUnit.assertEquals(avgPrice, data[3]);
+    }
+}
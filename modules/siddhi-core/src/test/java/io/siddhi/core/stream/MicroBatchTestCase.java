@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.core.stream;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MicroBatchTestCase {
+    private static final Logger log = Logger.getLogger(MicroBatchTestCase.class);
+    private List<Integer> batchSizes;
+    private List<Object> volumes;
+    private AtomicInteger count;
+
+    @BeforeMethod
+    public void init() {
+        batchSizes = Collections.synchronizedList(new ArrayList<>());
+        volumes = Collections.synchronizedList(new ArrayList<>());
+        count = new AtomicInteger(0);
+    }
+
+    @Test
+    public void microBatchTest1() throws InterruptedException {
+        log.info("microBatchTest1 - batches sent on reaching the size");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@MicroBatch(size='5', max.latency='1 min') " +
+                "define stream StockStream (symbol string, price float, volume long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        addCallback(siddhiAppRuntime, "StockStream");
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        for (long i = 0; i < 12; i++) {
+            inputHandler.send(new Object[]{"IBM", 10f, i});
+        }
+
+        AssertJUnit.assertEquals(10, count.get());
+        AssertJUnit.assertEquals(2, batchSizes.size());
+        AssertJUnit.assertEquals(5, (int) batchSizes.get(0));
+        AssertJUnit.assertEquals(5, (int) batchSizes.get(1));
+        siddhiAppRuntime.shutdown();
+        // events held by the input handler are sent on shutdown
+        AssertJUnit.assertEquals(12, count.get());
+        assertInOrder(12);
+    }
+
+    @Test
+    public void microBatchTest2() throws InterruptedException {
+        log.info("microBatchTest2 - batches sent on reaching the latency bound");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@MicroBatch(size='100', max.latency='100 millisec') " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream[price > 10] " +
+                "select symbol, volume " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        addCallback(siddhiAppRuntime, "OutputStream");
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 20f, 0L});
+        inputHandler.send(new Object[]{"WSO2", 5f, 1L});
+        inputHandler.send(new Object[]{"IBM", 30f, 2L});
+        AssertJUnit.assertEquals(0, count.get());
+
+        SiddhiTestHelper.waitForEvents(10, 2, count, 2000);
+        AssertJUnit.assertEquals(2, count.get());
+        AssertJUnit.assertEquals(1, batchSizes.size());
+        AssertJUnit.assertEquals(0L, volumes.get(0));
+        AssertJUnit.assertEquals(2L, volumes.get(1));
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void microBatchTest3() throws InterruptedException {
+        log.info("microBatchTest3 - micro batches published to an async junction");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@MicroBatch(size='64', max.latency='50 millisec') " +
+                "@async(buffer.size='16') " +
+                "define stream StockStream (symbol string, price float, volume long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        addCallback(siddhiAppRuntime, "StockStream");
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        for (long i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{"IBM", 10f, i});
+        }
+        Event[] events = new Event[50];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(System.currentTimeMillis(), new Object[]{"WSO2", 20f, 100L + i});
+        }
+        inputHandler.send(events);
+
+        SiddhiTestHelper.waitForEvents(10, 150, count, 5000);
+        AssertJUnit.assertEquals(150, count.get());
+        assertInOrder(150);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void microBatchTest4() {
+        log.info("microBatchTest4 - invalid micro batch size");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@MicroBatch(size='0') " +
+                "define stream StockStream (symbol string, price float, volume long);";
+        siddhiManager.createSiddhiAppRuntime(siddhiApp);
+    }
+
+    @Test
+    public void microBatchTest5() throws InterruptedException {
+        log.info("microBatchTest5 - reused data arrays and events held on snapshot");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@MicroBatch(size='100', max.latency='1 min') " +
+                "define stream StockStream (symbol string, price float, volume long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        addCallback(siddhiAppRuntime, "StockStream");
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        Object[] data = new Object[3];
+        for (long i = 0; i < 5; i++) {
+            data[0] = "IBM";
+            data[1] = 10f;
+            data[2] = i;
+            inputHandler.send(data);
+        }
+        AssertJUnit.assertEquals(0, count.get());
+
+        siddhiAppRuntime.snapshot();
+        AssertJUnit.assertEquals(5, count.get());
+        assertInOrder(5);
+        siddhiAppRuntime.shutdown();
+    }
+
+    private void addCallback(SiddhiAppRuntime siddhiAppRuntime, String streamId) {
+        siddhiAppRuntime.addCallback(streamId, new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                batchSizes.add(events.length);
+                for (Event event : events) {
+                    volumes.add(event.getData(event.getData().length - 1));
+                }
+                count.addAndGet(events.length);
+            }
+        });
+    }
+
+    private void assertInOrder(int expectedCount) {
+        AssertJUnit.assertEquals(expectedCount, volumes.size());
+        for (int i = 0; i < expectedCount; i++) {
+            AssertJUnit.assertEquals((long) i, volumes.get(i));
+        }
+    }
+}
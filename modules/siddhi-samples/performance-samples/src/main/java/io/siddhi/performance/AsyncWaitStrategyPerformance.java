@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.performance;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the p99 latency and the CPU time of the async stream junction wait strategies, for a single producer
+ * sending events at a fixed rate.
+ */
+public class AsyncWaitStrategyPerformance {
+    private static final int EVENT_COUNT = 200000;
+    private static final int EVENTS_PER_MILLISECOND = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] waitStrategies = new String[]{"busy-spin", "yield", "sleep", "block"};
+        for (String waitStrategy : waitStrategies) {
+            run(waitStrategy);
+        }
+    }
+
+    private static void run(String waitStrategy) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String siddhiApp = "" +
+                "@async(buffer.size='1024', wait.strategy='" + waitStrategy + "', producer='single') " +
+                "define stream cseEventStream (symbol string, price float, sentTime long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream[700 > price] " +
+                "select * " +
+                "insert into outputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        long[] latencies = new long[EVENT_COUNT];
+        CountDownLatch latch = new CountDownLatch(EVENT_COUNT);
+        siddhiAppRuntime.addCallback("outputStream", new StreamCallback() {
+            private int index = 0;
+
+            @Override
+            public void receive(Event[] events) {
+                long now = System.nanoTime();
+                for (Event event : events) {
+                    latencies[index++] = now - (Long) event.getData(2);
+                    latch.countDown();
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("cseEventStream");
+        siddhiAppRuntime.start();
+
+        long cpuTimeBefore = getCpuTime();
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            if (i % EVENTS_PER_MILLISECOND == 0) {
+                long due = start + (i / EVENTS_PER_MILLISECOND) * 1000000L;
+                while (System.nanoTime() < due) {
+                    Thread.sleep(0, 100000);
+                }
+            }
+            inputHandler.send(new Object[]{"WSO2", 55.6f, System.nanoTime()});
+        }
+        latch.await();
+        long cpuTime = getCpuTime() - cpuTimeBefore;
+        long elapsedTime = System.nanoTime() - start;
+        siddhiAppRuntime.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.println("Wait strategy : " + waitStrategy);
+        System.out.println("p50 latency (us) : " + latencies[EVENT_COUNT / 2] / 1000.0);
+        System.out.println("p99 latency (us) : " + latencies[(int) (EVENT_COUNT * 0.99)] / 1000.0);
+        System.out.println("CPU utilization : " + (cpuTime * 100.0 / elapsedTime) + "%");
+    }
+
+    private static long getCpuTime() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long cpuTime = 0;
+        for (long threadId : threadMXBean.getAllThreadIds()) {
+            long threadCpuTime = threadMXBean.getThreadCpuTime(threadId);
+            if (threadCpuTime > 0) {
+                cpuTime += threadCpuTime;
+            }
+        }
+        return cpuTime;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.performance;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.stream.output.StreamCallback;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the throughput and the bytes allocated per event of a filter query with and without event pooling.
+ * Events are processed on the publishing thread, hence its allocations cover the processing of the query.
+ */
+public class EventPoolingPerformance {
+    private static final int EVENT_COUNT = 10000000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int i = 0; i < ROUNDS; i++) {
+            run("unpooled", "");
+            run("pooled", "@app:eventPooling(size='1024') ");
+        }
+    }
+
+    private static void run(String name, String annotation) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String siddhiApp = annotation +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "@info(name = 'query1') " +
+                "from StockStream[price > 50f and volume > 100] " +
+                "select symbol, price " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp);
+        final long[] outputCount = new long[1];
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                outputCount[0] += events.length;
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        Object[][] data = new Object[][]{
+                {"IBM", 75.6f, 150L},
+                {"WSO2", 45.6f, 250L},
+                {"ORACLE", 95.6f, 50L},
+                {"GOOG", 55.6f, 350L}
+        };
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            inputHandler.send(data[i & 3]);
+        }
+        long timeSpent = System.nanoTime() - startTime;
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+
+        System.out.println(name + " - Throughput : " + (EVENT_COUNT * 1000000000L / timeSpent) +
+                " events/sec, Allocated : " + (allocatedBytes / EVENT_COUNT) + " bytes/event, Output : " +
+                outputCount[0]);
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+}